@@ -1,5 +1,7 @@
 package com.buyone.gatewayservice.config;
 
+import com.buyone.gatewayservice.security.CachingReactiveJwtDecoder;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -7,6 +9,8 @@ import org.springframework.security.oauth2.jwt.NimbusReactiveJwtDecoder;
 import org.springframework.security.oauth2.jwt.ReactiveJwtDecoder;
 
 import javax.crypto.spec.SecretKeySpec;
+import java.time.Clock;
+import java.time.Duration;
 
 @Configuration
 public class JwtDecoderConfig {
@@ -14,10 +18,24 @@ public class JwtDecoderConfig {
     @Value("${spring.security.oauth2.resourceserver.jwt.secret}")
     private String jwtSecret;
     
+    @Value("${app.jwt.cache.enabled:true}")
+    private boolean cacheEnabled;
+    
+    @Value("${app.jwt.cache.max-entries:10000}")
+    private int cacheMaxEntries;
+    
+    @Value("${app.jwt.cache.max-ttl:5m}")
+    private Duration cacheMaxTtl;
+    
     @Bean
-    public ReactiveJwtDecoder jwtDecoder() {
-        return NimbusReactiveJwtDecoder.withSecretKey(
+    public ReactiveJwtDecoder jwtDecoder(MeterRegistry meterRegistry) {
+        ReactiveJwtDecoder decoder = NimbusReactiveJwtDecoder.withSecretKey(
                 new SecretKeySpec(jwtSecret.getBytes(), "HmacSHA256")
         ).build();
+        if (!cacheEnabled) {
+            return decoder;
+        }
+        // Verified tokens are reused until exp (max-ttl caps tokens without one)
+        return new CachingReactiveJwtDecoder(decoder, cacheMaxEntries, cacheMaxTtl, Clock.systemUTC(), meterRegistry);
     }
 }
@@ -0,0 +1,13 @@
+package com.buyone.gatewayservice.config;
+
+import com.buyone.gatewayservice.loadbalancer.UserAffinityLoadBalancerConfiguration;
+import org.springframework.cloud.loadbalancer.annotation.LoadBalancerClient;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * ORDER-SERVICE is user-sticky (cart write-behind tier); other services keep round robin.
+ */
+@Configuration
+@LoadBalancerClient(name = "ORDER-SERVICE", configuration = UserAffinityLoadBalancerConfiguration.class)
+public class LoadBalancerConfig {
+}
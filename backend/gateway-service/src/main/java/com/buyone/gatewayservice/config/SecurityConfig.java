@@ -32,6 +32,7 @@ public class SecurityConfig {
                         .pathMatchers(HttpMethod.GET, "/categories/**").permitAll()
                         .pathMatchers(HttpMethod.GET, "/media/images/**").permitAll()
                         .pathMatchers(HttpMethod.GET, "/api/users/**").permitAll()
+                        .pathMatchers(HttpMethod.GET, "/api/analytics/trending").permitAll()
                         
                         .pathMatchers("/products/stock/**").authenticated()
                         .pathMatchers("/api/cart/**").authenticated()
@@ -0,0 +1,89 @@
+package com.buyone.gatewayservice.loadbalancer;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.client.loadbalancer.EmptyResponse;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.RequestDataContext;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.loadbalancer.core.NoopServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.core.ReactorServiceInstanceLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.RoundRobinLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Routes every request of a user (X-USER-ID, set by the JwtHeader filter) to the same instance,
+ * so order-service can keep a user's cart in memory (write-behind cart tier).
+ * Uses rendezvous hashing: when an instance joins or leaves, only the users mapped to it move.
+ * Requests without a user id fall back to round robin.
+ */
+public class UserAffinityLoadBalancer implements ReactorServiceInstanceLoadBalancer {
+    
+    static final String USER_HEADER = "X-USER-ID";
+    
+    private final ObjectProvider<ServiceInstanceListSupplier> supplierProvider;
+    private final RoundRobinLoadBalancer fallback;
+    
+    public UserAffinityLoadBalancer(ObjectProvider<ServiceInstanceListSupplier> supplierProvider, String serviceId) {
+        this.supplierProvider = supplierProvider;
+        this.fallback = new RoundRobinLoadBalancer(supplierProvider, serviceId);
+    }
+    
+    @Override
+    @SuppressWarnings("rawtypes")
+    public Mono<Response<ServiceInstance>> choose(Request request) {
+        String userId = userId(request);
+        if (userId == null) {
+            return fallback.choose(request);
+        }
+        ServiceInstanceListSupplier supplier = supplierProvider.getIfAvailable(NoopServiceInstanceListSupplier::new);
+        return supplier.get(request).next().map(instances -> {
+            ServiceInstance instance = select(instances, userId);
+            return instance == null ? new EmptyResponse() : new DefaultResponse(instance);
+        });
+    }
+    
+    /**
+     * Highest-random-weight pick: score(user, instance) is a well-mixed hash, highest score wins.
+     */
+    static ServiceInstance select(List<ServiceInstance> instances, String userId) {
+        ServiceInstance best = null;
+        long bestScore = Long.MIN_VALUE;
+        for (ServiceInstance instance : instances) {
+            long score = mix(((long) userId.hashCode() << 32) ^ (instanceKey(instance).hashCode() & 0xffffffffL));
+            if (best == null || score > bestScore) {
+                best = instance;
+                bestScore = score;
+            }
+        }
+        return best;
+    }
+    
+    private static String userId(Request<?> request) {
+        if (request.getContext() instanceof RequestDataContext context && context.getClientRequest() != null) {
+            String userId = context.getClientRequest().getHeaders().getFirst(USER_HEADER);
+            return userId == null || userId.isBlank() ? null : userId;
+        }
+        return null;
+    }
+    
+    private static String instanceKey(ServiceInstance instance) {
+        return instance.getInstanceId() != null
+                ? instance.getInstanceId()
+                : instance.getHost() + ":" + instance.getPort();
+    }
+    
+    // MurmurHash3 fmix64 finalizer
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
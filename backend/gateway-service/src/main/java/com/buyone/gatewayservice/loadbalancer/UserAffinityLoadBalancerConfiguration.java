@@ -0,0 +1,23 @@
+package com.buyone.gatewayservice.loadbalancer;
+
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.loadbalancer.core.ReactorLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.env.Environment;
+
+/**
+ * Per-client load balancer configuration (referenced from @LoadBalancerClient).
+ * Deliberately not a @Configuration so component scanning doesn't apply it to every service.
+ */
+public class UserAffinityLoadBalancerConfiguration {
+    
+    @Bean
+    public ReactorLoadBalancer<ServiceInstance> userAffinityLoadBalancer(Environment environment,
+                                                                         LoadBalancerClientFactory factory) {
+        String serviceId = environment.getProperty(LoadBalancerClientFactory.PROPERTY_NAME);
+        return new UserAffinityLoadBalancer(
+                factory.getLazyProvider(serviceId, ServiceInstanceListSupplier.class), serviceId);
+    }
+}
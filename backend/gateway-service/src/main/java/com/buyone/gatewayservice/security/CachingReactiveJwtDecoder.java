@@ -0,0 +1,110 @@
+package com.buyone.gatewayservice.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.ReactiveJwtDecoder;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Remembers tokens the delegate already verified, so a client resending the same bearer token
+ * skips the HMAC check and claim parsing. Entries are keyed by the token's SHA-256 (raw tokens
+ * are not kept on the heap) and live until the token's exp, capped at maxTtl. Failed decodes
+ * are never cached. When full, caching a new token evicts the oldest one (insertion order, which
+ * is close to expiry order since every entry lives at most maxTtl): O(1) per miss, and the cache
+ * always holds the most recently verified tokens. The map is guarded by its own lock; every
+ * critical section is a single hash lookup or insert, so it is safe on the event loop.
+ */
+public class CachingReactiveJwtDecoder implements ReactiveJwtDecoder {
+    
+    private final ReactiveJwtDecoder delegate;
+    private final Duration maxTtl;
+    private final Clock clock;
+    private final Map<String, Entry> entries;
+    private final Counter hits;
+    private final Counter misses;
+    
+    public CachingReactiveJwtDecoder(ReactiveJwtDecoder delegate, int maxEntries, Duration maxTtl,
+                                     Clock clock, MeterRegistry registry) {
+        this.delegate = delegate;
+        this.maxTtl = maxTtl;
+        this.clock = clock;
+        this.entries = new LinkedHashMap<>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+        this.hits = Counter.builder("gateway.jwt.cache").tag("result", "hit")
+                .description("Bearer tokens answered from the verified-token cache").register(registry);
+        this.misses = Counter.builder("gateway.jwt.cache").tag("result", "miss")
+                .description("Bearer tokens verified by the delegate decoder").register(registry);
+        registry.gauge("gateway.jwt.cache.size", this, CachingReactiveJwtDecoder::size);
+    }
+    
+    @Override
+    public Mono<Jwt> decode(String token) {
+        String key = key(token);
+        Entry cached = lookup(key);
+        if (cached != null) {
+            hits.increment();
+            return Mono.just(cached.jwt);
+        }
+        misses.increment();
+        return delegate.decode(token).doOnNext(jwt -> put(key, jwt));
+    }
+    
+    int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+    
+    private Entry lookup(String key) {
+        Instant now = clock.instant();
+        synchronized (entries) {
+            Entry cached = entries.get(key);
+            if (cached != null && !now.isBefore(cached.expiresAt)) {
+                entries.remove(key);
+                return null;
+            }
+            return cached;
+        }
+    }
+    
+    private void put(String key, Jwt jwt) {
+        Instant now = clock.instant();
+        Instant expiresAt = now.plus(maxTtl);
+        if (jwt.getExpiresAt() != null && jwt.getExpiresAt().isBefore(expiresAt)) {
+            expiresAt = jwt.getExpiresAt();
+        }
+        if (!now.isBefore(expiresAt)) {
+            return;  // accepted within the delegate's clock skew: let it re-check next time
+        }
+        synchronized (entries) {
+            entries.put(key, new Entry(jwt, expiresAt));  // evicts the eldest when over maxEntries
+        }
+    }
+    
+    static String key(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().withoutPadding().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);  // required of every JVM
+        }
+    }
+    
+    private record Entry(Jwt jwt, Instant expiresAt) {
+    }
+}
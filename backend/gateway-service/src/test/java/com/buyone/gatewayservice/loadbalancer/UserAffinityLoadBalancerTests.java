@@ -0,0 +1,129 @@
+package com.buyone.gatewayservice.loadbalancer;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.DefaultRequest;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.RequestData;
+import org.springframework.cloud.client.loadbalancer.RequestDataContext;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import reactor.core.publisher.Flux;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UserAffinityLoadBalancerTests {
+    
+    private static final List<ServiceInstance> INSTANCES = List.of(
+            instance("order-1"), instance("order-2"), instance("order-3"));
+    
+    @Test
+    void select_isStableForSameUser() {
+        ServiceInstance first = UserAffinityLoadBalancer.select(INSTANCES, "user-42");
+        
+        for (int i = 0; i < 10; i++) {
+            assertEquals(first, UserAffinityLoadBalancer.select(INSTANCES, "user-42"));
+        }
+        assertEquals(first, UserAffinityLoadBalancer.select(reversed(INSTANCES), "user-42"));
+    }
+    
+    @Test
+    void select_spreadsUsersAcrossInstances() {
+        Map<String, Integer> counts = new HashMap<>();
+        IntStream.range(0, 3000).forEach(i ->
+                counts.merge(UserAffinityLoadBalancer.select(INSTANCES, "user-" + i).getInstanceId(), 1, Integer::sum));
+        
+        assertEquals(3, counts.size());
+        counts.values().forEach(count -> assertTrue(count > 700, "unbalanced: " + counts));
+    }
+    
+    @Test
+    void select_onlyMovesUsersOfRemovedInstance() {
+        List<ServiceInstance> remaining = INSTANCES.subList(0, 2);
+        
+        for (int i = 0; i < 1000; i++) {
+            String userId = "user-" + i;
+            ServiceInstance before = UserAffinityLoadBalancer.select(INSTANCES, userId);
+            if (!before.getInstanceId().equals("order-3")) {
+                assertEquals(before, UserAffinityLoadBalancer.select(remaining, userId));
+            }
+        }
+    }
+    
+    @Test
+    void select_returnsNull_whenNoInstances() {
+        assertNull(UserAffinityLoadBalancer.select(List.of(), "user-1"));
+    }
+    
+    @Test
+    void choose_routesByUserHeader() {
+        UserAffinityLoadBalancer loadBalancer = loadBalancer();
+        
+        Response<ServiceInstance> response = loadBalancer.choose(request("user-42")).block();
+        
+        assertEquals(UserAffinityLoadBalancer.select(INSTANCES, "user-42"), response.getServer());
+    }
+    
+    @Test
+    void choose_fallsBackToRoundRobin_withoutUserHeader() {
+        UserAffinityLoadBalancer loadBalancer = loadBalancer();
+        
+        ServiceInstance first = loadBalancer.choose(request(null)).block().getServer();
+        ServiceInstance second = loadBalancer.choose(request(null)).block().getServer();
+        
+        assertNotEquals(first, second);
+    }
+    
+    private static UserAffinityLoadBalancer loadBalancer() {
+        ServiceInstanceListSupplier supplier = new ServiceInstanceListSupplier() {
+            @Override
+            public String getServiceId() {
+                return "ORDER-SERVICE";
+            }
+            
+            @Override
+            public Flux<List<ServiceInstance>> get() {
+                return Flux.just(INSTANCES);
+            }
+        };
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory();
+        beanFactory.addBean("supplier", supplier);
+        return new UserAffinityLoadBalancer(beanFactory.getBeanProvider(ServiceInstanceListSupplier.class),
+                "ORDER-SERVICE");
+    }
+    
+    private static Request<RequestDataContext> request(String userId) {
+        HttpHeaders headers = new HttpHeaders();
+        if (userId != null) {
+            headers.add(UserAffinityLoadBalancer.USER_HEADER, userId);
+        }
+        RequestData data = new RequestData(HttpMethod.GET, URI.create("http://ORDER-SERVICE/api/cart"),
+                headers, new HttpHeaders(), Map.of());
+        return new DefaultRequest<>(new RequestDataContext(data));
+    }
+    
+    private static ServiceInstance instance(String id) {
+        return new DefaultServiceInstance(id, "ORDER-SERVICE", id + ".local", 8083, false);
+    }
+    
+    private static List<ServiceInstance> reversed(List<ServiceInstance> instances) {
+        List<ServiceInstance> copy = new ArrayList<>(instances);
+        Collections.reverse(copy);
+        return copy;
+    }
+}
@@ -0,0 +1,156 @@
+package com.buyone.gatewayservice.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.ReactiveJwtDecoder;
+import reactor.core.publisher.Mono;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class CachingReactiveJwtDecoderTests {
+    
+    private static final Instant NOW = Instant.parse("2026-01-01T12:00:00Z");
+    
+    private final Map<String, Instant> expiry = new HashMap<>();
+    private final AtomicInteger verified = new AtomicInteger();
+    private final ReactiveJwtDecoder delegate = token -> {
+        verified.incrementAndGet();
+        if (token.startsWith("bad")) {
+            return Mono.error(new BadJwtException("invalid signature"));
+        }
+        return Mono.just(jwt(token, expiry.get(token)));
+    };
+    
+    private Clock clock;
+    private SimpleMeterRegistry registry;
+    private CachingReactiveJwtDecoder decoder;
+    
+    @BeforeEach
+    void setUp() {
+        clock = mock(Clock.class);
+        when(clock.instant()).thenReturn(NOW);
+        registry = new SimpleMeterRegistry();
+        decoder = new CachingReactiveJwtDecoder(delegate, 2, Duration.ofMinutes(5), clock, registry);
+    }
+    
+    @Test
+    void decode_sameToken_verifiesOnce() {
+        expiry.put("token-a", NOW.plusSeconds(60));
+        
+        Jwt first = decoder.decode("token-a").block();
+        Jwt second = decoder.decode("token-a").block();
+        
+        assertSame(first, second);
+        assertEquals(1, verified.get());
+        assertEquals(1.0, registry.get("gateway.jwt.cache").tag("result", "hit").counter().count());
+        assertEquals(1.0, registry.get("gateway.jwt.cache").tag("result", "miss").counter().count());
+        assertEquals(1.0, registry.get("gateway.jwt.cache.size").gauge().value());
+    }
+    
+    @Test
+    void decode_afterExp_verifiesAgain() {
+        expiry.put("token-a", NOW.plusSeconds(60));
+        decoder.decode("token-a").block();
+        
+        when(clock.instant()).thenReturn(NOW.plusSeconds(60));
+        decoder.decode("token-a").block();
+        
+        assertEquals(2, verified.get());
+    }
+    
+    @Test
+    void decode_withoutExp_isCappedByMaxTtl() {
+        decoder.decode("token-a").block();
+        
+        when(clock.instant()).thenReturn(NOW.plus(Duration.ofMinutes(4)));
+        decoder.decode("token-a").block();
+        assertEquals(1, verified.get());
+        
+        when(clock.instant()).thenReturn(NOW.plus(Duration.ofMinutes(5)));
+        decoder.decode("token-a").block();
+        assertEquals(2, verified.get());
+    }
+    
+    @Test
+    void decode_alreadyExpiredWithinSkew_isNotCached() {
+        expiry.put("token-a", NOW.minusSeconds(10));
+        
+        decoder.decode("token-a").block();
+        
+        assertEquals(0, decoder.size());
+    }
+    
+    @Test
+    void decode_failure_isNeverCached() {
+        assertThrows(BadJwtException.class, () -> decoder.decode("bad-token").block());
+        assertThrows(BadJwtException.class, () -> decoder.decode("bad-token").block());
+        
+        assertEquals(2, verified.get());
+        assertEquals(0, decoder.size());
+    }
+    
+    @Test
+    void decode_whenFull_evictsTheOldestAndCachesTheNewToken() {
+        expiry.put("token-a", NOW.plusSeconds(600));
+        expiry.put("token-b", NOW.plusSeconds(600));
+        expiry.put("token-c", NOW.plusSeconds(600));
+        decoder.decode("token-a").block();
+        decoder.decode("token-b").block();
+        
+        decoder.decode("token-c").block();  // full of live entries: token-a makes room
+        decoder.decode("token-c").block();
+        decoder.decode("token-b").block();
+        decoder.decode("token-a").block();
+        
+        assertEquals(2, decoder.size());
+        assertEquals(4, verified.get());
+    }
+    
+    @Test
+    void decode_fillingTheCacheToCapacity_keepsTheNewestTokens() {
+        int capacity = 1_000;
+        decoder = new CachingReactiveJwtDecoder(delegate, capacity, Duration.ofMinutes(5), clock, registry);
+        for (int i = 0; i < 3 * capacity; i++) {
+            decoder.decode("token-" + i).block();
+        }
+        assertEquals(capacity, decoder.size());
+        assertEquals(3 * capacity, verified.get());
+        
+        for (int i = 2 * capacity; i < 3 * capacity; i++) {
+            decoder.decode("token-" + i).block();
+        }
+        assertEquals(3 * capacity, verified.get());
+        
+        decoder.decode("token-0").block();
+        assertEquals(3 * capacity + 1, verified.get());
+        assertEquals(capacity, decoder.size());
+    }
+    
+    @Test
+    void key_isFixedSizeDigestOfToken() {
+        assertEquals(CachingReactiveJwtDecoder.key("token-a"), CachingReactiveJwtDecoder.key("token-a"));
+        assertNotEquals(CachingReactiveJwtDecoder.key("token-a"), CachingReactiveJwtDecoder.key("token-b"));
+        assertEquals(43, CachingReactiveJwtDecoder.key("x".repeat(2000)).length());
+    }
+    
+    private static Jwt jwt(String token, Instant expiresAt) {
+        Jwt.Builder builder = Jwt.withTokenValue(token).header("alg", "HS256").claim("id", "user-1")
+                .issuedAt(NOW.minusSeconds(3600));
+        return expiresAt != null ? builder.expiresAt(expiresAt).build() : builder.build();
+    }
+}
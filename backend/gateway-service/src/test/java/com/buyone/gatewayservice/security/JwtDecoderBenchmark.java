@@ -0,0 +1,102 @@
+package com.buyone.gatewayservice.security;
+
+import com.nimbusds.jose.jwk.source.ImmutableSecret;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.security.oauth2.jose.jws.MacAlgorithm;
+import org.springframework.security.oauth2.jwt.JwsHeader;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtClaimsSet;
+import org.springframework.security.oauth2.jwt.JwtEncoderParameters;
+import org.springframework.security.oauth2.jwt.NimbusJwtEncoder;
+import org.springframework.security.oauth2.jwt.NimbusReactiveJwtDecoder;
+import org.springframework.security.oauth2.jwt.ReactiveJwtDecoder;
+
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decode throughput of the plain Nimbus HS256 decoder vs. the same decoder behind the cache.
+ * {@code tokens} is the number of distinct live tokens the requests rotate through.
+ * Not picked up by surefire; run after {@code mvn test-compile} with
+ * {@code java -cp target/test-classes:target/classes:<test classpath> com.buyone.gatewayservice.security.JwtDecoderBenchmark}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(4)
+@Fork(1)
+public class JwtDecoderBenchmark {
+    
+    private static final byte[] SECRET = "benchmark-secret-0123456789abcdef".getBytes(StandardCharsets.UTF_8);
+    
+    @Param({"1", "1000"})
+    private int tokens;
+    
+    private String[] issued;
+    private ReactiveJwtDecoder nimbus;
+    private ReactiveJwtDecoder cached;
+    
+    @Setup
+    public void setUp() {
+        SecretKeySpec key = new SecretKeySpec(SECRET, "HmacSHA256");
+        NimbusJwtEncoder encoder = new NimbusJwtEncoder(new ImmutableSecret<>(key));
+        Instant now = Instant.now();
+        issued = new String[tokens];
+        for (int i = 0; i < tokens; i++) {
+            JwtClaimsSet claims = JwtClaimsSet.builder()
+                    .subject("user-" + i + "@example.com")
+                    .claim("id", "user-" + i)
+                    .claim("role", "CLIENT")
+                    .issuedAt(now)
+                    .expiresAt(now.plus(Duration.ofHours(1)))
+                    .build();
+            issued[i] = encoder.encode(JwtEncoderParameters.from(JwsHeader.with(MacAlgorithm.HS256).build(), claims))
+                    .getTokenValue();
+        }
+        nimbus = NimbusReactiveJwtDecoder.withSecretKey(key).build();
+        cached = new CachingReactiveJwtDecoder(NimbusReactiveJwtDecoder.withSecretKey(key).build(),
+                10_000, Duration.ofMinutes(5), Clock.systemUTC(), new SimpleMeterRegistry());
+    }
+    
+    @Benchmark
+    public Jwt nimbus() {
+        return nimbus.decode(next()).block();
+    }
+    
+    @Benchmark
+    public Jwt cached() {
+        return cached.decode(next()).block();
+    }
+    
+    private String next() {
+        return issued[ThreadLocalRandom.current().nextInt(tokens)];
+    }
+    
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(JwtDecoderBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
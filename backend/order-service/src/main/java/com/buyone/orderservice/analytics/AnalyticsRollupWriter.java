@@ -0,0 +1,370 @@
+package com.buyone.orderservice.analytics;
+
+import com.buyone.orderservice.model.analytics.AnalyticsRollup;
+import com.buyone.orderservice.model.analytics.CategoryRollup;
+import com.buyone.orderservice.model.analytics.ProductRollup;
+import com.buyone.orderservice.model.order.Order;
+import com.buyone.orderservice.model.order.OrderItem;
+import com.buyone.orderservice.model.order.OrderStatus;
+import com.buyone.orderservice.pricing.PricingEngine;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static com.buyone.orderservice.repository.OrderRepositoryCustomImpl.ARCHIVE_COLLECTION;
+
+/**
+ * Maintains {@link AnalyticsRollup} documents. An order counts towards its buyer's and sellers'
+ * rollups while it is CONFIRMED, SHIPPED or DELIVERED; entering or leaving that set applies
+ * the order's contribution with one $inc upsert per rollup; sellers' buyer sketches only ever
+ * grow (see BuyerSketchStore). {@link #rebuild()} recomputes
+ * everything from `orders` + `orders_archive` (backfill, or repair after missed events).
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AnalyticsRollupWriter {
+    
+    public static final Set<OrderStatus> COUNTED_STATUSES =
+            EnumSet.of(OrderStatus.CONFIRMED, OrderStatus.SHIPPED, OrderStatus.DELIVERED);
+    static final String UNCATEGORIZED_KEY = "uncategorized";
+    static final String UNCATEGORIZED = "Uncategorized";
+    static final String HOT_COLLECTION = "orders";
+    
+    // Owner lookups of rollup re-derivation in the archive; also registered in MongoIndexConfig
+    public static final List<Index> ARCHIVE_INDEXES = List.of(
+            new Index().on("userId", Sort.Direction.ASC).named("userId"),
+            new Index().on("sellerIds", Sort.Direction.ASC).named("sellerIds"));
+    
+    private static final int REBUILD_CHUNK = 500;
+    private static final int RECONCILE_ROUNDS = 3;
+    
+    private final MongoTemplate mongoTemplate;
+    private final CategoryResolver categoryResolver;
+    private final BuyerSketchStore sketchStore;
+    
+    public static boolean counts(OrderStatus status) {
+        return status != null && COUNTED_STATUSES.contains(status);
+    }
+    
+    /**
+     * Adds (sign 1) or removes (sign -1) one order's contribution.
+     */
+    public void apply(Order order, int sign) {
+        Map<String, CategoryResolver.Category> categories = categoryResolver.resolve(productIds(List.of(order)));
+        LocalDateTime now = LocalDateTime.now();
+        for (Contribution contribution : contributions(order, categories)) {
+            Query query = new Query(Criteria.where("_id").is(contribution.rollupId()));
+            mongoTemplate.upsert(query, toUpdate(contribution, sign, now), AnalyticsRollup.class);
+            if (sign > 0 && AnalyticsRollup.SELLER.equals(contribution.ownerType())) {
+                sketchStore.add(AnalyticsRollup.class, contribution.rollupId(), order.getUserId());
+            }
+        }
+    }
+    
+    /**
+     * Recomputes every rollup from scratch into a staging collection and swaps it in
+     * (see {@link StagingCollection}); the live rollups keep serving until the rename. Orders are
+     * read in chunks of REBUILD_CHUNK and each chunk is folded into the staging rollups with bulk
+     * $inc upserts and sketch merges, so memory stays at one chunk however many owners there are.
+     * Status changes applied to the live rollups meanwhile go away with them at the rename, so
+     * the owners of every order changed since the rebuild started are then re-derived
+     * ({@link #reconcile}).
+     */
+    public int rebuild() {
+        LocalDateTime started = LocalDateTime.now();
+        String live = mongoTemplate.getCollectionName(AnalyticsRollup.class);
+        String staging = StagingCollection.reset(mongoTemplate, live);
+        Map<String, CategoryResolver.Category> categories = new HashMap<>();
+        Query counted = new Query(Criteria.where("status").in(COUNTED_STATUSES));
+        
+        for (String collection : List.of(HOT_COLLECTION, ARCHIVE_COLLECTION)) {
+            List<Order> chunk = new ArrayList<>(REBUILD_CHUNK);
+            try (Stream<Order> orders = mongoTemplate.stream(counted, Order.class, collection)) {
+                orders.forEach(order -> {
+                    chunk.add(order);
+                    if (chunk.size() == REBUILD_CHUNK) {
+                        flush(staging, chunk, categories);
+                        chunk.clear();
+                    }
+                });
+            }
+            flush(staging, chunk, categories);
+        }
+        
+        int rebuilt = (int) mongoTemplate.estimatedCount(staging);
+        StagingCollection.swapIn(mongoTemplate, live, List.of());
+        int reconciled = reconcile(started);
+        log.info("Rebuilt {} analytics rollups, re-derived {} for orders changed meanwhile", rebuilt, reconciled);
+        return rebuilt;
+    }
+    
+    /**
+     * Re-derives, straight from their orders, the rollups of every owner with an order changed
+     * since {@code since}, and repeats for changes made during the previous round (at most
+     * RECONCILE_ROUNDS). Each rollup is replaced as a whole, so an event still in flight for a
+     * change already read can count twice; the window is one round, not the whole rebuild.
+     * @return rollups re-derived
+     */
+    int reconcile(LocalDateTime since) {
+        int reconciled = 0;
+        LocalDateTime mark = since;
+        for (int round = 0; round < RECONCILE_ROUNDS; round++) {
+            LocalDateTime next = LocalDateTime.now();
+            // Every status: the range runs on status_updated_id_idx
+            Query changed = new Query(Criteria.where("status").in(List.of(OrderStatus.values()))
+                    .and("updatedAt").gte(mark));
+            changed.fields().include("userId").include("sellerIds").include("items.sellerId");
+            Set<Owner> owners = new LinkedHashSet<>();
+            for (Order order : mongoTemplate.find(changed, Order.class, HOT_COLLECTION)) {
+                owners.add(new Owner(AnalyticsRollup.BUYER, order.getUserId()));
+                sellerIds(order).forEach(sellerId -> owners.add(new Owner(AnalyticsRollup.SELLER, sellerId)));
+            }
+            if (owners.isEmpty()) {
+                break;
+            }
+            owners.forEach(this::rederive);
+            reconciled += owners.size();
+            mark = next;
+        }
+        return reconciled;
+    }
+    
+    private void rederive(Owner owner) {
+        Criteria ofOwner = AnalyticsRollup.BUYER.equals(owner.type())
+                ? Criteria.where("userId").is(owner.id())
+                : Criteria.where("sellerIds").is(owner.id());
+        Query counted = new Query(ofOwner.and("status").in(COUNTED_STATUSES));
+        // By _id: an order being archived can briefly be in both collections
+        Map<String, Order> orders = new LinkedHashMap<>();
+        for (String collection : List.of(HOT_COLLECTION, ARCHIVE_COLLECTION)) {
+            mongoTemplate.find(counted, Order.class, collection).forEach(order -> orders.putIfAbsent(order.getId(), order));
+        }
+        Map<String, AnalyticsRollup> rollups = new HashMap<>();
+        Map<String, HyperLogLog> sketches = new HashMap<>();
+        accumulate(new ArrayList<>(orders.values()), new HashMap<>(), rollups, sketches);
+        
+        String id = AnalyticsRollup.BUYER.equals(owner.type())
+                ? AnalyticsRollup.buyerKey(owner.id())
+                : AnalyticsRollup.sellerKey(owner.id());
+        AnalyticsRollup rollup = rollups.get(id);
+        if (rollup == null) {
+            mongoTemplate.remove(new Query(Criteria.where("_id").is(id)), AnalyticsRollup.class);  // nothing counted anymore
+            return;
+        }
+        HyperLogLog sketch = sketches.get(id);
+        rollup.setBuyerSketch(sketch != null ? sketch.toBytes() : null);
+        mongoTemplate.save(rollup);
+    }
+    
+    private void flush(String staging, List<Order> chunk, Map<String, CategoryResolver.Category> categories) {
+        Map<String, AnalyticsRollup> rollups = new HashMap<>();
+        Map<String, HyperLogLog> sketches = new HashMap<>();
+        accumulate(chunk, categories, rollups, sketches);
+        if (rollups.isEmpty()) {
+            return;
+        }
+        BulkOperations upserts = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, AnalyticsRollup.class, staging);
+        rollups.values().forEach(rollup ->
+                upserts.upsert(new Query(Criteria.where("_id").is(rollup.getId())), increments(rollup)));
+        upserts.execute();
+        sketches.forEach((id, sketch) -> sketchStore.merge(staging, id, sketch));
+    }
+    
+    /**
+     * One chunk's partial rollup as $inc (amounts) and $set (labels) of the staging document.
+     */
+    private static Update increments(AnalyticsRollup partial) {
+        Update update = new Update()
+                .setOnInsert("ownerType", partial.getOwnerType())
+                .setOnInsert("ownerId", partial.getOwnerId())
+                .inc("orders", partial.getOrders())
+                .inc("units", partial.getUnits())
+                .inc("amountCents", partial.getAmountCents())
+                .set("updatedAt", partial.getUpdatedAt());
+        partial.getProducts().forEach((key, product) -> {
+            String path = "products." + key;
+            update.inc(path + ".quantity", product.getQuantity())
+                    .inc(path + ".amountCents", product.getAmountCents())
+                    .set(path + ".productId", product.getProductId())
+                    .set(path + ".name", product.getName())
+                    .set(path + ".category", product.getCategory());
+        });
+        partial.getCategories().forEach((key, category) -> update
+                .inc("categories." + key + ".amountCents", category.getAmountCents())
+                .set("categories." + key + ".name", category.getName()));
+        return update;
+    }
+    
+    private static Set<String> sellerIds(Order order) {
+        Set<String> sellerIds = new LinkedHashSet<>();
+        if (order.getSellerIds() != null) {
+            sellerIds.addAll(order.getSellerIds());
+        }
+        if (order.getItems() != null) {
+            order.getItems().stream().map(OrderItem::getSellerId).filter(Objects::nonNull).forEach(sellerIds::add);
+        }
+        return sellerIds;
+    }
+    
+    private void accumulate(List<Order> orders, Map<String, CategoryResolver.Category> categories,
+                            Map<String, AnalyticsRollup> rollups, Map<String, HyperLogLog> sketches) {
+        // One category lookup per chunk, only for products not seen yet
+        Set<String> unknown = productIds(orders).stream()
+                .filter(id -> !categories.containsKey(id))
+                .collect(Collectors.toSet());
+        if (!unknown.isEmpty()) {
+            categories.putAll(categoryResolver.resolve(unknown));
+            unknown.forEach(id -> categories.putIfAbsent(id, null));  // don't look them up again
+        }
+        LocalDateTime now = LocalDateTime.now();
+        for (Order order : orders) {
+            for (Contribution c : contributions(order, categories)) {
+                AnalyticsRollup rollup = rollups.computeIfAbsent(c.rollupId(), id -> AnalyticsRollup.builder()
+                        .id(id).ownerType(c.ownerType()).ownerId(c.ownerId()).build());
+                rollup.setOrders(rollup.getOrders() + 1);
+                rollup.setUnits(rollup.getUnits() + c.units());
+                rollup.setAmountCents(rollup.getAmountCents() + c.amountCents());
+                rollup.setUpdatedAt(now);
+                if (AnalyticsRollup.SELLER.equals(c.ownerType()) && order.getUserId() != null) {
+                    sketches.computeIfAbsent(c.rollupId(), id -> new HyperLogLog()).add(order.getUserId());
+                }
+                for (Line line : c.lines()) {
+                    ProductRollup product = rollup.getProducts().computeIfAbsent(fieldKey(line.productId()),
+                            k -> ProductRollup.builder().productId(line.productId()).build());
+                    product.setName(line.productName());
+                    product.setCategory(line.categoryName());
+                    product.setQuantity(product.getQuantity() + line.quantity());
+                    product.setAmountCents(product.getAmountCents() + line.amountCents());
+                    CategoryRollup category = rollup.getCategories().computeIfAbsent(fieldKey(line.categoryId()),
+                            k -> CategoryRollup.builder().build());
+                    category.setName(line.categoryName());
+                    category.setAmountCents(category.getAmountCents() + line.amountCents());
+                }
+            }
+        }
+    }
+    
+    private static Update toUpdate(Contribution c, int sign, LocalDateTime now) {
+        Update update = new Update()
+                .setOnInsert("ownerType", c.ownerType())
+                .setOnInsert("ownerId", c.ownerId())
+                .inc("orders", sign)
+                .inc("units", sign * c.units())
+                .inc("amountCents", sign * c.amountCents())
+                .set("updatedAt", now);
+        
+        // Lines of the same product/category are merged first: one $inc per path
+        Map<String, Long> increments = new LinkedHashMap<>();
+        Map<String, String> labels = new LinkedHashMap<>();
+        for (Line line : c.lines()) {
+            String product = "products." + fieldKey(line.productId());
+            String category = "categories." + fieldKey(line.categoryId());
+            increments.merge(product + ".quantity", sign * line.quantity(), Long::sum);
+            increments.merge(product + ".amountCents", sign * line.amountCents(), Long::sum);
+            increments.merge(category + ".amountCents", sign * line.amountCents(), Long::sum);
+            labels.put(product + ".productId", line.productId());
+            labels.put(product + ".name", line.productName());
+            labels.put(product + ".category", line.categoryName());
+            labels.put(category + ".name", line.categoryName());
+        }
+        increments.forEach(update::inc);
+        labels.forEach(update::set);
+        return update;
+    }
+    
+    private static List<Contribution> contributions(Order order, Map<String, CategoryResolver.Category> categories) {
+        List<Line> lines = order.getItems() == null ? List.of() : order.getItems().stream()
+                .map(item -> toLine(item, categories.get(item.getProductId())))
+                .toList();
+        
+        List<Contribution> contributions = new ArrayList<>();
+        long lineCents = lines.stream().mapToLong(Line::amountCents).sum();
+        long spentCents = order.getTotal() != null ? PricingEngine.toCents(order.getTotal()) : lineCents;
+        contributions.add(new Contribution(AnalyticsRollup.buyerKey(order.getUserId()), AnalyticsRollup.BUYER,
+                order.getUserId(), spentCents, units(lines), lines));
+        
+        Map<String, List<Line>> bySeller = lines.stream()
+                .filter(line -> line.sellerId() != null)
+                .collect(Collectors.groupingBy(Line::sellerId, LinkedHashMap::new, Collectors.toList()));
+        bySeller.forEach((sellerId, sellerLines) -> contributions.add(new Contribution(
+                AnalyticsRollup.sellerKey(sellerId), AnalyticsRollup.SELLER, sellerId,
+                sellerLines.stream().mapToLong(Line::amountCents).sum(), units(sellerLines), sellerLines)));
+        return contributions;
+    }
+    
+    private static Line toLine(OrderItem item, CategoryResolver.Category resolved) {
+        long unitCents = PricingEngine.toCents(item.getPrice() != null ? item.getPrice() : BigDecimal.ZERO);
+        // Checkout snapshot first; the resolver only covers items that have none
+        CategoryResolver.Category category = item.getCategoryName() != null
+                ? new CategoryResolver.Category(item.getCategoryId(), item.getCategoryName())
+                : resolved;
+        return new Line(item.getProductId(), item.getProductName(), item.getSellerId(),
+                category != null ? category.id() : null,
+                category != null ? category.name() : UNCATEGORIZED,
+                item.getQuantity(), unitCents * item.getQuantity());
+    }
+    
+    private static long units(List<Line> lines) {
+        return lines.stream().mapToLong(Line::quantity).sum();
+    }
+    
+    /**
+     * Products whose category still has to be looked up.
+     */
+    private static Set<String> productIds(List<Order> orders) {
+        return orders.stream()
+                .filter(order -> order.getItems() != null)
+                .flatMap(order -> order.getItems().stream())
+                .filter(item -> item.getCategoryName() == null)  // snapshotted at checkout
+                .map(OrderItem::getProductId)
+                .filter(id -> id != null)
+                .collect(Collectors.toSet());
+    }
+    
+    public static boolean isUncategorized(String categoryKey) {
+        return UNCATEGORIZED_KEY.equals(categoryKey);
+    }
+    
+    /**
+     * Map keys become field names: no dots or leading $.
+     */
+    static String fieldKey(String raw) {
+        if (raw == null || raw.isBlank()) {
+            return UNCATEGORIZED_KEY;
+        }
+        return raw.replace('.', '_').replace('$', '_');
+    }
+    
+    private record Line(String productId, String productName, String sellerId,
+                        String categoryId, String categoryName, long quantity, long amountCents) {
+    }
+    
+    private record Owner(String type, String id) {
+    }
+    
+    private record Contribution(String rollupId, String ownerType, String ownerId,
+                                long amountCents, long units, List<Line> lines) {
+    }
+}
@@ -0,0 +1,81 @@
+package com.buyone.orderservice.analytics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs the Mongo writes of the order-event listeners (analytics rollups, sales buckets) on a small
+ * bounded pool instead of the request thread that published the event, so a status change no
+ * longer waits for their round trips. The writes are $inc upserts and sketch merges, which
+ * commute, so running them out of order changes nothing. A full queue runs the write on the
+ * caller: back-pressure rather than a dropped update. Shutdown drains the queue first.
+ * Metrics: analytics.updates (timer, tagged by update) / analytics.updates.caller-runs.
+ */
+@Slf4j
+@Component
+public class AnalyticsUpdateExecutor {
+    
+    static final String UPDATE_METRIC = "analytics.updates";
+    static final String CALLER_RUNS_METRIC = "analytics.updates.caller-runs";
+    
+    private final MeterRegistry meterRegistry;
+    private final ThreadPoolExecutor executor;
+    private final long shutdownTimeoutMs;
+    
+    public AnalyticsUpdateExecutor(MeterRegistry meterRegistry,
+                                   @Value("${app.analytics.updates.threads:2}") int threads,
+                                   @Value("${app.analytics.updates.queue-capacity:10000}") int queueCapacity,
+                                   @Value("${app.analytics.updates.shutdown-timeout-ms:30000}") long shutdownTimeoutMs) {
+        this.meterRegistry = meterRegistry;
+        this.shutdownTimeoutMs = shutdownTimeoutMs;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "analytics-update-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                (runnable, pool) -> {
+                    meterRegistry.counter(CALLER_RUNS_METRIC).increment();
+                    if (!pool.isShutdown()) {
+                        runnable.run();
+                    }
+                });
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+    
+    /**
+     * Queues {@code action}; it must handle its own failures (they are only logged here).
+     */
+    public void execute(String update, Runnable action) {
+        executor.execute(() -> {
+            try {
+                meterRegistry.timer(UPDATE_METRIC, "update", update).record(action);
+            } catch (Exception e) {
+                log.error("{} update failed: {}", update, e.getMessage());
+            }
+        });
+    }
+    
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(shutdownTimeoutMs, TimeUnit.MILLISECONDS)) {
+                log.warn("Dropping {} queued analytics updates at shutdown", executor.shutdownNow().size());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.buyone.orderservice.analytics;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.types.Binary;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Predicate;
+
+/**
+ * Read-modify-write of the {@link HyperLogLog} buyer sketch embedded in an analytics document
+ * (fields buyerSketch / buyerSketchVersion). Mongo cannot max registers inside a binary, so the
+ * write is conditional on the version read and retried on a concurrent update; sketch merges
+ * are idempotent, so a retry never double counts. Unchanged sketches (repeat buyers) are not written.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BuyerSketchStore {
+    
+    public static final String SKETCH_FIELD = "buyerSketch";
+    public static final String VERSION_FIELD = "buyerSketchVersion";
+    
+    static final int MAX_ATTEMPTS = 5;
+    
+    private final MongoTemplate mongoTemplate;
+    
+    public static HyperLogLog read(byte[] bytes) {
+        return HyperLogLog.fromBytes(bytes);
+    }
+    
+    public boolean add(Class<?> type, String id, String buyerId) {
+        return buyerId != null && update(mongoTemplate.getCollectionName(type), id, sketch -> sketch.add(buyerId));
+    }
+    
+    public boolean merge(Class<?> type, String id, HyperLogLog other) {
+        return merge(mongoTemplate.getCollectionName(type), id, other);
+    }
+    
+    public boolean merge(String collection, String id, HyperLogLog other) {
+        return !other.isEmpty() && update(collection, id, sketch -> sketch.merge(other));
+    }
+    
+    /**
+     * @return true when the stored sketch changed; false when nothing changed, the document
+     *         is missing or every attempt lost a race (logged)
+     */
+    private boolean update(String collection, String id, Predicate<HyperLogLog> change) {
+        Query byId = new Query(Criteria.where("_id").is(id));
+        byId.fields().include(SKETCH_FIELD).include(VERSION_FIELD);
+        
+        for (int attempt = 1; attempt <= MAX_ATTEMPTS; attempt++) {
+            Document current = mongoTemplate.findOne(byId, Document.class, collection);
+            if (current == null) {
+                return false;
+            }
+            HyperLogLog sketch = read(bytes(current.get(SKETCH_FIELD)));
+            if (!change.test(sketch)) {
+                return false;
+            }
+            Number version = current.get(VERSION_FIELD, Number.class);
+            Criteria sameVersion = version != null
+                    ? Criteria.where(VERSION_FIELD).is(version)
+                    : Criteria.where(VERSION_FIELD).exists(false);
+            Query guarded = new Query(Criteria.where("_id").is(id).andOperator(sameVersion));
+            Update write = new Update().set(SKETCH_FIELD, sketch.toBytes()).inc(VERSION_FIELD, 1L);
+            if (mongoTemplate.updateFirst(guarded, write, collection).getMatchedCount() > 0) {
+                return true;
+            }
+        }
+        log.warn("Buyer sketch update of {} {} gave up after {} concurrent updates", collection, id, MAX_ATTEMPTS);
+        return false;
+    }
+    
+    private static byte[] bytes(Object raw) {
+        if (raw instanceof Binary binary) {
+            return binary.getData();
+        }
+        return raw instanceof byte[] array ? array : null;
+    }
+}
@@ -0,0 +1,86 @@
+package com.buyone.orderservice.analytics;
+
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Looks up product → category with $in reads on the shared `products` / `categories` collections.
+ * Used to snapshot category names onto order items at checkout, and for legacy items without one.
+ */
+@Component
+@RequiredArgsConstructor
+public class CategoryResolver {
+    
+    static final String PRODUCTS_COLLECTION = "products";
+    static final String CATEGORIES_COLLECTION = "categories";
+    
+    private final MongoTemplate mongoTemplate;
+    
+    public record Category(String id, String name) {
+    }
+    
+    /**
+     * Category per product ID; products that are gone or uncategorized are absent from the map.
+     */
+    public Map<String, Category> resolve(Collection<String> productIds) {
+        List<ObjectId> ids = productIds.stream().filter(ObjectId::isValid).distinct().map(ObjectId::new).toList();
+        if (ids.isEmpty()) {
+            return Map.of();
+        }
+        
+        Query productQuery = new Query(Criteria.where("_id").in(ids));
+        productQuery.fields().include("categoryId");
+        Map<String, String> categoryIdByProduct = new HashMap<>();
+        for (Document product : mongoTemplate.find(productQuery, Document.class, PRODUCTS_COLLECTION)) {
+            String categoryId = product.getString("categoryId");
+            if (categoryId != null) {
+                categoryIdByProduct.put(product.getObjectId("_id").toHexString(), categoryId);
+            }
+        }
+        if (categoryIdByProduct.isEmpty()) {
+            return Map.of();
+        }
+        
+        Map<String, String> names = names(categoryIdByProduct.values());
+        
+        Map<String, Category> result = new HashMap<>();
+        categoryIdByProduct.forEach((productId, categoryId) -> {
+            String name = names.get(categoryId);
+            if (name != null) {
+                result.put(productId, new Category(categoryId, name));
+            }
+        });
+        return result;
+    }
+    
+    /**
+     * Category name per category ID (one $in read); unknown IDs are absent from the map.
+     */
+    public Map<String, String> names(Collection<String> categoryIds) {
+        List<String> ids = categoryIds.stream().filter(Objects::nonNull).distinct().toList();
+        if (ids.isEmpty()) {
+            return Map.of();
+        }
+        Query categoryQuery = new Query(Criteria.where("_id").in(ids));
+        categoryQuery.fields().include("name");
+        Map<String, String> names = new HashMap<>();
+        for (Document category : mongoTemplate.find(categoryQuery, Document.class, CATEGORIES_COLLECTION)) {
+            String name = category.getString("name");
+            if (name != null) {
+                names.put(Objects.toString(category.get("_id")), name);
+            }
+        }
+        return names;
+    }
+}
@@ -0,0 +1,186 @@
+package com.buyone.orderservice.analytics;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * HyperLogLog distinct counter (Flajolet et al.) with 2^14 registers: about 0.8% standard error
+ * at any cardinality, and two sketches merge losslessly (register-wise max), so per-bucket sketches
+ * add up to the sketch of the whole range. Adding the same key twice changes nothing.
+ * Serialized dense as 6-bit registers (12 KB); sketches with few set registers are stored
+ * sparse as (index, rank) pairs instead, so a seller with a handful of buyers costs a few bytes.
+ */
+public final class HyperLogLog {
+    
+    static final int PRECISION = 14;
+    static final int REGISTERS = 1 << PRECISION;
+    public static final double STANDARD_ERROR = 1.04 / Math.sqrt(REGISTERS);
+    
+    static final byte SPARSE = 1;
+    static final byte DENSE = 2;
+    static final int DENSE_BYTES = REGISTERS * 6 / 8;
+    
+    private static final double ALPHA = 0.7213 / (1 + 1.079 / REGISTERS);
+    
+    private final byte[] registers = new byte[REGISTERS];
+    
+    public static HyperLogLog fromBytes(byte[] bytes) {
+        HyperLogLog sketch = new HyperLogLog();
+        sketch.mergeBytes(bytes);
+        return sketch;
+    }
+    
+    /**
+     * @return true when the sketch changed (the key may be new)
+     */
+    public boolean add(String key) {
+        long hash = hash(key);
+        int index = (int) (hash >>> (64 - PRECISION));
+        // Rank of the first 1-bit after the index bits; the sentinel bit caps it at 64 - PRECISION + 1
+        byte rank = (byte) (Long.numberOfLeadingZeros((hash << PRECISION) | (1L << (PRECISION - 1))) + 1);
+        if (rank <= registers[index]) {
+            return false;
+        }
+        registers[index] = rank;
+        return true;
+    }
+    
+    /**
+     * Folds {@code other} into this sketch; afterwards it counts the union of both key sets.
+     * @return true when the sketch changed
+     */
+    public boolean merge(HyperLogLog other) {
+        boolean changed = false;
+        for (int i = 0; i < REGISTERS; i++) {
+            if (other.registers[i] > registers[i]) {
+                registers[i] = other.registers[i];
+                changed = true;
+            }
+        }
+        return changed;
+    }
+    
+    /**
+     * {@link #merge(HyperLogLog)} of a serialized sketch, straight from its bytes: no second register
+     * array, so one sketch can accumulate many stored ones. Null or empty bytes are an empty sketch.
+     */
+    public void mergeBytes(byte[] bytes) {
+        if (bytes == null || bytes.length == 0) {
+            return;
+        }
+        if (bytes[0] == DENSE && bytes.length == DENSE_BYTES + 1) {
+            for (int i = 0; i < REGISTERS; i++) {
+                registers[i] = (byte) Math.max(registers[i], readBits(bytes, 1, i));
+            }
+        } else if (bytes[0] == SPARSE && (bytes.length - 1) % 3 == 0) {
+            for (int offset = 1; offset < bytes.length; offset += 3) {
+                int index = (((bytes[offset] & 0xff) << 8) | (bytes[offset + 1] & 0xff)) & (REGISTERS - 1);
+                registers[index] = (byte) Math.max(registers[index], bytes[offset + 2]);
+            }
+        } else {
+            throw new IllegalArgumentException("Not a HyperLogLog sketch (" + bytes.length + " bytes)");
+        }
+    }
+    
+    public void clear() {
+        Arrays.fill(registers, (byte) 0);
+    }
+    
+    public long estimate() {
+        double sum = 0;
+        int zeros = 0;
+        for (byte register : registers) {
+            sum += Math.scalb(1.0, -register);
+            if (register == 0) {
+                zeros++;
+            }
+        }
+        double raw = ALPHA * REGISTERS * REGISTERS / sum;
+        // Small cardinalities: linear counting over the empty registers is more accurate
+        if (raw <= 2.5 * REGISTERS && zeros > 0) {
+            return Math.round(REGISTERS * Math.log((double) REGISTERS / zeros));
+        }
+        return Math.round(raw);  // 64-bit hashes: no large-range correction needed
+    }
+    
+    public boolean isEmpty() {
+        for (byte register : registers) {
+            if (register != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    public byte[] toBytes() {
+        int set = 0;
+        for (byte register : registers) {
+            if (register != 0) {
+                set++;
+            }
+        }
+        if (set * 3 < DENSE_BYTES) {
+            byte[] sparse = new byte[1 + set * 3];
+            sparse[0] = SPARSE;
+            int offset = 1;
+            for (int i = 0; i < REGISTERS; i++) {
+                if (registers[i] != 0) {
+                    sparse[offset] = (byte) (i >>> 8);
+                    sparse[offset + 1] = (byte) i;
+                    sparse[offset + 2] = registers[i];
+                    offset += 3;
+                }
+            }
+            return sparse;
+        }
+        byte[] dense = new byte[1 + DENSE_BYTES];
+        dense[0] = DENSE;
+        for (int i = 0; i < REGISTERS; i++) {
+            writeBits(dense, 1, i, registers[i]);
+        }
+        return dense;
+    }
+    
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof HyperLogLog other && Arrays.equals(registers, other.registers);
+    }
+    
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(registers);
+    }
+    
+    // 6-bit register i starts at bit 6i; it spans at most two bytes
+    private static int readBits(byte[] bytes, int base, int i) {
+        int bit = i * 6;
+        int at = base + (bit >>> 3);
+        int word = (bytes[at] & 0xff) | (at + 1 < bytes.length ? (bytes[at + 1] & 0xff) << 8 : 0);
+        return (word >>> (bit & 7)) & 0x3f;
+    }
+    
+    private static void writeBits(byte[] bytes, int base, int i, int value) {
+        int bit = i * 6;
+        int at = base + (bit >>> 3);
+        int word = (value & 0x3f) << (bit & 7);
+        bytes[at] |= (byte) word;
+        if (word > 0xff) {
+            bytes[at + 1] |= (byte) (word >>> 8);
+        }
+    }
+    
+    // FNV-1a over UTF-8, then the MurmurHash3 finalizer so every output bit depends on every input bit
+    static long hash(String key) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b & 0xff;
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,249 @@
+package com.buyone.orderservice.analytics;
+
+import com.buyone.orderservice.model.analytics.BucketGranularity;
+import com.buyone.orderservice.model.analytics.SalesBucket;
+import com.buyone.orderservice.model.order.Order;
+import com.buyone.orderservice.model.order.OrderItem;
+import com.buyone.orderservice.pricing.PricingEngine;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Maintains {@link SalesBucket} documents: one $inc upsert per seller of an order, into the
+ * bucket of the order's UTC date. Buckets younger than daily-days are DAY buckets, younger than
+ * weekly-days WEEK buckets, older ones MONTH buckets; {@link #compact} folds buckets that aged
+ * past a boundary into the coarser one, and late writes go straight to the coarser bucket.
+ * Each bucket also carries a buyer sketch; compaction merges the sources' sketches into the target.
+ * Every write stamps a new generation, so compaction folds and deletes one specific state of a
+ * source bucket: a bucket written again, or re-created by a late event, is folded on its own.
+ */
+@Slf4j
+@Component
+public class SalesBucketWriter {
+    
+    // Seller timeseries reads, and compaction's scan of aged buckets; also registered in MongoIndexConfig
+    public static final List<Index> INDEXES = List.of(
+            new Index().on("sellerId", Sort.Direction.ASC).on("bucketStart", Sort.Direction.ASC)
+                    .named("seller_bucketStart"),
+            new Index().on("granularity", Sort.Direction.ASC).on("bucketStart", Sort.Direction.ASC)
+                    .named("granularity_bucketStart"));
+    
+    static final String COMPACTED_FROM = "compactedFrom";
+    static final String GENERATION = "generation";
+    
+    private final MongoTemplate mongoTemplate;
+    private final BuyerSketchStore sketchStore;
+    private final int dailyDays;
+    private final int weeklyDays;
+    
+    public SalesBucketWriter(MongoTemplate mongoTemplate, BuyerSketchStore sketchStore,
+                             @Value("${app.analytics.timeseries.daily-days:90}") int dailyDays,
+                             @Value("${app.analytics.timeseries.weekly-days:365}") int weeklyDays) {
+        this.mongoTemplate = mongoTemplate;
+        this.sketchStore = sketchStore;
+        this.dailyDays = dailyDays;
+        this.weeklyDays = Math.max(dailyDays, weeklyDays);
+    }
+    
+    /**
+     * Adds (sign 1) or removes (sign -1) one order's sales.
+     */
+    public void apply(Order order, int sign) {
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        LocalDate day = order.getCreatedAt() != null ? utcDate(order.getCreatedAt()) : today;
+        BucketGranularity granularity = granularityFor(day, today);
+        LocalDate start = granularity.truncate(day);
+        LocalDateTime now = LocalDateTime.now();
+        
+        Map<String, List<OrderItem>> bySeller = order.getItems() == null ? Map.of() : order.getItems().stream()
+                .filter(item -> item.getSellerId() != null)
+                .collect(Collectors.groupingBy(OrderItem::getSellerId, LinkedHashMap::new, Collectors.toList()));
+        bySeller.forEach((sellerId, lines) -> {
+            long units = lines.stream().mapToLong(OrderItem::getQuantity).sum();
+            long revenueCents = lines.stream().mapToLong(SalesBucketWriter::lineCents).sum();
+            String id = SalesBucket.key(sellerId, granularity, start);
+            mongoTemplate.upsert(new Query(Criteria.where("_id").is(id)), increments(sellerId, granularity, start,
+                    sign, sign * units, sign * revenueCents, now), SalesBucket.class);
+            if (sign > 0) {
+                sketchStore.add(SalesBucket.class, id, order.getUserId());
+            }
+        });
+    }
+    
+    /**
+     * Folds up to {@code limit} buckets that aged past their granularity into the coarser bucket.
+     * The target's $inc also records each source as id@generation in compactedFrom, in the same
+     * update, and only then is each source deleted, guarded on the generation that was folded.
+     * A source written after it was folded fails that guard; the folded amounts are subtracted from
+     * it instead, and the remainder is folded by a later pass. A pass that crashed before deleting
+     * finds its sources already listed on the target next time and just merges their sketches
+     * (idempotent) and deletes them. A source re-created after its deletion has a new generation,
+     * so it is folded again rather than mistaken for the one already folded.
+     */
+    public int compact(LocalDate today, int limit) {
+        Query aged = new Query(new Criteria().orOperator(
+                Criteria.where("granularity").is(BucketGranularity.DAY)
+                        .and("bucketStart").lt(today.minusDays(dailyDays).toString()),
+                Criteria.where("granularity").is(BucketGranularity.WEEK)
+                        .and("bucketStart").lt(today.minusDays(weeklyDays).toString())))
+                .limit(limit);
+        
+        Map<Target, List<SalesBucket>> byTarget = new LinkedHashMap<>();
+        for (SalesBucket source : mongoTemplate.find(aged, SalesBucket.class)) {
+            LocalDate start = LocalDate.parse(source.getBucketStart());
+            BucketGranularity granularity = granularityFor(start, today).coarser(source.getGranularity());
+            if (granularity != source.getGranularity()) {
+                byTarget.computeIfAbsent(new Target(source.getSellerId(), granularity, granularity.truncate(start)),
+                        t -> new ArrayList<>()).add(source);
+            }
+        }
+        if (byTarget.isEmpty()) {
+            return 0;
+        }
+        
+        Map<String, Set<String>> folded = foldedSources(byTarget.keySet());
+        LocalDateTime now = LocalDateTime.now();
+        int compacted = 0;
+        for (Map.Entry<Target, List<SalesBucket>> entry : byTarget.entrySet()) {
+            Target target = entry.getKey();
+            List<SalesBucket> sources = entry.getValue();
+            String id = target.id();
+            Set<String> done = folded.getOrDefault(id, Set.of());
+            List<SalesBucket> pending = sources.stream().filter(source -> !done.contains(token(source))).toList();
+            if (!pending.isEmpty() && !fold(target, pending, now)) {
+                continue;  // a concurrent pass folded some of them; a later pass deletes what it left
+            }
+            HyperLogLog buyers = new HyperLogLog();
+            sources.forEach(source -> buyers.mergeBytes(source.getBuyerSketch()));
+            sketchStore.merge(SalesBucket.class, id, buyers);
+            for (SalesBucket source : sources) {
+                if (remove(source) == 0 && !done.contains(token(source))) {
+                    drain(source, now);
+                }
+            }
+            compacted += sources.size();
+        }
+        return compacted;
+    }
+    
+    /**
+     * One $inc upsert guarded on none of the sources being recorded yet.
+     * @return false when the guard failed: another compactor already folded some of them
+     */
+    private boolean fold(Target target, List<SalesBucket> sources, LocalDateTime now) {
+        Object[] ids = sources.stream().map(SalesBucketWriter::token).toArray();
+        Query unfolded = new Query(Criteria.where("_id").is(target.id()).and(COMPACTED_FROM).nin(ids));
+        Update update = increments(target.sellerId(), target.granularity(), target.start(),
+                sources.stream().mapToLong(SalesBucket::getOrders).sum(),
+                sources.stream().mapToLong(SalesBucket::getUnits).sum(),
+                sources.stream().mapToLong(SalesBucket::getRevenueCents).sum(), now);
+        update.addToSet(COMPACTED_FROM).each(ids);
+        try {
+            mongoTemplate.upsert(unfolded, update, SalesBucket.class);
+            return true;
+        } catch (DuplicateKeyException e) {
+            log.debug("Sales bucket {} already holds some of {} sources", target.id(), ids.length);
+            return false;
+        }
+    }
+    
+    // Deletes the source only in the generation that was folded
+    private long remove(SalesBucket source) {
+        Query folded = new Query(Criteria.where("_id").is(source.getId()).and(GENERATION).is(source.getGeneration()));
+        return mongoTemplate.remove(folded, SalesBucket.class).getDeletedCount();
+    }
+    
+    /**
+     * The source was written after this pass folded it: take the folded amounts back out, so what
+     * is left (under a new generation) holds only the later writes, for the next pass to fold.
+     */
+    private void drain(SalesBucket source, LocalDateTime now) {
+        log.debug("Sales bucket {} changed while it was folded; keeping the remainder", source.getId());
+        Update remainder = new Update()
+                .inc("orders", -source.getOrders())
+                .inc("units", -source.getUnits())
+                .inc("revenueCents", -source.getRevenueCents())
+                .set(GENERATION, new ObjectId().toHexString())
+                .set("updatedAt", now);
+        mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(source.getId())), remainder, SalesBucket.class);
+    }
+    
+    // Buckets written before generations existed are recorded by id alone
+    static String token(SalesBucket bucket) {
+        return bucket.getGeneration() == null ? bucket.getId() : bucket.getId() + "@" + bucket.getGeneration();
+    }
+    
+    private Map<String, Set<String>> foldedSources(Collection<Target> targets) {
+        Query existing = new Query(Criteria.where("_id").in(targets.stream().map(Target::id).toList()));
+        existing.fields().include(COMPACTED_FROM);
+        return mongoTemplate.find(existing, SalesBucket.class).stream()
+                .filter(bucket -> bucket.getCompactedFrom() != null)
+                .collect(Collectors.toMap(SalesBucket::getId, bucket -> Set.copyOf(bucket.getCompactedFrom())));
+    }
+    
+    public void ensureIndexes() {
+        IndexOperations indexOps = mongoTemplate.indexOps(SalesBucket.class);
+        INDEXES.forEach(indexOps::ensureIndex);
+    }
+    
+    BucketGranularity granularityFor(LocalDate day, LocalDate today) {
+        if (!day.isBefore(today.minusDays(dailyDays))) {
+            return BucketGranularity.DAY;
+        }
+        return day.isBefore(today.minusDays(weeklyDays)) ? BucketGranularity.MONTH : BucketGranularity.WEEK;
+    }
+    
+    private static Update increments(String sellerId, BucketGranularity granularity, LocalDate start, long orders,
+                                     long units, long revenueCents, LocalDateTime now) {
+        return new Update()
+                .setOnInsert("sellerId", sellerId)
+                .setOnInsert("granularity", granularity)
+                .setOnInsert("bucketStart", start.toString())
+                .inc("orders", orders)
+                .inc("units", units)
+                .inc("revenueCents", revenueCents)
+                .set(GENERATION, new ObjectId().toHexString())
+                .set("updatedAt", now);
+    }
+    
+    private static long lineCents(OrderItem item) {
+        BigDecimal price = Objects.requireNonNullElse(item.getPrice(), BigDecimal.ZERO);
+        return PricingEngine.toCents(price) * item.getQuantity();
+    }
+    
+    // createdAt is stored as an instant in the JVM zone; buckets use the UTC date (as $dateToString does)
+    public static LocalDate utcDate(LocalDateTime createdAt) {
+        return createdAt.atZone(ZoneId.systemDefault()).withZoneSameInstant(ZoneOffset.UTC).toLocalDate();
+    }
+    
+    private record Target(String sellerId, BucketGranularity granularity, LocalDate start) {
+        
+        String id() {
+            return SalesBucket.key(sellerId, granularity, start);
+        }
+    }
+}
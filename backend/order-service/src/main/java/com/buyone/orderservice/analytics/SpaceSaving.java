@@ -0,0 +1,116 @@
+package com.buyone.orderservice.analytics;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Space-Saving heavy-hitters sketch (Metwally et al.): at most {@code capacity} counters; an unseen
+ * key evicts the smallest counter and inherits its count as error, so counts are overestimates by at
+ * most {@code error}. Sketches are mergeable (Cafaro et al.), which is how replicas and time slices
+ * are combined. Not thread-safe.
+ */
+public class SpaceSaving {
+    
+    public record Counter(String key, String label, long count, long error) {
+    }
+    
+    private static final Comparator<Counter> BY_COUNT =
+            Comparator.comparingLong(Counter::count).thenComparing(Counter::key);
+    
+    private final int capacity;
+    private final Map<String, Counter> counters = new HashMap<>();
+    private final TreeSet<Counter> ordered = new TreeSet<>(BY_COUNT);
+    
+    public SpaceSaving(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        this.capacity = capacity;
+    }
+    
+    public static SpaceSaving of(int capacity, List<Counter> counters) {
+        SpaceSaving sketch = new SpaceSaving(capacity);
+        counters.stream()
+                .sorted(BY_COUNT.reversed())
+                .limit(capacity)
+                .forEach(sketch::put);
+        return sketch;
+    }
+    
+    public void offer(String key, String label, long weight) {
+        Counter current = counters.get(key);
+        if (current != null) {
+            replace(current, new Counter(key, label != null ? label : current.label(),
+                    current.count() + weight, current.error()));
+        } else if (counters.size() < capacity) {
+            put(new Counter(key, label, weight, 0));
+        } else {
+            Counter min = ordered.first();
+            remove(min);
+            put(new Counter(key, label, min.count() + weight, min.count()));
+        }
+    }
+    
+    /**
+     * New sketch summarising both inputs. A key missing from a full sketch may have been evicted
+     * there, so that sketch's minimum is added to its count and error.
+     */
+    public SpaceSaving merge(SpaceSaving other) {
+        long thisMin = minIfFull();
+        long otherMin = other.minIfFull();
+        Map<String, Counter> merged = new HashMap<>();
+        for (Counter c : counters.values()) {
+            Counter o = other.counters.get(c.key());
+            merged.put(c.key(), o != null
+                    ? new Counter(c.key(), c.label(), c.count() + o.count(), c.error() + o.error())
+                    : new Counter(c.key(), c.label(), c.count() + otherMin, c.error() + otherMin));
+        }
+        for (Counter o : other.counters.values()) {
+            merged.computeIfAbsent(o.key(),
+                    k -> new Counter(k, o.label(), o.count() + thisMin, o.error() + thisMin));
+        }
+        return of(Math.max(capacity, other.capacity), new ArrayList<>(merged.values()));
+    }
+    
+    /**
+     * Largest counters first.
+     */
+    public List<Counter> top(int limit) {
+        return ordered.descendingSet().stream().limit(limit).toList();
+    }
+    
+    public List<Counter> counters() {
+        return List.copyOf(counters.values());
+    }
+    
+    public int capacity() {
+        return capacity;
+    }
+    
+    public boolean isEmpty() {
+        return counters.isEmpty();
+    }
+    
+    private long minIfFull() {
+        return counters.size() < capacity ? 0 : ordered.first().count();
+    }
+    
+    private void put(Counter counter) {
+        counters.put(counter.key(), counter);
+        ordered.add(counter);
+    }
+    
+    private void remove(Counter counter) {
+        counters.remove(counter.key());
+        ordered.remove(counter);
+    }
+    
+    private void replace(Counter old, Counter updated) {
+        ordered.remove(old);
+        put(updated);
+    }
+}
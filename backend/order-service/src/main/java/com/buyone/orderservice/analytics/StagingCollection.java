@@ -0,0 +1,51 @@
+package com.buyone.orderservice.analytics;
+
+import com.mongodb.MongoNamespace;
+import com.mongodb.client.model.RenameCollectionOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+
+import java.util.List;
+
+/**
+ * Full rebuilds of derived collections (rollups, sales buckets) write into {@code <live>_staging}
+ * and then rename it over the live collection. The rename is atomic, so readers and the $inc
+ * listeners see the old contents or the new ones, never an emptied or half-filled collection.
+ */
+public final class StagingCollection {
+    
+    static final String SUFFIX = "_staging";
+    
+    private StagingCollection() {
+    }
+    
+    public static String of(String live) {
+        return live + SUFFIX;
+    }
+    
+    /**
+     * Drops what an interrupted rebuild left behind and returns the staging collection name.
+     */
+    public static String reset(MongoTemplate mongoTemplate, String live) {
+        String staging = of(live);
+        mongoTemplate.dropCollection(staging);
+        return staging;
+    }
+    
+    /**
+     * Creates the live collection's indexes on the staging collection, then renames it over the
+     * live one (dropTarget). An empty rebuild still replaces the live contents.
+     */
+    public static void swapIn(MongoTemplate mongoTemplate, String live, List<? extends IndexDefinition> indexes) {
+        String staging = of(live);
+        if (!mongoTemplate.collectionExists(staging)) {
+            mongoTemplate.createCollection(staging);
+        }
+        IndexOperations indexOps = mongoTemplate.indexOps(staging);
+        indexes.forEach(indexOps::ensureIndex);
+        mongoTemplate.getCollection(staging).renameCollection(
+                new MongoNamespace(mongoTemplate.getDb().getName(), live),
+                new RenameCollectionOptions().dropTarget(true));
+    }
+}
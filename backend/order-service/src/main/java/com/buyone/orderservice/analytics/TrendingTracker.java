@@ -0,0 +1,193 @@
+package com.buyone.orderservice.analytics;
+
+import com.buyone.orderservice.dto.response.analytics.TrendingProduct;
+import com.buyone.orderservice.model.analytics.TrendingSketch;
+import com.buyone.orderservice.model.order.Order;
+import com.buyone.orderservice.model.order.OrderItem;
+import com.buyone.orderservice.repository.TrendingSketchRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.LongStream;
+
+/**
+ * Platform-wide best sellers over a sliding window of UTC days. Each replica keeps one in-memory
+ * Space-Saving sketch per day, fed as orders are confirmed, and checkpoints the changed days to
+ * trending_sketches; other replicas' checkpoints are merged in on every checkpoint. Reads return a
+ * precomputed snapshot (no I/O, no locking), rebuilt by {@link #refresh()}.
+ * Cancellations are not subtracted: a sketch only counts up.
+ */
+@Slf4j
+@Component
+public class TrendingTracker {
+    
+    public static final int MAX_SERVED = 50;
+    
+    // Window reads by day; checkpoints expire on their own. Also registered in MongoIndexConfig
+    public static final List<Index> INDEXES = List.of(
+            new Index().on("day", Sort.Direction.ASC).named("day"),
+            new Index().on("expiresAt", Sort.Direction.ASC).expire(Duration.ZERO).named("trending_sketch_ttl"));
+    
+    private final TrendingSketchRepository sketchRepository;
+    private final MongoTemplate mongoTemplate;
+    private final String instanceId;
+    private final int capacity;
+    private final int windowDays;
+    
+    // Guarded by this
+    private final Map<LocalDate, SpaceSaving> slices = new TreeMap<>();
+    private final Set<LocalDate> dirtyDays = new HashSet<>();
+    
+    private volatile SpaceSaving remote;
+    private volatile List<TrendingProduct> snapshot = List.of();
+    
+    public TrendingTracker(TrendingSketchRepository sketchRepository,
+                           MongoTemplate mongoTemplate,
+                           @Value("${app.analytics.trending.instance-id:${HOSTNAME:local}}") String instanceId,
+                           @Value("${app.analytics.trending.capacity:1000}") int capacity,
+                           @Value("${app.analytics.trending.window-days:7}") int windowDays) {
+        this.sketchRepository = sketchRepository;
+        this.mongoTemplate = mongoTemplate;
+        this.instanceId = instanceId;
+        this.capacity = Math.max(capacity, MAX_SERVED);
+        this.windowDays = Math.max(1, windowDays);
+        this.remote = new SpaceSaving(this.capacity);
+    }
+    
+    public void record(Order order) {
+        if (order.getItems() == null) {
+            return;
+        }
+        LocalDate today = today();
+        synchronized (this) {
+            SpaceSaving slice = slices.computeIfAbsent(today, d -> new SpaceSaving(capacity));
+            for (OrderItem item : order.getItems()) {
+                if (item.getProductId() != null && item.getQuantity() > 0) {
+                    slice.offer(item.getProductId(), item.getProductName(), item.getQuantity());
+                }
+            }
+            dirtyDays.add(today);
+        }
+    }
+    
+    public List<TrendingProduct> top(int limit) {
+        List<TrendingProduct> current = snapshot;
+        return current.subList(0, Math.min(limit, current.size()));
+    }
+    
+    /**
+     * Slides the window and rebuilds the served snapshot from local slices + remote checkpoints.
+     */
+    public void refresh() {
+        LocalDate windowStart = today().minusDays(windowDays - 1L);
+        SpaceSaving merged = remote;
+        synchronized (this) {
+            slices.keySet().removeIf(day -> day.isBefore(windowStart));
+            for (SpaceSaving slice : slices.values()) {
+                merged = merged.merge(slice);
+            }
+        }
+        snapshot = merged.top(MAX_SERVED).stream()
+                .map(c -> new TrendingProduct(c.key(), c.label(), c.count(), c.error()))
+                .toList();
+    }
+    
+    /**
+     * Saves this replica's changed days, then reloads every other replica's days in the window.
+     */
+    public void checkpoint() {
+        Map<LocalDate, List<SpaceSaving.Counter>> changed = new LinkedHashMap<>();
+        synchronized (this) {
+            for (LocalDate day : dirtyDays) {
+                SpaceSaving slice = slices.get(day);
+                if (slice != null) {
+                    changed.put(day, slice.counters());
+                }
+            }
+            dirtyDays.clear();
+        }
+        LocalDateTime now = LocalDateTime.now();
+        changed.forEach((day, counters) -> sketchRepository.save(TrendingSketch.builder()
+                .id(TrendingSketch.key(instanceId, day.toString()))
+                .instanceId(instanceId)
+                .day(day.toString())
+                .capacity(capacity)
+                .counters(counters.stream().map(TrendingTracker::toDocument).toList())
+                .updatedAt(now)
+                .expiresAt(day.plusDays(windowDays + 1L).atStartOfDay())
+                .build()));
+        
+        SpaceSaving others = new SpaceSaving(capacity);
+        for (TrendingSketch sketch : sketchRepository.findByDayIn(windowDays())) {
+            if (!instanceId.equals(sketch.getInstanceId())) {
+                others = others.merge(toSketch(sketch));
+            }
+        }
+        remote = others;
+        refresh();
+    }
+    
+    /**
+     * Reloads this replica's own checkpoints after a restart (same instance id), so its days
+     * are not overwritten with partial counts.
+     */
+    public void restore() {
+        ensureIndexes();
+        Map<LocalDate, SpaceSaving> restored = new TreeMap<>();
+        for (TrendingSketch sketch : sketchRepository.findByDayIn(windowDays())) {
+            if (instanceId.equals(sketch.getInstanceId())) {
+                restored.put(LocalDate.parse(sketch.getDay()), toSketch(sketch));
+            }
+        }
+        synchronized (this) {
+            restored.forEach((day, sketch) -> slices.merge(day, sketch, SpaceSaving::merge));
+        }
+        log.info("Restored {} trending sketch days for instance {}", restored.size(), instanceId);
+    }
+    
+    private void ensureIndexes() {
+        IndexOperations indexOps = mongoTemplate.indexOps(TrendingSketch.class);
+        INDEXES.forEach(indexOps::ensureIndex);
+    }
+    
+    private List<String> windowDays() {
+        LocalDate today = today();
+        return LongStream.range(0, windowDays)
+                .mapToObj(i -> today.minusDays(i).toString())
+                .toList();
+    }
+    
+    private SpaceSaving toSketch(TrendingSketch sketch) {
+        return SpaceSaving.of(Math.max(capacity, sketch.getCapacity()), sketch.getCounters().stream()
+                .map(c -> new SpaceSaving.Counter(c.getProductId(), c.getName(), c.getCount(), c.getError()))
+                .toList());
+    }
+    
+    private static TrendingSketch.Counter toDocument(SpaceSaving.Counter counter) {
+        return TrendingSketch.Counter.builder()
+                .productId(counter.key())
+                .name(counter.label())
+                .count(counter.count())
+                .error(counter.error())
+                .build();
+    }
+    
+    private static LocalDate today() {
+        return LocalDate.now(ZoneOffset.UTC);
+    }
+}
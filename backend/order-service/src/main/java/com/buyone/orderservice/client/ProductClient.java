@@ -1,5 +1,7 @@
 package com.buyone.orderservice.client;
 
+import com.buyone.orderservice.dto.request.CommitStockRequest;
+import com.buyone.orderservice.dto.request.ProductBatchRequest;
 import com.buyone.orderservice.dto.request.ReserveStockRequest;
 import com.buyone.orderservice.dto.request.ReleaseStockRequest;
 import com.buyone.orderservice.dto.response.ProductResponse;
@@ -10,11 +12,16 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.PathVariable;
 
+import java.util.List;
+
 @FeignClient(name = "product-service")
 public interface ProductClient {
     @GetMapping("/products/{id}")
     ApiResponse<ProductResponse> getById(@PathVariable("id") String id);
     
+    @PostMapping("/products/batch")
+    ApiResponse<List<ProductResponse>> getByIds(@RequestBody ProductBatchRequest request);
+    
     @PostMapping("/products/stock/reserve")
     ApiResponse<Void> reserveStock(@RequestBody ReserveStockRequest request);
     
@@ -23,4 +30,7 @@ public interface ProductClient {
     
     @PostMapping("products/stock/commit/{orderNumber}")
     ApiResponse<Void> commitStock(@PathVariable("orderNumber") String orderNumber);
+    
+    @PostMapping("/products/stock/commit")
+    ApiResponse<Void> commitStockBatch(@RequestBody CommitStockRequest request);
 }
@@ -0,0 +1,59 @@
+package com.buyone.orderservice.config;
+
+import org.bson.types.Decimal128;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.data.convert.ReadingConverter;
+import org.springframework.data.convert.WritingConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.util.List;
+
+/**
+ * Money (BigDecimal) is stored as Decimal128 instead of Spring Data's default string, so range
+ * filters compare numerically and pipelines $sum it without $toDouble. Legacy string values still
+ * read back (default String → BigDecimal conversion) until DecimalMoneyMigration has rewritten them.
+ * <p>
+ * Kept identical to product-service's MongoConversionsConfig: the services share no module, so a change
+ * to the write conversion goes into both copies.
+ */
+@Configuration
+public class MongoConversionsConfig {
+    
+    @Bean
+    public MongoCustomConversions mongoCustomConversions() {
+        return new MongoCustomConversions(List.of(BigDecimalToDecimal128.INSTANCE, Decimal128ToBigDecimal.INSTANCE));
+    }
+    
+    @WritingConverter
+    enum BigDecimalToDecimal128 implements Converter<BigDecimal, Decimal128> {
+        INSTANCE;
+        
+        // Decimal128 holds 34 significant digits and exponents down to -6176; new Decimal128 throws
+        // rather than round, so round here (HALF_EVEN, as MongoDB's own $toDecimal does)
+        static final int MAX_SCALE = 6176;
+        
+        @Override
+        public Decimal128 convert(BigDecimal source) {
+            BigDecimal rounded = source.round(MathContext.DECIMAL128);
+            if (rounded.scale() > MAX_SCALE) {
+                rounded = rounded.setScale(MAX_SCALE, RoundingMode.HALF_EVEN);
+            }
+            return new Decimal128(rounded);
+        }
+    }
+    
+    @ReadingConverter
+    enum Decimal128ToBigDecimal implements Converter<Decimal128, BigDecimal> {
+        INSTANCE;
+        
+        @Override
+        public BigDecimal convert(Decimal128 source) {
+            return source.bigDecimalValue();
+        }
+    }
+}
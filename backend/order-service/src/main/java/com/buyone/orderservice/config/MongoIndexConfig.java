@@ -0,0 +1,59 @@
+package com.buyone.orderservice.config;
+
+import com.buyone.orderservice.analytics.AnalyticsRollupWriter;
+import com.buyone.orderservice.analytics.SalesBucketWriter;
+import com.buyone.orderservice.analytics.TrendingTracker;
+import com.buyone.orderservice.listener.OrderArchiveListener;
+import com.buyone.orderservice.model.analytics.SalesBucket;
+import com.buyone.orderservice.model.analytics.TrendingSketch;
+import com.buyone.orderservice.model.cart.Cart;
+import com.buyone.orderservice.model.order.Order;
+import com.buyone.orderservice.repository.index.IndexRegistry;
+import com.buyone.orderservice.repository.index.RequiredIndex;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static com.buyone.orderservice.repository.OrderRepositoryCustomImpl.ARCHIVE_COLLECTION;
+
+/**
+ * The indexes order-service needs, created at startup by {@link IndexRegistry}:
+ * annotations on Order / Cart, plus the collections whose owners declare indexes in code.
+ * mongo.indexes.missing counts required indexes that don't exist (alert on > 0).
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.mongo.indexes.enabled", havingValue = "true", matchIfMissing = true)
+public class MongoIndexConfig {
+    
+    // Replaced declarations: the global product-name text index, now prefixed by userId
+    static final Map<String, List<String>> RETIRED_INDEXES = Map.of(
+            "orders", List.of("items_product_name_text"));
+    
+    @Bean
+    public IndexRegistry indexRegistry(MongoTemplate mongoTemplate, MeterRegistry meterRegistry) {
+        IndexRegistry registry = new IndexRegistry(mongoTemplate, requiredIndexes(mongoTemplate), RETIRED_INDEXES);
+        Gauge.builder("mongo.indexes.missing", registry, r -> r.missing().size())
+                .description("Required MongoDB indexes that do not exist")
+                .register(meterRegistry);
+        return registry;
+    }
+    
+    public static List<RequiredIndex> requiredIndexes(MongoTemplate mongoTemplate) {
+        List<RequiredIndex> required = new ArrayList<>(IndexRegistry.fromEntities(
+                mongoTemplate.getConverter().getMappingContext(), Order.class, Cart.class));
+        required.add(new RequiredIndex(ARCHIVE_COLLECTION, OrderArchiveListener.ARCHIVE_INDEX));
+        AnalyticsRollupWriter.ARCHIVE_INDEXES.forEach(index -> required.add(new RequiredIndex(ARCHIVE_COLLECTION, index)));
+        String buckets = mongoTemplate.getCollectionName(SalesBucket.class);
+        SalesBucketWriter.INDEXES.forEach(index -> required.add(new RequiredIndex(buckets, index)));
+        String trending = mongoTemplate.getCollectionName(TrendingSketch.class);
+        TrendingTracker.INDEXES.forEach(index -> required.add(new RequiredIndex(trending, index)));
+        return required;
+    }
+}
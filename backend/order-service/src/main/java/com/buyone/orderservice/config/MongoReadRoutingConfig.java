@@ -0,0 +1,67 @@
+package com.buyone.orderservice.config;
+
+import com.buyone.orderservice.repository.routing.ReadRouteInterceptor;
+import com.buyone.orderservice.repository.routing.ReadRoutingMetrics;
+import com.buyone.orderservice.repository.routing.ReadRoutingMongoTemplate;
+import com.buyone.orderservice.repository.routing.SecondaryRead;
+import com.mongodb.ReadPreference;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sends {@link SecondaryRead} repository methods (analytics aggregations, seller listings, export)
+ * to secondaryPreferred with a max-staleness bound, so they stop competing with checkout writes
+ * on the primary. Everything else stays on the primary, buyer order reads included (a buyer expects
+ * to see the order just placed); mongo.reads{route, server} shows where reads land.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.mongo.secondary-reads.enabled", havingValue = "true", matchIfMissing = true)
+public class MongoReadRoutingConfig {
+    
+    // Driver minimum: maxStalenessSeconds below 90 is rejected
+    static final long MIN_MAX_STALENESS_SECONDS = 90;
+    
+    @Value("${app.mongo.secondary-reads.max-staleness-seconds:90}")
+    private long maxStalenessSeconds;
+    
+    @Bean
+    public MongoTemplate mongoTemplate(MongoDatabaseFactory databaseFactory, MongoConverter converter) {
+        ReadPreference secondaryRead = ReadPreference.secondaryPreferred(
+                Math.max(maxStalenessSeconds, MIN_MAX_STALENESS_SECONDS), TimeUnit.SECONDS);
+        return new ReadRoutingMongoTemplate(databaseFactory, converter, secondaryRead);
+    }
+    
+    /**
+     * Adds the route advice to every repository proxy (before the factory beans create them).
+     */
+    @Bean
+    public static BeanPostProcessor secondaryReadRepositories() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> factoryBean) {
+                    factoryBean.addRepositoryFactoryCustomizer(factory -> factory.addRepositoryProxyPostProcessor(
+                            (proxy, repository) -> proxy.addAdvice(
+                                    new ReadRouteInterceptor(repository.getRepositoryInterface()))));
+                }
+                return bean;
+            }
+        };
+    }
+    
+    @Bean
+    public MongoClientSettingsBuilderCustomizer readRoutingMetrics(MeterRegistry meterRegistry) {
+        return settings -> settings.addCommandListener(new ReadRoutingMetrics(meterRegistry));
+    }
+}
@@ -2,15 +2,20 @@ package com.buyone.orderservice.controller;
 
 import com.buyone.orderservice.dto.response.ApiResponse;
 import com.buyone.orderservice.dto.response.analytics.ClientAnalyticsResponse;
+import com.buyone.orderservice.dto.response.analytics.SalesTimeseriesResponse;
 import com.buyone.orderservice.dto.response.analytics.SellerAnalyticsResponse;
+import com.buyone.orderservice.dto.response.analytics.TrendingProduct;
 import com.buyone.orderservice.service.ProfileAnalyticsService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.List;
+
 @RestController
 @RequestMapping("/api/analytics")
 @RequiredArgsConstructor
@@ -39,4 +44,29 @@ public class AnalyticsController {
                 .data(analytics)
                 .build());
     }
+    
+    @GetMapping("/seller/{sellerId}/timeseries")
+    public ResponseEntity<ApiResponse<SalesTimeseriesResponse>> getSellerTimeseries(
+            @PathVariable String sellerId,
+            @RequestParam(defaultValue = "day") String granularity,
+            @RequestParam(required = false) String from,
+            @RequestParam(required = false) String to) {
+        SalesTimeseriesResponse timeseries = profileAnalyticsService.getSellerTimeseries(sellerId, granularity, from, to);
+        return ResponseEntity.ok(ApiResponse.<SalesTimeseriesResponse>builder()
+                .success(true)
+                .message("Seller timeseries fetched successfully")
+                .data(timeseries)
+                .build());
+    }
+    
+    @GetMapping("/trending")
+    public ResponseEntity<ApiResponse<List<TrendingProduct>>> getTrending(
+            @RequestParam(defaultValue = "10") int limit) {
+        List<TrendingProduct> trending = profileAnalyticsService.getTrending(limit);
+        return ResponseEntity.ok(ApiResponse.<List<TrendingProduct>>builder()
+                .success(true)
+                .message("Trending products fetched successfully")
+                .data(trending)
+                .build());
+    }
 }
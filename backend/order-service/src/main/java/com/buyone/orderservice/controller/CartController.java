@@ -1,6 +1,8 @@
 package com.buyone.orderservice.controller;
 
+import com.buyone.orderservice.dto.request.cart.BulkAddCartItemsRequest;
 import com.buyone.orderservice.dto.response.ApiResponse;
+import com.buyone.orderservice.dto.response.cart.BulkAddCartItemsResponse;
 
 import com.buyone.orderservice.model.cart.Cart;
 import com.buyone.orderservice.model.cart.CartItem;
@@ -41,13 +43,30 @@ public class CartController {
                 .build());
     }
     
+    @PostMapping("/items/bulk")
+    @Operation(summary = "Add many items to cart", description = "Buy-again / wishlist: one product lookup, one cart write, per-item results")
+    public ResponseEntity<ApiResponse<BulkAddCartItemsResponse>> addItems(
+            @RequestHeader("X-USER-ID") String userId,
+            @RequestHeader("X-USER-ROLE") String role,
+            @Valid @RequestBody BulkAddCartItemsRequest req) {
+        validateRole(role, CLIENT_ROLE);
+        log.debug("Bulk adding {} items to cart for user: {}", req.getItems().size(), userId);
+        BulkAddCartItemsResponse result = cartService.addItems(userId, req.getItems());
+        return ResponseEntity.ok(ApiResponse.<BulkAddCartItemsResponse>builder()
+                .success(result.getFailed() == 0)
+                .message(result.getAdded() + " added, " + result.getFailed() + " failed")
+                .data(result)
+                .build());
+    }
+    
     @GetMapping
-    @Operation(summary = "Get current cart")
+    @Operation(summary = "Get current cart", description = "revalidate=true re-checks price/stock and flags changed items")
     public ResponseEntity<ApiResponse<Optional<Cart>>> getCart(
             @RequestHeader("X-USER-ID") String userId,
-            @RequestHeader("X-USER-ROLE") String role) {
+            @RequestHeader("X-USER-ROLE") String role,
+            @RequestParam(defaultValue = "false") boolean revalidate) {
         
-        Optional<Cart> cartOpt = cartService.getCart(userId);
+        Optional<Cart> cartOpt = revalidate ? cartService.revalidateCart(userId) : cartService.getCart(userId);
         if (cartOpt.isEmpty()) {
             return ResponseEntity.ok(ApiResponse.<Optional<Cart>>builder()
                     .success(true)
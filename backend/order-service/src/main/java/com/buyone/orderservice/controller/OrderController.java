@@ -1,9 +1,14 @@
 package com.buyone.orderservice.controller;
 
+import com.buyone.orderservice.dto.request.order.BulkUpdateOrderStatusRequest;
 import com.buyone.orderservice.dto.request.order.CreateOrderRequest;
+import com.buyone.orderservice.dto.request.order.ExportFormat;
 import com.buyone.orderservice.dto.request.order.OrderSearchRequest;
 import com.buyone.orderservice.dto.response.ApiResponse;
+import com.buyone.orderservice.dto.response.CursorPage;
+import com.buyone.orderservice.dto.response.order.BulkOrderStatusResponse;
 import com.buyone.orderservice.dto.response.order.OrderResponse;
+import com.buyone.orderservice.dto.response.order.OrderSummaryResponse;
 import com.buyone.orderservice.dto.response.order.OrderItemResponse;
 import com.buyone.orderservice.model.order.Order;
 import com.buyone.orderservice.model.order.OrderStatus;
@@ -16,11 +21,15 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -30,6 +39,8 @@ import java.util.stream.Collectors;
 @Slf4j
 public class OrderController {
     
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+    
     private final OrderService orderService;
     
     @PostMapping("/checkout")
@@ -67,6 +78,23 @@ public class OrderController {
                 .build());
     }
     
+    @GetMapping(value = "/buyer", params = "limit")
+    @Operation(summary = "Get buyer order history (cursor-paginated)",
+               description = "Newest first, summary rows only; pass nextCursor as ?cursor= for the next page")
+    public ResponseEntity<ApiResponse<CursorPage<OrderSummaryResponse>>> getBuyerOrderHistory(
+            @RequestParam int limit,
+            @RequestParam(required = false) String cursor,
+            @RequestHeader("X-USER-ID") String userId,
+            @RequestHeader("X-USER-ROLE") String role) {
+        validateRole(role, "CLIENT");
+        CursorPage<OrderSummaryResponse> page = orderService.getBuyerOrderHistory(userId, cursor, limit);
+        return ResponseEntity.ok(ApiResponse.<CursorPage<OrderSummaryResponse>>builder()
+                .success(true)
+                .message("Buyer order history fetched successfully")
+                .data(page)
+                .build());
+    }
+    
     @GetMapping("/{orderNumber}")
     @Operation(summary = "Get order details")
     public ResponseEntity<ApiResponse<OrderResponse>> getOrder(@PathVariable String orderNumber) {
@@ -99,6 +127,22 @@ public class OrderController {
                 .build());
     }
     
+    @PutMapping("/status/bulk")
+    @Operation(summary = "Bulk update order status", description = "Seller: one call for many orders, per-order results")
+    public ResponseEntity<ApiResponse<BulkOrderStatusResponse>> bulkUpdateStatus(
+            @Valid @RequestBody BulkUpdateOrderStatusRequest req,
+            @RequestHeader("X-USER-ID") String sellerId,
+            @RequestHeader("X-USER-ROLE") String role) {
+        validateRole(role, "SELLER");
+        log.info("Seller {} bulk updating {} orders to {}", sellerId, req.getOrderNumbers().size(), req.getStatus());
+        BulkOrderStatusResponse result = orderService.bulkUpdateStatus(sellerId, req.getOrderNumbers(), req.getStatus());
+        return ResponseEntity.ok(ApiResponse.<BulkOrderStatusResponse>builder()
+                .success(result.getFailed() == 0)
+                .message(result.getUpdated() + " updated, " + result.getFailed() + " failed")
+                .data(result)
+                .build());
+    }
+    
     @PostMapping("/{orderNumber}/confirm")
     @Operation(summary = "Seller confirms PENDING order", description = "Pay on Delivery final step")
     public ResponseEntity<ApiResponse<OrderResponse>> confirmOrder(
@@ -153,15 +197,17 @@ public class OrderController {
     }
     
     @GetMapping("/buyer/search")
-    @Operation(summary = "Search buyer orders")
-    public ResponseEntity<ApiResponse<Page<OrderResponse>>> searchMyOrders(
+    @Operation(summary = "Search buyer orders",
+            description = "slice=true returns a SliceResponse (hasNext, no count query); withTotal=true adds the total")
+    public ResponseEntity<ApiResponse<?>> searchMyOrders(
             @Valid @ModelAttribute OrderSearchRequest req,
             @RequestHeader("X-USER-ID") String userId,
             @RequestHeader("X-USER-ROLE") String role) {
         validateRole(role, "CLIENT");
-        Page<OrderResponse> orders = orderService.searchBuyerOrders(userId, req)
-                .map(this::mapToOrderResponse);
-        return ResponseEntity.ok(ApiResponse.<Page<OrderResponse>>builder()
+        Object orders = Boolean.TRUE.equals(req.getSlice())
+                ? orderService.searchBuyerOrderSlice(userId, req).map(this::mapToOrderResponse)
+                : orderService.searchBuyerOrders(userId, req).map(this::mapToOrderResponse);
+        return ResponseEntity.ok(ApiResponse.builder()
                 .success(true)
                 .message("Buyer orders search completed")
                 .data(orders)
@@ -186,6 +232,27 @@ public class OrderController {
                 .build());
     }
     
+    @GetMapping("/seller/export")
+    @Operation(summary = "Export seller orders", description = "Streams CSV or NDJSON (one row per order line), no paging")
+    public ResponseEntity<StreamingResponseBody> exportSellerOrders(
+            @RequestParam(defaultValue = "CSV") ExportFormat format,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String startDate,
+            @RequestParam(required = false) String endDate,
+            @RequestHeader("X-USER-ID") String sellerId,
+            @RequestHeader("X-USER-ROLE") String role) {
+        validateRole(role, "SELLER");
+        // Filters are validated here, before the response is committed
+        OrderService.OrderExport export = orderService.exportSellerOrders(sellerId, status, startDate, endDate, format);
+        
+        boolean csv = format == ExportFormat.CSV;
+        String filename = "orders-" + sellerId + (csv ? ".csv" : ".ndjson");
+        return ResponseEntity.ok()
+                .contentType(csv ? new MediaType("text", "csv", StandardCharsets.UTF_8) : NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+                .body(export::writeTo);
+    }
+    
     private void validateRole(String role, String requiredRole) {
         if (!requiredRole.equals(role)) {
             throw new BadRequestException("Required role: " + requiredRole + ", got: " + role);
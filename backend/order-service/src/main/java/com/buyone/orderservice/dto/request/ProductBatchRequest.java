@@ -0,0 +1,16 @@
+package com.buyone.orderservice.dto.request;
+
+import jakarta.validation.constraints.NotEmpty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductBatchRequest {
+    @NotEmpty(message = "Product IDs are required")
+    private List<String> ids;
+}
@@ -3,10 +3,12 @@ package com.buyone.orderservice.dto.request.cart;
 
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
+import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.Builder;
+import lombok.NoArgsConstructor;
 
-@Data @Builder
+@Data @Builder @NoArgsConstructor @AllArgsConstructor
 public class AddCartItemRequest {
     @NotBlank String productId;
     @NotBlank String sellerId;
@@ -0,0 +1,18 @@
+package com.buyone.orderservice.dto.request.cart;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.*;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkAddCartItemsRequest {
+    @NotEmpty(message = "Items are required")
+    @Size(max = 50, message = "At most 50 items per request")
+    private List<@Valid AddCartItemRequest> items;
+}
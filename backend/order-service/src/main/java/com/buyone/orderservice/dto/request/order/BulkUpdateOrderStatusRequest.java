@@ -0,0 +1,22 @@
+package com.buyone.orderservice.dto.request.order;
+
+import com.buyone.orderservice.model.order.OrderStatus;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.*;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkUpdateOrderStatusRequest {
+    @NotEmpty(message = "Order numbers are required")
+    @Size(max = 500, message = "At most 500 orders per request")
+    private List<String> orderNumbers;
+    
+    @NotNull(message = "Status is required")
+    private OrderStatus status;
+}
@@ -0,0 +1,6 @@
+package com.buyone.orderservice.dto.request.order;
+
+public enum ExportFormat {
+    CSV,     // text/csv, header row + one row per order line
+    NDJSON   // application/x-ndjson, one JSON object per order line
+}
@@ -21,4 +21,11 @@ public class OrderSearchRequest {
     @Min(1)
     @Builder.Default
     private Integer size = 10;
+
+    // Slice mode: no count query, hasNext from one extra row; withTotal adds the count back
+    @Builder.Default
+    private Boolean slice = false;
+
+    @Builder.Default
+    private Boolean withTotal = false;
 }
@@ -0,0 +1,37 @@
+package com.buyone.orderservice.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Slice;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Offset page for infinite scroll: items plus hasNext, without Page's pageable/sort metadata.
+ * total is only set when the client asked for it, since it needs a count query.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SliceResponse<T> {
+    private List<T> items;
+    private int page;
+    private int size;
+    private boolean hasNext;
+    
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Long total;
+    
+    public static <T> SliceResponse<T> of(Slice<T> slice, Long total) {
+        return new SliceResponse<>(slice.getContent(), slice.getNumber(), slice.getSize(), slice.hasNext(), total);
+    }
+    
+    public <R> SliceResponse<R> map(Function<? super T, ? extends R> mapper) {
+        return new SliceResponse<>(items.stream().<R>map(mapper).toList(), page, size, hasNext, total);
+    }
+}
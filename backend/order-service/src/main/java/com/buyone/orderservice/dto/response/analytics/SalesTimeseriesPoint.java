@@ -0,0 +1,15 @@
+package com.buyone.orderservice.dto.response.analytics;
+
+import com.buyone.orderservice.model.analytics.BucketGranularity;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+public record SalesTimeseriesPoint(
+        LocalDate bucketStart,
+        BucketGranularity granularity,   // coarser than requested where history is compacted
+        long orders,
+        long units,
+        long uniqueBuyers,
+        BigDecimal revenue
+) {}
@@ -0,0 +1,16 @@
+package com.buyone.orderservice.dto.response.analytics;
+
+import com.buyone.orderservice.model.analytics.BucketGranularity;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public record SalesTimeseriesResponse(
+        String sellerId,
+        BucketGranularity granularity,
+        LocalDate from,
+        LocalDate to,
+        List<SalesTimeseriesPoint> points,
+        long uniqueBuyers,           // across the whole range, from merged bucket sketches
+        double uniqueBuyersError
+) {}
@@ -7,5 +7,7 @@ public record SellerAnalyticsResponse(
         BigDecimal totalRevenue,
         List<SellerBestProduct> bestSellingProducts,
         Integer totalUnitsSold,
-        List<SellerTopCategory> topCategories
+        List<SellerTopCategory> topCategories,
+        Long uniqueBuyers,
+        Double uniqueBuyersError     // relative standard error: 0 when exact, ~0.008 from the sketch
 ) {}
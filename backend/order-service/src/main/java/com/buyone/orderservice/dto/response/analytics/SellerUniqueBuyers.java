@@ -0,0 +1,3 @@
+package com.buyone.orderservice.dto.response.analytics;
+
+public record SellerUniqueBuyers(Long uniqueBuyers) {}
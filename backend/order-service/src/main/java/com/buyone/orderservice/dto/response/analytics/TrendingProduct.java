@@ -0,0 +1,8 @@
+package com.buyone.orderservice.dto.response.analytics;
+
+public record TrendingProduct(
+        String productId,
+        String name,
+        long unitsSold,     // upper bound: exact within maxError
+        long maxError
+) {}
@@ -0,0 +1,16 @@
+package com.buyone.orderservice.dto.response.cart;
+
+import com.buyone.orderservice.model.cart.Cart;
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+public class BulkAddCartItemsResponse {
+    private int added;
+    private int failed;
+    private Cart cart;
+    private List<BulkCartItemResult> results;
+}
@@ -0,0 +1,14 @@
+package com.buyone.orderservice.dto.response.cart;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class BulkCartItemResult {
+    private String productId;
+    private String sellerId;
+    private int quantity;
+    private boolean success;
+    private String message;
+}
@@ -0,0 +1,14 @@
+package com.buyone.orderservice.dto.response.order;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+public class BulkOrderStatusResponse {
+    private int updated;
+    private int failed;
+    private List<BulkOrderStatusResult> results;
+}
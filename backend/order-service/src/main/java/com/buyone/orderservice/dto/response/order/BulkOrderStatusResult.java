@@ -0,0 +1,15 @@
+package com.buyone.orderservice.dto.response.order;
+
+import com.buyone.orderservice.model.order.OrderStatus;
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class BulkOrderStatusResult {
+    private String orderNumber;
+    private boolean success;
+    private OrderStatus previousStatus;
+    private OrderStatus status;
+    private String message;
+}
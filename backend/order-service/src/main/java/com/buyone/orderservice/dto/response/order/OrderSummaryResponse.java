@@ -0,0 +1,21 @@
+package com.buyone.orderservice.dto.response.order;
+
+import com.buyone.orderservice.model.order.OrderStatus;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Buyer order-history row, projected server-side (no addresses, no item lines).
+ * Full detail: GET /api/orders/{orderNumber}.
+ */
+public record OrderSummaryResponse(
+        @JsonIgnore String id,   // cursor tie-breaker only
+        String orderNumber,
+        OrderStatus status,
+        BigDecimal total,
+        Integer itemCount,
+        String firstImageUrl,
+        LocalDateTime createdAt
+) {}
@@ -0,0 +1,11 @@
+package com.buyone.orderservice.event;
+
+import com.buyone.orderservice.model.order.Order;
+import com.buyone.orderservice.model.order.OrderStatus;
+
+/**
+ * Published after an order's new status has been saved.
+ * previousStatus is null for a newly created order.
+ */
+public record OrderStatusChangedEvent(Order order, OrderStatus previousStatus, OrderStatus newStatus) {
+}
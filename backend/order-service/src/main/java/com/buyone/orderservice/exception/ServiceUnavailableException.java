@@ -0,0 +1,21 @@
+package com.buyone.orderservice.exception;
+
+public class ServiceUnavailableException extends RuntimeException {
+    
+    public ServiceUnavailableException() {
+        super();
+    }
+    
+    public ServiceUnavailableException(String message) {
+        super(message);
+    }
+    
+    public ServiceUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+    
+    public ServiceUnavailableException(Throwable cause) {
+        super(cause);
+    }
+    
+}
\ No newline at end of file
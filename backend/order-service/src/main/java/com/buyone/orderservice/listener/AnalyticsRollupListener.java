@@ -0,0 +1,47 @@
+package com.buyone.orderservice.listener;
+
+import com.buyone.orderservice.analytics.AnalyticsRollupWriter;
+import com.buyone.orderservice.analytics.AnalyticsUpdateExecutor;
+import com.buyone.orderservice.event.OrderStatusChangedEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Keeps buyer/seller analytics rollups current: an order entering the counted statuses
+ * adds its contribution, leaving them (e.g. cancelled after confirmation) subtracts it.
+ * Moves within the set (CONFIRMED → SHIPPED → DELIVERED) change nothing.
+ * A failed update is logged, never surfaced to the order flow; rebuild repairs drift.
+ * The $inc upserts run on the {@link AnalyticsUpdateExecutor}, not on the request thread, and
+ * only once the status change is committed (this service runs without a transaction manager,
+ * so fallbackExecution dispatches them at publish time, which is already after the save).
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.analytics.rollups.enabled", havingValue = "true", matchIfMissing = true)
+public class AnalyticsRollupListener {
+    
+    private final AnalyticsRollupWriter rollupWriter;
+    private final AnalyticsUpdateExecutor updateExecutor;
+    
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onOrderStatusChanged(OrderStatusChangedEvent event) {
+        boolean before = AnalyticsRollupWriter.counts(event.previousStatus());
+        boolean after = AnalyticsRollupWriter.counts(event.newStatus());
+        if (before == after) {
+            return;
+        }
+        updateExecutor.execute("rollup", () -> {
+            try {
+                rollupWriter.apply(event.order(), after ? 1 : -1);
+            } catch (Exception e) {
+                log.error("Analytics rollup update failed for order {} ({} → {}): {}",
+                        event.order().getOrderNumber(), event.previousStatus(), event.newStatus(), e.getMessage());
+            }
+        });
+    }
+}
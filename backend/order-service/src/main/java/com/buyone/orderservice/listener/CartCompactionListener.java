@@ -0,0 +1,76 @@
+package com.buyone.orderservice.listener;
+
+import com.buyone.orderservice.model.cart.Cart;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Cart tiering: carts untouched for app.cart.compaction.stale-after-days are compacted down to
+ * productId/sellerId/price/quantity (display fields are refilled on the next read, see CartServiceImpl),
+ * and carts left empty are dropped by a TTL index on emptySince after app.cart.empty-ttl-days.
+ * Indexes are ensured here because auto-index-creation is off.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.cart.compaction.enabled", havingValue = "true", matchIfMissing = true)
+public class CartCompactionListener {
+    
+    static final String EMPTY_CART_TTL_INDEX = "empty_cart_ttl";
+    
+    private final MongoTemplate mongoTemplate;
+    
+    @Value("${app.cart.compaction.stale-after-days:30}")
+    private int staleAfterDays;
+    
+    @Value("${app.cart.empty-ttl-days:7}")
+    private int emptyTtlDays;
+    
+    private volatile boolean indexesEnsured;
+    
+    @Scheduled(fixedDelayString = "${app.cart.compaction.interval-ms:3600000}",
+               initialDelayString = "${app.cart.compaction.initial-delay-ms:120000}")
+    public void compactStaleCarts() {
+        ensureIndexes();
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(staleAfterDays);
+        
+        // Only carts still carrying display fields, so a compacted cart is not rewritten every run
+        Query stale = new Query(Criteria.where("updatedAt").lt(cutoff)
+                .and("items.productName").exists(true));
+        Update strip = new Update()
+                .unset("items.$[].productName")
+                .unset("items.$[].imageUrl")
+                .inc("version", 1);
+        long compacted = mongoTemplate.updateMulti(stale, strip, Cart.class).getModifiedCount();
+        
+        if (compacted > 0) {
+            log.info("Compacted {} carts idle for more than {} days", compacted, staleAfterDays);
+        }
+    }
+    
+    private void ensureIndexes() {
+        if (indexesEnsured) {
+            return;
+        }
+        IndexOperations indexOps = mongoTemplate.indexOps(Cart.class);
+        indexOps.ensureIndex(new Index().on("updatedAt", Sort.Direction.ASC).named("updatedAt"));
+        indexOps.ensureIndex(new Index().on("emptySince", Sort.Direction.ASC)
+                .expire(Duration.ofDays(emptyTtlDays))
+                .named(EMPTY_CART_TTL_INDEX));
+        indexesEnsured = true;
+    }
+}
@@ -0,0 +1,159 @@
+package com.buyone.orderservice.listener;
+
+import com.buyone.orderservice.model.order.OrderStatus;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+
+import static com.buyone.orderservice.repository.OrderRepositoryCustomImpl.ARCHIVE_COLLECTION;
+
+/**
+ * Hot/cold tiering: moves DELIVERED/CANCELLED orders older than app.archive.min-age-days
+ * from `orders` into `orders_archive`, in _id order, batch by batch.
+ * Copy is an idempotent upsert and the hot delete happens after it, so a crash mid-batch
+ * only means the batch is copied again. The last archived _id is checkpointed (resume token)
+ * so an interrupted pass continues where it stopped.
+ * <p>
+ * Opt-in (app.archive.enabled=true). Only getOrder falls back to the archive; once an order
+ * is moved it is intentionally no longer returned by the buyer/seller order lists, the seller
+ * export or the pipeline analytics (the app.analytics.rollups.enabled=false path). The
+ * rollups and sales buckets keep counting it: they are maintained from order events and their
+ * rebuilds/backfills read orders and orders_archive together.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.archive.enabled", havingValue = "true")
+public class OrderArchiveListener {
+    
+    static final String HOT_COLLECTION = "orders";
+    static final String CHECKPOINT_COLLECTION = "archive_checkpoints";
+    static final String CHECKPOINT_ID = "orders";
+    static final List<String> TERMINAL_STATUSES =
+            List.of(OrderStatus.DELIVERED.name(), OrderStatus.CANCELLED.name());
+    // Archived order lookups by number; created by the IndexRegistry (MongoIndexConfig), like the
+    // status_updated_id_idx on orders that batchQuery runs on
+    public static final Index ARCHIVE_INDEX = new Index().on("orderNumber", Sort.Direction.ASC).unique().named("orderNumber");
+    
+    private final MongoTemplate mongoTemplate;
+    
+    @Value("${app.archive.min-age-days:180}")
+    private int minAgeDays;
+    
+    @Value("${app.archive.batch-size:500}")
+    private int batchSize;
+    
+    @Value("${app.archive.max-batches-per-run:20}")
+    private int maxBatchesPerRun;
+    
+    @Value("${app.archive.throttle-ms:200}")
+    private long throttleMs;
+    
+    @Scheduled(fixedDelayString = "${app.archive.interval-ms:3600000}",
+               initialDelayString = "${app.archive.initial-delay-ms:60000}")
+    public void archiveTerminalOrders() {
+        Date cutoff = Date.from(LocalDateTime.now().minusDays(minAgeDays)
+                .atZone(ZoneId.systemDefault()).toInstant());
+        ObjectId resumeAfter = loadCheckpoint();
+        int moved = 0;
+        
+        for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+            List<Document> orders = mongoTemplate.find(batchQuery(cutoff, resumeAfter), Document.class, HOT_COLLECTION);
+            if (orders.isEmpty()) {
+                clearCheckpoint();  // pass complete → next run starts over, on status_updated_id_idx
+                break;
+            }
+            
+            moved += moveBatch(orders);
+            if (orders.size() < batchSize) {
+                clearCheckpoint();
+                break;
+            }
+            resumeAfter = orders.get(orders.size() - 1).getObjectId("_id");
+            saveCheckpoint(resumeAfter);
+            if (!pause()) {
+                break;
+            }
+        }
+        
+        if (moved > 0) {
+            log.info("Archived {} terminal orders older than {} days", moved, minAgeDays);
+        }
+    }
+    
+    public Query batchQuery(Date cutoff, ObjectId resumeAfter) {
+        Criteria criteria = Criteria.where("status").in(TERMINAL_STATUSES)
+                .and("updatedAt").lt(cutoff);
+        if (resumeAfter != null) {
+            criteria.and("_id").gt(resumeAfter);
+        }
+        return new Query(criteria)
+                .with(Sort.by(Sort.Direction.ASC, "_id"))
+                .limit(batchSize);
+    }
+    
+    private int moveBatch(List<Document> orders) {
+        BulkOperations copy = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ARCHIVE_COLLECTION);
+        Date archivedAt = new Date();
+        List<Object> ids = orders.stream().map(o -> o.get("_id")).toList();
+        for (Document order : orders) {
+            order.put("archivedAt", archivedAt);
+            copy.replaceOne(new Query(Criteria.where("_id").is(order.get("_id"))), order,
+                    FindAndReplaceOptions.options().upsert());
+        }
+        copy.execute();
+        
+        // Status guard: never drop an order that left a terminal state meanwhile
+        Query remove = new Query(Criteria.where("_id").in(ids).and("status").in(TERMINAL_STATUSES));
+        return (int) mongoTemplate.remove(remove, HOT_COLLECTION).getDeletedCount();
+    }
+    
+    private ObjectId loadCheckpoint() {
+        Document checkpoint = mongoTemplate.findById(CHECKPOINT_ID, Document.class, CHECKPOINT_COLLECTION);
+        return checkpoint != null ? checkpoint.getObjectId("lastId") : null;
+    }
+    
+    private void saveCheckpoint(ObjectId lastId) {
+        mongoTemplate.upsert(new Query(Criteria.where("_id").is(CHECKPOINT_ID)),
+                Update.update("lastId", lastId).set("updatedAt", new Date()),
+                CHECKPOINT_COLLECTION);
+    }
+    
+    private void clearCheckpoint() {
+        mongoTemplate.remove(new Query(Criteria.where("_id").is(CHECKPOINT_ID)), CHECKPOINT_COLLECTION);
+    }
+    
+    /**
+     * Throttle between batches so archiving never saturates the primary.
+     */
+    private boolean pause() {
+        if (throttleMs <= 0) {
+            return true;
+        }
+        try {
+            Thread.sleep(throttleMs);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
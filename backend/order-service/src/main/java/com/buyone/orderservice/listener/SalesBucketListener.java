@@ -0,0 +1,68 @@
+package com.buyone.orderservice.listener;
+
+import com.buyone.orderservice.analytics.AnalyticsRollupWriter;
+import com.buyone.orderservice.analytics.AnalyticsUpdateExecutor;
+import com.buyone.orderservice.analytics.SalesBucketWriter;
+import com.buyone.orderservice.event.OrderStatusChangedEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+
+/**
+ * Keeps seller sales buckets current (same counted statuses as the analytics rollups) and
+ * periodically compacts aged DAY/WEEK buckets. Failures are logged, never surfaced to the order flow.
+ * Bucket updates run on the {@link AnalyticsUpdateExecutor} after the status change is committed,
+ * as in AnalyticsRollupListener.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.analytics.timeseries.enabled", havingValue = "true", matchIfMissing = true)
+public class SalesBucketListener {
+    
+    private final SalesBucketWriter bucketWriter;
+    private final AnalyticsUpdateExecutor updateExecutor;
+    
+    @Value("${app.analytics.timeseries.compaction-batch-size:5000}")
+    private int compactionBatchSize;
+    
+    private volatile boolean indexesEnsured;
+    
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onOrderStatusChanged(OrderStatusChangedEvent event) {
+        boolean before = AnalyticsRollupWriter.counts(event.previousStatus());
+        boolean after = AnalyticsRollupWriter.counts(event.newStatus());
+        if (before == after) {
+            return;
+        }
+        updateExecutor.execute("sales-bucket", () -> {
+            try {
+                bucketWriter.apply(event.order(), after ? 1 : -1);
+            } catch (Exception e) {
+                log.error("Sales bucket update failed for order {} ({} → {}): {}",
+                        event.order().getOrderNumber(), event.previousStatus(), event.newStatus(), e.getMessage());
+            }
+        });
+    }
+    
+    @Scheduled(fixedDelayString = "${app.analytics.timeseries.compaction-interval-ms:21600000}",
+               initialDelayString = "${app.analytics.timeseries.compaction-initial-delay-ms:180000}")
+    public void compactAgedBuckets() {
+        if (!indexesEnsured) {
+            bucketWriter.ensureIndexes();  // auto-index-creation is off
+            indexesEnsured = true;
+        }
+        int compacted = bucketWriter.compact(LocalDate.now(ZoneOffset.UTC), compactionBatchSize);
+        if (compacted > 0) {
+            log.info("Compacted {} aged sales buckets", compacted);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.buyone.orderservice.listener;
+
+import com.buyone.orderservice.analytics.AnalyticsRollupWriter;
+import com.buyone.orderservice.analytics.TrendingTracker;
+import com.buyone.orderservice.event.OrderStatusChangedEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Feeds the trending sketch with orders entering the counted statuses, restores this replica's
+ * checkpoints on startup, and checkpoints/merges replicas periodically.
+ * Recording stays on the publishing thread: it only updates the in-memory sketch, and the Mongo
+ * writes happen in the scheduled checkpoint.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.analytics.trending.enabled", havingValue = "true", matchIfMissing = true)
+public class TrendingListener {
+    
+    private final TrendingTracker trendingTracker;
+    
+    @EventListener
+    public void onOrderStatusChanged(OrderStatusChangedEvent event) {
+        if (!AnalyticsRollupWriter.counts(event.previousStatus()) && AnalyticsRollupWriter.counts(event.newStatus())) {
+            trendingTracker.record(event.order());
+        }
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void restore() {
+        try {
+            trendingTracker.restore();
+            trendingTracker.checkpoint();
+        } catch (Exception e) {
+            log.error("trending restore failed: {}", e.getMessage());
+        }
+    }
+    
+    @Scheduled(fixedDelayString = "${app.analytics.trending.refresh-interval-ms:5000}")
+    public void refresh() {
+        trendingTracker.refresh();
+    }
+    
+    @Scheduled(fixedDelayString = "${app.analytics.trending.checkpoint-interval-ms:60000}",
+               initialDelayString = "${app.analytics.trending.checkpoint-interval-ms:60000}")
+    public void checkpoint() {
+        try {
+            trendingTracker.checkpoint();
+        } catch (Exception e) {
+            log.error("trending checkpoint failed: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.buyone.orderservice.migration;
+
+import com.buyone.orderservice.analytics.AnalyticsRollupWriter;
+import com.buyone.orderservice.repository.AnalyticsRollupRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Builds the analytics rollups on first start (empty collection).
+ * Full rebuild on demand: start the service with --rebuild-analytics-rollups.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.analytics.rollups.enabled", havingValue = "true", matchIfMissing = true)
+public class AnalyticsRollupBackfill implements ApplicationRunner {
+    
+    static final String REBUILD_OPTION = "rebuild-analytics-rollups";
+    
+    private final AnalyticsRollupRepository rollupRepository;
+    private final AnalyticsRollupWriter rollupWriter;
+    
+    @Override
+    public void run(ApplicationArguments args) {
+        try {
+            boolean forced = args.containsOption(REBUILD_OPTION);
+            if (!forced && rollupRepository.count() > 0) {
+                return;
+            }
+            log.info("{} analytics rollups", forced ? "Rebuilding" : "Backfilling");
+            rollupWriter.rebuild();
+        } catch (Exception e) {
+            log.error("analytics rollup backfill failed: {}", e.getMessage());
+        }
+    }
+}
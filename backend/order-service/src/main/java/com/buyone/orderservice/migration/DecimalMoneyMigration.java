@@ -0,0 +1,129 @@
+package com.buyone.orderservice.migration;
+
+import com.mongodb.client.result.UpdateResult;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static com.buyone.orderservice.repository.OrderRepositoryCustomImpl.ARCHIVE_COLLECTION;
+
+/**
+ * Rewrites money stored as strings (Spring Data's BigDecimal default before MongoConversionsConfig)
+ * as Decimal128. Online and idempotent: batches of at most BATCH_SIZE documents in _id order, each one
+ * server-side pipeline update that converts only fields still of type string, so it can run alongside
+ * live traffic and resume after a restart. A string that isn't a number is left as it is (a $toDecimal
+ * error would fail the whole batch) and the ids of the documents still holding one are logged. Money pipelines (OrderRepository analytics, SalesBucketBackfill)
+ * wrap amounts in $toDecimal, so they count string and Decimal128 amounts alike while it runs.
+ * Runs first among the startup migrations (see {@link #ORDER}).
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@Order(DecimalMoneyMigration.ORDER)
+@ConditionalOnProperty(name = "app.migrations.decimal-money", havingValue = "true", matchIfMissing = true)
+public class DecimalMoneyMigration implements ApplicationRunner {
+    
+    // Startup migrations run in this order: money types, then item categories, then sales buckets
+    public static final int ORDER = 10;
+    
+    static final int BATCH_SIZE = 500;
+    static final String ITEMS_PRICE = "items.price";
+    
+    // Top-level money fields per collection; every one of them also has items[].price
+    static final Map<String, List<String>> MONEY_FIELDS = Map.of(
+            "orders", List.of("subtotal", "tax", "shippingCost", "total"),
+            ARCHIVE_COLLECTION, List.of("subtotal", "tax", "shippingCost", "total"),
+            "carts", List.of()
+    );
+    
+    private final MongoTemplate mongoTemplate;
+    
+    @Override
+    public void run(ApplicationArguments args) {
+        MONEY_FIELDS.forEach((collection, fields) -> {
+            try {
+                long converted = migrate(collection, fields);
+                if (converted > 0) {
+                    log.info("Converted money fields to Decimal128 on {} {} documents", converted, collection);
+                }
+            } catch (Exception e) {
+                // Non-fatal: string amounts still read back; the next start resumes where this stopped
+                log.error("Decimal128 money migration of {} failed: {}", collection, e.getMessage());
+            }
+        });
+    }
+    
+    long migrate(String collection, List<String> fields) {
+        AggregationUpdate toDecimal = toDecimal(fields);
+        
+        long converted = 0;
+        Object resumeAfter = null;
+        while (true) {
+            // Keyset on _id: documents left unconverted are not picked up again in this run
+            Query pending = new Query(stringTyped(fields)).with(Sort.by("_id")).limit(BATCH_SIZE);
+            if (resumeAfter != null) {
+                pending.addCriteria(Criteria.where("_id").gt(resumeAfter));
+            }
+            List<Object> ids = ids(pending, collection);
+            if (ids.isEmpty()) {
+                return converted;
+            }
+            UpdateResult result = mongoTemplate.updateMulti(
+                    new Query(Criteria.where("_id").in(ids)), toDecimal, collection);
+            converted += result.getModifiedCount();
+            
+            List<Object> unconvertible = ids(new Query(stringTyped(fields)).addCriteria(Criteria.where("_id").in(ids)),
+                    collection);
+            if (!unconvertible.isEmpty()) {
+                log.warn("Money on {} {} documents is not a number, left as a string: {}",
+                        unconvertible.size(), collection, unconvertible);
+            }
+            resumeAfter = ids.get(ids.size() - 1);
+        }
+    }
+    
+    private List<Object> ids(Query query, String collection) {
+        query.fields().include("_id");
+        return mongoTemplate.find(query, Document.class, collection).stream()
+                .map(doc -> doc.get("_id"))
+                .toList();
+    }
+    
+    static Criteria stringTyped(List<String> fields) {
+        List<Criteria> any = new ArrayList<>();
+        fields.forEach(field -> any.add(Criteria.where(field).type(2)));
+        any.add(Criteria.where(ITEMS_PRICE).type(2));  // matches if any element's price is a string
+        return new Criteria().orOperator(any);
+    }
+    
+    static AggregationUpdate toDecimal(List<String> fields) {
+        Document set = new Document();
+        fields.forEach(field -> set.append(field, convert("$" + field)));
+        Document item = new Document("$mergeObjects", List.of("$$item", new Document("price", convert("$$item.price"))));
+        Document items = new Document("$map", new Document("input", "$items").append("as", "item").append("in", item));
+        set.append("items", new Document("$cond", List.of(new Document("$isArray", "$items"), items, "$items")));
+        return AggregationUpdate.from(List.of(context -> new Document("$set", set)));
+    }
+    
+    private static Document convert(String path) {
+        Document toDecimal = new Document("input", path).append("to", "decimal").append("onError", path);
+        return new Document("$cond", List.of(
+                new Document("$eq", List.of(new Document("$type", path), "string")),
+                new Document("$convert", toDecimal),
+                path));
+    }
+}
@@ -0,0 +1,121 @@
+package com.buyone.orderservice.migration;
+
+import com.buyone.orderservice.analytics.CategoryResolver;
+import com.buyone.orderservice.model.order.Order;
+import com.buyone.orderservice.model.order.OrderItem;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+import static com.buyone.orderservice.repository.OrderRepositoryCustomImpl.ARCHIVE_COLLECTION;
+
+/**
+ * Idempotent backfill of OrderItem.categoryId/categoryName (hot and archived orders), run on every start:
+ * <ul>
+ *   <li>items from before the checkout snapshot existed get both fields from the product's current category;</li>
+ *   <li>items whose checkout snapshot kept the categoryId but missed the name (category lookup failed at
+ *       checkout) get the name of that category, the snapshot id is kept.</li>
+ * </ul>
+ * Categories are resolved in chunks with $in reads. Items of deleted products or categories get explicit
+ * nulls so they are not revisited on the next start.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@org.springframework.core.annotation.Order(DecimalMoneyMigration.ORDER + 10)
+@ConditionalOnProperty(name = "app.migrations.order-category-backfill", havingValue = "true", matchIfMissing = true)
+public class OrderCategoryBackfill implements ApplicationRunner {
+    
+    static final String HOT_COLLECTION = "orders";
+    private static final int CHUNK = 500;
+    
+    private final MongoTemplate mongoTemplate;
+    private final CategoryResolver categoryResolver;
+    
+    @Override
+    public void run(ApplicationArguments args) {
+        for (String collection : List.of(HOT_COLLECTION, ARCHIVE_COLLECTION)) {
+            try {
+                int updated = backfill(collection);
+                if (updated > 0) {
+                    log.info("Backfilled item categories on {} orders in {}", updated, collection);
+                }
+            } catch (Exception e) {
+                // Non-fatal: analytics show these lines as Uncategorized until the next start
+                log.error("category backfill failed for {}: {}", collection, e.getMessage());
+            }
+        }
+    }
+    
+    private int backfill(String collection) {
+        Query missing = new Query(new Criteria().andOperator(
+                Criteria.where("items.0").exists(true),
+                new Criteria().orOperator(
+                        Criteria.where("items.categoryId").exists(false),
+                        Criteria.where("items").elemMatch(Criteria.where("categoryId").ne(null).and("categoryName").is(null)))));
+        missing.fields().include("items.productId").include("items.categoryId").include("items.categoryName");
+        
+        int updated = 0;
+        List<Order> chunk = new ArrayList<>(CHUNK);
+        try (Stream<Order> orders = mongoTemplate.stream(missing, Order.class, collection)) {
+            Iterator<Order> iterator = orders.iterator();
+            while (iterator.hasNext()) {
+                chunk.add(iterator.next());
+                if (chunk.size() == CHUNK || !iterator.hasNext()) {
+                    updated += writeChunk(chunk, collection);
+                    chunk.clear();
+                }
+            }
+        }
+        return updated;
+    }
+    
+    private int writeChunk(List<Order> orders, String collection) {
+        List<OrderItem> allItems = orders.stream().flatMap(order -> order.getItems().stream()).toList();
+        Map<String, CategoryResolver.Category> categories = categoryResolver.resolve(allItems.stream()
+                .filter(item -> item.getCategoryId() == null)
+                .map(OrderItem::getProductId)
+                .filter(Objects::nonNull)
+                .toList());
+        Map<String, String> names = categoryResolver.names(allItems.stream()
+                .filter(item -> item.getCategoryId() != null && item.getCategoryName() == null)
+                .map(OrderItem::getCategoryId)
+                .toList());
+        
+        // Items are immutable after checkout, so positional $set by index is safe
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Order.class, collection);
+        for (Order order : orders) {
+            Update update = new Update();
+            List<OrderItem> items = order.getItems();
+            for (int i = 0; i < items.size(); i++) {
+                OrderItem item = items.get(i);
+                if (item.getCategoryId() == null) {
+                    CategoryResolver.Category category = categories.get(item.getProductId());
+                    update.set("items." + i + ".categoryId", category != null ? category.id() : null);
+                    update.set("items." + i + ".categoryName", category != null ? category.name() : null);
+                } else if (item.getCategoryName() == null) {
+                    String name = names.get(item.getCategoryId());
+                    update.set("items." + i + ".categoryId", name != null ? item.getCategoryId() : null);
+                    update.set("items." + i + ".categoryName", name);
+                }
+            }
+            bulk.updateOne(new Query(Criteria.where("_id").is(order.getId())), update);
+        }
+        return bulk.execute().getModifiedCount();
+    }
+}
@@ -0,0 +1,45 @@
+package com.buyone.orderservice.migration;
+
+import com.buyone.orderservice.model.order.Order;
+import com.mongodb.client.result.UpdateResult;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.aggregation.SetOperators;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+/**
+ * One-shot, idempotent backfill of Order.sellerIds for orders created before the field existed.
+ * Single server-side pipeline update: sellerIds = $setUnion(items.sellerId) - no documents pulled into the JVM.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.migrations.seller-ids-backfill", havingValue = "true", matchIfMissing = true)
+public class OrderSellerIdsBackfill implements ApplicationRunner {
+    
+    private final MongoTemplate mongoTemplate;
+    
+    @Override
+    public void run(ApplicationArguments args) {
+        Query missing = new Query(Criteria.where("sellerIds").exists(false));
+        AggregationUpdate update = AggregationUpdate.update()
+                .set("sellerIds").toValue(SetOperators.SetUnion.arrayAsSet("items.sellerId"));
+        
+        try {
+            UpdateResult result = mongoTemplate.updateMulti(missing, update, Order.class);
+            if (result.getModifiedCount() > 0) {
+                log.info("Backfilled sellerIds on {} orders", result.getModifiedCount());
+            }
+        } catch (Exception e) {
+            // Non-fatal: seller queries just miss legacy orders until the next start
+            log.error("sellerIds backfill failed: {}", e.getMessage());
+        }
+    }
+}
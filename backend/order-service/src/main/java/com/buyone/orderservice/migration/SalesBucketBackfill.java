@@ -0,0 +1,137 @@
+package com.buyone.orderservice.migration;
+
+import com.buyone.orderservice.analytics.AnalyticsRollupWriter;
+import com.buyone.orderservice.analytics.BuyerSketchStore;
+import com.buyone.orderservice.analytics.HyperLogLog;
+import com.buyone.orderservice.analytics.SalesBucketWriter;
+import com.buyone.orderservice.analytics.StagingCollection;
+import com.buyone.orderservice.model.analytics.BucketGranularity;
+import com.buyone.orderservice.model.analytics.SalesBucket;
+import com.buyone.orderservice.model.order.Order;
+import com.buyone.orderservice.model.order.OrderItem;
+import com.buyone.orderservice.repository.SalesBucketRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+import static com.buyone.orderservice.repository.OrderRepositoryCustomImpl.ARCHIVE_COLLECTION;
+
+/**
+ * Builds DAY sales buckets from orders + orders_archive on first start (empty collection), fully
+ * server-side: group counted orders by seller and UTC day, then $merge adding into a staging copy
+ * of sales_buckets that is renamed over the live one at the end (see StagingCollection), so live
+ * $inc writes never land in a half-built collection.
+ * Buyer sketches can't be built by a pipeline: a second pass streams the same orders (three fields)
+ * and merges per-bucket HyperLogLogs in chunks; merging is idempotent, so chunk boundaries don't matter.
+ * The scheduled compaction then folds old days into weeks/months.
+ * Full rebuild on demand: start the service with --rebuild-sales-buckets (status changes applied
+ * while it runs are not in the result).
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@org.springframework.core.annotation.Order(DecimalMoneyMigration.ORDER + 20)
+@ConditionalOnProperty(name = "app.analytics.timeseries.enabled", havingValue = "true", matchIfMissing = true)
+public class SalesBucketBackfill implements ApplicationRunner {
+    
+    static final String REBUILD_OPTION = "rebuild-sales-buckets";
+    static final String HOT_COLLECTION = "orders";
+    static final String BUCKETS = "sales_buckets";
+    static final int SKETCH_FLUSH_SIZE = 1000;  // in-memory sketches (≤16 KB each) before merging them out
+    
+    // Same counted statuses as AnalyticsRollupWriter.COUNTED_STATUSES
+    static final List<String> PIPELINE = List.of(
+            "{ $match: { status: { $in: ['CONFIRMED', 'SHIPPED', 'DELIVERED'] }, createdAt: { $type: 'date' } } }",
+            "{ $unwind: '$items' }",
+            "{ $match: { 'items.sellerId': { $ne: null } } }",
+            "{ $group: { " +
+                    "  _id: { sellerId: '$items.sellerId', order: '$_id', day: { $dateToString: { format: '%Y-%m-%d', date: '$createdAt' } } }, " +
+                    "  units: { $sum: '$items.quantity' }, " +
+                    "  revenueCents: { $sum: { $round: [ { $multiply: [ { $toDecimal: '$items.price' }, '$items.quantity', 100 ] }, 0 ] } } " +
+                    "} }",
+            "{ $group: { _id: { sellerId: '$_id.sellerId', day: '$_id.day' }, orders: { $sum: 1 }, " +
+                    "units: { $sum: '$units' }, revenueCents: { $sum: '$revenueCents' } } }",
+            "{ $project: { " +
+                    "  _id: { $concat: [ '$_id.sellerId', ':DAY:', '$_id.day' ] }, " +
+                    "  sellerId: '$_id.sellerId', granularity: { $literal: 'DAY' }, bucketStart: '$_id.day', " +
+                    "  orders: { $toLong: '$orders' }, units: { $toLong: '$units' }, revenueCents: { $toLong: '$revenueCents' }, " +
+                    "  updatedAt: '$$NOW' " +
+                    "} }",
+            "{ $merge: { into: '" + StagingCollection.of(BUCKETS) + "', on: '_id', whenNotMatched: 'insert', whenMatched: [ { $set: { " +
+                    "  orders: { $add: [ '$orders', '$$new.orders' ] }, " +
+                    "  units: { $add: [ '$units', '$$new.units' ] }, " +
+                    "  revenueCents: { $add: [ '$revenueCents', '$$new.revenueCents' ] }, " +
+                    "  updatedAt: '$$new.updatedAt' " +
+                    "} } ] } }"
+    );
+    
+    private final SalesBucketRepository bucketRepository;
+    private final MongoTemplate mongoTemplate;
+    private final BuyerSketchStore sketchStore;
+    
+    @Override
+    public void run(ApplicationArguments args) {
+        try {
+            boolean forced = args.containsOption(REBUILD_OPTION);
+            if (!forced && bucketRepository.count() > 0) {
+                return;
+            }
+            log.info("{} sales buckets", forced ? "Rebuilding" : "Backfilling");
+            String staging = StagingCollection.reset(mongoTemplate, BUCKETS);
+            List<Document> pipeline = PIPELINE.stream().map(Document::parse).toList();
+            for (String collection : List.of(HOT_COLLECTION, ARCHIVE_COLLECTION)) {
+                mongoTemplate.getCollection(collection).aggregate(pipeline).toCollection();
+            }
+            for (String collection : List.of(HOT_COLLECTION, ARCHIVE_COLLECTION)) {
+                buildBuyerSketches(collection, staging);
+            }
+            StagingCollection.swapIn(mongoTemplate, BUCKETS, SalesBucketWriter.INDEXES);
+            log.info("Built {} sales buckets", bucketRepository.count());
+        } catch (Exception e) {
+            log.error("sales bucket backfill failed: {}", e.getMessage());
+        }
+    }
+    
+    private void buildBuyerSketches(String collection, String staging) {
+        Query counted = new Query(Criteria.where("status").in(AnalyticsRollupWriter.COUNTED_STATUSES)
+                .and("createdAt").type(9));  // BSON date, as in the pipeline
+        counted.fields().include("userId").include("createdAt").include("items.sellerId");
+        
+        Map<String, HyperLogLog> sketches = new HashMap<>();
+        try (Stream<Order> orders = mongoTemplate.stream(counted, Order.class, collection)) {
+            orders.forEach(order -> {
+                if (order.getUserId() == null || order.getItems() == null) {
+                    return;
+                }
+                LocalDate day = SalesBucketWriter.utcDate(order.getCreatedAt());
+                order.getItems().stream().map(OrderItem::getSellerId).filter(Objects::nonNull).distinct()
+                        .forEach(sellerId -> sketches.computeIfAbsent(
+                                SalesBucket.key(sellerId, BucketGranularity.DAY, day),
+                                id -> new HyperLogLog()).add(order.getUserId()));
+                if (sketches.size() >= SKETCH_FLUSH_SIZE) {
+                    flush(sketches, staging);
+                }
+            });
+        }
+        flush(sketches, staging);
+    }
+    
+    private void flush(Map<String, HyperLogLog> sketches, String staging) {
+        sketches.forEach((id, sketch) -> sketchStore.merge(staging, id, sketch));
+        sketches.clear();
+    }
+}
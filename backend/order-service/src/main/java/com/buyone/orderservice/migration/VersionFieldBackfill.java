@@ -0,0 +1,47 @@
+package com.buyone.orderservice.migration;
+
+import com.buyone.orderservice.model.cart.Cart;
+import com.buyone.orderservice.model.order.Order;
+import com.mongodb.client.result.UpdateResult;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Sets version = 0 on orders and carts written before @Version existed.
+ * Without it Spring Data treats a null version as a new entity and save() tries an insert.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.migrations.version-backfill", havingValue = "true", matchIfMissing = true)
+public class VersionFieldBackfill implements ApplicationRunner {
+    
+    private static final List<Class<?>> VERSIONED = List.of(Order.class, Cart.class);
+    
+    private final MongoTemplate mongoTemplate;
+    
+    @Override
+    public void run(ApplicationArguments args) {
+        Query missing = new Query(Criteria.where("version").exists(false));
+        for (Class<?> type : VERSIONED) {
+            try {
+                UpdateResult result = mongoTemplate.updateMulti(missing, Update.update("version", 0L), type);
+                if (result.getModifiedCount() > 0) {
+                    log.info("Backfilled version on {} {} documents", result.getModifiedCount(), type.getSimpleName());
+                }
+            } catch (Exception e) {
+                log.error("version backfill failed for {}: {}", type.getSimpleName(), e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.buyone.orderservice.model.analytics;
+
+import lombok.*;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Precomputed dashboard numbers for one buyer or one seller, kept current with $inc on every
+ * order status change (see AnalyticsRollupWriter). Buyer amounts are order totals; seller
+ * amounts cover the seller's own lines only. Money is in cents.
+ */
+@Document(collection = "analytics_rollups")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AnalyticsRollup {
+    public static final String BUYER = "buyer";
+    public static final String SELLER = "seller";
+    
+    @Id
+    private String id;          // "buyer:<userId>" / "seller:<sellerId>"
+    private String ownerType;
+    private String ownerId;
+    private long orders;
+    private long units;
+    private long amountCents;
+    
+    // Keyed by productId / categoryId (Mongo-safe, see AnalyticsRollupWriter.fieldKey)
+    @Builder.Default
+    private Map<String, ProductRollup> products = new HashMap<>();
+    @Builder.Default
+    private Map<String, CategoryRollup> categories = new HashMap<>();
+    
+    // Sellers only: HyperLogLog of buyer IDs (see BuyerSketchStore), ~0.8% error on unique buyers
+    private byte[] buyerSketch;
+    private long buyerSketchVersion;
+    
+    private LocalDateTime updatedAt;
+    
+    public static String buyerKey(String userId) {
+        return BUYER + ":" + userId;
+    }
+    
+    public static String sellerKey(String sellerId) {
+        return SELLER + ":" + sellerId;
+    }
+}
@@ -0,0 +1,46 @@
+package com.buyone.orderservice.model.analytics;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+
+/**
+ * Size of a {@link SalesBucket}. Weeks start on Monday but are clipped at month boundaries,
+ * so every week bucket lies inside one month and can later be folded into it.
+ */
+public enum BucketGranularity {
+    DAY,
+    WEEK,
+    MONTH;
+    
+    public LocalDate truncate(LocalDate day) {
+        return switch (this) {
+            case DAY -> day;
+            case WEEK -> {
+                LocalDate monday = day.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+                LocalDate monthStart = day.withDayOfMonth(1);
+                yield monday.isBefore(monthStart) ? monthStart : monday;
+            }
+            case MONTH -> day.withDayOfMonth(1);
+        };
+    }
+    
+    /**
+     * First day after the bucket starting at {@code start}.
+     */
+    public LocalDate end(LocalDate start) {
+        LocalDate nextMonth = start.withDayOfMonth(1).plusMonths(1);
+        return switch (this) {
+            case DAY -> start.plusDays(1);
+            case WEEK -> {
+                LocalDate nextMonday = start.with(TemporalAdjusters.next(DayOfWeek.MONDAY));
+                yield nextMonday.isBefore(nextMonth) ? nextMonday : nextMonth;
+            }
+            case MONTH -> nextMonth;
+        };
+    }
+    
+    public BucketGranularity coarser(BucketGranularity other) {
+        return compareTo(other) >= 0 ? this : other;
+    }
+}
@@ -0,0 +1,12 @@
+package com.buyone.orderservice.model.analytics;
+
+import lombok.*;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CategoryRollup {
+    private String name;
+    private long amountCents;
+}
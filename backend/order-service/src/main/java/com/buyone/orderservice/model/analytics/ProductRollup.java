@@ -0,0 +1,15 @@
+package com.buyone.orderservice.model.analytics;
+
+import lombok.*;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductRollup {
+    private String productId;
+    private String name;
+    private String category;
+    private long quantity;
+    private long amountCents;
+}
@@ -0,0 +1,41 @@
+package com.buyone.orderservice.model.analytics;
+
+import lombok.*;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * One seller's sales in one time bucket (UTC order date), kept current with $inc on order status
+ * changes (see SalesBucketWriter). Recent days are DAY buckets; older ones are compacted into
+ * WEEK and then MONTH buckets, so a year of history stays around 150 documents per seller.
+ * Buyer sketches are never decremented: a cancelled order's buyer stays counted.
+ */
+@Document(collection = "sales_buckets")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SalesBucket {
+    
+    @Id
+    private String id;              // "<sellerId>:<granularity>:<bucketStart>"
+    private String sellerId;
+    private BucketGranularity granularity;
+    private String bucketStart;     // ISO date: sorts and compares as a string, no time zone shifts
+    private long orders;
+    private long units;
+    private long revenueCents;
+    private byte[] buyerSketch;     // HyperLogLog of buyer IDs: merged across buckets for a range's unique buyers
+    private long buyerSketchVersion;
+    private List<String> compactedFrom;  // "<id>@<generation>" of the buckets folded into this one (see SalesBucketWriter.compact)
+    private String generation;      // new ObjectId on every write: tells a re-created or since-updated bucket from the one folded
+    private LocalDateTime updatedAt;
+    
+    public static String key(String sellerId, BucketGranularity granularity, LocalDate start) {
+        return sellerId + ":" + granularity + ":" + start;
+    }
+}
@@ -0,0 +1,46 @@
+package com.buyone.orderservice.model.analytics;
+
+import lombok.*;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Checkpoint of one replica's Space-Saving sketch for one UTC day (see TrendingTracker).
+ * Replicas merge each other's checkpoints; expired days are dropped by a TTL index on expiresAt.
+ */
+@Document(collection = "trending_sketches")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TrendingSketch {
+    
+    @Id
+    private String id;              // "<instanceId>:<day>"
+    private String instanceId;
+    private String day;             // ISO date (UTC)
+    private int capacity;
+    @Builder.Default
+    private List<Counter> counters = new ArrayList<>();
+    private LocalDateTime updatedAt;
+    private LocalDateTime expiresAt;
+    
+    public static String key(String instanceId, String day) {
+        return instanceId + ":" + day;
+    }
+    
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Counter {
+        private String productId;
+        private String name;
+        private long count;
+        private long error;
+    }
+}
@@ -2,6 +2,8 @@ package com.buyone.orderservice.model.cart;
 
 import lombok.*;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Transient;
+import org.springframework.data.annotation.Version;
 import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 import lombok.Setter;
@@ -18,16 +20,33 @@ import java.util.*;
 @Setter
 public class Cart {
     @Id
-    @Indexed(unique = true)
     private String id;
     private String userId;
     
     @Builder.Default
     private List<CartItem> items = new ArrayList<>();
     
+    // Derived from items by the pricing engine on every read/mutation; not stored
+    @Transient
     private BigDecimal subtotal;
+    @Transient
     private BigDecimal tax;
+    @Transient
     private BigDecimal shippingCost;
+    @Transient
     private BigDecimal total;
+    @Indexed  // last activity → stale-cart compaction scans by it
     private LocalDateTime updatedAt;
+    
+    // Optimistic locking for whole-cart saves; atomic item updates $inc it too
+    @Version
+    private Long version;
+    
+    // Only set while the cart has no items → TTL drops carts abandoned empty
+    // (index owned by CartCompactionListener: its expiry is app.cart.empty-ttl-days)
+    private LocalDateTime emptySince;
+    
+    // Filled only when the cart is viewed with revalidation; lines whose price/stock moved
+    @Transient
+    private List<CartItemChange> changes;
 }
@@ -1,5 +1,6 @@
 package com.buyone.orderservice.model.cart;
 
+import com.buyone.orderservice.pricing.PricedLine;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import lombok.*;
@@ -10,7 +11,7 @@ import java.math.BigDecimal;
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
-public class CartItem {
+public class CartItem implements PricedLine {
     @NotBlank
     private String productId;
     
@@ -0,0 +1,25 @@
+package com.buyone.orderservice.model.cart;
+
+import lombok.*;
+
+import java.math.BigDecimal;
+
+/**
+ * What changed for one cart line since it was added (price snapshot vs live product).
+ * Only produced by cart revalidation; never stored.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CartItemChange {
+    private String productId;
+    private String sellerId;
+    private BigDecimal previousPrice;
+    private BigDecimal currentPrice;
+    private int requestedQuantity;
+    private Integer availableStock;
+    private boolean priceChanged;
+    private boolean insufficientStock;
+    private boolean unavailable;  // product no longer exists
+}
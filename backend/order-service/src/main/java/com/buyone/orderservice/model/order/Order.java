@@ -3,18 +3,37 @@ package com.buyone.orderservice.model.order;
 import com.buyone.orderservice.model.Address;
 import lombok.*;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 
 import static com.buyone.orderservice.model.order.OrderStatus.PENDING;
 import static com.buyone.orderservice.model.order.PaymentMethod.PAY_ON_DELIVERY;
 
 @Document(collection = "orders")
+@CompoundIndexes({
+        // Buyer history / date-range search, newest first (_id = keyset tie-breaker)
+        @CompoundIndex(name = "user_created_idx", def = "{'userId': 1, 'createdAt': -1, '_id': -1}"),
+        // Buyer search filtered by status
+        @CompoundIndex(name = "user_status_created_idx", def = "{'userId': 1, 'status': 1, 'createdAt': -1}"),
+        // Buyer keyword search on product names ($text needs it; created at startup by IndexRegistry).
+        // userId prefix: only that buyer's orders are scored, the search always has userId equality
+        @CompoundIndex(name = "user_items_product_name_text", def = "{'userId': 1, 'items.productName': 'text'}"),
+        // Seller dashboards/analytics: multikey on the denormalized seller set
+        @CompoundIndex(name = "sellers_status_created_idx", def = "{'sellerIds': 1, 'status': 1, 'createdAt': -1}"),
+        // Archive pass (OrderArchiveListener): terminal orders older than the cutoff, in _id batches.
+        // Bounds every pass to the orders it will move instead of scanning the whole collection
+        @CompoundIndex(name = "status_updated_id_idx", def = "{'status': 1, 'updatedAt': 1, '_id': 1}")
+})
 @Data
 @Builder
 @NoArgsConstructor
@@ -32,6 +51,10 @@ public class Order {
     @Builder.Default
     private List<OrderItem> items = new ArrayList<>();
     
+    // Distinct items[].sellerId, denormalized at checkout for indexed seller queries
+    @Builder.Default
+    private Set<String> sellerIds = new LinkedHashSet<>();
+    
     @Builder.Default
     private OrderStatus status = PENDING;
     // "PENDING", "CONFIRMED", "SHIPPED", "DELIVERED", "CANCELLED"
@@ -48,4 +71,8 @@ public class Order {
     
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
+    
+    // Optimistic locking: save() fails if someone else wrote the order since we read it
+    @Version
+    private Long version;
 }
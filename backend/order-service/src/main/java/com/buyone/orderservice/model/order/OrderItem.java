@@ -1,5 +1,6 @@
 package com.buyone.orderservice.model.order;
 
+import com.buyone.orderservice.pricing.PricedLine;
 import lombok.*;
 
 import java.math.BigDecimal;
@@ -8,11 +9,13 @@ import java.math.BigDecimal;
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
-public class OrderItem {
+public class OrderItem implements PricedLine {
     private String productId;
     private String productName;
     private String sellerId;    // For seller dashboards/revenue "SELLER" from user DB
     private BigDecimal price;
     private int quantity;
     private String imageUrl;    // First image from Product.images
+    private String categoryId;    // Snapshot at checkout: analytics group on these,
+    private String categoryName;  // no $lookup into products/categories
 }
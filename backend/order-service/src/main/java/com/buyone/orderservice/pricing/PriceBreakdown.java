@@ -0,0 +1,36 @@
+package com.buyone.orderservice.pricing;
+
+import java.math.BigDecimal;
+
+/**
+ * Totals in minor units (cents). BigDecimal views are only built when
+ * the caller copies them onto a cart or order.
+ */
+public record PriceBreakdown(long grossCents,
+                             long subtotalCents,
+                             long taxCents,
+                             long shippingCents,
+                             long totalCents) {
+    
+    /** Items total incl. VAT. */
+    public BigDecimal gross() {
+        return BigDecimal.valueOf(grossCents, 2);
+    }
+    
+    /** Items total excl. VAT. */
+    public BigDecimal subtotal() {
+        return BigDecimal.valueOf(subtotalCents, 2);
+    }
+    
+    public BigDecimal tax() {
+        return BigDecimal.valueOf(taxCents, 2);
+    }
+    
+    public BigDecimal shipping() {
+        return BigDecimal.valueOf(shippingCents, 2);
+    }
+    
+    public BigDecimal total() {
+        return BigDecimal.valueOf(totalCents, 2);
+    }
+}
@@ -0,0 +1,14 @@
+package com.buyone.orderservice.pricing;
+
+import java.math.BigDecimal;
+
+/**
+ * A priced line (cart item or order item) the {@link PricingEngine} can total.
+ * Unit prices are VAT-inclusive, as stored on products.
+ */
+public interface PricedLine {
+    
+    BigDecimal getPrice();
+    
+    int getQuantity();
+}
@@ -0,0 +1,61 @@
+package com.buyone.orderservice.pricing;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.List;
+
+/**
+ * Single source of truth for cart and order totals.
+ * Works in long cents; VAT is reverse-calculated from VAT-inclusive prices:
+ * subtotal = round(gross / (1 + rate)), tax = gross - subtotal.
+ */
+@Component
+public class PricingEngine {
+    
+    private static final long BASIS_POINTS = 10_000L;
+    
+    private final long taxDivisor;                 // (1 + rate) in basis points, e.g. 12400
+    private final long freeShippingThresholdCents;
+    private final long shippingCostCents;
+    
+    public PricingEngine(@Value("${app.cart.tax-rate:0.24}") double taxRate,
+                         @Value("${app.pricing.free-shipping-threshold:50.00}") BigDecimal freeShippingThreshold,
+                         @Value("${app.pricing.shipping-cost:4.90}") BigDecimal shippingCost) {
+        if (taxRate < 0) {
+            throw new IllegalArgumentException("Tax rate must not be negative: " + taxRate);
+        }
+        this.taxDivisor = BASIS_POINTS + Math.round(taxRate * BASIS_POINTS);
+        this.freeShippingThresholdCents = toCents(freeShippingThreshold);
+        this.shippingCostCents = toCents(shippingCost);
+    }
+    
+    /**
+     * Prices the given lines. Unit prices are rounded half-up to cents once per line.
+     */
+    public PriceBreakdown price(List<? extends PricedLine> lines) {
+        long gross = 0;
+        for (PricedLine line : lines) {
+            gross = Math.addExact(gross, Math.multiplyExact(toCents(line.getPrice()), line.getQuantity()));
+        }
+        return priceGross(gross);
+    }
+    
+    /**
+     * Prices a VAT-inclusive items total given in cents.
+     */
+    public PriceBreakdown priceGross(long grossCents) {
+        // Half-up integer division: (2 * gross * 10000 + d) / (2 * d)
+        long subtotal = (Math.multiplyExact(grossCents, 2 * BASIS_POINTS) + taxDivisor) / (2 * taxDivisor);
+        long tax = grossCents - subtotal;
+        // Empty carts carry no shipping charge
+        long shipping = grossCents == 0 || grossCents >= freeShippingThresholdCents ? 0 : shippingCostCents;
+        return new PriceBreakdown(grossCents, subtotal, tax, shipping, grossCents + shipping);
+    }
+    
+    public static long toCents(BigDecimal amount) {
+        return amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+}
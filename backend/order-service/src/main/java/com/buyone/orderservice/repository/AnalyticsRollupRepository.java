@@ -0,0 +1,7 @@
+package com.buyone.orderservice.repository;
+
+import com.buyone.orderservice.model.analytics.AnalyticsRollup;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+public interface AnalyticsRollupRepository extends MongoRepository<AnalyticsRollup, String> {
+}
@@ -4,14 +4,8 @@ import com.buyone.orderservice.model.cart.Cart;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import java.util.Optional;
 
-public interface CartRepository extends MongoRepository<Cart, String> {
+public interface CartRepository extends MongoRepository<Cart, String>, CartRepositoryCustom {
     Optional<Cart> findById(String userId);
     
-    
-    // MongoRepository ALREADY has these:
-    // Cart save(Cart cart);           ← inherited
-    // void deleteById(String userId); ← inherited
-    
-    // CUSTOM queries we'll need:
-    // void deleteItem(String userId, String productId);  (later)
+    // Item-level mutations (atomic $inc / $push / $pull) live in CartRepositoryCustom
 }
@@ -0,0 +1,34 @@
+package com.buyone.orderservice.repository;
+
+import com.buyone.orderservice.model.cart.Cart;
+import com.buyone.orderservice.model.cart.CartItem;
+
+import java.util.Optional;
+
+/**
+ * Single-statement cart mutations (findAndModify, returning the updated cart).
+ * Each call is atomic on the cart document, so concurrent tabs can't lose updates.
+ */
+public interface CartRepositoryCustom {
+    
+    /**
+     * $inc on the item matching product + seller. Empty if the cart has no such item.
+     */
+    Optional<Cart> incrementItemQuantity(String userId, String productId, String sellerId, int delta);
+    
+    /**
+     * $push guarded by "item not already in cart"; creates the cart if missing.
+     * Empty if the item is already there (caller should increment instead).
+     */
+    Optional<Cart> pushItem(String userId, CartItem item);
+    
+    /**
+     * Positional $set of an item's quantity. Empty if the item isn't in the cart.
+     */
+    Optional<Cart> setItemQuantity(String userId, String productId, int quantity);
+    
+    /**
+     * $pull of an item. Empty if the item isn't in the cart.
+     */
+    Optional<Cart> pullItem(String userId, String productId);
+}
@@ -0,0 +1,87 @@
+package com.buyone.orderservice.repository;
+
+import com.buyone.orderservice.model.cart.Cart;
+import com.buyone.orderservice.model.cart.CartItem;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Spring Data fragment for {@link CartRepositoryCustom}.
+ * Carts are keyed by userId, so every mutation is a single-document findAndModify.
+ */
+@RequiredArgsConstructor
+public class CartRepositoryCustomImpl implements CartRepositoryCustom {
+    
+    private static final FindAndModifyOptions RETURN_NEW = FindAndModifyOptions.options().returnNew(true);
+    private static final FindAndModifyOptions UPSERT_RETURN_NEW = FindAndModifyOptions.options()
+            .returnNew(true).upsert(true);
+    
+    private final MongoTemplate mongoTemplate;
+    
+    @Override
+    public Optional<Cart> incrementItemQuantity(String userId, String productId, String sellerId, int delta) {
+        Query query = new Query(Criteria.where("_id").is(userId)
+                .and("items").elemMatch(itemMatch(productId, sellerId)));
+        Update update = touch(new Update().inc("items.$.quantity", delta));
+        return Optional.ofNullable(mongoTemplate.findAndModify(query, update, RETURN_NEW, Cart.class));
+    }
+    
+    @Override
+    public Optional<Cart> pushItem(String userId, CartItem item) {
+        Query query = new Query(Criteria.where("_id").is(userId)
+                .and("items").not().elemMatch(itemMatch(item.getProductId(), item.getSellerId())));
+        Update update = touch(new Update().push("items", item).setOnInsert("userId", userId).unset("emptySince"));
+        try {
+            return Optional.ofNullable(mongoTemplate.findAndModify(query, update, UPSERT_RETURN_NEW, Cart.class));
+        } catch (DuplicateKeyException e) {
+            // Cart exists and already holds the item → guard didn't match, upsert hit _id
+            return Optional.empty();
+        }
+    }
+    
+    @Override
+    public Optional<Cart> setItemQuantity(String userId, String productId, int quantity) {
+        Update update = touch(new Update().set("items.$.quantity", quantity));
+        return Optional.ofNullable(mongoTemplate.findAndModify(itemQuery(userId, productId), update,
+                RETURN_NEW, Cart.class));
+    }
+    
+    @Override
+    public Optional<Cart> pullItem(String userId, String productId) {
+        Update update = touch(new Update().pull("items", new Document("productId", productId)));
+        Optional<Cart> cart = Optional.ofNullable(mongoTemplate.findAndModify(itemQuery(userId, productId), update,
+                RETURN_NEW, Cart.class));
+        cart.filter(c -> c.getItems().isEmpty()).ifPresent(this::markEmpty);
+        return cart;
+    }
+    
+    // Last item gone → start the empty-cart TTL clock (guarded: a concurrent push wins)
+    private void markEmpty(Cart cart) {
+        LocalDateTime now = LocalDateTime.now();
+        Query stillEmpty = new Query(Criteria.where("_id").is(cart.getId()).and("items").size(0));
+        mongoTemplate.updateFirst(stillEmpty, new Update().set("emptySince", now), Cart.class);
+        cart.setEmptySince(now);
+    }
+    
+    private static Query itemQuery(String userId, String productId) {
+        return new Query(Criteria.where("_id").is(userId).and("items.productId").is(productId));
+    }
+    
+    private static Criteria itemMatch(String productId, String sellerId) {
+        return Criteria.where("productId").is(productId).and("sellerId").is(sellerId);
+    }
+    
+    // Bumps @Version too, so a concurrent whole-cart save() sees the change
+    private static Update touch(Update update) {
+        return update.set("updatedAt", LocalDateTime.now()).inc("version", 1);
+    }
+}
@@ -3,60 +3,69 @@ package com.buyone.orderservice.repository;
 import com.buyone.orderservice.dto.response.analytics.*;
 import com.buyone.orderservice.model.order.Order;
 import com.buyone.orderservice.model.order.OrderStatus;
+import com.buyone.orderservice.repository.routing.SecondaryRead;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.mongodb.repository.Aggregation;
+import org.springframework.data.mongodb.repository.Meta;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.data.mongodb.repository.Query;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 /**
  * OrderRepository with analytics aggregations for user/seller dashboards.
  * Uses MongoDB aggregation pipelines for efficient, indexed analytics queries.
- * Indexes recommended: {userId:1, status:1}, {status:1, "items.sellerId":1}
+ * Indexes are declared on Order and created at startup by IndexRegistry (see MongoIndexConfig).
+ * Seller queries open with an indexed $match on sellerIds ({sellerIds, status, createdAt});
+ * the post-$unwind items.sellerId match still trims other sellers' lines.
+ * Category analytics group on the items' categoryName snapshot (no $lookup; see OrderCategoryBackfill).
+ * Money is stored as Decimal128 (see MongoConversionsConfig). Amounts go through $toDecimal: $multiply
+ * throws on the string amounts left until DecimalMoneyMigration has converted every document.
+ * Buyer search lives in {@link OrderRepositoryCustom} (dynamic Criteria).
+ * Analytics aggregations and seller listings are {@link SecondaryRead}: served by a secondary when one is in sync.
+ * Analytics aggregations carry maxTimeMS: the server aborts them at the dashboard deadline
+ * (AnalyticsQueryRunner) instead of running on after the request gave up.
  */
-public interface OrderRepository extends MongoRepository<Order, String> {
+public interface OrderRepository extends MongoRepository<Order, String>, OrderRepositoryCustom {
+        
+        long ANALYTICS_MAX_TIME_MS = 5_000;  // = app.analytics.query.deadline-ms default
 
         List<Order> findByUserId(String userId); // Buyer orders
 
         List<Order> findByUserIdAndStatus(String userId, OrderStatus status);
 
         Optional<Order> findByOrderNumber(String orderNumber);
+        
+        List<Order> findByOrderNumberIn(Collection<String> orderNumbers);
 
-        @Query(value = "{ 'userId': ?0, $or: [ " +
-                        "{ 'orderNumber': { $regex: ?1, $options: 'i' } }, " +
-                        "{ 'items.productName': { $regex: ?1, $options: 'i' } }, " +
-                        "{ 'status': ?2 } ] }", sort = "{ 'createdAt': -1 }")
-        Page<Order> findBuyerOrdersSearch(String userId, String keyword, OrderStatus status, Pageable pageable);
-
-        @Query("{ 'items.sellerId': ?0 }")
+        @SecondaryRead
+        @Query("{ 'sellerIds': ?0 }")
         Page<Order> findSellerOrders(String sellerId, Pageable pageable);
 
         // === CLIENT ANALYTICS ===
+        @SecondaryRead
+        @Meta(maxExecutionTimeMs = ANALYTICS_MAX_TIME_MS)
         @Aggregation(value = {
                         "{ $match: { userId: ?0, status: { $in: ['DELIVERED', 'CONFIRMED'] } } }",
-                        "{ $group: { _id: null, totalSpent: { $sum: { $toDouble: '$total' } } } }",
+                        "{ $group: { _id: null, totalSpent: { $sum: { $toDecimal: '$total' } } } }",
                         "{ $project: { _id: 0, totalSpent: 1 } }"
         })
         List<ClientTotalSpent> getClientTotalSpent(String userId);
 
+        @SecondaryRead
+        @Meta(maxExecutionTimeMs = ANALYTICS_MAX_TIME_MS)
         @Aggregation(value = {
                         "{ $match: { userId: ?0, status: { $in: ['DELIVERED', 'CONFIRMED'] } } }",
                         "{ $unwind: '$items' }",
-                        "{ $addFields: { 'items.productObjectId': { $toObjectId: '$items.productId' } } }",
-                        // ⭐ 1st lookup: Get product
-                        "{ $lookup: { from: 'products', localField: 'items.productObjectId', foreignField: '_id', as: 'productDetails' } }",
-                        "{ $unwind: { path: '$productDetails', preserveNullAndEmptyArrays: true } }",
-                        // ⭐ 2nd lookup: Get category by product.categoryId
-                        "{ $lookup: { from: 'categories', localField: 'productDetails.categoryId', foreignField: '_id', as: 'categoryDetails' } }",
-                        "{ $unwind: { path: '$categoryDetails', preserveNullAndEmptyArrays: true } }",
+                        // Category is snapshotted on the item at checkout - no $lookup
                         "{ $group: { " +
-                                        "  _id: { productId: '$items.productId', name: '$items.productName', category: { $ifNull: ['$categoryDetails.name', 'Uncategorized'] } }, "
+                                        "  _id: { productId: '$items.productId', name: '$items.productName', category: { $ifNull: ['$items.categoryName', 'Uncategorized'] } }, "
                                         +
                                         "  totalQty: { $sum: '$items.quantity' }, " +
-                                        "  totalAmount: { $sum: { $multiply: [ { $toDouble: '$items.price' }, { $toDouble: '$items.quantity' } ] } } "
+                                        "  totalAmount: { $sum: { $multiply: [ { $toDecimal: '$items.price' }, '$items.quantity' ] } } "
                                         +
                                         "} }",
                         "{ $project: { " +
@@ -72,28 +81,14 @@ public interface OrderRepository extends MongoRepository<Order, String> {
         })
         List<ClientMostBought> getClientMostBought(String userId);
         
+        @SecondaryRead
+        @Meta(maxExecutionTimeMs = ANALYTICS_MAX_TIME_MS)
         @Aggregation(value = {
                         "{ $match: { userId: ?0, status: 'CONFIRMED' } }",
                         "{ $unwind: '$items' }",
-                        "{ $addFields: { 'items.productObjectId': { $toObjectId: '$items.productId' } } }",
-                        "{ $lookup: { " +
-                                        "  from: 'products', " +
-                                        "  localField: 'items.productObjectId', " +
-                                        "  foreignField: '_id', " +
-                                        "  as: 'productDetails' " +
-                                        "} }",
-                        "{ $unwind: { path: '$productDetails', preserveNullAndEmptyArrays: true } }",
-                        "{ $lookup: { " +
-                                        "  from: 'categories', " + // ✅ Correct collection name
-                                        "  localField: 'productDetails.categoryId', " + // ✅ Matches Product.categoryId
-                                        "  foreignField: '_id', " + // ✅ Matches Category._id ("CAT-002")
-                                        "  as: 'categoryDetails' " +
-                                        "} }",
-                        "{ $unwind: { path: '$categoryDetails', preserveNullAndEmptyArrays: true } }",
                         "{ $group: { " +
-                                        "  _id: '$categoryDetails.name', " + // ✅ Uses Category.name ("Anime & Pop
-                                                                             // Culture")
-                                        "  totalSpent: { $sum: { $multiply: [ { $toDouble: '$items.price' }, '$items.quantity' ] } } "
+                                        "  _id: '$items.categoryName', " +
+                                        "  totalSpent: { $sum: { $multiply: [ { $toDecimal: '$items.price' }, '$items.quantity' ] } } "
                                         +
                                         "} }",
                         "{ $match: { _id: { $ne: null } } }",
@@ -104,27 +99,26 @@ public interface OrderRepository extends MongoRepository<Order, String> {
         List<ClientTopCategory> getClientTopCategories(String userId);
 
         // === SELLER ANALYTICS ===
+        @SecondaryRead
+        @Meta(maxExecutionTimeMs = ANALYTICS_MAX_TIME_MS)
         @Aggregation(value = {
-                        "{ $match: { status: { $in: ['DELIVERED', 'CONFIRMED'] } } }",
+                        "{ $match: { sellerIds: ?0, status: { $in: ['DELIVERED', 'CONFIRMED'] } } }",
                         "{ $unwind: '$items' }",
                         "{ $match: { 'items.sellerId': ?0 } }",
-                        "{ $group: { _id: null, totalRevenue: { $sum: { $multiply: [ { $toDouble: '$items.price' },  '$items.quantity'  ] } } } }"
+                        "{ $group: { _id: null, totalRevenue: { $sum: { $multiply: [ { $toDecimal: '$items.price' }, '$items.quantity' ] } } } }"
         })
         List<SellerTotalRevenue> getSellerTotalRevenue(String sellerId);
 
+        @SecondaryRead
+        @Meta(maxExecutionTimeMs = ANALYTICS_MAX_TIME_MS)
         @Aggregation(value = {
-                        "{ $match: { status: 'CONFIRMED' } }",
+                        "{ $match: { sellerIds: ?0, status: 'CONFIRMED' } }",
                         "{ $unwind: '$items' }",
                         "{ $match: { 'items.sellerId': ?0 } }",
-                        "{ $addFields: { 'items.productObjectId': { $toObjectId: '$items.productId' } } }",
-                        "{ $lookup: { from: 'products', localField: 'items.productObjectId', foreignField: '_id', as: 'productDetails' } }",
-                        "{ $unwind: { path: '$productDetails', preserveNullAndEmptyArrays: true } }",
-                        "{ $lookup: { from: 'categories', localField: 'productDetails.categoryId', foreignField: '_id', as: 'categoryDetails' } }",
-                        "{ $unwind: { path: '$categoryDetails', preserveNullAndEmptyArrays: true } }",
                         "{ $group: { " +
-                                        "  _id: { productId: '$items.productId', name: '$items.productName', category: { $ifNull: ['$categoryDetails.name', 'Uncategorized'] } }, "
+                                        "  _id: { productId: '$items.productId', name: '$items.productName', category: { $ifNull: ['$items.categoryName', 'Uncategorized'] } }, "
                                         +
-                                        "  revenue: { $sum: { $multiply: [ { $toDouble: '$items.price' }, { $toDouble: '$items.quantity' } ] } }, "
+                                        "  revenue: { $sum: { $multiply: [ { $toDecimal: '$items.price' }, '$items.quantity' ] } }, "
                                         +
                                         "  unitsSold: { $sum: '$items.quantity' } " +
                                         "} }",
@@ -137,28 +131,15 @@ public interface OrderRepository extends MongoRepository<Order, String> {
         })
         List<SellerBestProduct> getSellerBestProducts(String sellerId);
 
+        @SecondaryRead
+        @Meta(maxExecutionTimeMs = ANALYTICS_MAX_TIME_MS)
         @Aggregation(value = {
-                        "{ $match: { status: 'CONFIRMED' } }",
+                        "{ $match: { sellerIds: ?0, status: 'CONFIRMED' } }",
                         "{ $unwind: '$items' }",
-                        "{ $addFields: { 'items.productObjectId': { $toObjectId: '$items.productId' } } }",
                         "{ $match: { 'items.sellerId': ?0 } }",
-                        "{ $lookup: { " +
-                                        "  from: 'products', " +
-                                        "  localField: 'items.productObjectId', " +
-                                        "  foreignField: '_id', " +
-                                        "  as: 'productDetails' " +
-                                        "} }",
-                        "{ $unwind: { path: '$productDetails', preserveNullAndEmptyArrays: true } }",
-                        "{ $lookup: { " +
-                                        "  from: 'categories', " +
-                                        "  localField: 'productDetails.categoryId', " +
-                                        "  foreignField: '_id', " +
-                                        "  as: 'categoryDetails' " +
-                                        "} }",
-                        "{ $unwind: { path: '$categoryDetails', preserveNullAndEmptyArrays: true } }",
                         "{ $group: { " +
-                                        "  _id: '$categoryDetails.name', " +
-                                        "  totalRevenue: { $sum: { $multiply: [ { $toDouble: '$items.price' }, '$items.quantity' ] } } "
+                                        "  _id: '$items.categoryName', " +
+                                        "  totalRevenue: { $sum: { $multiply: [ { $toDecimal: '$items.price' }, '$items.quantity' ] } } "
                                         +
                                         "} }",
                         "{ $match: { _id: { $ne: null } } }",
@@ -168,12 +149,24 @@ public interface OrderRepository extends MongoRepository<Order, String> {
         })
         List<SellerTopCategory> getSellerTopCategories(String sellerId);
 
+        @SecondaryRead
+        @Meta(maxExecutionTimeMs = ANALYTICS_MAX_TIME_MS)
         @Aggregation(value = {
-                        "{ $match: { status: { $in: ['DELIVERED', 'CONFIRMED'] } } }",
+                        "{ $match: { sellerIds: ?0, status: { $in: ['DELIVERED', 'CONFIRMED'] } } }",
                         "{ $unwind: '$items' }",
                         "{ $match: { 'items.sellerId': ?0 } }",
-                        "{ $group: { _id: null, totalUnits: { $sum: { $toDouble: '$items.quantity' } } } }"
+                        "{ $group: { _id: null, totalUnits: { $sum: '$items.quantity' } } }"
         })
         List<SellerTotalUnits> getSellerTotalUnits(String sellerId);
 
+        // Exact count: one group per buyer streams through (no $addToSet array); rollups use a HyperLogLog
+        @SecondaryRead
+        @Meta(maxExecutionTimeMs = ANALYTICS_MAX_TIME_MS)
+        @Aggregation(value = {
+                        "{ $match: { sellerIds: ?0, status: { $in: ['DELIVERED', 'CONFIRMED'] } } }",
+                        "{ $group: { _id: '$userId' } }",
+                        "{ $count: 'uniqueBuyers' }"
+        })
+        List<SellerUniqueBuyers> getSellerUniqueBuyers(String sellerId);
+
 }
@@ -0,0 +1,66 @@
+package com.buyone.orderservice.repository;
+
+import com.buyone.orderservice.dto.response.order.OrderSummaryResponse;
+import com.buyone.orderservice.model.order.Order;
+import com.buyone.orderservice.model.order.OrderStatus;
+import com.buyone.orderservice.repository.routing.SecondaryRead;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Dynamic Criteria-built order queries (only supplied filters end up in the query).
+ */
+public interface OrderRepositoryCustom {
+    
+    /**
+     * Buyer order search, newest first.
+     * keyword = order number prefix ("ORD-...") or product name words (text index).
+     * status / from / to are ANDed when present (both bounds inclusive).
+     * Buyer reads stay on the primary: an order just placed or cancelled must show up as such.
+     */
+    Page<Order> searchBuyerOrders(String userId, String keyword, OrderStatus status,
+                                  LocalDateTime from, LocalDateTime to, Pageable pageable);
+    
+    /**
+     * {@link #searchBuyerOrders} without the count: one extra row is read to tell whether a next page exists.
+     */
+    Slice<Order> searchBuyerOrderSlice(String userId, String keyword, OrderStatus status,
+                                       LocalDateTime from, LocalDateTime to, Pageable pageable);
+    
+    /**
+     * Number of orders {@link #searchBuyerOrders} would page through.
+     */
+    long countBuyerOrders(String userId, String keyword, OrderStatus status, LocalDateTime from, LocalDateTime to);
+    
+    /**
+     * Lookup in the cold tier (orders_archive) - terminal orders moved out by the archiver.
+     */
+    Optional<Order> findArchivedByOrderNumber(String orderNumber);
+    
+    /**
+     * One unordered bulkWrite: each order moves to {@code status} only if it is still in the
+     * status it was read with (guards against concurrent transitions).
+     * @return number of orders matched by their guarded update
+     */
+    int bulkUpdateStatus(List<Order> orders, OrderStatus status, LocalDateTime updatedAt);
+    
+    /**
+     * Cursor-backed stream of a seller's orders (no count, no offset) for exports.
+     * Caller must close the stream. Only export fields are projected.
+     */
+    @SecondaryRead
+    Stream<Order> streamSellerOrders(String sellerId, OrderStatus status, LocalDateTime from, LocalDateTime to);
+    
+    /**
+     * Buyer history keyset page, newest first: orders strictly after the (createdAt, id) cursor.
+     * Pass null cursor values for the first page.
+     */
+    List<OrderSummaryResponse> findBuyerOrderSummaries(String userId, LocalDateTime beforeCreatedAt,
+                                                       String beforeId, int limit);
+}
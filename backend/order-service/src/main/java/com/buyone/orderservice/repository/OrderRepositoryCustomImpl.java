@@ -0,0 +1,164 @@
+package com.buyone.orderservice.repository;
+
+import com.buyone.orderservice.dto.response.order.OrderSummaryResponse;
+import com.buyone.orderservice.model.order.Order;
+import com.buyone.orderservice.model.order.OrderStatus;
+import lombok.RequiredArgsConstructor;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AccumulatorOperators;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.ArrayOperators;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.TextCriteria;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Spring Data fragment for {@link OrderRepositoryCustom}.
+ * Queries are shaped to hit {userId, createdAt} / {userId, status, createdAt}.
+ */
+@RequiredArgsConstructor
+public class OrderRepositoryCustomImpl implements OrderRepositoryCustom {
+    
+    static final String ORDER_NUMBER_PREFIX = "ORD-";
+    static final int EXPORT_CURSOR_BATCH_SIZE = 1000;
+    private static final Pattern REGEX_META = Pattern.compile("[\\\\^$.|?*+()\\[\\]{}]");
+    public static final String ARCHIVE_COLLECTION = "orders_archive";
+    
+    private final MongoTemplate mongoTemplate;
+    
+    @Override
+    public Page<Order> searchBuyerOrders(String userId, String keyword, OrderStatus status,
+                                         LocalDateTime from, LocalDateTime to, Pageable pageable) {
+        Query query = buildBuyerSearchQuery(userId, keyword, status, from, to);
+        query.with(pageable).with(Sort.by(Sort.Direction.DESC, "createdAt"));
+        
+        List<Order> content = mongoTemplate.find(query, Order.class);
+        return PageableExecutionUtils.getPage(content, pageable,
+                () -> mongoTemplate.count(Query.of(query).limit(-1).skip(-1), Order.class));
+    }
+    
+    @Override
+    public Slice<Order> searchBuyerOrderSlice(String userId, String keyword, OrderStatus status,
+                                              LocalDateTime from, LocalDateTime to, Pageable pageable) {
+        Query query = buildBuyerSearchQuery(userId, keyword, status, from, to);
+        query.with(pageable).with(Sort.by(Sort.Direction.DESC, "createdAt"));
+        query.limit(pageable.getPageSize() + 1);  // the extra row only answers hasNext
+        
+        List<Order> content = mongoTemplate.find(query, Order.class);
+        boolean hasNext = content.size() > pageable.getPageSize();
+        return new SliceImpl<>(hasNext ? content.subList(0, pageable.getPageSize()) : content, pageable, hasNext);
+    }
+    
+    @Override
+    public long countBuyerOrders(String userId, String keyword, OrderStatus status,
+                                 LocalDateTime from, LocalDateTime to) {
+        return mongoTemplate.count(buildBuyerSearchQuery(userId, keyword, status, from, to), Order.class);
+    }
+    
+    @Override
+    public Optional<Order> findArchivedByOrderNumber(String orderNumber) {
+        Query query = new Query(Criteria.where("orderNumber").is(orderNumber));
+        return Optional.ofNullable(mongoTemplate.findOne(query, Order.class, ARCHIVE_COLLECTION));
+    }
+    
+    @Override
+    public int bulkUpdateStatus(List<Order> orders, OrderStatus status, LocalDateTime updatedAt) {
+        if (orders.isEmpty()) {
+            return 0;
+        }
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Order.class);
+        for (Order order : orders) {
+            Query guarded = new Query(Criteria.where("_id").is(order.getId())
+                    .and("status").is(order.getStatus()));
+            bulk.updateOne(guarded, Update.update("status", status).set("updatedAt", updatedAt)
+                    .inc("version", 1));  // keep @Version writers honest
+        }
+        return bulk.execute().getMatchedCount();
+    }
+    
+    @Override
+    public Stream<Order> streamSellerOrders(String sellerId, OrderStatus status,
+                                            LocalDateTime from, LocalDateTime to) {
+        Query query = new Query(Criteria.where("sellerIds").is(sellerId));
+        if (status != null) {
+            query.addCriteria(Criteria.where("status").is(status));
+        }
+        addCreatedAtRange(query, from, to);
+        // No sort: rows come back in {sellerIds, status, createdAt} index order, never an in-memory sort
+        query.fields().include("orderNumber", "status", "createdAt", "items");
+        query.cursorBatchSize(EXPORT_CURSOR_BATCH_SIZE);
+        return mongoTemplate.stream(query, Order.class);
+    }
+    
+    @Override
+    public List<OrderSummaryResponse> findBuyerOrderSummaries(String userId, LocalDateTime beforeCreatedAt,
+                                                              String beforeId, int limit) {
+        Criteria criteria = Criteria.where("userId").is(userId);
+        if (beforeCreatedAt != null) {
+            criteria.orOperator(
+                    Criteria.where("createdAt").lt(beforeCreatedAt),
+                    Criteria.where("createdAt").is(beforeCreatedAt).and("_id").lt(new ObjectId(beforeId)));
+        }
+        
+        TypedAggregation<Order> aggregation = Aggregation.newAggregation(Order.class,
+                Aggregation.match(criteria),
+                Aggregation.sort(Sort.by(Sort.Direction.DESC, "createdAt", "_id")),  // {userId, createdAt, _id}
+                Aggregation.limit(limit),
+                Aggregation.project("orderNumber", "status", "total", "createdAt")
+                        .and(AccumulatorOperators.Sum.sumOf("items.quantity")).as("itemCount")
+                        .and(ArrayOperators.ArrayElemAt.arrayOf("items.imageUrl").elementAt(0)).as("firstImageUrl"));
+        
+        return mongoTemplate.aggregate(aggregation, OrderSummaryResponse.class).getMappedResults();
+    }
+    
+    Query buildBuyerSearchQuery(String userId, String keyword, OrderStatus status,
+                                LocalDateTime from, LocalDateTime to) {
+        Query query = new Query(Criteria.where("userId").is(userId));
+        
+        if (status != null) {
+            query.addCriteria(Criteria.where("status").is(status));
+        }
+        
+        addCreatedAtRange(query, from, to);
+        
+        if (keyword != null && !keyword.isBlank()) {
+            String term = keyword.trim();
+            if (term.toUpperCase(Locale.ROOT).startsWith(ORDER_NUMBER_PREFIX)) {
+                // Anchored, case-sensitive prefix → index range scan on orderNumber
+                // (plain backslash escaping: \Q..\E would defeat the planner's prefix bounds)
+                String prefix = REGEX_META.matcher(term.toUpperCase(Locale.ROOT)).replaceAll("\\\\$0");
+                query.addCriteria(Criteria.where("orderNumber").regex("^" + prefix));
+            } else {
+                // Product names → text index {userId, items.productName}; its prefix needs the userId equality above
+                query.addCriteria(TextCriteria.forDefaultLanguage().matching(term));
+            }
+        }
+        return query;
+    }
+    
+    private void addCreatedAtRange(Query query, LocalDateTime from, LocalDateTime to) {
+        if (from != null || to != null) {
+            Criteria createdAt = Criteria.where("createdAt");
+            if (from != null) createdAt.gte(from);
+            if (to != null) createdAt.lte(to);
+            query.addCriteria(createdAt);
+        }
+    }
+}
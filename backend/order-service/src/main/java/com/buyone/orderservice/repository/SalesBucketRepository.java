@@ -0,0 +1,16 @@
+package com.buyone.orderservice.repository;
+
+import com.buyone.orderservice.model.analytics.SalesBucket;
+import com.buyone.orderservice.repository.routing.SecondaryRead;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
+
+import java.util.List;
+
+public interface SalesBucketRepository extends MongoRepository<SalesBucket, String> {
+    
+    // {sellerId, bucketStart} index, see SalesBucketWriter.ensureIndexes
+    @SecondaryRead
+    @Query(value = "{ 'sellerId': ?0, 'bucketStart': { $gte: ?1, $lte: ?2 } }", sort = "{ 'bucketStart': 1 }")
+    List<SalesBucket> findSellerBuckets(String sellerId, String fromInclusive, String toInclusive);
+}
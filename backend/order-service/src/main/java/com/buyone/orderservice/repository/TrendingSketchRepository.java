@@ -0,0 +1,12 @@
+package com.buyone.orderservice.repository;
+
+import com.buyone.orderservice.model.analytics.TrendingSketch;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface TrendingSketchRepository extends MongoRepository<TrendingSketch, String> {
+    
+    List<TrendingSketch> findByDayIn(Collection<String> days);
+}
@@ -0,0 +1,184 @@
+package com.buyone.orderservice.repository.index;
+
+import com.mongodb.MongoException;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.mapping.context.MappingContext;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentProperty;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Creates the indexes order-service's queries rely on at startup and records which exist: the
+ * annotations on Order / Cart (see {@link #fromEntities}; Spring Boot 3 leaves auto-index-creation
+ * off) plus those that archive, bucket and trending owners declare in code (see MongoIndexConfig).
+ * Builds are requested in the background and ensureIndex is a no-op for an existing index, so
+ * every start re-runs it safely. A failed build (duplicate orderNumbers under the unique index,
+ * different keys or options under a registered name) fails startup after the other indexes have
+ * been tried; only a build already running on another instance is tolerated.
+ * Declarations replaced under a new name are listed as retired and dropped first, as a successor
+ * text index can't be built next to the old one.
+ */
+@Slf4j
+@Order(Ordered.HIGHEST_PRECEDENCE)  // before the migrations and backfills, which query these collections
+public class IndexRegistry implements ApplicationRunner {
+    
+    // IndexAlreadyExists, IndexBuildAlreadyInProgress: several instances start at once
+    static final Set<Integer> BENIGN_ERROR_CODES = Set.of(68, 276);
+    
+    private final MongoTemplate mongoTemplate;
+    private final List<RequiredIndex> required;
+    private final Map<String, List<String>> retired;
+    
+    private volatile Map<String, List<String>> existing = Map.of();
+    private volatile List<RequiredIndex> missing = List.of();
+    
+    /**
+     * @param retired index names to drop, per collection
+     */
+    public IndexRegistry(MongoTemplate mongoTemplate, List<RequiredIndex> required, Map<String, List<String>> retired) {
+        this.mongoTemplate = mongoTemplate;
+        this.required = List.copyOf(required);
+        this.retired = Map.copyOf(retired);
+    }
+    
+    /**
+     * The indexes declared by annotations on the given entity classes.
+     */
+    public static List<RequiredIndex> fromEntities(
+            MappingContext<? extends MongoPersistentEntity<?>, MongoPersistentProperty> mappingContext,
+            Class<?>... types) {
+        MongoPersistentEntityIndexResolver resolver = new MongoPersistentEntityIndexResolver(mappingContext);
+        List<RequiredIndex> indexes = new ArrayList<>();
+        for (Class<?> type : types) {
+            String collection = mappingContext.getRequiredPersistentEntity(type).getCollection();
+            resolver.resolveIndexFor(type).forEach(definition -> indexes.add(new RequiredIndex(collection, definition)));
+        }
+        return indexes;
+    }
+    
+    @Override
+    public void run(ApplicationArguments args) {
+        ensureAll();
+    }
+    
+    public void ensureAll() {
+        // Before the builds: a collection holds one text index, so a replaced one blocks its successor
+        dropRetired();
+        List<RequiredIndex> failed = new ArrayList<>();
+        for (RequiredIndex index : required) {
+            try {
+                mongoTemplate.indexOps(index.collection()).ensureIndex(inBackground(index.definition()));
+            } catch (Exception e) {
+                log.error("Could not create index {}: {}", index, e.getMessage());
+                if (!isBenign(e)) {
+                    failed.add(index);
+                }
+            }
+        }
+        refresh();
+        if (!failed.isEmpty()) {
+            throw new IllegalStateException("Could not create required indexes " + failed + ", see the log");
+        }
+    }
+    
+    private void dropRetired() {
+        retired.forEach((collection, names) -> {
+            IndexOperations indexOps = mongoTemplate.indexOps(collection);
+            List<String> present = indexOps.getIndexInfo().stream().map(IndexInfo::getName).toList();
+            names.stream().filter(present::contains).forEach(name -> {
+                indexOps.dropIndex(name);
+                log.info("Dropped retired index {}.{}", collection, name);
+            });
+        });
+    }
+    
+    static boolean isBenign(Throwable error) {
+        Throwable cause = error;
+        while (cause != null && !(cause instanceof MongoException)) {
+            cause = cause.getCause();
+        }
+        return cause != null && BENIGN_ERROR_CODES.contains(((MongoException) cause).getCode());
+    }
+    
+    /**
+     * Re-reads the index names of every registered collection.
+     */
+    public void refresh() {
+        Map<String, List<String>> found = new TreeMap<>();
+        for (String collection : collections()) {
+            try {
+                found.put(collection, mongoTemplate.indexOps(collection).getIndexInfo().stream()
+                        .map(IndexInfo::getName)
+                        .toList());
+            } catch (Exception e) {
+                log.warn("Could not list indexes of {}: {}", collection, e.getMessage());
+                found.put(collection, List.of());
+            }
+        }
+        List<RequiredIndex> absent = required.stream()
+                .filter(index -> !found.getOrDefault(index.collection(), List.of()).contains(index.name()))
+                .toList();
+        existing = found;
+        missing = absent;
+        
+        if (absent.isEmpty()) {
+            log.info("All {} required indexes present: {}", required.size(), found);
+        } else {
+            log.warn("{} of {} required indexes missing: {}", absent.size(), required.size(), absent);
+        }
+    }
+    
+    public List<RequiredIndex> required() {
+        return required;
+    }
+    
+    /**
+     * Index names per registered collection, as of the last {@link #refresh()}.
+     */
+    public Map<String, List<String>> existing() {
+        return existing;
+    }
+    
+    public List<RequiredIndex> missing() {
+        return missing;
+    }
+    
+    private Set<String> collections() {
+        Set<String> collections = new LinkedHashSet<>();
+        required.forEach(index -> collections.add(index.collection()));
+        return collections;
+    }
+    
+    // Servers before 4.2 otherwise hold the collection lock for the whole build; newer ones ignore the flag
+    private static IndexDefinition inBackground(IndexDefinition definition) {
+        Document options = new Document(definition.getIndexOptions()).append("background", true);
+        Document keys = definition.getIndexKeys();
+        return new IndexDefinition() {
+            @Override
+            public Document getIndexKeys() {
+                return keys;
+            }
+            
+            @Override
+            public Document getIndexOptions() {
+                return options;
+            }
+        };
+    }
+}
@@ -0,0 +1,31 @@
+package com.buyone.orderservice.repository.index;
+
+import org.bson.Document;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+
+import java.util.stream.Collectors;
+
+/**
+ * One index a collection must have, as declared to {@link IndexRegistry}.
+ */
+public record RequiredIndex(String collection, IndexDefinition definition) {
+    
+    /**
+     * The index name: the declared one, else the server's default (field_direction pairs joined by '_').
+     */
+    public String name() {
+        String name = definition.getIndexOptions().getString("name");
+        if (name != null) {
+            return name;
+        }
+        Document keys = definition.getIndexKeys();
+        return keys.entrySet().stream()
+                .map(key -> key.getKey() + "_" + key.getValue())
+                .collect(Collectors.joining("_"));
+    }
+    
+    @Override
+    public String toString() {
+        return collection + "." + name();
+    }
+}
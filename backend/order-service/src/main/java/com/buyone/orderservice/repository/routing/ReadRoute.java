@@ -0,0 +1,34 @@
+package com.buyone.orderservice.repository.routing;
+
+/**
+ * Thread-bound name of the {@link SecondaryRead} repository method being executed
+ * ("OrderRepository.getSellerTotalRevenue"); null for everything else.
+ */
+public final class ReadRoute {
+    
+    private static final ThreadLocal<String> CURRENT = new ThreadLocal<>();
+    
+    private ReadRoute() {
+    }
+    
+    public static String current() {
+        return CURRENT.get();
+    }
+    
+    /**
+     * @return the route bound before, to hand back to {@link #restore}
+     */
+    public static String bind(String route) {
+        String previous = CURRENT.get();
+        CURRENT.set(route);
+        return previous;
+    }
+    
+    public static void restore(String previous) {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.buyone.orderservice.repository.routing;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Repository proxy advice: binds the {@link ReadRoute} while a {@link SecondaryRead} method runs.
+ * The annotation is looked up on the repository interface, so inherited methods
+ * (findAll, ...) can be routed by redeclaring them there.
+ */
+public class ReadRouteInterceptor implements MethodInterceptor {
+    
+    private final Class<?> repositoryInterface;
+    private final Map<Method, Optional<String>> routes = new ConcurrentHashMap<>();
+    
+    public ReadRouteInterceptor(Class<?> repositoryInterface) {
+        this.repositoryInterface = repositoryInterface;
+    }
+    
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        Optional<String> route = routes.computeIfAbsent(invocation.getMethod(), this::route);
+        if (route.isEmpty()) {
+            return invocation.proceed();
+        }
+        String previous = ReadRoute.bind(route.get());
+        try {
+            return invocation.proceed();
+        } finally {
+            ReadRoute.restore(previous);
+        }
+    }
+    
+    Optional<String> route(Method method) {
+        Method declared = method;
+        try {
+            declared = repositoryInterface.getMethod(method.getName(), method.getParameterTypes());
+        } catch (NoSuchMethodException e) {
+            // not part of the repository interface: keep the invoked method
+        }
+        if (!AnnotatedElementUtils.hasAnnotation(declared, SecondaryRead.class)) {
+            return Optional.empty();
+        }
+        return Optional.of(repositoryInterface.getSimpleName() + "." + method.getName());
+    }
+}
@@ -0,0 +1,48 @@
+package com.buyone.orderservice.repository.routing;
+
+import com.mongodb.connection.ServerType;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandSucceededEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.Set;
+
+/**
+ * Driver command listener counting where reads land: mongo.reads{route, server}, route being the
+ * {@link SecondaryRead} method ("default" for unrouted reads) and server the member that answered
+ * (primary / secondary / standalone / other). The sync driver calls it on the querying thread,
+ * so the bound {@link ReadRoute} is still visible. Cursor getMores follow their first batch and aren't counted.
+ */
+public class ReadRoutingMetrics implements CommandListener {
+    
+    static final String METRIC = "mongo.reads";
+    static final String DEFAULT_ROUTE = "default";
+    
+    private static final Set<String> READ_COMMANDS = Set.of("find", "aggregate", "count", "distinct");
+    
+    private final MeterRegistry meterRegistry;
+    
+    public ReadRoutingMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+    
+    @Override
+    public void commandSucceeded(CommandSucceededEvent event) {
+        if (!READ_COMMANDS.contains(event.getCommandName())) {
+            return;
+        }
+        String route = ReadRoute.current();
+        meterRegistry.counter(METRIC,
+                "route", route != null ? route : DEFAULT_ROUTE,
+                "server", server(event.getConnectionDescription().getServerType())).increment();
+    }
+    
+    static String server(ServerType type) {
+        return switch (type) {
+            case REPLICA_SET_PRIMARY -> "primary";
+            case REPLICA_SET_SECONDARY -> "secondary";
+            case STANDALONE -> "standalone";
+            default -> "other";
+        };
+    }
+}
@@ -0,0 +1,34 @@
+package com.buyone.orderservice.repository.routing;
+
+import com.mongodb.ReadPreference;
+import com.mongodb.client.MongoCollection;
+import org.bson.Document;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * MongoTemplate that reads with {@code secondaryRead} while a {@link ReadRoute} is bound.
+ * Everything else, and anything inside a transaction (which must read from the primary),
+ * keeps the client's default read preference.
+ */
+public class ReadRoutingMongoTemplate extends MongoTemplate {
+    
+    private final ReadPreference secondaryRead;
+    
+    public ReadRoutingMongoTemplate(MongoDatabaseFactory databaseFactory, MongoConverter converter,
+                                    ReadPreference secondaryRead) {
+        super(databaseFactory, converter);
+        this.secondaryRead = secondaryRead;
+    }
+    
+    @Override
+    protected MongoCollection<Document> prepareCollection(MongoCollection<Document> collection) {
+        MongoCollection<Document> prepared = super.prepareCollection(collection);
+        if (ReadRoute.current() == null || TransactionSynchronizationManager.isActualTransactionActive()) {
+            return prepared;
+        }
+        return prepared.withReadPreference(secondaryRead);
+    }
+}
@@ -0,0 +1,19 @@
+package com.buyone.orderservice.repository.routing;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a read-only repository method whose queries may be served by a secondary
+ * (secondaryPreferred with a max-staleness bound, see MongoReadRoutingConfig).
+ * Only for reads that tolerate slightly stale data: never for stock, checkout or
+ * anything read back right after writing it. Inside a transaction the primary is used anyway.
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface SecondaryRead {
+}
@@ -1,16 +1,22 @@
 package com.buyone.orderservice.service;
 
+import com.buyone.orderservice.dto.request.cart.AddCartItemRequest;
+import com.buyone.orderservice.dto.response.cart.BulkAddCartItemsResponse;
 import com.buyone.orderservice.model.cart.Cart;
 import com.buyone.orderservice.model.cart.CartItem;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Min;
+import java.util.List;
 import java.util.Optional;
 
 public interface CartService {
     Cart addItem(@NotBlank String userId, CartItem item);
+    BulkAddCartItemsResponse addItems(@NotBlank String userId, List<AddCartItemRequest> items);
     Optional<Cart> getCart(String userId);
+    Optional<Cart> revalidateCart(String userId);  // live price/stock check, changes flagged per item
     Cart updateQuantity(@NotBlank String userId, @NotBlank String productId, @Min(1) int quantity);
     Cart removeItem(@NotBlank String userId, String productId);
     Cart clearCart(@NotBlank String userId);
     void saveCart(Cart cart);
+    void flushCart(@NotBlank String userId);  // persist buffered changes (write-behind tier)
 }
\ No newline at end of file
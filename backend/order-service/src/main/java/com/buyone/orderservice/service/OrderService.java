@@ -1,12 +1,19 @@
 package com.buyone.orderservice.service;
 
+import com.buyone.orderservice.dto.request.order.ExportFormat;
 import com.buyone.orderservice.dto.request.order.OrderSearchRequest;
+import com.buyone.orderservice.dto.response.CursorPage;
+import com.buyone.orderservice.dto.response.SliceResponse;
+import com.buyone.orderservice.dto.response.order.BulkOrderStatusResponse;
+import com.buyone.orderservice.dto.response.order.OrderSummaryResponse;
 import com.buyone.orderservice.model.Address;
 import com.buyone.orderservice.model.order.Order;
 import com.buyone.orderservice.model.order.OrderStatus;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.List;
 import java.util.Optional;
 
@@ -15,17 +22,36 @@ public interface OrderService {
     
     List<Order> getBuyerOrders(String userId);
     
+    CursorPage<OrderSummaryResponse> getBuyerOrderHistory(String userId, String cursor, int limit);
+    
     Optional<Order> getOrder(String orderNumber);
     
     Optional<Order> updateStatus(String orderNumber, String sellerId, OrderStatus status);
     
+    BulkOrderStatusResponse bulkUpdateStatus(String sellerId, List<String> orderNumbers, OrderStatus status);
+    
     Page<Order> searchBuyerOrders(String userId, OrderSearchRequest req);
     
+    /**
+     * Slice mode of {@link #searchBuyerOrders}: no count query unless req.withTotal is set.
+     */
+    SliceResponse<Order> searchBuyerOrderSlice(String userId, OrderSearchRequest req);
+    
     Page<Order> getSellerOrders(String sellerId, Pageable pageable);
     
+    /**
+     * Validates the filters eagerly, returns the body writer (streams straight from a Mongo cursor).
+     */
+    OrderExport exportSellerOrders(String sellerId, String status, String startDate, String endDate, ExportFormat format);
+    
     Optional<Order> confirmOrder(String orderNumber, String userId);
     
     void cancelOrder(String orderNumber, String userId);  // Only PENDING → CANCELLED
     
     Optional<Order> redoOrder(String orderNumber, String userId);   // CANCELLED → new cart → new order
+    
+    @FunctionalInterface
+    interface OrderExport {
+        void writeTo(OutputStream out) throws IOException;
+    }
 }
@@ -1,9 +1,15 @@
 package com.buyone.orderservice.service;
 
 import com.buyone.orderservice.dto.response.analytics.ClientAnalyticsResponse;
+import com.buyone.orderservice.dto.response.analytics.SalesTimeseriesResponse;
 import com.buyone.orderservice.dto.response.analytics.SellerAnalyticsResponse;
+import com.buyone.orderservice.dto.response.analytics.TrendingProduct;
+
+import java.util.List;
 
 public interface ProfileAnalyticsService {
     ClientAnalyticsResponse getClientAnalytics(String userId);
     SellerAnalyticsResponse getSellerAnalytics(String sellerId);
+    SalesTimeseriesResponse getSellerTimeseries(String sellerId, String granularity, String from, String to);
+    List<TrendingProduct> getTrending(int limit);
 }
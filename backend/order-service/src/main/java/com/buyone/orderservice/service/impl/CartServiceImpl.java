@@ -1,28 +1,44 @@
 package com.buyone.orderservice.service.impl;
 
 import com.buyone.orderservice.client.ProductClient;
+import com.buyone.orderservice.dto.request.ProductBatchRequest;
+import com.buyone.orderservice.dto.request.cart.AddCartItemRequest;
+import com.buyone.orderservice.dto.response.cart.BulkAddCartItemsResponse;
+import com.buyone.orderservice.dto.response.cart.BulkCartItemResult;
 import com.buyone.orderservice.exception.BadRequestException;
+import com.buyone.orderservice.exception.ServiceUnavailableException;
+import com.buyone.orderservice.exception.ConflictException;
 import com.buyone.orderservice.model.Product;
 import com.buyone.orderservice.model.cart.Cart;
 import com.buyone.orderservice.model.cart.CartItem;
+import com.buyone.orderservice.model.cart.CartItemChange;
 import com.buyone.orderservice.dto.response.ProductResponse;
 import com.buyone.orderservice.dto.response.ApiResponse;
-import com.buyone.orderservice.repository.CartRepository;
+import com.buyone.orderservice.pricing.PriceBreakdown;
+import com.buyone.orderservice.pricing.PricingEngine;
 import com.buyone.orderservice.service.CartService;
+import com.buyone.orderservice.store.CartStore;
+import com.buyone.orderservice.service.support.CartRevalidationCache;
+import com.buyone.orderservice.service.support.OptimisticRetry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.validation.annotation.Validated;
-import org.springframework.beans.factory.annotation.Value;
 
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -30,116 +46,172 @@ import java.util.Optional;
 @Validated  // For method-level validation
 public class CartServiceImpl implements CartService {
     
-    private final CartRepository cartRepository;
+    private final CartStore cartStore;          // Mongo or write-behind tier
     private final ProductClient productClient;  //  Fixed: no @Autowired
+    private final PricingEngine pricingEngine;  // Shared with order checkout
+    private final OptimisticRetry optimisticRetry;
+    private final CartRevalidationCache revalidationCache;
     
-    @Value("${app.cart.tax-rate:0.24}")  //  Configurable
-    private double taxRate;
+    private static final int MAX_ADD_ATTEMPTS = 3;
     
     @Override
     @Transactional  // Consistency guarantee
     public Cart addItem(String userId, CartItem item) {
         validateCartItem(item);
-        Cart cart = getOrCreateCart(userId);
         
-        // Merge if exists (multi-seller support)
-        Optional<CartItem> existing = cart.getItems().stream()
-                .filter(ci -> ci.getProductId().equals(item.getProductId())
-                        && ci.getSellerId().equals(item.getSellerId()))
-                .findFirst();
+        // Merge if exists (multi-seller support) - single atomic $inc
+        Optional<Cart> merged = cartStore.incrementItemQuantity(
+                userId, item.getProductId(), item.getSellerId(), item.getQuantity());
+        if (merged.isPresent()) {
+            return applyTotals(merged.get());
+        }
         
-        if (existing.isPresent()) {
-            existing.get().setQuantity(existing.get().getQuantity() + item.getQuantity());
-        } else {
-            // Production integration - Full ApiResponse handling
-            ApiResponse<ProductResponse> response = productClient.getById(item.getProductId());
-            
-            if (!response.isSuccess() || response.getData() == null) {
-                log.warn("Product not found: {}", item.getProductId());
-                throw new BadRequestException("Product not found: " + item.getProductId());
+        populateFromProduct(item);
+        
+        for (int attempt = 0; attempt < MAX_ADD_ATTEMPTS; attempt++) {
+            Optional<Cart> pushed = cartStore.pushItem(userId, item);
+            if (pushed.isPresent()) {
+                return applyTotals(pushed.get());
             }
-            
-            ProductResponse product = response.getData();
-            
-            // Debug logs (keep for now)
-            log.info("Product: {} quantity={}, request qty={}",
-                    product.getId(),
-                    product.getQuantity(),
-                    item.getQuantity());
-            
-            int availableStock = Optional.ofNullable(product.getQuantity()).orElse(0);
-            log.info("Available: {}, requested: {}", availableStock, item.getQuantity());
-            
-            if (availableStock < item.getQuantity()) {
-                throw new BadRequestException("Insufficient stock: " + item.getQuantity() +
-                        " requested, " + availableStock + " available");
+            // Same product added concurrently (other tab) → merge into it instead
+            merged = cartStore.incrementItemQuantity(
+                    userId, item.getProductId(), item.getSellerId(), item.getQuantity());
+            if (merged.isPresent()) {
+                return applyTotals(merged.get());
+            }
+        }
+        throw new ConflictException("Cart changed concurrently, please retry");
+    }
+    
+    /**
+     * Bulk add (buy-again, wishlist to cart): one batched product lookup, merge in memory,
+     * one cart write. Invalid, unknown or out-of-stock items are reported per item instead of failing the call.
+     */
+    @Override
+    @Transactional
+    public BulkAddCartItemsResponse addItems(String userId, List<AddCartItemRequest> requests) {
+        List<BulkCartItemResult> results = new ArrayList<>();
+        
+        // Same product+seller listed twice → one line with the summed quantity
+        Map<String, CartItem> wanted = new LinkedHashMap<>();
+        for (AddCartItemRequest request : requests) {
+            CartItem item = CartItem.builder()
+                    .productId(request.getProductId())
+                    .sellerId(request.getSellerId())
+                    .quantity(request.getQuantity())
+                    .build();
+            try {
+                validateCartItem(item);
+            } catch (BadRequestException e) {
+                results.add(itemResult(item, false, e.getMessage()));
+                continue;
+            }
+            wanted.merge(lineKey(item.getProductId(), item.getSellerId()), item, (existing, extra) -> {
+                existing.setQuantity(existing.getQuantity() + extra.getQuantity());
+                return existing;
+            });
+        }
+        
+        Map<String, ProductResponse> products = fetchProducts(wanted.values());
+        List<CartItem> accepted = new ArrayList<>();
+        for (CartItem item : wanted.values()) {
+            ProductResponse product = products.get(item.getProductId());
+            try {
+                if (product == null) {
+                    throw new BadRequestException("Product not found: " + item.getProductId());
+                }
+                applyProduct(item, product);
+                accepted.add(item);
+                results.add(itemResult(item, true, "Added to cart"));
+            } catch (BadRequestException e) {
+                results.add(itemResult(item, false, e.getMessage()));
             }
-            
-            // Populate cart item snapshot
-            item.setProductName(product.getName());
-            item.setPrice(product.getPrice());
-            item.setImageUrl(product.getImages() != null && !product.getImages().isEmpty()
-                    ? product.getImages().get(0) : null);
-            
-            cart.getItems().add(item);
         }
-        return recalculateTotals(cart);
+        
+        Cart cart = accepted.isEmpty()
+                ? getOrCreateCart(userId)
+                : optimisticRetry.execute("addItems", () -> cartStore.save(mergeInto(getOrCreateCart(userId), accepted)));
+        
+        log.info("Bulk add for user {}: {} added, {} failed", userId, accepted.size(), results.size() - accepted.size());
+        return BulkAddCartItemsResponse.builder()
+                .added(accepted.size())
+                .failed(results.size() - accepted.size())
+                .cart(applyTotals(cart))
+                .results(results)
+                .build();
     }
     
     @Override
     public Optional<Cart> getCart(String userId) {
-        return cartRepository.findById(userId);
+        return cartStore.findById(userId).map(this::applyTotals);
+    }
+    
+    /**
+     * Cart view checked against live products: one batched lookup (briefly cached per cart),
+     * current prices applied to the returned lines and every price/stock move listed in changes.
+     * Stored snapshots are left as they are; checkout takes its own fresh snapshot.
+     */
+    @Override
+    public Optional<Cart> revalidateCart(String userId) {
+        return cartStore.findById(userId).map(cart -> {
+            List<String> ids = cart.getItems().stream().map(CartItem::getProductId).toList();
+            Map<String, ProductResponse> products;
+            try {
+                products = ids.isEmpty() ? Map.of() : revalidationCache.products(userId, ids, this::lookupProducts);
+            } catch (Exception e) {
+                // Best effort: the plain cart view is still correct, just not re-checked
+                log.warn("Cart revalidation failed for user {}: {}", userId, e.getMessage());
+                return applyTotals(cart);
+            }
+            List<CartItemChange> changes = new ArrayList<>();
+            for (CartItem item : cart.getItems()) {
+                revalidateItem(item, products.get(item.getProductId())).ifPresent(changes::add);
+            }
+            cart.setChanges(changes);
+            return applyTotals(cart);
+        });
     }
     
     @Override
     @Transactional
     public Cart updateQuantity(String userId, String productId,
                                int quantity) {
-        Cart cart = getOrCreateCart(userId);
-        boolean updated = cart.getItems().stream()
-                .filter(ci -> ci.getProductId().equals(productId))
-                .findFirst()
-                .map(ci -> {
-                    ci.setQuantity(quantity);
-                    return true;
-                }).orElse(false);
-        
-        if (!updated) {
-            throw new BadRequestException("Product not found in cart: " + productId);
-        }
+        // Quantity 0 or less removes the item
+        Optional<Cart> updated = quantity > 0
+                ? cartStore.setItemQuantity(userId, productId, quantity)
+                : cartStore.pullItem(userId, productId);
         
-        cart.getItems().removeIf(ci -> ci.getQuantity() <= 0);
-        return recalculateTotals(cart);
+        return applyTotals(updated.orElseThrow(
+                () -> new BadRequestException("Product not found in cart: " + productId)));
     }
     
     @Override
     @Transactional
     public Cart removeItem(String userId, String productId) {
-        Cart cart = getOrCreateCart(userId);
-        boolean removed = cart.getItems().removeIf(ci -> ci.getProductId().equals(productId));
-        if (!removed) {
-            log.warn("Item not found in cart: user={}, product={}", userId, productId);
-        }
-        return recalculateTotals(cart);
+        return cartStore.pullItem(userId, productId)
+                .map(this::applyTotals)
+                .orElseGet(() -> {
+                    log.warn("Item not found in cart: user={}, product={}", userId, productId);
+                    return applyTotals(getOrCreateCart(userId));
+                });
     }
     
     @Override
     @Transactional
     public Cart clearCart(String userId) {
-        return cartRepository.save(Cart.builder()
+        // No document for an empty cart - carts collection tracks active shoppers only
+        cartStore.delete(userId);
+        revalidationCache.invalidate(userId);
+        return applyTotals(Cart.builder()
                 .id(userId)
                 .userId(userId)
                 .items(new ArrayList<>())
-                .subtotal(BigDecimal.ZERO)
-                .tax(BigDecimal.ZERO)
-                .shippingCost(BigDecimal.ZERO)
-                .total(BigDecimal.ZERO)
                 .updatedAt(LocalDateTime.now())
                 .build());
     }
     
     private Cart getOrCreateCart(String userId) {
-        return cartRepository.findById(userId)
+        return cartStore.findById(userId)
                 .orElse(Cart.builder()
                         .id(userId)
                         .userId(userId)
@@ -148,34 +220,174 @@ public class CartServiceImpl implements CartService {
                         .build());
     }
     
-    private Cart recalculateTotals(Cart cart) {
-        // Total price (already incl VAT from product)
-        BigDecimal totalInclVat = cart.getItems().stream()
-            .map(item -> item.getPrice().multiply(BigDecimal.valueOf(item.getQuantity())))
-            .reduce(BigDecimal.ZERO, BigDecimal::add);
+    /**
+     * Every cart this service returns goes through here: compacted lines are refilled first (a
+     * mutation on an idle cart would otherwise return blank lines), then totals are derived from the
+     * items (incl VAT); engine reverse-calculates subtotal/VAT + shipping.
+     */
+    private Cart applyTotals(Cart cart) {
+        cart = rehydrate(cart);
+        PriceBreakdown totals = pricingEngine.price(cart.getItems());
         
-        // VAT = 24% of excl VAT price → reverse calculate
-        // totalInclVat = subtotal * 1.24 → subtotal = totalInclVat / 1.24
-        BigDecimal subtotalExclVat = totalInclVat.divide(BigDecimal.valueOf(1.24), 2, RoundingMode.HALF_UP);
+        cart.setSubtotal(totals.subtotal());     // €17.74
+        cart.setTax(totals.tax());               // €4.26
+        cart.setShippingCost(totals.shipping()); // €4.90 or €0.00
+        cart.setTotal(totals.total());           // €26.90 or €22.00
+        return cart;
+    }
+    
+    /**
+     * Stale carts are compacted (names/images stripped, see CartCompactionListener).
+     * Refill them from live product data the first time the buyer comes back.
+     */
+    private Cart rehydrate(Cart cart) {
+        List<CartItem> compacted = cart.getItems().stream()
+                .filter(item -> item.getProductName() == null)
+                .toList();
+        if (compacted.isEmpty()) {
+            return cart;
+        }
+        Map<String, ProductResponse> products;
+        try {
+            products = fetchProducts(compacted);  // one batched lookup for all compacted lines
+        } catch (Exception e) {
+            log.warn("Could not rehydrate {} cart items: {}", compacted.size(), e.getMessage());
+            return cart;
+        }
+        for (CartItem item : compacted) {
+            ProductResponse product = products.get(item.getProductId());
+            if (product != null) {
+                item.setProductName(product.getName());
+                item.setImageUrl(product.getImages() != null && !product.getImages().isEmpty()
+                        ? product.getImages().get(0) : null);
+            }
+        }
+        try {
+            return cartStore.save(cart);
+        } catch (OptimisticLockingFailureException e) {
+            // Cart changed meanwhile; this view still gets the names, next view re-hydrates
+            return cart;
+        }
+    }
+    
+    /**
+     * Fetches the product and snapshots name/price/image onto the new cart item.
+     */
+    private void populateFromProduct(CartItem item) {
+        // Production integration - Full ApiResponse handling
+        ApiResponse<ProductResponse> response = productClient.getById(item.getProductId());
         
-        // VAT amount = totalInclVat - subtotalExclVat
-        BigDecimal vatAmount = totalInclVat.subtract(subtotalExclVat);
-
-        BigDecimal shippingCost = totalInclVat.compareTo(BigDecimal.valueOf(50)) >= 0 
-            ? BigDecimal.ZERO 
-            : BigDecimal.valueOf(4.9);
+        if (!response.isSuccess() || response.getData() == null) {
+            log.warn("Product not found: {}", item.getProductId());
+            throw new BadRequestException("Product not found: " + item.getProductId());
+        }
         
-        BigDecimal grandTotal = totalInclVat.add(shippingCost);
+        applyProduct(item, response.getData());
+    }
+    
+    /**
+     * Stock check + name/price/image snapshot from an already fetched product.
+     */
+    private void applyProduct(CartItem item, ProductResponse product) {
+        int availableStock = Optional.ofNullable(product.getQuantity()).orElse(0);
+        log.debug("Product {} available: {}, requested: {}", product.getId(), availableStock, item.getQuantity());
         
-        cart.setSubtotal(subtotalExclVat);    // €17.74
-        cart.setTax(vatAmount);               // €4.26  
-        cart.setShippingCost(shippingCost);  // €4.90 or €0.00
-        cart.setTotal(grandTotal);            // €26.90 or €22.00
-        cart.setUpdatedAt(LocalDateTime.now());
+        if (availableStock < item.getQuantity()) {
+            throw new BadRequestException("Insufficient stock: " + item.getQuantity() +
+                    " requested, " + availableStock + " available");
+        }
         
-        return cartRepository.save(cart);
+        // Populate cart item snapshot
+        item.setProductName(product.getName());
+        item.setPrice(product.getPrice());
+        item.setImageUrl(product.getImages() != null && !product.getImages().isEmpty()
+                ? product.getImages().get(0) : null);
+    }
+    
+    /**
+     * Applies the live price (and fills compacted name/image) to the line; returns what moved, if anything.
+     */
+    private Optional<CartItemChange> revalidateItem(CartItem item, ProductResponse product) {
+        CartItemChange.CartItemChangeBuilder change = CartItemChange.builder()
+                .productId(item.getProductId())
+                .sellerId(item.getSellerId())
+                .previousPrice(item.getPrice())
+                .requestedQuantity(item.getQuantity());
+        if (product == null) {
+            return Optional.of(change.unavailable(true).build());
+        }
+        
+        if (item.getProductName() == null) {
+            item.setProductName(product.getName());
+            item.setImageUrl(product.getImages() != null && !product.getImages().isEmpty()
+                    ? product.getImages().get(0) : null);
+        }
+        int availableStock = Optional.ofNullable(product.getQuantity()).orElse(0);
+        boolean priceChanged = product.getPrice() != null
+                && (item.getPrice() == null || item.getPrice().compareTo(product.getPrice()) != 0);
+        boolean insufficientStock = availableStock < item.getQuantity();
+        if (priceChanged) {
+            item.setPrice(product.getPrice());
+        }
+        if (!priceChanged && !insufficientStock) {
+            return Optional.empty();
+        }
+        return Optional.of(change
+                .currentPrice(product.getPrice())
+                .availableStock(availableStock)
+                .priceChanged(priceChanged)
+                .insufficientStock(insufficientStock)
+                .build());
+    }
+    
+    private Map<String, ProductResponse> fetchProducts(Collection<CartItem> items) {
+        if (items.isEmpty()) {
+            return Map.of();
+        }
+        return lookupProducts(items.stream().map(CartItem::getProductId).distinct().toList());
+    }
+    
+    // One product-service round trip for the whole batch, keyed by product ID.
+    // Throws on a failed call: an empty map would read as "every product is gone" (and get cached).
+    private Map<String, ProductResponse> lookupProducts(List<String> ids) {
+        ApiResponse<List<ProductResponse>> response = productClient.getByIds(new ProductBatchRequest(ids));
+        if (response == null || !response.isSuccess() || response.getData() == null) {
+            log.warn("Batch product lookup failed for {} products", ids.size());
+            throw new ServiceUnavailableException("Product lookup failed, please retry");
+        }
+        return response.getData().stream()
+                .collect(Collectors.toMap(ProductResponse::getId, Function.identity(), (a, b) -> a));
+    }
+    
+    private static Cart mergeInto(Cart cart, List<CartItem> items) {
+        for (CartItem item : items) {
+            cart.getItems().stream()
+                    .filter(ci -> ci.getProductId().equals(item.getProductId())
+                            && ci.getSellerId().equals(item.getSellerId()))
+                    .findFirst()
+                    .ifPresentOrElse(
+                            ci -> ci.setQuantity(ci.getQuantity() + item.getQuantity()),
+                            // Copy: a retried merge starts from a freshly loaded cart
+                            () -> cart.getItems().add(new CartItem(item.getProductId(), item.getSellerId(),
+                                    item.getProductName(), item.getPrice(), item.getQuantity(), item.getImageUrl())));
+        }
+        cart.setUpdatedAt(LocalDateTime.now());
+        return cart;
+    }
+    
+    private static String lineKey(String productId, String sellerId) {
+        return productId + "|" + sellerId;
+    }
+    
+    private static BulkCartItemResult itemResult(CartItem item, boolean success, String message) {
+        return BulkCartItemResult.builder()
+                .productId(item.getProductId())
+                .sellerId(item.getSellerId())
+                .quantity(item.getQuantity())
+                .success(success)
+                .message(message)
+                .build();
     }
-
     
     private void validateCartItem(CartItem item) {
         if (item.getQuantity() <= 0) {
@@ -188,35 +400,42 @@ public class CartServiceImpl implements CartService {
             throw new BadRequestException("Seller ID is required");
         }
     }
+    @Override
+    public void flushCart(String userId) {
+        cartStore.flush(userId);
+    }
+    
     @Override
     @Transactional
     public void saveCart(Cart cart) {
-        // Find existing cart by userId
-        Optional<Cart> existingCartOpt = cartRepository.findById(cart.getUserId());
-        
-        if (existingCartOpt.isPresent()) {
-            // ✅ Update existing cart
-            Cart existingCart = existingCartOpt.get();
-            
-            // Clear old items (MongoDB will delete them)
-            existingCart.getItems().clear();
+        optimisticRetry.run("saveCart", () -> {
+            // Find existing cart by userId
+            Optional<Cart> existingCartOpt = cartStore.findById(cart.getUserId());
             
-            // Add new items to the TRACKED entity
-            if (cart.getItems() != null) {
-                existingCart.getItems().addAll(cart.getItems());
+            if (existingCartOpt.isPresent()) {
+                // ✅ Update existing cart
+                Cart existingCart = existingCartOpt.get();
+                
+                // Clear old items (MongoDB will delete them)
+                existingCart.getItems().clear();
+                
+                // Add new items to the TRACKED entity
+                if (cart.getItems() != null) {
+                    existingCart.getItems().addAll(cart.getItems());
+                }
+                
+                // Update timestamps
+                existingCart.setUpdatedAt(LocalDateTime.now());
+                
+                // Save the managed entity
+                cartStore.save(existingCart);
+            } else {
+                // ✅ New cart - set id = userId for consistency
+                cart.setId(cart.getUserId());
+                cart.setUpdatedAt(LocalDateTime.now());
+                cartStore.save(cart);
             }
-            
-            // Update timestamps
-            existingCart.setUpdatedAt(LocalDateTime.now());
-            
-            // Save the managed entity
-            cartRepository.save(existingCart);
-        } else {
-            // ✅ New cart - set id = userId for consistency
-            cart.setId(cart.getUserId());
-            cart.setUpdatedAt(LocalDateTime.now());
-            cartRepository.save(cart);
-        }
+        });
     }
         
 }
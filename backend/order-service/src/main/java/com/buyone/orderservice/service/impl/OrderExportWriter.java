@@ -0,0 +1,144 @@
+package com.buyone.orderservice.service.impl;
+
+import com.buyone.orderservice.dto.request.order.ExportFormat;
+import com.buyone.orderservice.model.order.Order;
+import com.buyone.orderservice.model.order.OrderItem;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Row writer for seller exports: one row per order line owned by the seller.
+ * Buffered and flushed every {@link #FLUSH_EVERY_ROWS} rows, so memory stays flat whatever the row count.
+ */
+class OrderExportWriter implements AutoCloseable {
+    
+    static final String[] COLUMNS = {
+            "orderNumber", "createdAt", "status", "productId", "productName", "quantity", "unitPrice", "lineTotal"
+    };
+    static final int FLUSH_EVERY_ROWS = 1000;
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final JsonFactory JSON = new JsonFactory();
+    
+    private final ExportFormat format;
+    private final Writer writer;
+    private final JsonGenerator json;
+    private long rows;
+    
+    OrderExportWriter(OutputStream out, ExportFormat format) throws IOException {
+        this.format = format;
+        this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+        if (format == ExportFormat.NDJSON) {
+            this.json = JSON.createGenerator(writer);
+            this.json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            this.json.setRootValueSeparator(null);
+        } else {
+            this.json = null;
+            writer.write(String.join(",", COLUMNS));
+            writer.write('\n');
+        }
+    }
+    
+    void writeOrder(Order order, String sellerId) throws IOException {
+        for (OrderItem item : order.getItems()) {
+            if (!sellerId.equals(item.getSellerId())) {
+                continue;  // multi-seller order: other sellers' lines are not ours to export
+            }
+            if (format == ExportFormat.NDJSON) {
+                writeJsonRow(order, item);
+            } else {
+                writeCsvRow(order, item);
+            }
+            if (++rows % FLUSH_EVERY_ROWS == 0) {
+                flush();
+            }
+        }
+    }
+    
+    long rows() {
+        return rows;
+    }
+    
+    private void writeCsvRow(Order order, OrderItem item) throws IOException {
+        writer.write(csv(order.getOrderNumber()));
+        writer.write(',');
+        writer.write(order.getCreatedAt() != null ? order.getCreatedAt().toString() : "");
+        writer.write(',');
+        writer.write(order.getStatus() != null ? order.getStatus().name() : "");
+        writer.write(',');
+        writer.write(csv(item.getProductId()));
+        writer.write(',');
+        writer.write(csv(item.getProductName()));
+        writer.write(',');
+        writer.write(Integer.toString(item.getQuantity()));
+        writer.write(',');
+        writer.write(item.getPrice() != null ? item.getPrice().toPlainString() : "");
+        writer.write(',');
+        BigDecimal lineTotal = lineTotal(item);
+        writer.write(lineTotal != null ? lineTotal.toPlainString() : "");
+        writer.write('\n');
+    }
+    
+    private void writeJsonRow(Order order, OrderItem item) throws IOException {
+        json.writeStartObject();
+        json.writeStringField("orderNumber", order.getOrderNumber());
+        json.writeStringField("createdAt", order.getCreatedAt() != null ? order.getCreatedAt().toString() : null);
+        json.writeStringField("status", order.getStatus() != null ? order.getStatus().name() : null);
+        json.writeStringField("productId", item.getProductId());
+        json.writeStringField("productName", item.getProductName());
+        json.writeNumberField("quantity", item.getQuantity());
+        json.writeFieldName("unitPrice");
+        writeNumberOrNull(item.getPrice());
+        json.writeFieldName("lineTotal");
+        writeNumberOrNull(lineTotal(item));
+        json.writeEndObject();
+        json.writeRaw('\n');
+    }
+    
+    private void writeNumberOrNull(BigDecimal value) throws IOException {
+        if (value == null) {
+            json.writeNull();
+        } else {
+            json.writeNumber(value);
+        }
+    }
+    
+    private BigDecimal lineTotal(OrderItem item) {
+        return item.getPrice() != null ? item.getPrice().multiply(BigDecimal.valueOf(item.getQuantity())) : null;
+    }
+    
+    /**
+     * RFC 4180 quoting - only when the value needs it.
+     */
+    static String csv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+    
+    private void flush() throws IOException {
+        if (json != null) {
+            json.flush();
+        }
+        writer.flush();
+    }
+    
+    @Override
+    public void close() throws IOException {
+        if (json != null) {
+            json.close();  // AUTO_CLOSE_TARGET off → only flushes into writer
+        }
+        writer.flush();
+    }
+}
@@ -1,9 +1,18 @@
 package com.buyone.orderservice.service.impl;
 
+import com.buyone.orderservice.analytics.CategoryResolver;
 import com.buyone.orderservice.client.ProductClient;
+import com.buyone.orderservice.dto.request.order.ExportFormat;
 import com.buyone.orderservice.dto.request.order.OrderSearchRequest;
 import com.buyone.orderservice.dto.request.ReserveStockRequest;
 import com.buyone.orderservice.dto.request.ReleaseStockRequest;
+import com.buyone.orderservice.dto.request.CommitStockRequest;
+import com.buyone.orderservice.dto.response.CursorPage;
+import com.buyone.orderservice.dto.response.SliceResponse;
+import com.buyone.orderservice.dto.response.order.BulkOrderStatusResponse;
+import com.buyone.orderservice.dto.response.order.BulkOrderStatusResult;
+import com.buyone.orderservice.dto.response.order.OrderSummaryResponse;
+import com.buyone.orderservice.event.OrderStatusChangedEvent;
 import com.buyone.orderservice.exception.BadRequestException;
 import com.buyone.orderservice.exception.ResourceNotFoundException;
 import com.buyone.orderservice.model.*;
@@ -15,27 +24,43 @@ import com.buyone.orderservice.model.order.OrderStatus;
 import com.buyone.orderservice.model.order.PaymentMethod;
 import static com.buyone.orderservice.model.order.OrderStatus.*;
 import static com.buyone.orderservice.model.order.PaymentMethod.PAY_ON_DELIVERY;
+import com.buyone.orderservice.pricing.PriceBreakdown;
+import com.buyone.orderservice.pricing.PricingEngine;
 import com.buyone.orderservice.repository.OrderRepository;
 import com.buyone.orderservice.service.CartService;
 import com.buyone.orderservice.service.OrderService;
+import com.buyone.orderservice.service.support.OptimisticRetry;
 import com.buyone.orderservice.dto.response.ProductResponse;
 import com.buyone.orderservice.dto.response.ApiResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
-import java.math.BigDecimal;
-import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * OrderService implementation with re-fetch snapshot strategy for production accuracy.
@@ -46,9 +71,16 @@ import java.util.stream.Collectors;
 @Slf4j
 public class OrderServiceImpl implements OrderService {
     
+    private static final int MAX_HISTORY_PAGE_SIZE = 100;
+    private static final String CURSOR_SEPARATOR = "|";
+    
     private final OrderRepository orderRepository;
     private final CartService cartService;
     private final ProductClient productClient;  // Re-fetches live product data
+    private final PricingEngine pricingEngine;  // Same totals as the cart
+    private final OptimisticRetry optimisticRetry;  // @Version conflicts → re-read + retry
+    private final ApplicationEventPublisher eventPublisher;  // status changes → analytics rollups
+    private final CategoryResolver categoryResolver;  // category names snapshotted onto items
     
     /**
      * Creates order from cart with FRESH product snapshots (price/name/seller).
@@ -56,23 +88,17 @@ public class OrderServiceImpl implements OrderService {
      */
     @Override
     public Order createOrderFromCart(String userId, Address shippingAddress) {
+        cartService.flushCart(userId);  // write-behind tier → cart durable before checkout
         var cartItems = getValidatedCartItems(userId);
         
         // Re-fetch LIVE products → Fresh, legally-accurate snapshots
         List<OrderItem> orderItems = cartItems.stream()
                 .map(this::fetchFreshProductSnapshot)
                 .toList();
+        snapshotCategoryNames(orderItems);
         
-        // Precise money calculations
-        BigDecimal totalInclVat = calculateSubtotal(orderItems); // €135.00 (incl VAT)
-        BigDecimal tax = calculateTax(totalInclVat);             // €13.50
-        BigDecimal subtotal = totalInclVat.subtract(tax);        // €121.50 (excl VAT)
-        
-         BigDecimal shippingCost = totalInclVat.compareTo(BigDecimal.valueOf(50)) >= 0 
-            ? BigDecimal.ZERO 
-            : BigDecimal.valueOf(4.9);
-  
-        BigDecimal grandTotal = totalInclVat.add(shippingCost);
+        // Precise money calculations (cents, same engine as the cart)
+        PriceBreakdown totals = pricingEngine.price(orderItems);
         
         // Build order
         String orderNumber = generateOrderNumber();
@@ -80,13 +106,14 @@ public class OrderServiceImpl implements OrderService {
                 .userId(userId)
                 .orderNumber(orderNumber)
                 .items(orderItems)
+                .sellerIds(collectSellerIds(orderItems))
                 .status(OrderStatus.PENDING)
                 .paymentMethod(PaymentMethod.PAY_ON_DELIVERY)
                 .shippingAddress(shippingAddress)
-                .subtotal(subtotal)
-                .tax(tax)
-                .shippingCost(shippingCost)
-                .total(grandTotal)
+                .subtotal(totals.subtotal())
+                .tax(totals.tax())
+                .shippingCost(totals.shipping())
+                .total(totals.total())
                 .createdAt(LocalDateTime.now())
                 .updatedAt(LocalDateTime.now())
                 .build();
@@ -107,29 +134,31 @@ public class OrderServiceImpl implements OrderService {
            log.info("Auto-confirmed Pay on Delivery order {}", saved.getOrderNumber());
        }
         
+        publishStatusChange(saved, null);
         cartService.clearCart(userId);
         
-        log.info("Order {} created for {} (subtotal: {})", orderNumber, userId, subtotal);
+        log.info("Order {} created for {} (subtotal: {})", orderNumber, userId, totals.subtotal());
         return saved;
     }
     
     @Override
     public Optional<Order> confirmOrder(String orderNumber, String userId) {
-        return getOrder(orderNumber)
+        // Re-read on every attempt: a concurrent cancel turns the PENDING filter false
+        return optimisticRetry.execute("confirmOrder", () -> getActiveOrder(orderNumber)
                 .filter(order -> userId.equals(order.getUserId()))      // Buyer owns order
                 .filter(order -> order.getStatus() == OrderStatus.PENDING)  // Only PENDING
                 .map(order -> {
-                    OrderStatus oldStatus = order.getStatus();
                     order.setStatus(OrderStatus.CONFIRMED);
                     order.setUpdatedAt(LocalDateTime.now());
-                    Order saved = orderRepository.save(order);
+                    Order saved = orderRepository.save(order);  // @Version check
+                    publishStatusChange(saved, OrderStatus.PENDING);
                     
-                    // Commit stock (same as seller updateStatus)
+                    // Commit stock (same as seller updateStatus) - only reached once our write won
                     productClient.commitStock(orderNumber);
                     log.info("Buyer {} confirmed order {}", userId, orderNumber);
                     
                     return saved;
-                });
+                }));
     }
 
     
@@ -166,40 +195,47 @@ public class OrderServiceImpl implements OrderService {
                 .price(product.getPrice())
                 .quantity(cartItem.getQuantity())
                 .imageUrl(safeFirstImage(product.getImages()))
+                .categoryId(product.getCategoryId())
                 .build();
     }
-
     
     /**
-     * Safely extracts first image URL - null-safe.
+     * Copies category names onto the items (one $in read for the whole order), so analytics
+     * never join back to products/categories. A failed lookup leaves the name empty rather than failing
+     * checkout; OrderCategoryBackfill fills it in from the kept categoryId on the next start.
      */
-    private String safeFirstImage(List<String> images) {
-        return images != null && !images.isEmpty() ? images.get(0) : null;
+    private void snapshotCategoryNames(List<OrderItem> items) {
+        try {
+            Map<String, String> names = categoryResolver.names(items.stream().map(OrderItem::getCategoryId).toList());
+            items.forEach(item -> item.setCategoryName(names.get(item.getCategoryId())));
+        } catch (Exception e) {
+            log.warn("Category snapshot failed, items saved without category names: {}", e.getMessage());
+        }
     }
+
     
     /**
-     * Generates unique order number: ORD-ABC12345
+     * Safely extracts first image URL - null-safe.
      */
-    private String generateOrderNumber() {
-        return "ORD-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
+    private String safeFirstImage(List<String> images) {
+        return images != null && !images.isEmpty() ? images.get(0) : null;
     }
     
     /**
-     * Calculates subtotal: Σ(price × quantity) exactly.
+     * Distinct seller ids of the order items (top-level, multikey-indexed copy).
      */
-    private BigDecimal calculateSubtotal(List<OrderItem> items) {
+    private Set<String> collectSellerIds(List<OrderItem> items) {
         return items.stream()
-                .map(item -> item.getPrice().multiply(BigDecimal.valueOf(item.getQuantity())))
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+                .map(OrderItem::getSellerId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
     }
     
     /**
-     * 10% tax, rounded to 2 decimals (business rule).
+     * Generates unique order number: ORD-ABC12345
      */
-    private BigDecimal calculateTax(BigDecimal subtotal) {
-    // Reverse VAT: totalInclVat = subtotal * 1.24
-        BigDecimal subtotalExclVat = subtotal.divide(BigDecimal.valueOf(1.24), 2, RoundingMode.HALF_UP);
-        return subtotal.subtract(subtotalExclVat);  // VAT amount
+    private String generateOrderNumber() {
+        return "ORD-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
     }
     
     /**
@@ -231,8 +267,64 @@ public class OrderServiceImpl implements OrderService {
         return orderRepository.findByUserId(userId);
     }
     
+    /**
+     * Keyset pagination over {userId, createdAt, _id}: fetch limit+1 to learn hasNext, no count.
+     */
+    @Override
+    public CursorPage<OrderSummaryResponse> getBuyerOrderHistory(String userId, String cursor, int limit) {
+        int size = Math.max(1, Math.min(limit, MAX_HISTORY_PAGE_SIZE));
+        LocalDateTime beforeCreatedAt = null;
+        String beforeId = null;
+        if (cursor != null && !cursor.isBlank()) {
+            String[] parts = decodeCursor(cursor);
+            beforeCreatedAt = LocalDateTime.parse(parts[0]);
+            beforeId = parts[1];
+        }
+        
+        List<OrderSummaryResponse> rows = orderRepository.findBuyerOrderSummaries(userId, beforeCreatedAt, beforeId, size + 1);
+        boolean hasNext = rows.size() > size;
+        List<OrderSummaryResponse> items = hasNext ? rows.subList(0, size) : rows;
+        String nextCursor = hasNext ? encodeCursor(items.get(items.size() - 1)) : null;
+        
+        return CursorPage.<OrderSummaryResponse>builder()
+                .items(new ArrayList<>(items))
+                .nextCursor(nextCursor)
+                .hasNext(hasNext)
+                .build();
+    }
+    
+    private String encodeCursor(OrderSummaryResponse last) {
+        String raw = last.createdAt() + CURSOR_SEPARATOR + last.id();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    private String[] decodeCursor(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split(Pattern.quote(CURSOR_SEPARATOR), 2);
+            if (parts.length != 2 || !ObjectId.isValid(parts[1])) {
+                throw new IllegalArgumentException(raw);
+            }
+            LocalDateTime.parse(parts[0]);
+            return parts;
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new BadRequestException("Invalid cursor");
+        }
+    }
+    
+    /**
+     * Hot collection first, then the archive (old DELIVERED/CANCELLED orders).
+     */
     @Override
     public Optional<Order> getOrder(String orderNumber) {
+        return orderRepository.findByOrderNumber(orderNumber)
+                .or(() -> orderRepository.findArchivedByOrderNumber(orderNumber));
+    }
+    
+    /**
+     * Hot collection only - mutations must never resurrect an archived order into `orders`.
+     */
+    private Optional<Order> getActiveOrder(String orderNumber) {
         return orderRepository.findByOrderNumber(orderNumber);
     }
     
@@ -241,31 +333,150 @@ public class OrderServiceImpl implements OrderService {
      */
     @Override
     public Optional<Order> updateStatus(String orderNumber, String sellerId, OrderStatus status) {
-        Order order = getOrder(orderNumber)
-                .orElseThrow(() -> new ResourceNotFoundException("Order not found: " + orderNumber));
+        return Optional.of(optimisticRetry.execute("updateStatus", () -> {
+            Order order = getActiveOrder(orderNumber)
+                    .orElseThrow(() -> new ResourceNotFoundException("Order not found: " + orderNumber));
+            
+            // CRITICAL CHECK
+            // Seller owns all items
+            boolean ownsAllItems = order.getItems().stream()
+                    .allMatch(item -> sellerId.equals(item.getSellerId()));
+            if (!ownsAllItems) {
+                throw new BadRequestException("Seller not authorized for this order");
+            }
+            
+            OrderStatus oldStatus = order.getStatus();
+            if (isFinal(oldStatus) && oldStatus != status) {
+                throw new BadRequestException("Order is " + oldStatus + " and can no longer change status");
+            }
+            
+            order.setStatus(status);
+            order.setUpdatedAt(LocalDateTime.now());
+            Order saved = orderRepository.save(order);  // @Version check → retried on conflict
+            if (oldStatus != status) {
+                publishStatusChange(saved, oldStatus);
+            }
+            
+            // NEW: commit stock once when leaving PENDING
+            if (oldStatus == OrderStatus.PENDING && status == OrderStatus.CONFIRMED) {
+                // We only need orderNumber to commit all reservations
+                productClient.commitStock(orderNumber);
+                log.info("Committed stock reservations for order {}", orderNumber);
+            }
+            
+            return saved;
+        }));
+    }
+    
+    /**
+     * Only after the save won: a retried (conflicting) attempt never publishes.
+     */
+    private void publishStatusChange(Order order, OrderStatus previous) {
+        eventPublisher.publishEvent(new OrderStatusChangedEvent(order, previous, order.getStatus()));
+    }
+    
+    private static boolean isFinal(OrderStatus status) {
+        return status == OrderStatus.CANCELLED || status == OrderStatus.DELIVERED;
+    }
+    
+    /**
+     * Seller bulk transition: one read for ownership, one guarded bulkWrite,
+     * one batched stock commit for the PENDING → CONFIRMED subset.
+     */
+    @Override
+    public BulkOrderStatusResponse bulkUpdateStatus(String sellerId, List<String> orderNumbers, OrderStatus status) {
+        List<String> requested = orderNumbers.stream().distinct().toList();
+        Map<String, Order> found = orderRepository.findByOrderNumberIn(requested).stream()
+                .collect(Collectors.toMap(Order::getOrderNumber, o -> o, (a, b) -> a));
         
-        // CRITICAL CHECK
-        // Seller owns all items
-        boolean ownsAllItems = order.getItems().stream()
-                .allMatch(item -> sellerId.equals(item.getSellerId()));
-        if (!ownsAllItems) {
-            throw new BadRequestException("Seller not authorized for this order");
+        Map<String, BulkOrderStatusResult> results = new LinkedHashMap<>();
+        requested.forEach(orderNumber -> results.put(orderNumber, null));  // keep request order
+        List<Order> eligible = new ArrayList<>();
+        for (String orderNumber : requested) {
+            Order order = found.get(orderNumber);
+            if (order == null) {
+                results.put(orderNumber, bulkFailure(orderNumber, null, "Order not found"));
+            } else if (!order.getItems().stream().allMatch(item -> sellerId.equals(item.getSellerId()))) {
+                results.put(orderNumber, bulkFailure(orderNumber, order.getStatus(), "Seller not authorized for this order"));
+            } else if (isFinal(order.getStatus()) && order.getStatus() != status) {
+                results.put(orderNumber, bulkFailure(orderNumber, order.getStatus(),
+                        "Order is " + order.getStatus() + " and can no longer change status"));
+            } else {
+                eligible.add(order);
+            }
         }
         
-        OrderStatus oldStatus = order.getStatus();
-        
-        order.setStatus(status);
-        order.setUpdatedAt(LocalDateTime.now());
-        Order saved = orderRepository.save(order);
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+        int matched = orderRepository.bulkUpdateStatus(eligible, status, now);
+        Set<String> applied = matched == eligible.size()
+                ? eligible.stream().map(Order::getOrderNumber).collect(Collectors.toSet())
+                : findApplied(eligible, status, now);
         
-        // NEW: commit stock once when leaving PENDING
-        if (oldStatus == OrderStatus.PENDING && status == OrderStatus.CONFIRMED) {
-            // We only need orderNumber to commit all reservations
-            productClient.commitStock(orderNumber);
-            log.info("Committed stock reservations for order {}", orderNumber);
+        List<String> toCommit = new ArrayList<>();
+        for (Order order : eligible) {
+            String orderNumber = order.getOrderNumber();
+            if (!applied.contains(orderNumber)) {
+                results.put(orderNumber, bulkFailure(orderNumber, order.getStatus(), "Order changed concurrently, retry"));
+                continue;
+            }
+            results.put(orderNumber, BulkOrderStatusResult.builder()
+                    .orderNumber(orderNumber)
+                    .success(true)
+                    .previousStatus(order.getStatus())
+                    .status(status)
+                    .message("Updated")
+                    .build());
+            if (order.getStatus() == OrderStatus.PENDING && status == OrderStatus.CONFIRMED) {
+                toCommit.add(orderNumber);
+            }
+            if (order.getStatus() != status) {
+                eventPublisher.publishEvent(new OrderStatusChangedEvent(order, order.getStatus(), status));
+            }
         }
         
-        return Optional.of(saved);
+        commitStockBatch(toCommit, results);
+        
+        int updated = (int) results.values().stream().filter(BulkOrderStatusResult::isSuccess).count();
+        log.info("Seller {} bulk-updated {}/{} orders to {}", sellerId, updated, requested.size(), status);
+        return BulkOrderStatusResponse.builder()
+                .updated(updated)
+                .failed(results.size() - updated)
+                .results(new ArrayList<>(results.values()))
+                .build();
+    }
+    
+    /**
+     * Partial bulk match → re-read to see which orders carry our status + timestamp.
+     */
+    private Set<String> findApplied(List<Order> eligible, OrderStatus status, LocalDateTime stamp) {
+        List<String> numbers = eligible.stream().map(Order::getOrderNumber).toList();
+        return orderRepository.findByOrderNumberIn(numbers).stream()
+                .filter(o -> o.getStatus() == status && stamp.equals(o.getUpdatedAt()))
+                .map(Order::getOrderNumber)
+                .collect(Collectors.toSet());
+    }
+    
+    private void commitStockBatch(List<String> orderNumbers, Map<String, BulkOrderStatusResult> results) {
+        if (orderNumbers.isEmpty()) {
+            return;
+        }
+        try {
+            productClient.commitStockBatch(new CommitStockRequest(orderNumbers));
+            log.info("Committed stock reservations for {} orders", orderNumbers.size());
+        } catch (Exception e) {
+            log.error("Batch stock commit failed for {}: {}", orderNumbers, e.getMessage());
+            orderNumbers.forEach(n -> results.get(n).setMessage("Updated, stock commit failed"));
+        }
+    }
+    
+    private BulkOrderStatusResult bulkFailure(String orderNumber, OrderStatus current, String message) {
+        return BulkOrderStatusResult.builder()
+                .orderNumber(orderNumber)
+                .success(false)
+                .previousStatus(current)
+                .status(current)
+                .message(message)
+                .build();
     }
     
     /**
@@ -273,28 +484,32 @@ public class OrderServiceImpl implements OrderService {
      */
     @Override
     public void cancelOrder(String orderNumber, String userId) {
-        Order order = getOrder(orderNumber)
-                .orElseThrow(() -> new ResourceNotFoundException("Order not found: " + orderNumber));
-        // ownership check
-        if (!userId.equals(order.getUserId())) {
-            throw new BadRequestException("Not your order");
-        }
-        
-        if (order.getStatus() != OrderStatus.PENDING && order.getStatus() != OrderStatus.CONFIRMED) {
-            throw new IllegalStateException("Only PENDING or CONFIRMED orders can be cancelled");
-        }
-        
-        order.setStatus(OrderStatus.CANCELLED);
-        order.setUpdatedAt(LocalDateTime.now());
-        orderRepository.save(order);
-        order.getItems().forEach(item -> {
-            ReleaseStockRequest req = new ReleaseStockRequest(
-                    item.getProductId(),
-                    item.getQuantity()
-            );
-            productClient.releaseStock(req);
-            log.info("Released {} units of {} for cancelled order {}",
-                    item.getQuantity(), item.getProductId(), orderNumber);
+        optimisticRetry.run("cancelOrder", () -> {
+            Order order = getActiveOrder(orderNumber)
+                    .orElseThrow(() -> new ResourceNotFoundException("Order not found: " + orderNumber));
+            // ownership check
+            if (!userId.equals(order.getUserId())) {
+                throw new BadRequestException("Not your order");
+            }
+            
+            if (order.getStatus() != OrderStatus.PENDING && order.getStatus() != OrderStatus.CONFIRMED) {
+                throw new IllegalStateException("Only PENDING or CONFIRMED orders can be cancelled");
+            }
+            
+            OrderStatus previous = order.getStatus();
+            order.setStatus(OrderStatus.CANCELLED);
+            order.setUpdatedAt(LocalDateTime.now());
+            orderRepository.save(order);  // @Version check: stock is only released if the cancel won
+            publishStatusChange(order, previous);
+            order.getItems().forEach(item -> {
+                ReleaseStockRequest req = new ReleaseStockRequest(
+                        item.getProductId(),
+                        item.getQuantity()
+                );
+                productClient.releaseStock(req);
+                log.info("Released {} units of {} for cancelled order {}",
+                        item.getQuantity(), item.getProductId(), orderNumber);
+            });
         });
     }
     
@@ -367,11 +582,59 @@ public class OrderServiceImpl implements OrderService {
     
     @Override
     public Page<Order> searchBuyerOrders(String userId, OrderSearchRequest req) {
-        OrderStatus status = req.getStatus() != null
-                ? OrderStatus.valueOf(req.getStatus().toUpperCase())
-                : null;
+        OrderStatus status = parseStatus(req.getStatus());
+        LocalDateTime from = parseSearchDate(req.getStartDate(), false);
+        LocalDateTime to = parseSearchDate(req.getEndDate(), true);
+        validateRange(from, to);
         Pageable pageable = PageRequest.of(req.getPage(), req.getSize());
-        return orderRepository.findBuyerOrdersSearch(userId, req.getKeyword(), status, pageable);
+        return orderRepository.searchBuyerOrders(userId, req.getKeyword(), status, from, to, pageable);
+    }
+    
+    @Override
+    public SliceResponse<Order> searchBuyerOrderSlice(String userId, OrderSearchRequest req) {
+        OrderStatus status = parseStatus(req.getStatus());
+        LocalDateTime from = parseSearchDate(req.getStartDate(), false);
+        LocalDateTime to = parseSearchDate(req.getEndDate(), true);
+        validateRange(from, to);
+        Pageable pageable = PageRequest.of(req.getPage(), req.getSize());
+        Long total = Boolean.TRUE.equals(req.getWithTotal())
+                ? orderRepository.countBuyerOrders(userId, req.getKeyword(), status, from, to)
+                : null;
+        return SliceResponse.of(orderRepository.searchBuyerOrderSlice(
+                userId, req.getKeyword(), status, from, to, pageable), total);
+    }
+    
+    private OrderStatus parseStatus(String status) {
+        return status != null && !status.isBlank()
+                ? OrderStatus.valueOf(status.trim().toUpperCase())
+                : null;
+    }
+    
+    private void validateRange(LocalDateTime from, LocalDateTime to) {
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new BadRequestException("startDate must not be after endDate");
+        }
+    }
+    
+    /**
+     * ISO date-time ("2025-01-01T00:00:00") or plain date ("2025-01-01").
+     * Plain end dates cover the whole day.
+     */
+    private LocalDateTime parseSearchDate(String value, boolean endOfRange) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return LocalDateTime.parse(value.trim());
+        } catch (DateTimeParseException ignored) {
+            // fall through to date-only format
+        }
+        try {
+            LocalDate date = LocalDate.parse(value.trim());
+            return endOfRange ? date.atTime(LocalTime.MAX) : date.atStartOfDay();
+        } catch (DateTimeParseException e) {
+            throw new BadRequestException("Invalid date: " + value + " (expected ISO-8601)");
+        }
     }
     
     @Override
@@ -379,6 +642,29 @@ public class OrderServiceImpl implements OrderService {
         return orderRepository.findSellerOrders(sellerId, pageable);
     }
     
+    /**
+     * Constant-memory export: cursor stream → buffered row writer, no count query, no paging.
+     */
+    @Override
+    public OrderExport exportSellerOrders(String sellerId, String status, String startDate, String endDate,
+                                          ExportFormat format) {
+        OrderStatus parsedStatus = parseStatus(status);
+        LocalDateTime from = parseSearchDate(startDate, false);
+        LocalDateTime to = parseSearchDate(endDate, true);
+        validateRange(from, to);
+        
+        return out -> {
+            try (Stream<Order> orders = orderRepository.streamSellerOrders(sellerId, parsedStatus, from, to);
+                 OrderExportWriter writer = new OrderExportWriter(out, format)) {
+                Iterator<Order> it = orders.iterator();
+                while (it.hasNext()) {
+                    writer.writeOrder(it.next(), sellerId);
+                }
+                log.info("Seller {} exported {} order lines as {}", sellerId, writer.rows(), format);
+            }
+        };
+    }
+    
     /**
      * Converts OrderItem → CartItem for redo (double back-convert).
      */
@@ -1,28 +1,234 @@
 package com.buyone.orderservice.service.impl;
 
+import com.buyone.orderservice.analytics.AnalyticsRollupWriter;
+import com.buyone.orderservice.analytics.BuyerSketchStore;
+import com.buyone.orderservice.analytics.HyperLogLog;
+import com.buyone.orderservice.analytics.TrendingTracker;
 import com.buyone.orderservice.dto.response.analytics.*;
+import com.buyone.orderservice.exception.BadRequestException;
+import com.buyone.orderservice.model.analytics.AnalyticsRollup;
+import com.buyone.orderservice.model.analytics.BucketGranularity;
+import com.buyone.orderservice.model.analytics.CategoryRollup;
+import com.buyone.orderservice.model.analytics.ProductRollup;
+import com.buyone.orderservice.model.analytics.SalesBucket;
+import com.buyone.orderservice.repository.AnalyticsRollupRepository;
 import com.buyone.orderservice.repository.OrderRepository;
+import com.buyone.orderservice.repository.SalesBucketRepository;
 import com.buyone.orderservice.service.ProfileAnalyticsService;
+import com.buyone.orderservice.service.support.AnalyticsCache;
+import com.buyone.orderservice.service.support.AnalyticsQueryRunner;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class ProfileAnalyticsServiceImpl implements ProfileAnalyticsService {
     
+    private static final int TOP_N = 5;
+    private static final int MAX_TIMESERIES_YEARS = 3;
+    
     private final OrderRepository orderRepository;
+    private final AnalyticsRollupRepository rollupRepository;
+    private final AnalyticsQueryRunner queryRunner;  // pipeline fallback: queries in parallel, one deadline
+    private final AnalyticsCache analyticsCache;      // per-owner TTL, single-flight
+    private final SalesBucketRepository salesBucketRepository;
+    private final TrendingTracker trendingTracker;
+    
+    @Value("${app.analytics.rollups.enabled:true}")
+    private boolean rollupsEnabled;
     
+    /**
+     * One _id read of the buyer's rollup; the aggregation pipelines remain the fallback
+     * (rollups disabled, or not built yet for this buyer). Either way the response is cached briefly.
+     */
     @Override
     public ClientAnalyticsResponse getClientAnalytics(String userId) {
-        // ✅ Use your new repo methods (no MongoTemplate needed!)
-        List<ClientTotalSpent> totalSpentList = orderRepository.getClientTotalSpent(userId);
-        List<ClientMostBought> mostBought = orderRepository.getClientMostBought(userId);
-        List<ClientTopCategory> topCategories = orderRepository.getClientTopCategories(userId);
+        String key = AnalyticsRollup.buyerKey(userId);
+        return analyticsCache.get(key, () -> findRollup(key)
+                .map(this::clientFromRollup)
+                .orElseGet(() -> clientFromOrders(userId)));
+    }
+    
+    @Override
+    public SellerAnalyticsResponse getSellerAnalytics(String sellerId) {
+        String key = AnalyticsRollup.sellerKey(sellerId);
+        return analyticsCache.get(key, () -> findRollup(key)
+                .map(this::sellerFromRollup)
+                .orElseGet(() -> sellerFromOrders(sellerId)));
+    }
+    
+    /**
+     * Revenue series from pre-aggregated buckets: one indexed range read (a year is ~150 documents).
+     * Buckets finer than requested are summed; compacted history stays at its coarser granularity.
+     */
+    @Override
+    public SalesTimeseriesResponse getSellerTimeseries(String sellerId, String granularity, String from, String to) {
+        BucketGranularity requested = parseGranularity(granularity);
+        LocalDate end = parseDate(to, LocalDate.now(ZoneOffset.UTC));
+        LocalDate start = parseDate(from, end.minusYears(1));
+        if (start.isAfter(end)) {
+            throw new BadRequestException("from must not be after to");
+        }
+        if (start.isBefore(end.minusYears(MAX_TIMESERIES_YEARS))) {
+            throw new BadRequestException("Range too large (max " + MAX_TIMESERIES_YEARS + " years)");
+        }
+        
+        // Month start: coarser buckets that began before `from` still overlap it
+        List<SalesBucket> buckets = salesBucketRepository.findSellerBuckets(sellerId,
+                start.withDayOfMonth(1).toString(), end.toString());
+        Map<String, SalesTimeseriesPoint> points = new TreeMap<>();
+        Map<String, List<byte[]>> pointSketches = new HashMap<>();
+        for (SalesBucket bucket : buckets) {
+            LocalDate bucketStart = LocalDate.parse(bucket.getBucketStart());
+            if (!bucket.getGranularity().end(bucketStart).isAfter(start)) {
+                continue;
+            }
+            BucketGranularity target = requested.coarser(bucket.getGranularity());
+            LocalDate pointStart = target.truncate(bucketStart);
+            String pointKey = pointStart + ":" + target;
+            pointSketches.computeIfAbsent(pointKey, k -> new ArrayList<>()).add(bucket.getBuyerSketch());
+            points.merge(pointKey,
+                    new SalesTimeseriesPoint(pointStart, target, bucket.getOrders(), bucket.getUnits(), 0,
+                            cents(bucket.getRevenueCents())),
+                    (a, b) -> new SalesTimeseriesPoint(a.bucketStart(), a.granularity(), a.orders() + b.orders(),
+                            a.units() + b.units(), 0, a.revenue().add(b.revenue())));
+        }
+        // Unique buyers don't add up across buckets: estimated from the merged sketches instead.
+        // Two register arrays per request, reused across points, not one per point or bucket
+        HyperLogLog rangeBuyers = new HyperLogLog();
+        HyperLogLog pointBuyers = new HyperLogLog();
+        List<SalesTimeseriesPoint> series = new ArrayList<>(points.size());
+        points.forEach((pointKey, point) -> {
+            pointBuyers.clear();
+            for (byte[] sketch : pointSketches.get(pointKey)) {
+                pointBuyers.mergeBytes(sketch);
+                rangeBuyers.mergeBytes(sketch);
+            }
+            series.add(withBuyers(point, pointBuyers.estimate()));
+        });
+        return new SalesTimeseriesResponse(sellerId, requested, start, end, series,
+                rangeBuyers.estimate(), HyperLogLog.STANDARD_ERROR);
+    }
+    
+    private static SalesTimeseriesPoint withBuyers(SalesTimeseriesPoint point, long uniqueBuyers) {
+        return new SalesTimeseriesPoint(point.bucketStart(), point.granularity(), point.orders(), point.units(),
+                uniqueBuyers, point.revenue());
+    }
+    
+    /**
+     * Precomputed in-memory snapshot, see TrendingTracker.
+     */
+    @Override
+    public List<TrendingProduct> getTrending(int limit) {
+        if (limit < 1 || limit > TrendingTracker.MAX_SERVED) {
+            throw new BadRequestException("limit must be between 1 and " + TrendingTracker.MAX_SERVED);
+        }
+        return trendingTracker.top(limit);
+    }
+    
+    private static BucketGranularity parseGranularity(String value) {
+        try {
+            return BucketGranularity.valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Invalid granularity: " + value + " (expected day, week or month)");
+        }
+    }
+    
+    private static LocalDate parseDate(String value, LocalDate defaultValue) {
+        if (value == null || value.isBlank()) {
+            return defaultValue;
+        }
+        try {
+            return LocalDate.parse(value.trim());
+        } catch (DateTimeParseException e) {
+            throw new BadRequestException("Invalid date: " + value + " (expected ISO-8601)");
+        }
+    }
+    
+    private Optional<AnalyticsRollup> findRollup(String id) {
+        return rollupsEnabled ? rollupRepository.findById(id) : Optional.empty();
+    }
+    
+    private ClientAnalyticsResponse clientFromRollup(AnalyticsRollup rollup) {
+        List<ClientMostBought> mostBought = topProducts(rollup, Comparator.comparingLong(ProductRollup::getQuantity))
+                .map(p -> new ClientMostBought(p.getProductId(), p.getName(), (int) p.getQuantity(),
+                        cents(p.getAmountCents()), p.getCategory()))
+                .toList();
+        List<ClientTopCategory> topCategories = topCategories(rollup)
+                .map(c -> new ClientTopCategory(c.getName(), cents(c.getAmountCents())))
+                .toList();
+        return new ClientAnalyticsResponse(cents(rollup.getAmountCents()), mostBought, topCategories);
+    }
+    
+    private SellerAnalyticsResponse sellerFromRollup(AnalyticsRollup rollup) {
+        List<SellerBestProduct> bestProducts = topProducts(rollup, Comparator.comparingLong(ProductRollup::getAmountCents))
+                .map(p -> new SellerBestProduct(p.getProductId(), p.getName(), cents(p.getAmountCents()),
+                        (int) p.getQuantity(), p.getCategory()))
+                .toList();
+        List<SellerTopCategory> topCategories = topCategories(rollup)
+                .map(c -> new SellerTopCategory(c.getName(), cents(c.getAmountCents())))
+                .toList();
+        // Rollups built before buyer sketches existed have none until the next rebuild
+        Long uniqueBuyers = null;
+        Double uniqueBuyersError = null;
+        if (rollup.getBuyerSketch() != null) {
+            uniqueBuyers = BuyerSketchStore.read(rollup.getBuyerSketch()).estimate();
+            uniqueBuyersError = HyperLogLog.STANDARD_ERROR;
+        }
+        return new SellerAnalyticsResponse(cents(rollup.getAmountCents()), bestProducts,
+                (int) rollup.getUnits(), topCategories, uniqueBuyers, uniqueBuyersError);
+    }
+    
+    private static Stream<ProductRollup> topProducts(AnalyticsRollup rollup, Comparator<ProductRollup> order) {
+        return rollup.getProducts().values().stream()
+                .filter(p -> p.getQuantity() > 0)
+                .sorted(order.reversed())
+                .limit(TOP_N);
+    }
+    
+    // Uncategorized lines are left out, as in the pipelines
+    private static Stream<CategoryRollup> topCategories(AnalyticsRollup rollup) {
+        return rollup.getCategories().entrySet().stream()
+                .filter(e -> !AnalyticsRollupWriter.isUncategorized(e.getKey()) && e.getValue().getAmountCents() > 0)
+                .map(Map.Entry::getValue)
+                .sorted(Comparator.comparingLong(CategoryRollup::getAmountCents).reversed())
+                .limit(TOP_N);
+    }
+    
+    private static BigDecimal cents(long amountCents) {
+        return BigDecimal.valueOf(amountCents, 2);
+    }
+    
+    private ClientAnalyticsResponse clientFromOrders(String userId) {
+        CompletableFuture<List<ClientTotalSpent>> totalSpentQuery =
+                queryRunner.submit("client.totalSpent", () -> orderRepository.getClientTotalSpent(userId));
+        CompletableFuture<List<ClientMostBought>> mostBoughtQuery =
+                queryRunner.submit("client.mostBought", () -> orderRepository.getClientMostBought(userId));
+        CompletableFuture<List<ClientTopCategory>> topCategoriesQuery =
+                queryRunner.submit("client.topCategories", () -> orderRepository.getClientTopCategories(userId));
+        queryRunner.awaitAll("client", totalSpentQuery, mostBoughtQuery, topCategoriesQuery);
+        
+        List<ClientTotalSpent> totalSpentList = totalSpentQuery.join();
+        List<ClientMostBought> mostBought = mostBoughtQuery.join();
+        List<ClientTopCategory> topCategories = topCategoriesQuery.join();
         
         BigDecimal totalSpent = totalSpentList.isEmpty()
                 ? BigDecimal.ZERO
@@ -34,12 +240,24 @@ public class ProfileAnalyticsServiceImpl implements ProfileAnalyticsService {
         return new ClientAnalyticsResponse(totalSpent, mostBought, topCategories);
     }
     
-    @Override
-    public SellerAnalyticsResponse getSellerAnalytics(String sellerId) {
-        List<SellerTotalRevenue> revenueList = orderRepository.getSellerTotalRevenue(sellerId);
-        List<SellerBestProduct> bestProducts = orderRepository.getSellerBestProducts(sellerId);
-        List<SellerTotalUnits> unitsList = orderRepository.getSellerTotalUnits(sellerId);
-        List<SellerTopCategory> topCategories = orderRepository.getSellerTopCategories(sellerId);
+    private SellerAnalyticsResponse sellerFromOrders(String sellerId) {
+        CompletableFuture<List<SellerTotalRevenue>> revenueQuery =
+                queryRunner.submit("seller.totalRevenue", () -> orderRepository.getSellerTotalRevenue(sellerId));
+        CompletableFuture<List<SellerBestProduct>> bestProductsQuery =
+                queryRunner.submit("seller.bestProducts", () -> orderRepository.getSellerBestProducts(sellerId));
+        CompletableFuture<List<SellerTotalUnits>> unitsQuery =
+                queryRunner.submit("seller.totalUnits", () -> orderRepository.getSellerTotalUnits(sellerId));
+        CompletableFuture<List<SellerTopCategory>> topCategoriesQuery =
+                queryRunner.submit("seller.topCategories", () -> orderRepository.getSellerTopCategories(sellerId));
+        CompletableFuture<List<SellerUniqueBuyers>> buyersQuery =
+                queryRunner.submit("seller.uniqueBuyers", () -> orderRepository.getSellerUniqueBuyers(sellerId));
+        queryRunner.awaitAll("seller", revenueQuery, bestProductsQuery, unitsQuery, topCategoriesQuery, buyersQuery);
+        
+        List<SellerTotalRevenue> revenueList = revenueQuery.join();
+        List<SellerBestProduct> bestProducts = bestProductsQuery.join();
+        List<SellerTotalUnits> unitsList = unitsQuery.join();
+        List<SellerTopCategory> topCategories = topCategoriesQuery.join();
+        List<SellerUniqueBuyers> buyersList = buyersQuery.join();
         
         BigDecimal totalRevenue = revenueList.isEmpty()
                 ? BigDecimal.ZERO
@@ -49,9 +267,13 @@ public class ProfileAnalyticsServiceImpl implements ProfileAnalyticsService {
                 ? 0
                 : unitsList.get(0).totalUnits();
         
+        Long uniqueBuyers = buyersList.isEmpty()
+                ? 0L
+                : buyersList.get(0).uniqueBuyers();
+        
         log.info("Seller {} analytics: ${} revenue, {} units, {} top products, {} top categories",
                 sellerId, totalRevenue, totalUnits, bestProducts.size(), topCategories.size());
         
-        return new SellerAnalyticsResponse(totalRevenue, bestProducts, totalUnits, topCategories);
+        return new SellerAnalyticsResponse(totalRevenue, bestProducts, totalUnits, topCategories, uniqueBuyers, 0.0);
     }
 }
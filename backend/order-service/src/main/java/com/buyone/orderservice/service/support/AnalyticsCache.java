@@ -0,0 +1,87 @@
+package com.buyone.orderservice.service.support;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Per-owner TTL cache of dashboard responses with single-flight loading: the first caller for
+ * a key computes, concurrent callers wait for that result, so a burst of refreshes costs one
+ * computation. Failures are not cached. Dashboards may lag order changes by up to the TTL; there is
+ * no invalidation on order writes, which would defeat single-flight for busy sellers.
+ */
+@Component
+public class AnalyticsCache {
+    
+    private final long ttlNanos;
+    private final int maxEntries;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    
+    public AnalyticsCache(@Value("${app.analytics.cache.ttl-ms:60000}") long ttlMs,
+                          @Value("${app.analytics.cache.max-entries:10000}") int maxEntries) {
+        this.ttlNanos = ttlMs * 1_000_000L;
+        this.maxEntries = maxEntries;
+    }
+    
+    @SuppressWarnings("unchecked")
+    public <T> T get(String key, Supplier<T> loader) {
+        long now = System.nanoTime();
+        if (entries.size() >= maxEntries) {
+            evictExpired(now);
+        }
+        Entry mine = new Entry(new CompletableFuture<>(), now);
+        Entry current = entries.compute(key, (k, cached) -> cached != null && !isExpired(cached, now) ? cached : mine);
+        if (current != mine) {
+            return (T) await(current.value);
+        }
+        
+        try {
+            T value = loader.get();
+            mine.value.complete(value);
+            if (entries.size() > maxEntries) {
+                entries.remove(key, mine);  // full of live entries: serve without caching
+            }
+            return value;
+        } catch (Throwable e) {
+            // Errors too: waiters must never be left on a future nobody completes
+            entries.remove(key, mine);
+            mine.value.completeExceptionally(e);
+            throw e;
+        }
+    }
+    
+    int size() {
+        return entries.size();
+    }
+    
+    private static Object await(CompletableFuture<Object> value) {
+        try {
+            return value.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+    
+    // In-flight loads never expire, otherwise a slow load would let a second one start
+    private boolean isExpired(Entry entry, long now) {
+        return entry.value.isDone() && now - entry.createdAt >= ttlNanos;
+    }
+    
+    private void evictExpired(long now) {
+        entries.values().removeIf(entry -> isExpired(entry, now));
+    }
+    
+    private record Entry(CompletableFuture<Object> value, long createdAt) {
+    }
+}
@@ -0,0 +1,100 @@
+package com.buyone.orderservice.service.support;
+
+import com.buyone.orderservice.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Runs the independent queries of one dashboard in parallel on a bounded pool, so latency is
+ * the slowest query rather than the sum. All queries of a dashboard share one deadline; past it
+ * the request fails with 503 instead of tying up the caller. Cancelling only frees the waiting
+ * thread; the pipelines carry maxTimeMS (OrderRepository.ANALYTICS_MAX_TIME_MS) so the server
+ * stops them too. A full queue fails the query fast with 503 rather than running it on the
+ * caller thread, where no deadline would apply.
+ * Metrics: analytics.query (timer, tagged by query) / analytics.query.timeouts (by dashboard) /
+ * analytics.query.rejected (by query).
+ */
+@Slf4j
+@Component
+public class AnalyticsQueryRunner {
+    
+    static final String QUERY_METRIC = "analytics.query";
+    static final String TIMEOUT_METRIC = "analytics.query.timeouts";
+    static final String REJECTED_METRIC = "analytics.query.rejected";
+    
+    private final MeterRegistry meterRegistry;
+    private final ThreadPoolExecutor executor;
+    private final long deadlineMs;
+    
+    public AnalyticsQueryRunner(MeterRegistry meterRegistry,
+                                @Value("${app.analytics.query.threads:8}") int threads,
+                                @Value("${app.analytics.query.queue-capacity:100}") int queueCapacity,
+                                @Value("${app.analytics.query.deadline-ms:5000}") long deadlineMs) {
+        this.meterRegistry = meterRegistry;
+        this.deadlineMs = deadlineMs;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "analytics-query-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+    
+    public <T> CompletableFuture<T> submit(String query, Supplier<T> action) {
+        Timer timer = meterRegistry.timer(QUERY_METRIC, "query", query);
+        try {
+            return CompletableFuture.supplyAsync(() -> timer.record(action), executor);
+        } catch (RejectedExecutionException e) {
+            meterRegistry.counter(REJECTED_METRIC, "query", query).increment();
+            return CompletableFuture.failedFuture(
+                    new ServiceUnavailableException("Analytics are busy, please retry"));
+        }
+    }
+    
+    /**
+     * Waits for every query of the dashboard until the deadline; a failed query fails the dashboard.
+     */
+    public void awaitAll(String dashboard, CompletableFuture<?>... queries) {
+        try {
+            CompletableFuture.allOf(queries).get(deadlineMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            for (CompletableFuture<?> query : queries) {
+                query.cancel(true);
+            }
+            meterRegistry.counter(TIMEOUT_METRIC, "dashboard", dashboard).increment();
+            log.warn("{} analytics exceeded the {} ms deadline", dashboard, deadlineMs);
+            throw new ServiceUnavailableException("Analytics are taking too long, please retry");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(dashboard + " analytics failed", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException("Analytics interrupted", e);
+        }
+    }
+    
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,65 @@
+package com.buyone.orderservice.service.support;
+
+import com.buyone.orderservice.dto.response.ProductResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Short-lived per-cart cache of the batched product lookup used by cart revalidation,
+ * so a buyer refreshing the cart page doesn't fan out to product-service on every view.
+ * An entry is reused only while it is fresh and covers every product now in the cart;
+ * adding a new product therefore triggers one new lookup for the whole cart.
+ */
+@Component
+public class CartRevalidationCache {
+    
+    private final long ttlNanos;
+    private final int maxEntries;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    
+    public CartRevalidationCache(@Value("${app.cart.revalidation.cache-ttl-ms:30000}") long ttlMs,
+                                 @Value("${app.cart.revalidation.max-entries:10000}") int maxEntries) {
+        this.ttlNanos = ttlMs * 1_000_000L;
+        this.maxEntries = maxEntries;
+    }
+    
+    public Map<String, ProductResponse> products(String userId, Collection<String> productIds,
+                                                 Function<List<String>, Map<String, ProductResponse>> loader) {
+        long now = System.nanoTime();
+        Entry cached = entries.get(userId);
+        if (cached != null && now - cached.loadedAt < ttlNanos && cached.productIds.containsAll(productIds)) {
+            return cached.products;
+        }
+        
+        List<String> ids = productIds.stream().distinct().toList();
+        Map<String, ProductResponse> products = Map.copyOf(loader.apply(ids));
+        if (entries.size() >= maxEntries) {
+            evictExpired(now);
+        }
+        if (entries.size() < maxEntries) {
+            entries.put(userId, new Entry(List.copyOf(ids), products, now));
+        }
+        return products;
+    }
+    
+    public void invalidate(String userId) {
+        entries.remove(userId);
+    }
+    
+    int size() {
+        return entries.size();
+    }
+    
+    private void evictExpired(long now) {
+        entries.values().removeIf(entry -> now - entry.loadedAt >= ttlNanos);
+    }
+    
+    private record Entry(List<String> productIds, Map<String, ProductResponse> products, long loadedAt) {
+    }
+}
@@ -0,0 +1,74 @@
+package com.buyone.orderservice.service.support;
+
+import com.buyone.orderservice.exception.ConflictException;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Re-runs a read-modify-save when the @Version check fails.
+ * The action must re-read the document on every attempt so business rules are checked
+ * against the latest state. Backoff is exponential with full jitter.
+ * Metrics: optimistic.lock.conflicts / optimistic.lock.exhausted, tagged by operation.
+ */
+@Slf4j
+@Component
+public class OptimisticRetry {
+    
+    static final String CONFLICTS_METRIC = "optimistic.lock.conflicts";
+    static final String EXHAUSTED_METRIC = "optimistic.lock.exhausted";
+    
+    private final MeterRegistry meterRegistry;
+    private final int maxAttempts;
+    private final long baseBackoffMs;
+    
+    public OptimisticRetry(MeterRegistry meterRegistry,
+                           @Value("${app.concurrency.max-attempts:4}") int maxAttempts,
+                           @Value("${app.concurrency.base-backoff-ms:10}") long baseBackoffMs) {
+        this.meterRegistry = meterRegistry;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.baseBackoffMs = baseBackoffMs;
+    }
+    
+    public <T> T execute(String operation, Supplier<T> action) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return action.get();
+            } catch (OptimisticLockingFailureException e) {
+                meterRegistry.counter(CONFLICTS_METRIC, "operation", operation).increment();
+                if (attempt >= maxAttempts) {
+                    meterRegistry.counter(EXHAUSTED_METRIC, "operation", operation).increment();
+                    log.warn("{} gave up after {} conflicting attempts", operation, attempt);
+                    throw new ConflictException("Concurrent update, please retry", e);
+                }
+                log.debug("{} conflicted (attempt {}), retrying", operation, attempt);
+                backoff(attempt);
+            }
+        }
+    }
+    
+    public void run(String operation, Runnable action) {
+        execute(operation, () -> {
+            action.run();
+            return null;
+        });
+    }
+    
+    private void backoff(int attempt) {
+        long cap = baseBackoffMs << Math.min(attempt - 1, 10);
+        if (cap <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(cap + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ConflictException("Interrupted while retrying", e);
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.buyone.orderservice.store;
+
+import com.buyone.orderservice.model.cart.Cart;
+import com.buyone.orderservice.model.cart.CartItem;
+
+import java.util.Optional;
+
+/**
+ * Where carts live. Either straight to MongoDB ({@link MongoCartStore}, default) or an
+ * in-memory write-behind tier ({@link WriteBehindCartStore}, app.cart.write-behind.enabled=true).
+ * Item mutations return the updated cart, or empty when the guard didn't match
+ * (same contract as CartRepositoryCustom).
+ */
+public interface CartStore {
+    
+    Optional<Cart> findById(String userId);
+    
+    Cart save(Cart cart);
+    
+    void delete(String userId);
+    
+    Optional<Cart> incrementItemQuantity(String userId, String productId, String sellerId, int delta);
+    
+    Optional<Cart> pushItem(String userId, CartItem item);
+    
+    Optional<Cart> setItemQuantity(String userId, String productId, int quantity);
+    
+    Optional<Cart> pullItem(String userId, String productId);
+    
+    /**
+     * Makes buffered changes for this user durable (no-op for direct stores).
+     */
+    default void flush(String userId) {
+    }
+}
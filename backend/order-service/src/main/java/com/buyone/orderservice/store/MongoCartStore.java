@@ -0,0 +1,56 @@
+package com.buyone.orderservice.store;
+
+import com.buyone.orderservice.model.cart.Cart;
+import com.buyone.orderservice.model.cart.CartItem;
+import com.buyone.orderservice.repository.CartRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+
+/**
+ * Default store: every mutation is one atomic update on the carts collection.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.cart.write-behind.enabled", havingValue = "false", matchIfMissing = true)
+public class MongoCartStore implements CartStore {
+    
+    private final CartRepository cartRepository;
+    
+    @Override
+    public Optional<Cart> findById(String userId) {
+        return cartRepository.findById(userId);
+    }
+    
+    @Override
+    public Cart save(Cart cart) {
+        return cartRepository.save(cart);
+    }
+    
+    @Override
+    public void delete(String userId) {
+        cartRepository.deleteById(userId);
+    }
+    
+    @Override
+    public Optional<Cart> incrementItemQuantity(String userId, String productId, String sellerId, int delta) {
+        return cartRepository.incrementItemQuantity(userId, productId, sellerId, delta);
+    }
+    
+    @Override
+    public Optional<Cart> pushItem(String userId, CartItem item) {
+        return cartRepository.pushItem(userId, item);
+    }
+    
+    @Override
+    public Optional<Cart> setItemQuantity(String userId, String productId, int quantity) {
+        return cartRepository.setItemQuantity(userId, productId, quantity);
+    }
+    
+    @Override
+    public Optional<Cart> pullItem(String userId, String productId) {
+        return cartRepository.pullItem(userId, productId);
+    }
+}
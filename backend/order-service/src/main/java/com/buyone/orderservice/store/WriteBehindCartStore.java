@@ -0,0 +1,417 @@
+package com.buyone.orderservice.store;
+
+import com.buyone.orderservice.model.cart.Cart;
+import com.buyone.orderservice.model.cart.CartItem;
+import com.buyone.orderservice.repository.CartRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Write-behind cart tier for hot sessions. Carts are loaded once, mutated in memory and
+ * flushed to `carts` as one coalesced save per cart every app.cart.write-behind.flush-interval-ms,
+ * before checkout ({@link #flush(String)}) and on shutdown.
+ * Relies on the gateway routing a user to the same replica (see gateway UserAffinityLoadBalancer),
+ * so this replica is normally the only writer of the carts it holds.
+ * Bounded LRU: only clean (already flushed) carts are evicted, so a dirty cart is never dropped.
+ * Other writers (atomic cart updates, a replica that owned the user before a routing change) are
+ * detected by @Version on flush (or a duplicate _id for a cart created here): the buffered changes
+ * are replayed onto the stored cart, never over it.
+ * Carts handed out carry this tier's revision in version, not the stored document's: a whole-cart
+ * {@link #save} of a copy that is no longer current fails with OptimisticLockingFailureException,
+ * so read-modify-save callers re-read through OptimisticRetry as they do against MongoDB.
+ * A cart whose flush keeps failing stays dirty and is retried; after
+ * {@value #STUCK_AFTER_FAILURES} failures in a row it is logged and counted in {@value #STUCK_METRIC}.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.cart.write-behind.enabled", havingValue = "true")
+public class WriteBehindCartStore implements CartStore {
+    
+    static final String STUCK_METRIC = "cart.write-behind.stuck";
+    static final int STUCK_AFTER_FAILURES = 10;
+    // Past this many buffered changes, the replay log collapses into one overwrite with the buffered cart
+    static final int MAX_PENDING = 64;
+    
+    private final CartRepository cartRepository;
+    private final MeterRegistry meterRegistry;
+    
+    @Value("${app.cart.write-behind.max-entries:10000}")
+    private int maxEntries;
+    
+    @Value("${app.cart.write-behind.clean-ttl-ms:30000}")
+    private long cleanTtlMs;
+    
+    // Access-ordered → iteration starts at the least recently used cart. Guarded by itself.
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private final Map<String, Entry> dirty = new ConcurrentHashMap<>();
+    // Store-wide, so a copy never matches a later revision, even of a re-loaded (evicted) entry
+    private final AtomicLong revisions = new AtomicLong();
+    
+    @Override
+    public Optional<Cart> findById(String userId) {
+        return withEntry(userId, entry -> Optional.ofNullable(entry.cart).map(cart -> view(entry)));
+    }
+    
+    /**
+     * Replaces the cart, if it is still the revision the caller read (version null = no cart yet).
+     * @throws OptimisticLockingFailureException when it changed since
+     */
+    @Override
+    public Cart save(Cart cart) {
+        String userId = cart.getUserId();
+        Predicate<Entry> overwrite = overwrite(copy(cart));
+        return withEntry(userId, entry -> {
+            Long current = entry.cart != null ? entry.revision : null;
+            if (!Objects.equals(cart.getVersion(), current)) {
+                throw new OptimisticLockingFailureException("Cart " + userId + " changed since it was read");
+            }
+            return apply(entry, overwrite);
+        }).orElseThrow();
+    }
+    
+    @Override
+    public void delete(String userId) {
+        mutate(userId, entry -> {
+            if (entry.cart == null) {
+                return false;
+            }
+            entry.cart = null;
+            entry.deleteStored = true;  // flushed as a deleteById (before any re-created cart)
+            return true;
+        });
+    }
+    
+    @Override
+    public Optional<Cart> incrementItemQuantity(String userId, String productId, String sellerId, int delta) {
+        return mutate(userId, entry -> findItem(entry.cart, productId, sellerId).map(item -> {
+            item.setQuantity(item.getQuantity() + delta);
+            return true;
+        }).orElse(false));
+    }
+    
+    @Override
+    public Optional<Cart> pushItem(String userId, CartItem item) {
+        CartItem snapshot = copy(item);
+        return mutate(userId, entry -> {
+            if (findItem(entry.cart, snapshot.getProductId(), snapshot.getSellerId()).isPresent()) {
+                return false;
+            }
+            if (entry.cart == null) {
+                entry.cart = Cart.builder().id(userId).userId(userId).items(new ArrayList<>()).build();
+            }
+            entry.cart.getItems().add(copy(snapshot));
+            return true;
+        });
+    }
+    
+    @Override
+    public Optional<Cart> setItemQuantity(String userId, String productId, int quantity) {
+        return mutate(userId, entry -> findItem(entry.cart, productId, null).map(item -> {
+            item.setQuantity(quantity);
+            return true;
+        }).orElse(false));
+    }
+    
+    @Override
+    public Optional<Cart> pullItem(String userId, String productId) {
+        return mutate(userId, entry -> entry.cart != null
+                && entry.cart.getItems().removeIf(ci -> ci.getProductId().equals(productId)));
+    }
+    
+    @Override
+    public void flush(String userId) {
+        Entry entry = dirty.get(userId);
+        if (entry != null) {
+            flushEntry(userId, entry);
+        }
+    }
+    
+    /**
+     * Coalesced write-behind: one save per dirty cart, however many clicks it absorbed.
+     */
+    @Scheduled(fixedDelayString = "${app.cart.write-behind.flush-interval-ms:3000}")
+    public void flushDirty() {
+        dirty.forEach(this::flushEntry);
+    }
+    
+    @PreDestroy
+    public void flushOnShutdown() {
+        log.info("Flushing {} dirty carts before shutdown", dirty.size());
+        flushDirty();
+    }
+    
+    private long cleanTtlNanos() {
+        return cleanTtlMs * 1_000_000L;
+    }
+    
+    int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+    
+    int dirtyCount() {
+        return dirty.size();
+    }
+    
+    int pendingCount(String userId) {
+        Entry entry = dirty.get(userId);
+        return entry != null ? entry.pending.size() : 0;
+    }
+    
+    private void flushEntry(String userId, Entry entry) {
+        entry.lock.lock();
+        try {
+            if (!entry.dirty) {
+                return;
+            }
+            if (entry.deleteStored) {
+                cartRepository.deleteById(userId);
+                entry.deleteStored = false;
+            }
+            if (entry.cart != null) {
+                cartRepository.save(entry.cart);  // bumps entry.cart's @Version in place
+            }
+            entry.pending.clear();
+            entry.failures = 0;
+            entry.loadedAt = System.nanoTime();
+            entry.dirty = false;
+            dirty.remove(userId, entry);
+        } catch (OptimisticLockingFailureException | DuplicateKeyException e) {
+            // Written elsewhere (atomic cart updates, or a routing change; a duplicate _id when this
+            // tier created the cart): keep that write and re-apply the buffered changes on top of it;
+            // the next tick saves the merged cart
+            log.warn("Cart {} changed outside the write-behind tier, merging buffered changes", userId);
+            rebase(entry, cartRepository.findById(userId).orElse(null));
+            failed(entry, e);
+        } catch (RuntimeException e) {
+            // Stays dirty → retried on the next tick
+            log.warn("Cart flush failed for {}: {}", userId, e.getMessage());
+            failed(entry, e);
+        } finally {
+            entry.lock.unlock();
+        }
+    }
+    
+    // Caller holds the entry's lock
+    private void failed(Entry entry, RuntimeException e) {
+        if (++entry.failures == STUCK_AFTER_FAILURES) {
+            meterRegistry.counter(STUCK_METRIC).increment();
+            log.error("Cart {} could not be flushed {} times in a row, {} changes buffered: {}",
+                    entry.userId, entry.failures, entry.pending.size(), e.toString());
+        }
+    }
+    
+    // Caller holds the entry's lock
+    private void rebase(Entry entry, Cart stored) {
+        Entry replay = new Entry(entry.userId);
+        replay.cart = stored;
+        entry.pending.forEach(change -> change.test(replay));
+        entry.cart = replay.cart;
+        entry.revision = revisions.incrementAndGet();
+        entry.deleteStored = replay.deleteStored;
+        entry.loadedAt = System.nanoTime();
+        if (entry.cart != null) {
+            stamp(entry.cart);
+        } else if (!entry.deleteStored) {
+            entry.pending.clear();  // nothing left to write
+            entry.dirty = false;
+            dirty.remove(entry.userId, entry);
+        }
+    }
+    
+    /**
+     * Applies change under the cart's lock and buffers it for the next flush; the change is
+     * kept until then so it can be replayed onto the stored cart if the flush conflicts.
+     * @return a copy of the cart when the change applied, empty otherwise (or when it deleted the cart)
+     */
+    private Optional<Cart> mutate(String userId, Predicate<Entry> change) {
+        return withEntry(userId, entry -> apply(entry, change));
+    }
+    
+    // Caller holds the entry's lock
+    private Optional<Cart> apply(Entry entry, Predicate<Entry> change) {
+        if (!change.test(entry)) {
+            return Optional.empty();
+        }
+        if (entry.cart != null) {
+            stamp(entry.cart);
+        }
+        entry.revision = revisions.incrementAndGet();
+        if (entry.pending.size() < MAX_PENDING) {
+            entry.pending.add(change);
+        } else {
+            // A flush that keeps failing must not grow the log without bound: from here on a conflict
+            // overwrites the stored cart with this one instead of merging change by change
+            entry.pending.clear();
+            entry.pending.add(overwrite(entry.cart != null ? copy(entry.cart) : null));
+        }
+        entry.dirty = true;
+        dirty.put(entry.userId, entry);
+        return entry.cart != null ? Optional.of(view(entry)) : Optional.empty();
+    }
+    
+    /**
+     * Change that replaces the cart with the given one (null = delete it), applied to whatever
+     * version of the document is current.
+     */
+    private static Predicate<Entry> overwrite(Cart snapshot) {
+        return entry -> {
+            Long version = entry.cart != null ? entry.cart.getVersion() : null;
+            if (snapshot == null) {
+                entry.deleteStored |= entry.cart != null;
+                entry.cart = null;
+                return true;
+            }
+            entry.cart = copy(snapshot);
+            entry.cart.setId(entry.userId);
+            entry.cart.setVersion(version);  // the version of the document this change applies to
+            return true;
+        };
+    }
+    
+    /**
+     * Runs op under the cart's lock, loading it from MongoDB on first access.
+     * Retries if the entry was evicted between lookup and lock.
+     */
+    private <T> T withEntry(String userId, Function<Entry, T> op) {
+        while (true) {
+            Entry entry = lookup(userId);
+            entry.lock.lock();
+            try {
+                if (entry.evicted) {
+                    continue;
+                }
+                if (!entry.loaded || (!entry.dirty && System.nanoTime() - entry.loadedAt > cleanTtlNanos())) {
+                    // Clean carts are re-read after clean-ttl-ms, so writes made elsewhere show up
+                    entry.cart = cartRepository.findById(userId).orElse(null);
+                    entry.revision = revisions.incrementAndGet();
+                    entry.loaded = true;
+                    entry.loadedAt = System.nanoTime();
+                }
+                return op.apply(entry);
+            } finally {
+                entry.lock.unlock();
+            }
+        }
+    }
+    
+    private Entry lookup(String userId) {
+        synchronized (entries) {
+            Entry entry = entries.get(userId);
+            if (entry == null) {
+                entry = new Entry(userId);
+                entries.put(userId, entry);
+                evictOverflow(userId);
+            }
+            return entry;
+        }
+    }
+    
+    // Caller holds the entries monitor. Skips dirty or busy carts; they become evictable once flushed.
+    private void evictOverflow(String keep) {
+        Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator();
+        while (entries.size() > maxEntries && it.hasNext()) {
+            Map.Entry<String, Entry> eldest = it.next();
+            Entry entry = eldest.getValue();
+            if (eldest.getKey().equals(keep) || entry.dirty || !entry.lock.tryLock()) {
+                continue;
+            }
+            try {
+                if (!entry.dirty) {
+                    entry.evicted = true;
+                    it.remove();
+                }
+            } finally {
+                entry.lock.unlock();
+            }
+        }
+    }
+    
+    private static void stamp(Cart cart) {
+        LocalDateTime now = LocalDateTime.now();
+        cart.setUpdatedAt(now);
+        if (!cart.getItems().isEmpty()) {
+            cart.setEmptySince(null);
+        } else if (cart.getEmptySince() == null) {
+            cart.setEmptySince(now);
+        }
+    }
+    
+    private static Optional<CartItem> findItem(Cart cart, String productId, String sellerId) {
+        if (cart == null) {
+            return Optional.empty();
+        }
+        return cart.getItems().stream()
+                .filter(ci -> ci.getProductId().equals(productId)
+                        && (sellerId == null || sellerId.equals(ci.getSellerId())))
+                .findFirst();
+    }
+    
+    // Caller holds the entry's lock
+    private static Cart view(Entry entry) {
+        Cart view = copy(entry.cart);
+        view.setVersion(entry.revision);
+        return view;
+    }
+    
+    // Callers get their own copy; the cached cart is only touched under its lock
+    private static Cart copy(Cart cart) {
+        List<CartItem> items = new ArrayList<>(cart.getItems().size());
+        cart.getItems().forEach(item -> items.add(copy(item)));
+        return Cart.builder()
+                .id(cart.getId())
+                .userId(cart.getUserId())
+                .items(items)
+                .updatedAt(cart.getUpdatedAt())
+                .version(cart.getVersion())
+                .emptySince(cart.getEmptySince())
+                .build();
+    }
+    
+    private static CartItem copy(CartItem item) {
+        return new CartItem(item.getProductId(), item.getSellerId(), item.getProductName(),
+                item.getPrice(), item.getQuantity(), item.getImageUrl());
+    }
+    
+    private static final class Entry {
+        final String userId;
+        final ReentrantLock lock = new ReentrantLock();
+        Cart cart;                 // null = user has no cart yet
+        boolean loaded;
+        long loadedAt;             // System.nanoTime() of the last read or write of the stored cart
+        long revision;             // handed out as the version of copies, see save()
+        int failures;              // flushes failed in a row
+        final List<Predicate<Entry>> pending = new ArrayList<>();  // changes since the last flush
+        boolean deleteStored;      // cleared cart still has a document in MongoDB
+        volatile boolean dirty;
+        volatile boolean evicted;
+        
+        Entry(String userId) {
+            this.userId = userId;
+        }
+    }
+}
@@ -0,0 +1,289 @@
+package com.buyone.orderservice.analytics;
+
+import com.buyone.orderservice.model.analytics.AnalyticsRollup;
+import com.buyone.orderservice.model.order.Order;
+import com.buyone.orderservice.model.order.OrderItem;
+import com.buyone.orderservice.model.order.OrderStatus;
+import com.mongodb.MongoNamespace;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.RenameCollectionOptions;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatcher;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static com.buyone.orderservice.repository.OrderRepositoryCustomImpl.ARCHIVE_COLLECTION;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class AnalyticsRollupWriterTests {
+    
+    @Mock
+    private MongoTemplate mongoTemplate;
+    
+    @Mock
+    private CategoryResolver categoryResolver;
+    
+    @Mock
+    private BuyerSketchStore sketchStore;
+    
+    @Mock
+    private BulkOperations bulkOperations;
+    
+    @InjectMocks
+    private AnalyticsRollupWriter writer;
+    
+    private static Order order() {
+        return Order.builder()
+                .orderNumber("ORD-1").userId("user-1").status(OrderStatus.CONFIRMED)
+                .total(new BigDecimal("55.00"))
+                .items(List.of(
+                        OrderItem.builder().productId("p1").productName("Widget").sellerId("seller-1")
+                                .price(new BigDecimal("10.00")).quantity(2).build(),
+                        OrderItem.builder().productId("p1").productName("Widget").sellerId("seller-1")
+                                .price(new BigDecimal("10.00")).quantity(1).build(),
+                        OrderItem.builder().productId("p2").productName("Gadget").sellerId("seller-2")
+                                .price(new BigDecimal("12.50")).quantity(2).build()))
+                .build();
+    }
+    
+    @Test
+    void apply_upsertsBuyerAndEachSeller_withMergedIncrements() {
+        when(categoryResolver.resolve(anyCollection()))
+                .thenReturn(Map.of("p1", new CategoryResolver.Category("c1", "Electronics")));
+        
+        writer.apply(order(), 1);
+        
+        ArgumentCaptor<Query> queries = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> updates = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate, times(3)).upsert(queries.capture(), updates.capture(), eq(AnalyticsRollup.class));
+        assertThat(queries.getAllValues()).extracting(q -> q.getQueryObject().get("_id"))
+                .containsExactly("buyer:user-1", "seller:seller-1", "seller:seller-2");
+        
+        Document buyerInc = (Document) updates.getAllValues().get(0).getUpdateObject().get("$inc");
+        assertThat(buyerInc).containsEntry("orders", 1)
+                .containsEntry("units", 5L)
+                .containsEntry("amountCents", 5_500L)
+                .containsEntry("products.p1.quantity", 3L)
+                .containsEntry("products.p1.amountCents", 3_000L)
+                .containsEntry("categories.c1.amountCents", 3_000L)
+                .containsEntry("categories.uncategorized.amountCents", 2_500L);
+        Document buyerSet = (Document) updates.getAllValues().get(0).getUpdateObject().get("$set");
+        assertThat(buyerSet).containsEntry("categories.c1.name", "Electronics")
+                .containsEntry("products.p2.category", AnalyticsRollupWriter.UNCATEGORIZED);
+        
+        Document sellerInc = (Document) updates.getAllValues().get(1).getUpdateObject().get("$inc");
+        assertThat(sellerInc).containsEntry("amountCents", 3_000L).containsEntry("units", 3L)
+                .doesNotContainKey("products.p2.quantity");
+        
+        verify(sketchStore).add(AnalyticsRollup.class, "seller:seller-1", "user-1");
+        verify(sketchStore).add(AnalyticsRollup.class, "seller:seller-2", "user-1");
+        verifyNoMoreInteractions(sketchStore);  // buyer rollups have no sketch
+    }
+    
+    @Test
+    void apply_subtractsContribution_whenSignIsNegative() {
+        when(categoryResolver.resolve(anyCollection())).thenReturn(Map.of());
+        
+        writer.apply(order(), -1);
+        
+        ArgumentCaptor<Update> updates = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate, times(3)).upsert(any(Query.class), updates.capture(), eq(AnalyticsRollup.class));
+        Document buyerInc = (Document) updates.getAllValues().get(0).getUpdateObject().get("$inc");
+        assertThat(buyerInc).containsEntry("orders", -1)
+                .containsEntry("amountCents", -5_500L)
+                .containsEntry("products.p1.quantity", -3L);
+        verifyNoInteractions(sketchStore);
+    }
+    
+    @Test
+    void apply_usesItemCategorySnapshot_withoutLookup() {
+        Order order = Order.builder().userId("user-1").total(new BigDecimal("20.00"))
+                .items(List.of(OrderItem.builder().productId("p1").sellerId("seller-1").price(new BigDecimal("20.00"))
+                        .quantity(1).categoryId("c9").categoryName("Books").build()))
+                .build();
+        when(categoryResolver.resolve(anyCollection())).thenReturn(Map.of());
+        
+        writer.apply(order, 1);
+        
+        verify(categoryResolver).resolve(argThat(Collection::isEmpty));
+        ArgumentCaptor<Update> updates = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate, times(2)).upsert(any(Query.class), updates.capture(), eq(AnalyticsRollup.class));
+        Document buyerSet = (Document) updates.getAllValues().get(0).getUpdateObject().get("$set");
+        assertThat(buyerSet).containsEntry("categories.c9.name", "Books").containsEntry("products.p1.category", "Books");
+    }
+    
+    @Test
+    @SuppressWarnings("unchecked")
+    void rebuild_replacesCollection_withRollupsFromHotAndArchivedOrders() {
+        Order archived = Order.builder().orderNumber("ORD-0").userId("user-1").status(OrderStatus.DELIVERED)
+                .items(List.of(OrderItem.builder().productId("p2").sellerId("seller-2")
+                        .price(new BigDecimal("12.50")).quantity(1).build()))
+                .build();
+        when(mongoTemplate.stream(any(Query.class), eq(Order.class), eq(AnalyticsRollupWriter.HOT_COLLECTION)))
+                .thenReturn(Stream.of(order()));
+        when(mongoTemplate.stream(any(Query.class), eq(Order.class), eq(ARCHIVE_COLLECTION)))
+                .thenReturn(Stream.of(archived));
+        when(categoryResolver.resolve(anyCollection())).thenReturn(Map.of());
+        when(mongoTemplate.getCollectionName(AnalyticsRollup.class)).thenReturn("analytics_rollups");
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, AnalyticsRollup.class, "analytics_rollups_staging"))
+                .thenReturn(bulkOperations);
+        when(mongoTemplate.estimatedCount("analytics_rollups_staging")).thenReturn(3L);
+        MongoCollection<Document> staging = stagingCollection();
+        
+        int rebuilt = writer.rebuild();
+        
+        assertThat(rebuilt).isEqualTo(3);
+        // Built aside and renamed over the live rollups, which are never emptied in place
+        verify(mongoTemplate, never()).remove(any(Query.class), eq(AnalyticsRollup.class));
+        InOrder swap = inOrder(mongoTemplate, bulkOperations, staging);
+        swap.verify(mongoTemplate).dropCollection("analytics_rollups_staging");
+        swap.verify(bulkOperations, times(2)).execute();
+        ArgumentCaptor<MongoNamespace> target = ArgumentCaptor.forClass(MongoNamespace.class);
+        ArgumentCaptor<RenameCollectionOptions> options = ArgumentCaptor.forClass(RenameCollectionOptions.class);
+        swap.verify(staging).renameCollection(target.capture(), options.capture());
+        assertThat(target.getValue().getFullName()).isEqualTo("shop.analytics_rollups");
+        assertThat(options.getValue().isDropTarget()).isTrue();
+        
+        // One chunk per collection, each folded into the staging rollups by $inc
+        ArgumentCaptor<Query> ids = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> updates = ArgumentCaptor.forClass(Update.class);
+        verify(bulkOperations, times(5)).upsert(ids.capture(), updates.capture());
+        long buyerOrders = 0;
+        long buyerAmount = 0;
+        long buyerP2 = 0;
+        for (int i = 0; i < ids.getAllValues().size(); i++) {
+            if (!"buyer:user-1".equals(ids.getAllValues().get(i).getQueryObject().get("_id"))) {
+                continue;
+            }
+            Document inc = updates.getAllValues().get(i).getUpdateObject().get("$inc", Document.class);
+            buyerOrders += ((Number) inc.get("orders")).longValue();
+            buyerAmount += ((Number) inc.get("amountCents")).longValue();
+            buyerP2 += ((Number) inc.get("products.p2.quantity")).longValue();
+        }
+        assertThat(buyerOrders).isEqualTo(2);
+        assertThat(buyerAmount).isEqualTo(5_500 + 1_250);
+        assertThat(buyerP2).isEqualTo(3);
+        verify(sketchStore, never()).merge(anyString(), eq("buyer:user-1"), any());
+        ArgumentCaptor<HyperLogLog> sellerSketch = ArgumentCaptor.forClass(HyperLogLog.class);
+        verify(sketchStore, times(2)).merge(eq("analytics_rollups_staging"), eq("seller:seller-2"), sellerSketch.capture());
+        HyperLogLog merged = new HyperLogLog();
+        sellerSketch.getAllValues().forEach(merged::merge);
+        assertThat(merged.estimate()).isEqualTo(1);  // same buyer twice
+        
+        // p2 is resolved once even though it appears in both collections
+        ArgumentCaptor<Collection<String>> resolved = ArgumentCaptor.forClass(Collection.class);
+        verify(categoryResolver, times(1)).resolve(resolved.capture());
+        assertThat(resolved.getValue()).containsExactlyInAnyOrder("p1", "p2");
+    }
+    
+    @Test
+    void rebuild_withNoCountedOrders_stillSwapsInAnEmptyCollection() {
+        when(mongoTemplate.stream(any(Query.class), eq(Order.class), anyString())).thenAnswer(i -> Stream.empty());
+        when(mongoTemplate.getCollectionName(AnalyticsRollup.class)).thenReturn("analytics_rollups");
+        MongoCollection<Document> staging = stagingCollection();
+        
+        assertThat(writer.rebuild()).isZero();
+        
+        verify(mongoTemplate).createCollection("analytics_rollups_staging");
+        verify(staging).renameCollection(any(MongoNamespace.class), any(RenameCollectionOptions.class));
+        verifyNoInteractions(bulkOperations);
+    }
+    
+    @Test
+    void reconcile_rederivesTheOwnersOfOrdersChangedSinceTheMark_fromHotAndArchivedOrders() {
+        Order changed = order();
+        changed.setId("o-1");
+        Order archived = Order.builder().id("o-0").orderNumber("ORD-0").userId("user-1").status(OrderStatus.DELIVERED)
+                .items(List.of(OrderItem.builder().productId("p2").sellerId("seller-2")
+                        .price(new BigDecimal("12.50")).quantity(1).build()))
+                .build();
+        LocalDateTime mark = LocalDateTime.now().minusMinutes(5);
+        when(mongoTemplate.find(argThat(changedSince(mark)), eq(Order.class), eq(AnalyticsRollupWriter.HOT_COLLECTION)))
+                .thenReturn(List.of(changed));
+        when(mongoTemplate.find(argThat(ofOwner("userId", "user-1")), eq(Order.class), eq(AnalyticsRollupWriter.HOT_COLLECTION)))
+                .thenReturn(List.of(changed));
+        // Mid-archive: the changed order is in both collections and counts once
+        when(mongoTemplate.find(argThat(ofOwner("userId", "user-1")), eq(Order.class), eq(ARCHIVE_COLLECTION)))
+                .thenReturn(List.of(changed, archived));
+        when(mongoTemplate.find(argThat(ofOwner("sellerIds", "seller-2")), eq(Order.class), eq(ARCHIVE_COLLECTION)))
+                .thenReturn(List.of(archived));
+        when(categoryResolver.resolve(anyCollection())).thenReturn(Map.of());
+    
+        int reconciled = writer.reconcile(mark);
+    
+        assertThat(reconciled).isEqualTo(3);
+        ArgumentCaptor<AnalyticsRollup> saved = ArgumentCaptor.forClass(AnalyticsRollup.class);
+        verify(mongoTemplate, times(2)).save(saved.capture());
+        AnalyticsRollup buyer = saved.getAllValues().stream()
+                .filter(r -> r.getId().equals("buyer:user-1")).findFirst().orElseThrow();
+        assertThat(buyer.getOrders()).isEqualTo(2);
+        assertThat(buyer.getAmountCents()).isEqualTo(5_500 + 1_250);
+        AnalyticsRollup seller = saved.getAllValues().stream()
+                .filter(r -> r.getId().equals("seller:seller-2")).findFirst().orElseThrow();
+        assertThat(seller.getOrders()).isEqualTo(1);
+        assertThat(HyperLogLog.fromBytes(seller.getBuyerSketch()).estimate()).isEqualTo(1);
+        // seller-1 only had the hot order, which the mock no longer counts
+        verify(mongoTemplate).remove(argThat(q -> "seller:seller-1".equals(q.getQueryObject().get("_id"))),
+                eq(AnalyticsRollup.class));
+    }
+    
+    @Test
+    void reconcile_withNothingChanged_touchesNoRollup() {
+        assertThat(writer.reconcile(LocalDateTime.now())).isZero();
+    
+        verify(mongoTemplate, times(1)).find(any(Query.class), eq(Order.class), anyString());
+        verify(mongoTemplate, never()).save(any(AnalyticsRollup.class));
+        verify(mongoTemplate, never()).remove(any(Query.class), eq(AnalyticsRollup.class));
+    }
+    
+    private static ArgumentMatcher<Query> changedSince(LocalDateTime mark) {
+        return query -> query != null && query.getQueryObject().get("updatedAt") instanceof Document range
+                && mark.equals(range.get("$gte"));
+    }
+    
+    private static ArgumentMatcher<Query> ofOwner(String field, String id) {
+        return query -> query != null && id.equals(query.getQueryObject().get(field));
+    }
+    
+    @SuppressWarnings("unchecked")
+    private MongoCollection<Document> stagingCollection() {
+        MongoCollection<Document> staging = mock(MongoCollection.class);
+        MongoDatabase db = mock(MongoDatabase.class);
+        when(db.getName()).thenReturn("shop");
+        when(mongoTemplate.getDb()).thenReturn(db);
+        when(mongoTemplate.getCollection("analytics_rollups_staging")).thenReturn(staging);
+        when(mongoTemplate.indexOps("analytics_rollups_staging")).thenReturn(mock(IndexOperations.class));
+        return staging;
+    }
+    
+    @Test
+    void fieldKey_escapesDotsAndDollars_andDefaultsToUncategorized() {
+        assertThat(AnalyticsRollupWriter.fieldKey("a.b$c")).isEqualTo("a_b_c");
+        assertThat(AnalyticsRollupWriter.fieldKey(null)).isEqualTo("uncategorized");
+        assertThat(AnalyticsRollupWriter.fieldKey(" ")).isEqualTo("uncategorized");
+    }
+}
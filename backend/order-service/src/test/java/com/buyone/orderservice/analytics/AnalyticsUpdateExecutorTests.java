@@ -0,0 +1,73 @@
+package com.buyone.orderservice.analytics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AnalyticsUpdateExecutorTests {
+    
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    
+    @Test
+    void execute_runsOffTheCallerThread_andTimesEachUpdate() throws InterruptedException {
+        AnalyticsUpdateExecutor executor = new AnalyticsUpdateExecutor(meterRegistry, 2, 10, 1_000);
+        AtomicReference<Thread> ranOn = new AtomicReference<>();
+        CountDownLatch done = new CountDownLatch(1);
+    
+        executor.execute("rollup", () -> {
+            ranOn.set(Thread.currentThread());
+            done.countDown();
+        });
+    
+        assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(ranOn.get()).isNotSameAs(Thread.currentThread());
+        assertThat(ranOn.get().getName()).startsWith("analytics-update-");
+        executor.shutdown();
+        assertThat(meterRegistry.get(AnalyticsUpdateExecutor.UPDATE_METRIC).tag("update", "rollup").timer().count())
+                .isEqualTo(1);
+    }
+    
+    @Test
+    void execute_whenTheQueueIsFull_runsOnTheCaller_insteadOfDropping() throws InterruptedException {
+        AnalyticsUpdateExecutor executor = new AnalyticsUpdateExecutor(meterRegistry, 1, 1, 1_000);
+        CountDownLatch release = new CountDownLatch(1);
+        executor.execute("blocker", () -> await(release));
+        executor.execute("queued", () -> { });
+        AtomicReference<Thread> ranOn = new AtomicReference<>();
+    
+        executor.execute("overflow", () -> ranOn.set(Thread.currentThread()));
+    
+        assertThat(ranOn.get()).isSameAs(Thread.currentThread());
+        assertThat(meterRegistry.get(AnalyticsUpdateExecutor.CALLER_RUNS_METRIC).counter().count()).isEqualTo(1);
+        release.countDown();
+        executor.shutdown();
+    }
+    
+    @Test
+    void execute_logsFailures_andKeepsRunningLaterUpdates() throws InterruptedException {
+        AnalyticsUpdateExecutor executor = new AnalyticsUpdateExecutor(meterRegistry, 1, 10, 1_000);
+        AtomicInteger ran = new AtomicInteger();
+    
+        executor.execute("failing", () -> {
+            throw new IllegalStateException("mongo down");
+        });
+        executor.execute("next", ran::incrementAndGet);
+    
+        executor.shutdown();  // drains the queue
+        assertThat(ran.get()).isEqualTo(1);
+    }
+    
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
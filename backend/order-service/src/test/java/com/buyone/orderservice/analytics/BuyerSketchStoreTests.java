@@ -0,0 +1,101 @@
+package com.buyone.orderservice.analytics;
+
+import com.buyone.orderservice.model.analytics.SalesBucket;
+import com.mongodb.client.result.UpdateResult;
+import org.bson.Document;
+import org.bson.types.Binary;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class BuyerSketchStoreTests {
+    
+    @Mock
+    private MongoTemplate mongoTemplate;
+    
+    @InjectMocks
+    private BuyerSketchStore store;
+    
+    @BeforeEach
+    void setUp() {
+        when(mongoTemplate.getCollectionName(SalesBucket.class)).thenReturn("sales_buckets");
+    }
+    
+    private static Document stored(long version, String... buyerIds) {
+        HyperLogLog sketch = new HyperLogLog();
+        for (String buyerId : buyerIds) {
+            sketch.add(buyerId);
+        }
+        return new Document("_id", "b1").append(BuyerSketchStore.SKETCH_FIELD, new Binary(sketch.toBytes()))
+                .append(BuyerSketchStore.VERSION_FIELD, version);
+    }
+    
+    @Test
+    void add_writesSketch_guardedByTheVersionRead() {
+        when(mongoTemplate.findOne(any(Query.class), eq(Document.class), eq("sales_buckets")))
+                .thenReturn(stored(4, "user-1"));
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq("sales_buckets")))
+                .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+        
+        assertThat(store.add(SalesBucket.class, "b1", "user-2")).isTrue();
+        
+        ArgumentCaptor<Query> guard = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).updateFirst(guard.capture(), update.capture(), eq("sales_buckets"));
+        assertThat(guard.getValue().getQueryObject().toJson()).contains("\"buyerSketchVersion\": 4");
+        Document set = (Document) update.getValue().getUpdateObject().get("$set");
+        assertThat(HyperLogLog.fromBytes((byte[]) set.get(BuyerSketchStore.SKETCH_FIELD)).estimate()).isEqualTo(2);
+    }
+    
+    @Test
+    void add_skipsWrite_forRepeatBuyer() {
+        when(mongoTemplate.findOne(any(Query.class), eq(Document.class), eq("sales_buckets")))
+                .thenReturn(stored(1, "user-1"));
+        
+        assertThat(store.add(SalesBucket.class, "b1", "user-1")).isFalse();
+        
+        verify(mongoTemplate, never()).updateFirst(any(Query.class), any(Update.class), anyString());
+    }
+    
+    @Test
+    void add_retriesWithFreshRead_whenAnotherWriterWon() {
+        when(mongoTemplate.findOne(any(Query.class), eq(Document.class), eq("sales_buckets")))
+                .thenReturn(stored(1, "user-1"), stored(2, "user-1", "user-3"));
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq("sales_buckets")))
+                .thenReturn(UpdateResult.acknowledged(0, 0L, null), UpdateResult.acknowledged(1, 1L, null));
+        
+        assertThat(store.add(SalesBucket.class, "b1", "user-2")).isTrue();
+        
+        ArgumentCaptor<Update> updates = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate, times(2)).updateFirst(any(Query.class), updates.capture(), eq("sales_buckets"));
+        Document set = (Document) updates.getValue().getUpdateObject().get("$set");
+        assertThat(HyperLogLog.fromBytes((byte[]) set.get(BuyerSketchStore.SKETCH_FIELD)).estimate()).isEqualTo(3);
+    }
+    
+    @Test
+    void add_givesUp_afterMaxAttempts() {
+        when(mongoTemplate.findOne(any(Query.class), eq(Document.class), eq("sales_buckets")))
+                .thenReturn(new Document("_id", "b1"));  // no sketch yet
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq("sales_buckets")))
+                .thenReturn(UpdateResult.acknowledged(0, 0L, null));
+        
+        assertThat(store.add(SalesBucket.class, "b1", "user-1")).isFalse();
+        
+        verify(mongoTemplate, times(BuyerSketchStore.MAX_ATTEMPTS)).updateFirst(any(Query.class), any(Update.class), anyString());
+    }
+}
@@ -0,0 +1,64 @@
+package com.buyone.orderservice.analytics;
+
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CategoryResolverTests {
+    
+    @Mock
+    private MongoTemplate mongoTemplate;
+    
+    @InjectMocks
+    private CategoryResolver resolver;
+    
+    @Test
+    void resolve_joinsProductsToCategoryNames() {
+        ObjectId p1 = new ObjectId();
+        ObjectId p2 = new ObjectId();
+        when(mongoTemplate.find(any(Query.class), eq(Document.class), eq(CategoryResolver.PRODUCTS_COLLECTION)))
+                .thenReturn(List.of(
+                        new Document("_id", p1).append("categoryId", "c1"),
+                        new Document("_id", p2)));
+        when(mongoTemplate.find(any(Query.class), eq(Document.class), eq(CategoryResolver.CATEGORIES_COLLECTION)))
+                .thenReturn(List.of(new Document("_id", "c1").append("name", "Electronics")));
+        
+        Map<String, CategoryResolver.Category> result = resolver.resolve(List.of(p1.toHexString(), p2.toHexString()));
+        
+        assertThat(result).containsOnlyKeys(p1.toHexString());
+        assertThat(result.get(p1.toHexString())).isEqualTo(new CategoryResolver.Category("c1", "Electronics"));
+    }
+    
+    @Test
+    void resolve_skipsLookup_whenNoValidIds() {
+        assertThat(resolver.resolve(List.of("not-an-object-id"))).isEmpty();
+        verifyNoInteractions(mongoTemplate);
+    }
+    
+    @Test
+    void names_mapsCategoryIdsToNames_inOneRead() {
+        when(mongoTemplate.find(any(Query.class), eq(Document.class), eq(CategoryResolver.CATEGORIES_COLLECTION)))
+                .thenReturn(List.of(new Document("_id", "c1").append("name", "Electronics")));
+        
+        Map<String, String> names = resolver.names(Arrays.asList("c1", "c1", null, "gone"));
+        
+        assertThat(names).containsExactly(Map.entry("c1", "Electronics"));
+    }
+}
@@ -0,0 +1,84 @@
+package com.buyone.orderservice.analytics;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class HyperLogLogTests {
+    
+    private static HyperLogLog sketchOf(int from, int to) {
+        HyperLogLog sketch = new HyperLogLog();
+        for (int i = from; i < to; i++) {
+            sketch.add("user-" + i);
+        }
+        return sketch;
+    }
+    
+    @Test
+    void estimate_isExactEnough_forSmallSellers() {
+        HyperLogLog sketch = sketchOf(0, 20);
+        
+        assertThat(sketch.add("user-3")).isFalse();  // repeat buyer
+        assertThat(sketch.estimate()).isEqualTo(20);
+        assertThat(new HyperLogLog().estimate()).isZero();
+    }
+    
+    @Test
+    void estimate_staysWithinErrorBound_forLargeCardinalities() {
+        for (int n : new int[] {10_000, 100_000, 1_000_000}) {
+            long estimate = sketchOf(0, n).estimate();
+            
+            // 4 standard errors: practically never exceeded
+            assertThat(Math.abs(estimate - n) / (double) n)
+                    .as("relative error at %d", n)
+                    .isLessThan(4 * HyperLogLog.STANDARD_ERROR);
+        }
+    }
+    
+    @Test
+    void merge_countsTheUnion() {
+        HyperLogLog first = sketchOf(0, 60_000);
+        HyperLogLog second = sketchOf(40_000, 100_000);
+        
+        assertThat(first.merge(second)).isTrue();
+        assertThat(first.merge(second)).isFalse();  // idempotent
+        assertThat(Math.abs(first.estimate() - 100_000) / 100_000.0).isLessThan(4 * HyperLogLog.STANDARD_ERROR);
+        assertThat(first).isEqualTo(sketchOf(0, 100_000));
+    }
+    
+    @Test
+    void toBytes_isSparseForFewBuyers_andAtMost12KbDense() {
+        HyperLogLog small = sketchOf(0, 10);
+        HyperLogLog large = sketchOf(0, 200_000);
+        
+        byte[] sparse = small.toBytes();
+        byte[] dense = large.toBytes();
+        
+        assertThat(sparse).hasSize(1 + 10 * 3);
+        assertThat(dense).hasSize(1 + 12 * 1024);
+        assertThat(HyperLogLog.fromBytes(sparse)).isEqualTo(small);
+        assertThat(HyperLogLog.fromBytes(dense)).isEqualTo(large);
+        assertThat(HyperLogLog.fromBytes(null).isEmpty()).isTrue();
+    }
+    
+    @Test
+    void mergeBytes_ofSparseAndDenseSketches_equalsMergingTheDecodedOnes() {
+        HyperLogLog accumulated = sketchOf(0, 10);
+        HyperLogLog dense = sketchOf(5, 200_000);
+        
+        accumulated.mergeBytes(sketchOf(8, 30).toBytes());
+        accumulated.mergeBytes(dense.toBytes());
+        accumulated.mergeBytes(null);
+        
+        assertThat(accumulated).isEqualTo(sketchOf(0, 200_000));
+        accumulated.clear();
+        assertThat(accumulated.isEmpty()).isTrue();
+    }
+    
+    @Test
+    void fromBytes_rejectsForeignData() {
+        assertThatThrownBy(() -> HyperLogLog.fromBytes(new byte[] {7, 1, 2}))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,233 @@
+package com.buyone.orderservice.analytics;
+
+import com.buyone.orderservice.model.analytics.BucketGranularity;
+import com.buyone.orderservice.model.analytics.SalesBucket;
+import com.buyone.orderservice.model.order.Order;
+import com.buyone.orderservice.model.order.OrderItem;
+import com.mongodb.client.result.DeleteResult;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class SalesBucketWriterTests {
+    
+    @Mock
+    private MongoTemplate mongoTemplate;
+    
+    @Mock
+    private BuyerSketchStore sketchStore;
+    
+    private SalesBucketWriter writer() {
+        when(mongoTemplate.remove(any(Query.class), eq(SalesBucket.class))).thenReturn(DeleteResult.acknowledged(1));
+        return new SalesBucketWriter(mongoTemplate, sketchStore, 90, 365);
+    }
+    
+    private static SalesBucket tuesday(String generation) {
+        return SalesBucket.builder().id("s1:DAY:2026-06-02").sellerId("s1").granularity(BucketGranularity.DAY)
+                .bucketStart("2026-06-02").orders(1).units(2).revenueCents(1_000).generation(generation).build();
+    }
+    
+    private static Order orderOn(LocalDate utcDay) {
+        LocalDateTime createdAt = utcDay.atTime(12, 0).atZone(ZoneOffset.UTC)
+                .withZoneSameInstant(ZoneId.systemDefault()).toLocalDateTime();
+        return Order.builder().orderNumber("ORD-1").userId("user-1").createdAt(createdAt)
+                .items(List.of(
+                        OrderItem.builder().productId("p1").sellerId("seller-1").price(new BigDecimal("10.00")).quantity(2).build(),
+                        OrderItem.builder().productId("p2").sellerId("seller-1").price(new BigDecimal("5.50")).quantity(1).build(),
+                        OrderItem.builder().productId("p3").sellerId("seller-2").price(new BigDecimal("1.00")).quantity(1).build()))
+                .build();
+    }
+    
+    @Test
+    void apply_incrementsTodaysDayBucket_perSeller() {
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        
+        writer().apply(orderOn(today), 1);
+        
+        ArgumentCaptor<Query> queries = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> updates = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate, times(2)).upsert(queries.capture(), updates.capture(), eq(SalesBucket.class));
+        assertThat(queries.getAllValues().get(0).getQueryObject())
+                .containsEntry("_id", "seller-1:DAY:" + today);
+        Document inc = (Document) updates.getAllValues().get(0).getUpdateObject().get("$inc");
+        assertThat(inc).containsEntry("orders", 1L).containsEntry("units", 3L).containsEntry("revenueCents", 2_550L);
+        assertThat((Document) updates.getAllValues().get(0).getUpdateObject().get("$setOnInsert"))
+                .containsEntry("bucketStart", today.toString());
+        assertThat((Document) updates.getAllValues().get(0).getUpdateObject().get("$set"))
+                .containsKey(SalesBucketWriter.GENERATION);
+        verify(sketchStore).add(SalesBucket.class, "seller-1:DAY:" + today, "user-1");
+        verify(sketchStore).add(SalesBucket.class, "seller-2:DAY:" + today, "user-1");
+    }
+    
+    @Test
+    void apply_writesLateChangesToTheCoarserBucket() {
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        LocalDate old = today.minusDays(200);
+        
+        writer().apply(orderOn(old), -1);
+        
+        ArgumentCaptor<Query> queries = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> updates = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate, times(2)).upsert(queries.capture(), updates.capture(), eq(SalesBucket.class));
+        assertThat(queries.getAllValues().get(0).getQueryObject())
+                .containsEntry("_id", "seller-1:WEEK:" + BucketGranularity.WEEK.truncate(old));
+        assertThat((Document) updates.getAllValues().get(0).getUpdateObject().get("$inc"))
+                .containsEntry("orders", -1L).containsEntry("revenueCents", -2_550L);
+        verifyNoInteractions(sketchStore);  // buyers are never removed from a sketch
+    }
+    
+    @Test
+    void compact_foldsAgedDaysIntoTheirWeek_andDeletesThem() {
+        LocalDate today = LocalDate.of(2026, 10, 19);
+        HyperLogLog tueBuyers = new HyperLogLog();
+        tueBuyers.add("user-1");
+        HyperLogLog wedBuyers = new HyperLogLog();
+        wedBuyers.add("user-1");
+        wedBuyers.add("user-2");
+        SalesBucket tue = SalesBucket.builder().id("s1:DAY:2026-06-02").sellerId("s1").granularity(BucketGranularity.DAY)
+                .bucketStart("2026-06-02").orders(1).units(2).revenueCents(1_000).buyerSketch(tueBuyers.toBytes()).build();
+        SalesBucket wed = SalesBucket.builder().id("s1:DAY:2026-06-03").sellerId("s1").granularity(BucketGranularity.DAY)
+                .bucketStart("2026-06-03").orders(2).units(3).revenueCents(500).buyerSketch(wedBuyers.toBytes()).build();
+        when(mongoTemplate.find(any(Query.class), eq(SalesBucket.class))).thenReturn(List.of(tue, wed), List.of());
+        
+        int compacted = writer().compact(today, 100);
+        
+        assertThat(compacted).isEqualTo(2);
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).upsert(query.capture(), update.capture(), eq(SalesBucket.class));
+        assertThat(query.getValue().getQueryObject()).containsEntry("_id", "s1:WEEK:2026-06-01");
+        // Guarded on the sources not being folded in yet, and recorded by the same update as the $inc
+        Document unfolded = query.getValue().getQueryObject().get(SalesBucketWriter.COMPACTED_FROM, Document.class);
+        assertThat(unfolded.getList("$nin", Object.class)).containsExactly("s1:DAY:2026-06-02", "s1:DAY:2026-06-03");
+        assertThat(update.getValue().getUpdateObject().get("$addToSet", Document.class))
+                .containsKey(SalesBucketWriter.COMPACTED_FROM);
+        assertThat((Document) update.getValue().getUpdateObject().get("$inc"))
+                .containsEntry("orders", 3L).containsEntry("units", 5L).containsEntry("revenueCents", 1_500L);
+        ArgumentCaptor<HyperLogLog> merged = ArgumentCaptor.forClass(HyperLogLog.class);
+        verify(sketchStore).merge(eq(SalesBucket.class), eq("s1:WEEK:2026-06-01"), merged.capture());
+        assertThat(merged.getValue().estimate()).isEqualTo(2);
+        verify(mongoTemplate, times(2)).remove(any(Query.class), eq(SalesBucket.class));
+        verify(mongoTemplate, never()).updateFirst(any(Query.class), any(Update.class), eq(SalesBucket.class));
+    }
+    
+    @Test
+    void compact_afterCrashBeforeDelete_onlyDeletesSourcesAlreadyFoldedIn() {
+        LocalDate today = LocalDate.of(2026, 10, 19);
+        SalesBucket tue = SalesBucket.builder().id("s1:DAY:2026-06-02").sellerId("s1").granularity(BucketGranularity.DAY)
+                .bucketStart("2026-06-02").orders(1).units(2).revenueCents(1_000).build();
+        SalesBucket week = SalesBucket.builder().id("s1:WEEK:2026-06-01").compactedFrom(List.of("s1:DAY:2026-06-02")).build();
+        when(mongoTemplate.find(any(Query.class), eq(SalesBucket.class))).thenReturn(List.of(tue), List.of(week));
+        
+        int compacted = writer().compact(today, 100);
+        
+        assertThat(compacted).isEqualTo(1);
+        verify(mongoTemplate, never()).upsert(any(Query.class), any(Update.class), eq(SalesBucket.class));
+        verify(sketchStore).merge(eq(SalesBucket.class), eq("s1:WEEK:2026-06-01"), any(HyperLogLog.class));
+        verify(mongoTemplate).remove(any(Query.class), eq(SalesBucket.class));
+    }
+    
+    @Test
+    void compact_foldsASourceReCreatedAfterItsIdWasFolded() {
+        LocalDate today = LocalDate.of(2026, 10, 19);
+        // g1 was folded and deleted; a late event re-created the day as g2
+        SalesBucket week = SalesBucket.builder().id("s1:WEEK:2026-06-01")
+                .compactedFrom(List.of("s1:DAY:2026-06-02@g1")).build();
+        when(mongoTemplate.find(any(Query.class), eq(SalesBucket.class))).thenReturn(List.of(tuesday("g2")), List.of(week));
+        
+        int compacted = writer().compact(today, 100);
+        
+        assertThat(compacted).isEqualTo(1);
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).upsert(query.capture(), update.capture(), eq(SalesBucket.class));
+        assertThat((Document) update.getValue().getUpdateObject().get("$inc")).containsEntry("revenueCents", 1_000L);
+        Document unfolded = query.getValue().getQueryObject().get(SalesBucketWriter.COMPACTED_FROM, Document.class);
+        assertThat(unfolded.getList("$nin", Object.class)).containsExactly("s1:DAY:2026-06-02@g2");
+        ArgumentCaptor<Query> removed = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).remove(removed.capture(), eq(SalesBucket.class));
+        assertThat(removed.getValue().getQueryObject()).containsEntry(SalesBucketWriter.GENERATION, "g2");
+    }
+    
+    @Test
+    void compact_ofASourceWrittenWhileBeingFolded_keepsOnlyTheLaterWrites() {
+        LocalDate today = LocalDate.of(2026, 10, 19);
+        when(mongoTemplate.find(any(Query.class), eq(SalesBucket.class))).thenReturn(List.of(tuesday("g1")), List.of());
+        SalesBucketWriter writer = writer();
+        when(mongoTemplate.remove(any(Query.class), eq(SalesBucket.class))).thenReturn(DeleteResult.acknowledged(0));
+        
+        writer.compact(today, 100);
+        
+        ArgumentCaptor<Query> drained = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> remainder = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).updateFirst(drained.capture(), remainder.capture(), eq(SalesBucket.class));
+        assertThat(drained.getValue().getQueryObject()).containsEntry("_id", "s1:DAY:2026-06-02");
+        assertThat((Document) remainder.getValue().getUpdateObject().get("$inc"))
+                .containsEntry("orders", -1L).containsEntry("units", -2L).containsEntry("revenueCents", -1_000L);
+        assertThat((Document) remainder.getValue().getUpdateObject().get("$set"))
+                .containsKey(SalesBucketWriter.GENERATION).doesNotContainEntry(SalesBucketWriter.GENERATION, "g1");
+    }
+    
+    @Test
+    void compact_ofASourceFoldedByAnEarlierPass_neverTakesItsAmountsBackOut() {
+        LocalDate today = LocalDate.of(2026, 10, 19);
+        SalesBucket week = SalesBucket.builder().id("s1:WEEK:2026-06-01")
+                .compactedFrom(List.of("s1:DAY:2026-06-02@g1")).build();
+        when(mongoTemplate.find(any(Query.class), eq(SalesBucket.class))).thenReturn(List.of(tuesday("g1")), List.of(week));
+        SalesBucketWriter writer = writer();
+        when(mongoTemplate.remove(any(Query.class), eq(SalesBucket.class))).thenReturn(DeleteResult.acknowledged(0));
+        
+        writer.compact(today, 100);
+        
+        // Folded by an earlier pass, not this one: nothing of it is taken back out here
+        verify(mongoTemplate, never()).upsert(any(Query.class), any(Update.class), eq(SalesBucket.class));
+        verify(mongoTemplate, never()).updateFirst(any(Query.class), any(Update.class), eq(SalesBucket.class));
+    }
+    
+    @Test
+    void compact_keepsSources_whenAConcurrentPassFoldedThemFirst() {
+        LocalDate today = LocalDate.of(2026, 10, 19);
+        SalesBucket tue = SalesBucket.builder().id("s1:DAY:2026-06-02").sellerId("s1").granularity(BucketGranularity.DAY)
+                .bucketStart("2026-06-02").orders(1).units(2).revenueCents(1_000).build();
+        when(mongoTemplate.find(any(Query.class), eq(SalesBucket.class))).thenReturn(List.of(tue), List.of());
+        when(mongoTemplate.upsert(any(Query.class), any(Update.class), eq(SalesBucket.class)))
+                .thenThrow(new DuplicateKeyException("E11000"));
+        
+        int compacted = writer().compact(today, 100);
+        
+        assertThat(compacted).isZero();
+        verify(mongoTemplate, never()).remove(any(Query.class), eq(SalesBucket.class));
+    }
+    
+    @Test
+    void weeks_areClippedAtMonthBoundaries() {
+        // Monday 2026-06-29 .. Sunday 2026-07-05 splits into two week buckets
+        assertThat(BucketGranularity.WEEK.truncate(LocalDate.of(2026, 7, 2))).isEqualTo(LocalDate.of(2026, 7, 1));
+        assertThat(BucketGranularity.WEEK.truncate(LocalDate.of(2026, 6, 30))).isEqualTo(LocalDate.of(2026, 6, 29));
+        assertThat(BucketGranularity.WEEK.end(LocalDate.of(2026, 6, 29))).isEqualTo(LocalDate.of(2026, 7, 1));
+        assertThat(BucketGranularity.MONTH.truncate(LocalDate.of(2026, 7, 1))).isEqualTo(LocalDate.of(2026, 7, 1));
+    }
+}
@@ -0,0 +1,82 @@
+package com.buyone.orderservice.analytics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+class SpaceSavingTests {
+    
+    @Test
+    void offer_countsExactly_whileUnderCapacity() {
+        SpaceSaving sketch = new SpaceSaving(10);
+        sketch.offer("p1", "Widget", 3);
+        sketch.offer("p2", "Gadget", 1);
+        sketch.offer("p1", null, 2);
+        
+        assertThat(sketch.top(2)).containsExactly(
+                new SpaceSaving.Counter("p1", "Widget", 5, 0),
+                new SpaceSaving.Counter("p2", "Gadget", 1, 0));
+    }
+    
+    @Test
+    void offer_evictsSmallestCounter_andTracksError() {
+        SpaceSaving sketch = new SpaceSaving(2);
+        sketch.offer("p1", "a", 5);
+        sketch.offer("p2", "b", 1);
+        sketch.offer("p3", "c", 2);
+        
+        assertThat(sketch.counters()).extracting(SpaceSaving.Counter::key).containsExactlyInAnyOrder("p1", "p3");
+        assertThat(sketch.top(2).get(1)).isEqualTo(new SpaceSaving.Counter("p3", "c", 3, 1));
+    }
+    
+    @Test
+    void offer_keepsHeavyHitters_inSkewedStream() {
+        SpaceSaving sketch = new SpaceSaving(50);
+        Random random = new Random(42);
+        for (int i = 0; i < 20_000; i++) {
+            // 3 hot products among 5000 rare ones
+            String key = random.nextInt(10) < 4 ? "hot-" + random.nextInt(3) : "rare-" + random.nextInt(5_000);
+            sketch.offer(key, null, 1);
+        }
+        
+        assertThat(sketch.top(3)).extracting(SpaceSaving.Counter::key)
+                .containsExactlyInAnyOrder("hot-0", "hot-1", "hot-2");
+    }
+    
+    @Test
+    void merge_sumsSharedKeys_andKeepsCapacity() {
+        SpaceSaving a = new SpaceSaving(3);
+        a.offer("p1", "x", 4);
+        a.offer("p2", "y", 1);
+        SpaceSaving b = new SpaceSaving(3);
+        b.offer("p1", "x", 2);
+        b.offer("p3", "z", 3);
+        
+        SpaceSaving merged = a.merge(b);
+        
+        assertThat(merged.top(3)).extracting(SpaceSaving.Counter::key, SpaceSaving.Counter::count)
+                .containsExactly(
+                        tuple("p1", 6L),
+                        tuple("p3", 3L),
+                        tuple("p2", 1L));
+    }
+    
+    @Test
+    void merge_chargesFullSketchMinimum_toKeysItMayHaveEvicted() {
+        SpaceSaving full = SpaceSaving.of(2, List.of(
+                new SpaceSaving.Counter("p1", null, 10, 0),
+                new SpaceSaving.Counter("p2", null, 4, 0)));
+        SpaceSaving other = new SpaceSaving(2);
+        other.offer("p3", null, 5);
+        
+        SpaceSaving merged = full.merge(other);
+        
+        assertThat(merged.top(2)).containsExactly(
+                new SpaceSaving.Counter("p1", null, 10, 0),
+                new SpaceSaving.Counter("p3", null, 9, 4));
+    }
+}
@@ -0,0 +1,109 @@
+package com.buyone.orderservice.analytics;
+
+import com.buyone.orderservice.dto.response.analytics.TrendingProduct;
+import com.buyone.orderservice.model.analytics.TrendingSketch;
+import com.buyone.orderservice.model.order.Order;
+import com.buyone.orderservice.model.order.OrderItem;
+import com.buyone.orderservice.repository.TrendingSketchRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class TrendingTrackerTests {
+    
+    @Mock
+    private TrendingSketchRepository sketchRepository;
+    
+    @Mock
+    private MongoTemplate mongoTemplate;
+    
+    @Mock
+    private IndexOperations indexOperations;
+    
+    private TrendingTracker tracker() {
+        return new TrendingTracker(sketchRepository, mongoTemplate, "node-a", 100, 7);
+    }
+    
+    private static Order order(String productId, int quantity) {
+        return Order.builder().items(List.of(OrderItem.builder()
+                .productId(productId).productName("name-" + productId).quantity(quantity).build())).build();
+    }
+    
+    private static String today() {
+        return LocalDate.now(ZoneOffset.UTC).toString();
+    }
+    
+    @Test
+    void top_servesSnapshot_afterRefresh() {
+        TrendingTracker tracker = tracker();
+        tracker.record(order("p1", 2));
+        tracker.record(order("p2", 5));
+        
+        assertThat(tracker.top(10)).isEmpty();  // not published yet
+        tracker.refresh();
+        
+        assertThat(tracker.top(10)).extracting(TrendingProduct::productId).containsExactly("p2", "p1");
+        assertThat(tracker.top(1)).hasSize(1);
+    }
+    
+    @Test
+    void checkpoint_savesChangedDay_andMergesOtherReplicas() {
+        TrendingTracker tracker = tracker();
+        tracker.record(order("p1", 2));
+        when(sketchRepository.findByDayIn(anyCollection())).thenReturn(List.of(
+                sketch("node-b", "p1", 4),
+                sketch("node-a", "p1", 2)));  // own checkpoint: not counted twice
+        
+        tracker.checkpoint();
+        
+        ArgumentCaptor<TrendingSketch> saved = ArgumentCaptor.forClass(TrendingSketch.class);
+        verify(sketchRepository).save(saved.capture());
+        assertThat(saved.getValue().getId()).isEqualTo("node-a:" + today());
+        assertThat(saved.getValue().getCounters()).extracting(TrendingSketch.Counter::getCount).containsExactly(2L);
+        assertThat(tracker.top(1).get(0).unitsSold()).isEqualTo(6);
+        
+        tracker.checkpoint();  // nothing changed since
+        verify(sketchRepository, times(1)).save(any());
+    }
+    
+    @Test
+    void restore_reloadsOwnCheckpoints() {
+        when(mongoTemplate.indexOps(TrendingSketch.class)).thenReturn(indexOperations);
+        when(sketchRepository.findByDayIn(anyCollection())).thenReturn(List.of(
+                sketch("node-a", "p9", 7),
+                sketch("node-b", "p8", 100)));
+        TrendingTracker tracker = tracker();
+        
+        tracker.restore();
+        tracker.record(order("p9", 1));
+        tracker.refresh();
+        
+        assertThat(tracker.top(5)).extracting(TrendingProduct::productId, TrendingProduct::unitsSold)
+                .containsExactly(tuple("p9", 8L));
+    }
+    
+    private static TrendingSketch sketch(String instanceId, String productId, long count) {
+        return TrendingSketch.builder().id(TrendingSketch.key(instanceId, today())).instanceId(instanceId).day(today())
+                .capacity(100)
+                .counters(List.of(TrendingSketch.Counter.builder().productId(productId).count(count).build()))
+                .build();
+    }
+}
@@ -0,0 +1,77 @@
+package com.buyone.orderservice.config;
+
+import com.buyone.orderservice.model.order.Order;
+import com.buyone.orderservice.model.order.OrderItem;
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MongoConversionsConfigTests {
+    
+    private MappingMongoConverter converter;
+    
+    @BeforeEach
+    void setUp() {
+        MongoCustomConversions conversions = new MongoConversionsConfig().mongoCustomConversions();
+        MongoMappingContext context = new MongoMappingContext();
+        context.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+        context.afterPropertiesSet();
+        converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, context);
+        converter.setCustomConversions(conversions);
+        converter.afterPropertiesSet();
+    }
+    
+    @Test
+    void writesMoneyAsDecimal128() {
+        Order order = Order.builder()
+                .total(new BigDecimal("109.90"))
+                .items(List.of(OrderItem.builder().productId("p1").price(new BigDecimal("54.95")).quantity(2).build()))
+                .build();
+        
+        Document document = new Document();
+        converter.write(order, document);
+        
+        assertThat(document.get("total")).isEqualTo(new Decimal128(new BigDecimal("109.90")));
+        Document item = document.getList("items", Document.class).get(0);
+        assertThat(item.get("price")).isEqualTo(new Decimal128(new BigDecimal("54.95")));
+    }
+    
+    @Test
+    void writesMoneyBeyondDecimal128PrecisionRounded() {
+        Order order = Order.builder()
+                .total(new BigDecimal("1234567890.12345678901234567890123456789"))  // 39 digits
+                .subtotal(new BigDecimal("1E-7000"))
+                .build();
+        
+        Document document = new Document();
+        converter.write(order, document);
+        
+        assertThat(document.get("total", Decimal128.class).bigDecimalValue())
+                .isEqualTo(new BigDecimal("1234567890.123456789012345678901235"));
+        assertThat(document.get("subtotal", Decimal128.class).bigDecimalValue()).isEqualByComparingTo("0");
+    }
+    
+    @Test
+    void readsDecimal128AndLegacyStringMoney() {
+        Document document = new Document("total", new Decimal128(new BigDecimal("109.90")))
+                .append("subtotal", "99.90")  // not migrated yet
+                .append("items", List.of(new Document("productId", "p1").append("price", "54.95").append("quantity", 2)));
+        
+        Order order = converter.read(Order.class, document);
+        
+        assertThat(order.getTotal()).isEqualByComparingTo("109.90");
+        assertThat(order.getTotal().scale()).isEqualTo(2);
+        assertThat(order.getSubtotal()).isEqualByComparingTo("99.90");
+        assertThat(order.getItems().get(0).getPrice()).isEqualByComparingTo("54.95");
+    }
+}
@@ -0,0 +1,38 @@
+package com.buyone.orderservice.config;
+
+import com.buyone.orderservice.model.analytics.SalesBucket;
+import com.buyone.orderservice.model.analytics.TrendingSketch;
+import com.buyone.orderservice.repository.index.RequiredIndex;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+class MongoIndexConfigTests {
+    
+    @Test
+    void requiredIndexes_coverEntitiesAndCollectionsIndexedInCode() {
+        MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+        MongoMappingContext context = new MongoMappingContext();
+        context.setSimpleTypeHolder(new MongoConversionsConfig().mongoCustomConversions().getSimpleTypeHolder());
+        when(mongoTemplate.getConverter()).thenReturn(new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, context));
+        when(mongoTemplate.getCollectionName(SalesBucket.class)).thenReturn("sales_buckets");
+        when(mongoTemplate.getCollectionName(TrendingSketch.class)).thenReturn("trending_sketches");
+        
+        List<RequiredIndex> required = MongoIndexConfig.requiredIndexes(mongoTemplate);
+        
+        assertThat(required).extracting(RequiredIndex::toString).contains(
+                "orders.userId", "orders.sellers_status_created_idx", "orders.status_updated_id_idx", "carts.updatedAt",
+                "orders_archive.orderNumber", "orders_archive.userId", "orders_archive.sellerIds",
+                "sales_buckets.seller_bucketStart", "sales_buckets.granularity_bucketStart",
+                "trending_sketches.day", "trending_sketches.trending_sketch_ttl");
+        // Expiry is configurable, so the empty-cart TTL index stays with CartCompactionListener
+        assertThat(required).extracting(RequiredIndex::name).doesNotContain("empty_cart_ttl");
+    }
+}
@@ -2,7 +2,9 @@ package com.buyone.orderservice.controller;
 
 import com.buyone.orderservice.config.SecurityConfig;
 import com.buyone.orderservice.dto.response.analytics.*;
+import com.buyone.orderservice.exception.BadRequestException;
 import com.buyone.orderservice.exception.GlobalExceptionHandler;
+import com.buyone.orderservice.model.analytics.BucketGranularity;
 import com.buyone.orderservice.service.ProfileAnalyticsService;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -12,6 +14,7 @@ import org.springframework.context.annotation.Import;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.util.List;
 
 import static org.mockito.Mockito.when;
@@ -50,7 +53,9 @@ class AnalyticsControllerTests {
                 BigDecimal.valueOf(1000),
                 List.of(new SellerBestProduct("p1", "Widget", BigDecimal.valueOf(500), 50, "Electronics")),
                 100,
-                List.of(new SellerTopCategory("Electronics", BigDecimal.valueOf(1000)))
+                List.of(new SellerTopCategory("Electronics", BigDecimal.valueOf(1000))),
+                42L,
+                0.008
         );
         when(profileAnalyticsService.getSellerAnalytics("seller-1")).thenReturn(analytics);
         
@@ -58,6 +63,44 @@ class AnalyticsControllerTests {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.success").value(true))
                 .andExpect(jsonPath("$.data.totalRevenue").value(1000))
-                .andExpect(jsonPath("$.data.totalUnitsSold").value(100));
+                .andExpect(jsonPath("$.data.totalUnitsSold").value(100))
+                .andExpect(jsonPath("$.data.uniqueBuyers").value(42));
+    }
+    
+    @Test
+    void getSellerTimeseries_returns200_withPoints() throws Exception {
+        SalesTimeseriesResponse timeseries = new SalesTimeseriesResponse("seller-1", BucketGranularity.DAY,
+                LocalDate.of(2026, 6, 1), LocalDate.of(2026, 6, 2),
+                List.of(new SalesTimeseriesPoint(LocalDate.of(2026, 6, 1), BucketGranularity.DAY, 2, 3, 2,
+                        new BigDecimal("15.50"))),
+                2, 0.008);
+        when(profileAnalyticsService.getSellerTimeseries("seller-1", "day", "2026-06-01", "2026-06-02"))
+                .thenReturn(timeseries);
+        
+        mockMvc.perform(get("/api/analytics/seller/seller-1/timeseries")
+                        .param("from", "2026-06-01").param("to", "2026-06-02"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.points[0].bucketStart").value("2026-06-01"))
+                .andExpect(jsonPath("$.data.points[0].revenue").value(15.50));
+    }
+    
+    @Test
+    void getSellerTimeseries_returns400_forBadGranularity() throws Exception {
+        when(profileAnalyticsService.getSellerTimeseries("seller-1", "hour", null, null))
+                .thenThrow(new BadRequestException("Invalid granularity: hour"));
+        
+        mockMvc.perform(get("/api/analytics/seller/seller-1/timeseries").param("granularity", "hour"))
+                .andExpect(status().isBadRequest());
+    }
+    
+    @Test
+    void getTrending_returns200_withDefaultLimit() throws Exception {
+        when(profileAnalyticsService.getTrending(10))
+                .thenReturn(List.of(new TrendingProduct("p1", "Widget", 42, 0)));
+        
+        mockMvc.perform(get("/api/analytics/trending"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data[0].productId").value("p1"))
+                .andExpect(jsonPath("$.data[0].unitsSold").value(42));
     }
 }
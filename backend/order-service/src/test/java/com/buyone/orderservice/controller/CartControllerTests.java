@@ -1,10 +1,13 @@
 package com.buyone.orderservice.controller;
 
 import com.buyone.orderservice.config.SecurityConfig;
+import com.buyone.orderservice.dto.response.cart.BulkAddCartItemsResponse;
+import com.buyone.orderservice.dto.response.cart.BulkCartItemResult;
 import com.buyone.orderservice.exception.BadRequestException;
 import com.buyone.orderservice.exception.GlobalExceptionHandler;
 import com.buyone.orderservice.model.cart.Cart;
 import com.buyone.orderservice.model.cart.CartItem;
+import com.buyone.orderservice.model.cart.CartItemChange;
 import com.buyone.orderservice.service.CartService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
@@ -22,6 +25,8 @@ import java.util.Optional;
 
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -120,6 +125,63 @@ class CartControllerTests {
                 .andExpect(status().isBadRequest());
     }
     
+    // ========== POST /api/cart/items/bulk ==========
+    
+    @Test
+    void addItems_reportsPartialFailure() throws Exception {
+        BulkAddCartItemsResponse result = BulkAddCartItemsResponse.builder()
+                .added(1).failed(1).cart(buildCart())
+                .results(List.of(
+                        BulkCartItemResult.builder().productId("p1").success(true).build(),
+                        BulkCartItemResult.builder().productId("p2").success(false)
+                                .message("Insufficient stock: 5 requested, 1 available").build()))
+                .build();
+        when(cartService.addItems(eq("user-1"), anyList())).thenReturn(result);
+        
+        String body = """
+            {
+                "items": [
+                    {"productId": "p1", "sellerId": "seller-1", "quantity": 2},
+                    {"productId": "p2", "sellerId": "seller-1", "quantity": 5}
+                ]
+            }
+            """;
+        
+        mockMvc.perform(post("/api/cart/items/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body)
+                        .header("X-USER-ID", "user-1")
+                        .header("X-USER-ROLE", "CLIENT"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.success").value(false))
+                .andExpect(jsonPath("$.message").value("1 added, 1 failed"))
+                .andExpect(jsonPath("$.data.results[1].message").value("Insufficient stock: 5 requested, 1 available"));
+    }
+    
+    @Test
+    void addItems_returns400_whenItemsEmpty() throws Exception {
+        mockMvc.perform(post("/api/cart/items/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"items\": []}")
+                        .header("X-USER-ID", "user-1")
+                        .header("X-USER-ROLE", "CLIENT"))
+                .andExpect(status().isBadRequest());
+    }
+    
+    @Test
+    void addItems_returns400_whenNotClient() throws Exception {
+        String body = """
+            {"items": [{"productId": "p1", "sellerId": "seller-1", "quantity": 1}]}
+            """;
+        
+        mockMvc.perform(post("/api/cart/items/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body)
+                        .header("X-USER-ID", "user-1")
+                        .header("X-USER-ROLE", "SELLER"))
+                .andExpect(status().isBadRequest());
+    }
+    
     // ========== GET /api/cart ==========
     
     @Test
@@ -145,6 +207,24 @@ class CartControllerTests {
                 .andExpect(jsonPath("$.message").value("Cart is empty"));
     }
     
+    @Test
+    void getCart_revalidates_whenRequested() throws Exception {
+        Cart cart = buildCart();
+        cart.setChanges(List.of(CartItemChange.builder()
+                .productId("p1").previousPrice(BigDecimal.TEN).currentPrice(BigDecimal.ONE)
+                .priceChanged(true).build()));
+        when(cartService.revalidateCart("user-1")).thenReturn(Optional.of(cart));
+        
+        mockMvc.perform(get("/api/cart")
+                        .param("revalidate", "true")
+                        .header("X-USER-ID", "user-1")
+                        .header("X-USER-ROLE", "CLIENT"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.changes[0].productId").value("p1"))
+                .andExpect(jsonPath("$.data.changes[0].priceChanged").value(true));
+        verify(cartService, never()).getCart(anyString());
+    }
+    
     // ========== PUT /api/cart/items/{productId}/quantity/{quantity} ==========
     
     @Test
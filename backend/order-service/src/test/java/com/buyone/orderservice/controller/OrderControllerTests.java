@@ -1,6 +1,11 @@
 package com.buyone.orderservice.controller;
 
 import com.buyone.orderservice.config.SecurityConfig;
+import com.buyone.orderservice.dto.request.order.ExportFormat;
+import com.buyone.orderservice.dto.response.order.BulkOrderStatusResponse;
+import com.buyone.orderservice.dto.response.order.BulkOrderStatusResult;
+import com.buyone.orderservice.dto.response.order.OrderSummaryResponse;
+import com.buyone.orderservice.dto.response.CursorPage;
 import com.buyone.orderservice.exception.BadRequestException;
 import com.buyone.orderservice.exception.GlobalExceptionHandler;
 import com.buyone.orderservice.exception.ResourceNotFoundException;
@@ -20,6 +25,7 @@ import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -182,6 +188,28 @@ class OrderControllerTests {
                 .andExpect(status().isBadRequest());
     }
     
+    @Test
+    void getBuyerOrderHistory_returnsCursorPage_whenLimitGiven() throws Exception {
+        OrderSummaryResponse row = new OrderSummaryResponse("65f000000000000000000001", "ORD-001",
+                OrderStatus.SHIPPED, BigDecimal.TEN, 3, "img.jpg", LocalDateTime.of(2025, 1, 1, 0, 0));
+        when(orderService.getBuyerOrderHistory("user-1", "abc", 20))
+                .thenReturn(CursorPage.<OrderSummaryResponse>builder()
+                        .items(List.of(row)).nextCursor("next").hasNext(true).build());
+        
+        mockMvc.perform(get("/api/orders/buyer")
+                        .param("limit", "20")
+                        .param("cursor", "abc")
+                        .header("X-USER-ID", "user-1")
+                        .header("X-USER-ROLE", "CLIENT"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.items[0].orderNumber").value("ORD-001"))
+                .andExpect(jsonPath("$.data.items[0].itemCount").value(3))
+                .andExpect(jsonPath("$.data.items[0].id").doesNotExist())
+                .andExpect(jsonPath("$.data.items[0].shippingAddress").doesNotExist())
+                .andExpect(jsonPath("$.data.nextCursor").value("next"))
+                .andExpect(jsonPath("$.data.hasNext").value(true));
+    }
+    
     // ========== GET /api/orders/{orderNumber} ==========
     
     @Test
@@ -228,6 +256,43 @@ class OrderControllerTests {
                 .andExpect(status().isBadRequest());
     }
     
+    // ========== PUT /api/orders/status/bulk ==========
+    
+    @Test
+    void bulkUpdateStatus_returns200_withPerOrderResults() throws Exception {
+        BulkOrderStatusResponse response = BulkOrderStatusResponse.builder()
+                .updated(1).failed(1)
+                .results(List.of(
+                        BulkOrderStatusResult.builder().orderNumber("ORD-001").success(true)
+                                .previousStatus(OrderStatus.CONFIRMED).status(OrderStatus.SHIPPED).build(),
+                        BulkOrderStatusResult.builder().orderNumber("ORD-404").success(false)
+                                .message("Order not found").build()))
+                .build();
+        when(orderService.bulkUpdateStatus("seller-1", List.of("ORD-001", "ORD-404"), OrderStatus.SHIPPED))
+                .thenReturn(response);
+        
+        mockMvc.perform(put("/api/orders/status/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"orderNumbers\": [\"ORD-001\", \"ORD-404\"], \"status\": \"SHIPPED\"}")
+                        .header("X-USER-ID", "seller-1")
+                        .header("X-USER-ROLE", "SELLER"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.success").value(false))
+                .andExpect(jsonPath("$.data.updated").value(1))
+                .andExpect(jsonPath("$.data.results", hasSize(2)))
+                .andExpect(jsonPath("$.data.results[1].message").value("Order not found"));
+    }
+    
+    @Test
+    void bulkUpdateStatus_returns400_whenOrderNumbersEmpty() throws Exception {
+        mockMvc.perform(put("/api/orders/status/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"orderNumbers\": [], \"status\": \"SHIPPED\"}")
+                        .header("X-USER-ID", "seller-1")
+                        .header("X-USER-ROLE", "SELLER"))
+                .andExpect(status().isBadRequest());
+    }
+    
     // ========== POST /api/orders/{orderNumber}/confirm ==========
     
     @Test
@@ -287,6 +352,35 @@ class OrderControllerTests {
                 .andExpect(jsonPath("$.data.orderNumber").value("ORD-002"));
     }
     
+    // ========== GET /api/orders/seller/export ==========
+    
+    @Test
+    void exportSellerOrders_streamsCsvAttachment() throws Exception {
+        when(orderService.exportSellerOrders("seller-1", "SHIPPED", null, null, ExportFormat.CSV))
+                .thenReturn(out -> out.write("orderNumber\nORD-1\n".getBytes()));
+        
+        MvcResult result = mockMvc.perform(get("/api/orders/seller/export")
+                        .param("status", "SHIPPED")
+                        .header("X-USER-ID", "seller-1")
+                        .header("X-USER-ROLE", "SELLER"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Disposition", containsString("orders-seller-1.csv")))
+                .andExpect(content().contentTypeCompatibleWith("text/csv"))
+                .andExpect(content().string("orderNumber\nORD-1\n"));
+    }
+    
+    @Test
+    void exportSellerOrders_returns400_whenClientRole() throws Exception {
+        mockMvc.perform(get("/api/orders/seller/export")
+                        .header("X-USER-ID", "user-1")
+                        .header("X-USER-ROLE", "CLIENT"))
+                .andExpect(status().isBadRequest());
+    }
+    
     // ========== GET /api/orders/seller ==========
     
     @Test
@@ -0,0 +1,47 @@
+package com.buyone.orderservice.dto.request.cart;
+
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BulkAddCartItemsRequestTests {
+
+    private final Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+
+    private static AddCartItemRequest item(String productId, int quantity) {
+        return AddCartItemRequest.builder().productId(productId).sellerId("seller-1").quantity(quantity).build();
+    }
+
+    @Test
+    void testBuilder() {
+        BulkAddCartItemsRequest request = BulkAddCartItemsRequest.builder()
+                .items(List.of(item("prod-1", 2)))
+                .build();
+
+        assertEquals(1, request.getItems().size());
+        assertTrue(validator.validate(request).isEmpty());
+    }
+
+    @Test
+    void testValidation_rejectsOversizedBatch() {
+        BulkAddCartItemsRequest request = BulkAddCartItemsRequest.builder()
+                .items(Collections.nCopies(51, item("prod-1", 1)))
+                .build();
+
+        assertEquals(1, validator.validate(request).size());
+    }
+
+    @Test
+    void testValidation_cascadesToItems() {
+        BulkAddCartItemsRequest request = BulkAddCartItemsRequest.builder()
+                .items(List.of(item("", 0)))
+                .build();
+
+        assertEquals(2, validator.validate(request).size());
+    }
+}
@@ -0,0 +1,37 @@
+package com.buyone.orderservice.dto.request.order;
+
+import com.buyone.orderservice.model.order.OrderStatus;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BulkUpdateOrderStatusRequestTests {
+
+    private final Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+
+    @Test
+    void testBuilder() {
+        BulkUpdateOrderStatusRequest request = BulkUpdateOrderStatusRequest.builder()
+                .orderNumbers(List.of("ORD-1"))
+                .status(OrderStatus.SHIPPED)
+                .build();
+
+        assertEquals(List.of("ORD-1"), request.getOrderNumbers());
+        assertEquals(OrderStatus.SHIPPED, request.getStatus());
+        assertTrue(validator.validate(request).isEmpty());
+    }
+
+    @Test
+    void testValidation_rejectsMissingStatusAndOversizedBatch() {
+        BulkUpdateOrderStatusRequest request = BulkUpdateOrderStatusRequest.builder()
+                .orderNumbers(Collections.nCopies(501, "ORD-1"))
+                .build();
+
+        assertEquals(2, validator.validate(request).size());
+    }
+}
@@ -148,6 +148,16 @@ class GlobalExceptionHandlerTests {
         assertEquals("Resource already exists", response.getBody().message());
     }
 
+    @Test
+    void testHandleServiceUnavailable() {
+        ServiceUnavailableException ex = new ServiceUnavailableException("Analytics took too long");
+
+        ResponseEntity<ErrorResponse> response = handler.handleServiceUnavailable(ex);
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode());
+        assertEquals("Analytics took too long", response.getBody().message());
+    }
+
     @Test
     void testHandleIllegalArgument() {
         IllegalArgumentException ex = new IllegalArgumentException("Invalid argument");
@@ -0,0 +1,53 @@
+package com.buyone.orderservice.exception;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ServiceUnavailableExceptionTests {
+
+    @Test
+    void testServiceUnavailableExceptionNoArgs() {
+        ServiceUnavailableException ex = new ServiceUnavailableException();
+        assertNull(ex.getMessage());
+        assertNull(ex.getCause());
+    }
+
+    @Test
+    void testServiceUnavailableExceptionWithMessage() {
+        ServiceUnavailableException ex = new ServiceUnavailableException("Service unavailable message");
+        assertEquals("Service unavailable message", ex.getMessage());
+        assertNull(ex.getCause());
+    }
+
+    @Test
+    void testServiceUnavailableExceptionWithMessageAndCause() {
+        Throwable cause = new RuntimeException("Root cause");
+        ServiceUnavailableException ex = new ServiceUnavailableException("Service unavailable", cause);
+        
+        assertEquals("Service unavailable", ex.getMessage());
+        assertEquals(cause, ex.getCause());
+    }
+
+    @Test
+    void testServiceUnavailableExceptionWithCause() {
+        Throwable cause = new RuntimeException("Root cause");
+        ServiceUnavailableException ex = new ServiceUnavailableException(cause);
+        
+        assertEquals(cause, ex.getCause());
+        assertTrue(ex.getMessage().contains("Root cause"));
+    }
+
+    @Test
+    void testServiceUnavailableExceptionIsRuntimeException() {
+        ServiceUnavailableException ex = new ServiceUnavailableException("Test");
+        assertTrue(ex instanceof RuntimeException);
+    }
+
+    @Test
+    void testServiceUnavailableExceptionThrowAndCatch() {
+        assertThrows(ServiceUnavailableException.class, () -> {
+            throw new ServiceUnavailableException("Test exception");
+        });
+    }
+}
@@ -0,0 +1,84 @@
+package com.buyone.orderservice.listener;
+
+import com.buyone.orderservice.analytics.AnalyticsRollupWriter;
+import com.buyone.orderservice.analytics.AnalyticsUpdateExecutor;
+import com.buyone.orderservice.event.OrderStatusChangedEvent;
+import com.buyone.orderservice.model.order.Order;
+import com.buyone.orderservice.model.order.OrderStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AnalyticsRollupListenerTests {
+    
+    @Mock
+    private AnalyticsRollupWriter rollupWriter;
+    
+    @Mock
+    private AnalyticsUpdateExecutor updateExecutor;
+    
+    @InjectMocks
+    private AnalyticsRollupListener listener;
+    
+    private final Order order = Order.builder().orderNumber("ORD-1").build();
+    
+    @BeforeEach
+    void runUpdatesInline() {
+        lenient().doAnswer(i -> {
+            i.<Runnable>getArgument(1).run();
+            return null;
+        }).when(updateExecutor).execute(anyString(), any(Runnable.class));
+    }
+    
+    @Test
+    void onOrderStatusChanged_leavesTheWriteToTheUpdateExecutor() {
+        reset(updateExecutor);
+        
+        listener.onOrderStatusChanged(new OrderStatusChangedEvent(order, OrderStatus.PENDING, OrderStatus.CONFIRMED));
+        
+        verify(updateExecutor).execute(eq("rollup"), any(Runnable.class));
+        verifyNoInteractions(rollupWriter);
+    }
+    
+    @Test
+    void onOrderStatusChanged_addsContribution_whenOrderIsConfirmed() {
+        listener.onOrderStatusChanged(new OrderStatusChangedEvent(order, OrderStatus.PENDING, OrderStatus.CONFIRMED));
+        
+        verify(rollupWriter).apply(order, 1);
+    }
+    
+    @Test
+    void onOrderStatusChanged_subtractsContribution_whenCountedOrderIsCancelled() {
+        listener.onOrderStatusChanged(new OrderStatusChangedEvent(order, OrderStatus.SHIPPED, OrderStatus.CANCELLED));
+        
+        verify(rollupWriter).apply(order, -1);
+    }
+    
+    @Test
+    void onOrderStatusChanged_ignoresMovesWithinOrOutsideCountedStatuses() {
+        listener.onOrderStatusChanged(new OrderStatusChangedEvent(order, OrderStatus.CONFIRMED, OrderStatus.SHIPPED));
+        listener.onOrderStatusChanged(new OrderStatusChangedEvent(order, null, OrderStatus.PENDING));
+        listener.onOrderStatusChanged(new OrderStatusChangedEvent(order, OrderStatus.PENDING, OrderStatus.CANCELLED));
+        
+        verify(rollupWriter, never()).apply(any(), anyInt());
+    }
+    
+    @Test
+    void onOrderStatusChanged_swallowsWriterFailures() {
+        doThrow(new RuntimeException("mongo down")).when(rollupWriter).apply(order, 1);
+        
+        listener.onOrderStatusChanged(new OrderStatusChangedEvent(order, OrderStatus.PENDING, OrderStatus.DELIVERED));
+        
+        verify(rollupWriter).apply(order, 1);
+    }
+}
@@ -0,0 +1,80 @@
+package com.buyone.orderservice.listener;
+
+import com.buyone.orderservice.model.cart.Cart;
+import com.mongodb.client.result.UpdateResult;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class CartCompactionListenerTests {
+    
+    @Mock
+    private MongoTemplate mongoTemplate;
+    
+    @Mock
+    private IndexOperations indexOperations;
+    
+    @InjectMocks
+    private CartCompactionListener listener;
+    
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(listener, "staleAfterDays", 30);
+        ReflectionTestUtils.setField(listener, "emptyTtlDays", 7);
+        when(mongoTemplate.indexOps(Cart.class)).thenReturn(indexOperations);
+        when(mongoTemplate.updateMulti(any(Query.class), any(Update.class), eq(Cart.class)))
+                .thenReturn(UpdateResult.acknowledged(3, 3L, null));
+    }
+    
+    @Test
+    void compactStaleCarts_stripsDisplayFieldsFromIdleCarts() {
+        listener.compactStaleCarts();
+        
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).updateMulti(query.capture(), update.capture(), eq(Cart.class));
+        
+        Document filter = query.getValue().getQueryObject();
+        assertThat((Document) filter.get("updatedAt")).containsKey("$lt");
+        assertThat((Document) filter.get("items.productName")).containsEntry("$exists", true);
+        Document updateObject = update.getValue().getUpdateObject();
+        assertThat((Document) updateObject.get("$unset"))
+                .containsOnlyKeys("items.$[].productName", "items.$[].imageUrl");
+        assertThat((Document) updateObject.get("$inc")).containsEntry("version", 1);
+    }
+    
+    @Test
+    void compactStaleCarts_ensuresTtlIndexOnce() {
+        listener.compactStaleCarts();
+        listener.compactStaleCarts();
+        
+        ArgumentCaptor<Index> indexes = ArgumentCaptor.forClass(Index.class);
+        verify(indexOperations, times(2)).ensureIndex(indexes.capture());
+        List<Document> options = indexes.getAllValues().stream().map(Index::getIndexOptions).toList();
+        assertThat(options).anySatisfy(o -> {
+            assertThat(o).containsEntry("name", CartCompactionListener.EMPTY_CART_TTL_INDEX);
+            assertThat(o).containsEntry("expireAfterSeconds", 7L * 24 * 3600);
+        });
+    }
+}
@@ -0,0 +1,106 @@
+package com.buyone.orderservice.listener;
+
+import com.mongodb.client.result.DeleteResult;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Date;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class OrderArchiveListenerTests {
+    
+    @Mock
+    private MongoTemplate mongoTemplate;
+    
+    @Mock
+    private BulkOperations bulkOperations;
+    
+    @InjectMocks
+    private OrderArchiveListener listener;
+    
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(listener, "minAgeDays", 180);
+        ReflectionTestUtils.setField(listener, "batchSize", 2);
+        ReflectionTestUtils.setField(listener, "maxBatchesPerRun", 5);
+        ReflectionTestUtils.setField(listener, "throttleMs", 0L);
+        when(mongoTemplate.bulkOps(any(BulkOperations.BulkMode.class), eq("orders_archive")))
+                .thenReturn(bulkOperations);
+        when(mongoTemplate.remove(any(Query.class), eq("orders")))
+                .thenAnswer(i -> DeleteResult.acknowledged(2));
+    }
+    
+    private Document order() {
+        return new Document("_id", new ObjectId()).append("status", "DELIVERED");
+    }
+    
+    @Test
+    void archiveTerminalOrders_copiesThenDeletes_andClearsCheckpointWhenDone() {
+        when(mongoTemplate.find(any(Query.class), eq(Document.class), eq("orders")))
+                .thenReturn(List.of(order(), order()))
+                .thenReturn(List.of(order()));
+        
+        listener.archiveTerminalOrders();
+        
+        verify(bulkOperations, times(3)).replaceOne(any(Query.class), any(Document.class),
+                any(FindAndReplaceOptions.class));
+        verify(bulkOperations, times(2)).execute();
+        verify(mongoTemplate, times(2)).remove(any(Query.class), eq("orders"));
+        verify(mongoTemplate).upsert(any(Query.class), any(UpdateDefinition.class), eq("archive_checkpoints"));
+        verify(mongoTemplate).remove(any(Query.class), eq("archive_checkpoints"));
+        // Indexes are the IndexRegistry's job, not the scheduled pass's
+        verify(mongoTemplate, never()).indexOps(anyString());
+    }
+    
+    @Test
+    void archiveTerminalOrders_resumesFromCheckpoint() {
+        ObjectId lastId = new ObjectId();
+        when(mongoTemplate.findById("orders", Document.class, "archive_checkpoints"))
+                .thenReturn(new Document("_id", "orders").append("lastId", lastId));
+        when(mongoTemplate.find(any(Query.class), eq(Document.class), eq("orders")))
+                .thenReturn(List.of());
+        
+        listener.archiveTerminalOrders();
+        
+        ArgumentCaptor<Query> captor = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).find(captor.capture(), eq(Document.class), eq("orders"));
+        Document idFilter = (Document) captor.getValue().getQueryObject().get("_id");
+        assertThat(idFilter.get("$gt")).isEqualTo(lastId);
+        verifyNoInteractions(bulkOperations);
+    }
+    
+    @Test
+    void batchQuery_filtersTerminalStatusesOlderThanCutoff() {
+        Date cutoff = new Date();
+        
+        Query query = listener.batchQuery(cutoff, null);
+        
+        Document q = query.getQueryObject();
+        assertThat(((Document) q.get("status")).get("$in"))
+                .asList().containsExactlyInAnyOrder("DELIVERED", "CANCELLED");
+        assertThat(((Document) q.get("updatedAt")).get("$lt")).isEqualTo(cutoff);
+        assertThat(q).doesNotContainKey("_id");
+        assertThat(query.getLimit()).isEqualTo(2);
+    }
+}
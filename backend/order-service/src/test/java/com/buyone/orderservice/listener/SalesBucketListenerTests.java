@@ -0,0 +1,74 @@
+package com.buyone.orderservice.listener;
+
+import com.buyone.orderservice.analytics.AnalyticsUpdateExecutor;
+import com.buyone.orderservice.analytics.SalesBucketWriter;
+import com.buyone.orderservice.event.OrderStatusChangedEvent;
+import com.buyone.orderservice.model.order.Order;
+import com.buyone.orderservice.model.order.OrderStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SalesBucketListenerTests {
+    
+    @Mock
+    private SalesBucketWriter bucketWriter;
+    
+    @Mock
+    private AnalyticsUpdateExecutor updateExecutor;
+    
+    @InjectMocks
+    private SalesBucketListener listener;
+    
+    private final Order order = Order.builder().orderNumber("ORD-1").build();
+    
+    @BeforeEach
+    void runUpdatesInline() {
+        lenient().doAnswer(i -> {
+            i.<Runnable>getArgument(1).run();
+            return null;
+        }).when(updateExecutor).execute(anyString(), any(Runnable.class));
+    }
+    
+    @Test
+    void onOrderStatusChanged_leavesTheWriteToTheUpdateExecutor() {
+        reset(updateExecutor);
+        
+        listener.onOrderStatusChanged(new OrderStatusChangedEvent(order, OrderStatus.PENDING, OrderStatus.CONFIRMED));
+        
+        verify(updateExecutor).execute(eq("sales-bucket"), any(Runnable.class));
+        verifyNoInteractions(bucketWriter);
+    }
+    
+    @Test
+    void onOrderStatusChanged_appliesEntryAndExitOfCountedStatuses() {
+        listener.onOrderStatusChanged(new OrderStatusChangedEvent(order, OrderStatus.PENDING, OrderStatus.CONFIRMED));
+        listener.onOrderStatusChanged(new OrderStatusChangedEvent(order, OrderStatus.CONFIRMED, OrderStatus.SHIPPED));
+        listener.onOrderStatusChanged(new OrderStatusChangedEvent(order, OrderStatus.SHIPPED, OrderStatus.CANCELLED));
+        
+        verify(bucketWriter).apply(order, 1);
+        verify(bucketWriter).apply(order, -1);
+        verify(bucketWriter, times(2)).apply(any(), anyInt());
+    }
+    
+    @Test
+    void compactAgedBuckets_ensuresIndexesOnce() {
+        listener.compactAgedBuckets();
+        listener.compactAgedBuckets();
+        
+        verify(bucketWriter, times(1)).ensureIndexes();
+        verify(bucketWriter, times(2)).compact(any(LocalDate.class), anyInt());
+    }
+}
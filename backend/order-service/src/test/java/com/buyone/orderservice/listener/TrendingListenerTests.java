@@ -0,0 +1,44 @@
+package com.buyone.orderservice.listener;
+
+import com.buyone.orderservice.analytics.TrendingTracker;
+import com.buyone.orderservice.event.OrderStatusChangedEvent;
+import com.buyone.orderservice.model.order.Order;
+import com.buyone.orderservice.model.order.OrderStatus;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TrendingListenerTests {
+    
+    @Mock
+    private TrendingTracker trendingTracker;
+    
+    @InjectMocks
+    private TrendingListener listener;
+    
+    private final Order order = Order.builder().orderNumber("ORD-1").build();
+    
+    @Test
+    void onOrderStatusChanged_recordsOnlyOnConfirmation() {
+        listener.onOrderStatusChanged(new OrderStatusChangedEvent(order, OrderStatus.PENDING, OrderStatus.CONFIRMED));
+        listener.onOrderStatusChanged(new OrderStatusChangedEvent(order, OrderStatus.CONFIRMED, OrderStatus.DELIVERED));
+        listener.onOrderStatusChanged(new OrderStatusChangedEvent(order, OrderStatus.DELIVERED, OrderStatus.CANCELLED));
+        
+        verify(trendingTracker, times(1)).record(any());
+    }
+    
+    @Test
+    void checkpoint_swallowsFailures() {
+        doThrow(new RuntimeException("mongo down")).when(trendingTracker).checkpoint();
+        
+        listener.checkpoint();
+        
+        verify(trendingTracker).checkpoint();
+    }
+}
@@ -0,0 +1,51 @@
+package com.buyone.orderservice.migration;
+
+import com.buyone.orderservice.analytics.AnalyticsRollupWriter;
+import com.buyone.orderservice.repository.AnalyticsRollupRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.DefaultApplicationArguments;
+
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AnalyticsRollupBackfillTests {
+    
+    @Mock
+    private AnalyticsRollupRepository rollupRepository;
+    
+    @Mock
+    private AnalyticsRollupWriter rollupWriter;
+    
+    @InjectMocks
+    private AnalyticsRollupBackfill backfill;
+    
+    @Test
+    void run_rebuilds_whenCollectionIsEmpty() {
+        when(rollupRepository.count()).thenReturn(0L);
+        
+        backfill.run(new DefaultApplicationArguments());
+        
+        verify(rollupWriter).rebuild();
+    }
+    
+    @Test
+    void run_skips_whenRollupsExist() {
+        when(rollupRepository.count()).thenReturn(12L);
+        
+        backfill.run(new DefaultApplicationArguments());
+        
+        verify(rollupWriter, never()).rebuild();
+    }
+    
+    @Test
+    void run_rebuilds_whenForcedByOption() {
+        backfill.run(new DefaultApplicationArguments("--" + AnalyticsRollupBackfill.REBUILD_OPTION));
+        
+        verify(rollupWriter).rebuild();
+        verify(rollupRepository, never()).count();
+    }
+}
@@ -0,0 +1,150 @@
+package com.buyone.orderservice.migration;
+
+import com.buyone.orderservice.repository.OrderRepository;
+import com.mongodb.client.result.UpdateResult;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+import org.springframework.data.mongodb.repository.Aggregation;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.buyone.orderservice.repository.OrderRepositoryCustomImpl.ARCHIVE_COLLECTION;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DecimalMoneyMigrationTests {
+    
+    @Mock
+    private MongoTemplate mongoTemplate;
+    
+    @InjectMocks
+    private DecimalMoneyMigration migration;
+    
+    @Test
+    void migrate_convertsBatchesInIdOrderUntilNoStringMoneyIsLeft() {
+        pending("orders", List.of("o1", "o2"), List.of("o3"), List.of());
+        when(mongoTemplate.updateMulti(any(Query.class), any(UpdateDefinition.class), eq("orders")))
+                .thenReturn(UpdateResult.acknowledged(2, 2L, null))
+                .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+        
+        long converted = migration.migrate("orders", List.of("total"));
+        
+        assertThat(converted).isEqualTo(3);
+        List<Query> pending = pendingQueries("orders");
+        assertThat(pending).hasSize(3);
+        assertThat(pending.get(0).getLimit()).isEqualTo(DecimalMoneyMigration.BATCH_SIZE);
+        assertThat(pending.get(0).getSortObject()).isEqualTo(new Document("_id", 1));
+        assertThat(pending.get(0).getQueryObject().toJson()).contains("\"total\"", "\"items.price\"", "\"$type\": 2")
+                .doesNotContain("$gt");
+        assertThat(pending.get(1).getQueryObject().get("_id")).isEqualTo(new Document("$gt", "o2"));
+        assertThat(pending.get(2).getQueryObject().get("_id")).isEqualTo(new Document("$gt", "o3"));
+        
+        ArgumentCaptor<Query> batch = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate, times(2)).updateMulti(batch.capture(), any(UpdateDefinition.class), eq("orders"));
+        assertThat(batch.getAllValues().get(0).getQueryObject().get("_id", Document.class).get("$in"))
+                .isEqualTo(List.of("o1", "o2"));
+    }
+    
+    @Test
+    void migrate_movesPastDocumentsWhoseMoneyIsNotANumber() {
+        pending("carts", List.of("c1", "c2"), List.of());
+        when(mongoTemplate.find(argThat(DecimalMoneyMigrationTests::isRecheck), eq(Document.class), eq("carts")))
+                .thenReturn(List.of(new Document("_id", "c2")));
+        when(mongoTemplate.updateMulti(any(Query.class), any(UpdateDefinition.class), eq("carts")))
+                .thenReturn(UpdateResult.acknowledged(2, 1L, null));
+        
+        assertThat(migration.migrate("carts", List.of())).isEqualTo(1);
+        
+        // c2 keeps its string and is not fetched again: the next batch starts after it
+        verify(mongoTemplate, times(1)).updateMulti(any(Query.class), any(UpdateDefinition.class), eq("carts"));
+        assertThat(pendingQueries("carts").get(1).getQueryObject().get("_id")).isEqualTo(new Document("$gt", "c2"));
+    }
+    
+    @Test
+    @SuppressWarnings("unchecked")
+    void toDecimal_convertsOnlyStringValuesIncludingItemPrices() {
+        AggregationUpdate update = DecimalMoneyMigration.toDecimal(List.of("total"));
+        
+        List<Document> pipeline = update.toPipeline(null);
+        assertThat(pipeline).hasSize(1);
+        Document set = pipeline.get(0).get("$set", Document.class);
+        Document total = set.get("total", Document.class);
+        // A string that isn't a number stays as it is instead of failing the batch
+        assertThat(((List<Object>) total.get("$cond")).get(1)).isEqualTo(new Document("$convert",
+                new Document("input", "$total").append("to", "decimal").append("onError", "$total")));
+        assertThat(((List<Object>) total.get("$cond")).get(2)).isEqualTo("$total");  // non-strings kept as is
+        assertThat(set.get("items", Document.class).toJson()).contains("$map", "$$item.price", "$convert", "onError")
+                .doesNotContain("$toDecimal");
+    }
+    
+    @Test
+    void run_continuesWithOtherCollectionsWhenOneFails() {
+        when(mongoTemplate.find(any(Query.class), eq(Document.class), anyString())).thenReturn(List.of());
+        when(mongoTemplate.find(any(Query.class), eq(Document.class), eq("orders")))
+                .thenThrow(new RuntimeException("boom"));
+        
+        assertThatCode(() -> migration.run(null)).doesNotThrowAnyException();
+        verify(mongoTemplate).find(any(Query.class), eq(Document.class), eq(ARCHIVE_COLLECTION));
+        verify(mongoTemplate).find(any(Query.class), eq(Document.class), eq("carts"));
+    }
+    
+    @Test
+    void moneyPipelines_convertAmountsBeforeArithmetic() {
+        List<String> pipelines = new ArrayList<>(SalesBucketBackfill.PIPELINE);
+        for (Method method : OrderRepository.class.getDeclaredMethods()) {
+            Aggregation aggregation = method.getAnnotation(Aggregation.class);
+            if (aggregation != null) {
+                pipelines.addAll(List.of(aggregation.pipeline()));
+            }
+        }
+        
+        // $multiply throws on the string amounts left until this migration has finished
+        assertThat(pipelines).anyMatch(stage -> stage.contains("$toDecimal: '$items.price'"))
+                .noneMatch(stage -> stage.contains("$multiply: [ '$items.price'"))
+                .noneMatch(stage -> stage.contains("$sum: '$total'"));
+    }
+    
+    @Test
+    void runsBeforeTheBackfillsThatReadMoneyAndCategories() {
+        int money = DecimalMoneyMigration.class.getAnnotation(Order.class).value();
+        int categories = OrderCategoryBackfill.class.getAnnotation(Order.class).value();
+        int buckets = SalesBucketBackfill.class.getAnnotation(Order.class).value();
+        
+        assertThat(money).isLessThan(categories);
+        assertThat(categories).isLessThan(buckets);
+    }
+    
+    @SafeVarargs
+    private void pending(String collection, List<String>... batches) {
+        var stub = when(mongoTemplate.find(argThat(query -> !isRecheck(query)), eq(Document.class), eq(collection)));
+        for (List<String> batch : batches) {
+            stub = stub.thenReturn(batch.stream().map(id -> new Document("_id", id)).toList());
+        }
+    }
+    
+    private List<Query> pendingQueries(String collection) {
+        ArgumentCaptor<Query> queries = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate, atLeastOnce()).find(queries.capture(), eq(Document.class), eq(collection));
+        return queries.getAllValues().stream().filter(query -> !isRecheck(query)).toList();
+    }
+    
+    // The per-batch lookup of documents still holding string money
+    private static boolean isRecheck(Query query) {
+        return query != null && query.getQueryObject().get("_id") instanceof Document id && id.containsKey("$in");
+    }
+}
@@ -0,0 +1,117 @@
+package com.buyone.orderservice.migration;
+
+import com.buyone.orderservice.analytics.CategoryResolver;
+import com.buyone.orderservice.model.order.Order;
+import com.buyone.orderservice.model.order.OrderItem;
+import com.mongodb.bulk.BulkWriteResult;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static com.buyone.orderservice.repository.OrderRepositoryCustomImpl.ARCHIVE_COLLECTION;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class OrderCategoryBackfillTests {
+    
+    @Mock
+    private MongoTemplate mongoTemplate;
+    
+    @Mock
+    private CategoryResolver categoryResolver;
+    
+    @Mock
+    private BulkOperations bulkOperations;
+    
+    @InjectMocks
+    private OrderCategoryBackfill backfill;
+    
+    @Test
+    void run_setsCategorySnapshotPerItem_andNullsForUnknownProducts() {
+        Order legacy = Order.builder().id("o1").items(List.of(
+                OrderItem.builder().productId("p1").build(),
+                OrderItem.builder().productId("deleted").build())).build();
+        when(mongoTemplate.stream(any(Query.class), eq(Order.class), eq(OrderCategoryBackfill.HOT_COLLECTION)))
+                .thenReturn(Stream.of(legacy));
+        when(mongoTemplate.stream(any(Query.class), eq(Order.class), eq(ARCHIVE_COLLECTION)))
+                .thenReturn(Stream.empty());
+        when(categoryResolver.resolve(anyCollection()))
+                .thenReturn(Map.of("p1", new CategoryResolver.Category("c1", "Electronics")));
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Order.class, OrderCategoryBackfill.HOT_COLLECTION))
+                .thenReturn(bulkOperations);
+        when(bulkOperations.execute()).thenReturn(BulkWriteResult.acknowledged(0, 1, 0, 1, List.of(), List.of()));
+        
+        backfill.run(null);
+        
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(bulkOperations).updateOne(query.capture(), update.capture());
+        assertThat(query.getValue().getQueryObject()).containsEntry("_id", "o1");
+        Document set = (Document) update.getValue().getUpdateObject().get("$set");
+        assertThat(set).containsEntry("items.0.categoryId", "c1")
+                .containsEntry("items.0.categoryName", "Electronics")
+                .containsEntry("items.1.categoryId", null)
+                .containsEntry("items.1.categoryName", null);
+        verify(mongoTemplate, never()).bulkOps(any(BulkOperations.BulkMode.class), eq(Order.class), eq(ARCHIVE_COLLECTION));
+    }
+    
+    @Test
+    void run_namesItemsWhoseCheckoutLookupFailed_keepingTheSnapshotCategory() {
+        Order checkedOut = Order.builder().id("o2").items(List.of(
+                OrderItem.builder().productId("p1").categoryId("c1").categoryName("Electronics").build(),
+                OrderItem.builder().productId("p2").categoryId("c2").build(),
+                OrderItem.builder().productId("p3").categoryId("gone").build())).build();
+        when(mongoTemplate.stream(any(Query.class), eq(Order.class), eq(OrderCategoryBackfill.HOT_COLLECTION)))
+                .thenReturn(Stream.of(checkedOut));
+        when(mongoTemplate.stream(any(Query.class), eq(Order.class), eq(ARCHIVE_COLLECTION)))
+                .thenReturn(Stream.empty());
+        when(categoryResolver.names(List.of("c2", "gone"))).thenReturn(Map.of("c2", "Books"));
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Order.class, OrderCategoryBackfill.HOT_COLLECTION))
+                .thenReturn(bulkOperations);
+        when(bulkOperations.execute()).thenReturn(BulkWriteResult.acknowledged(0, 1, 0, 1, List.of(), List.of()));
+        
+        backfill.run(null);
+        
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).stream(query.capture(), eq(Order.class), eq(OrderCategoryBackfill.HOT_COLLECTION));
+        assertThat(query.getValue().getQueryObject().toJson()).contains("$elemMatch");
+        verify(categoryResolver).resolve(List.of());
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(bulkOperations).updateOne(any(Query.class), update.capture());
+        Document set = (Document) update.getValue().getUpdateObject().get("$set");
+        assertThat(set).doesNotContainKeys("items.0.categoryId", "items.0.categoryName")
+                .containsEntry("items.1.categoryId", "c2")
+                .containsEntry("items.1.categoryName", "Books")
+                .containsEntry("items.2.categoryId", null)
+                .containsEntry("items.2.categoryName", null);
+    }
+    
+    @Test
+    void run_continuesWithArchive_whenHotCollectionFails() {
+        when(mongoTemplate.stream(any(Query.class), eq(Order.class), eq(OrderCategoryBackfill.HOT_COLLECTION)))
+                .thenThrow(new RuntimeException("boom"));
+        when(mongoTemplate.stream(any(Query.class), eq(Order.class), eq(ARCHIVE_COLLECTION)))
+                .thenReturn(Stream.empty());
+        
+        backfill.run(null);
+        
+        verify(mongoTemplate).stream(any(Query.class), eq(Order.class), eq(ARCHIVE_COLLECTION));
+    }
+}
@@ -0,0 +1,51 @@
+package com.buyone.orderservice.migration;
+
+import com.buyone.orderservice.model.order.Order;
+import com.mongodb.client.result.UpdateResult;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OrderSellerIdsBackfillTests {
+    
+    @Mock
+    private MongoTemplate mongoTemplate;
+    
+    @InjectMocks
+    private OrderSellerIdsBackfill backfill;
+    
+    @Test
+    void run_updatesOnlyOrdersMissingSellerIds() {
+        when(mongoTemplate.updateMulti(any(Query.class), any(UpdateDefinition.class), eq(Order.class)))
+                .thenReturn(UpdateResult.acknowledged(3, 3L, null));
+        
+        backfill.run(null);
+        
+        ArgumentCaptor<Query> captor = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).updateMulti(captor.capture(), any(UpdateDefinition.class), eq(Order.class));
+        Document sellerIds = (Document) captor.getValue().getQueryObject().get("sellerIds");
+        assertThat(sellerIds.get("$exists")).isEqualTo(false);
+    }
+    
+    @Test
+    void run_swallowsFailures() {
+        when(mongoTemplate.updateMulti(any(Query.class), any(UpdateDefinition.class), eq(Order.class)))
+                .thenThrow(new RuntimeException("boom"));
+        
+        assertThatCode(() -> backfill.run(null)).doesNotThrowAnyException();
+    }
+}
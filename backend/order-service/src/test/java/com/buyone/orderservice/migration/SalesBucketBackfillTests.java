@@ -0,0 +1,152 @@
+package com.buyone.orderservice.migration;
+
+import com.buyone.orderservice.analytics.BuyerSketchStore;
+import com.buyone.orderservice.analytics.HyperLogLog;
+import com.buyone.orderservice.analytics.SalesBucketWriter;
+import com.buyone.orderservice.model.order.Order;
+import com.buyone.orderservice.model.order.OrderItem;
+import com.buyone.orderservice.repository.SalesBucketRepository;
+import com.mongodb.MongoNamespace;
+import com.mongodb.client.AggregateIterable;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.RenameCollectionOptions;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.boot.DefaultApplicationArguments;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static com.buyone.orderservice.repository.OrderRepositoryCustomImpl.ARCHIVE_COLLECTION;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class SalesBucketBackfillTests {
+    
+    private static final String STAGING = "sales_buckets_staging";
+    
+    @Mock
+    private SalesBucketRepository bucketRepository;
+    
+    @Mock
+    private MongoTemplate mongoTemplate;
+    
+    @Mock
+    private BuyerSketchStore sketchStore;
+    
+    @Mock
+    private MongoCollection<Document> collection;
+    
+    @Mock
+    private AggregateIterable<Document> aggregate;
+    
+    @InjectMocks
+    private SalesBucketBackfill backfill;
+    
+    @Mock
+    private IndexOperations stagingIndexes;
+    
+    @BeforeEach
+    void setUp() {
+        when(mongoTemplate.stream(any(Query.class), eq(Order.class), anyString())).thenAnswer(i -> Stream.empty());
+        MongoDatabase db = mock(MongoDatabase.class);
+        when(db.getName()).thenReturn("shop");
+        when(mongoTemplate.getDb()).thenReturn(db);
+        when(mongoTemplate.indexOps(STAGING)).thenReturn(stagingIndexes);
+    }
+    
+    @Test
+    void run_mergesHotAndArchivedOrders_whenCollectionIsEmpty() {
+        when(bucketRepository.count()).thenReturn(0L);
+        when(mongoTemplate.getCollection(anyString())).thenReturn(collection);
+        when(collection.aggregate(anyList())).thenReturn(aggregate);
+        
+        backfill.run(new DefaultApplicationArguments());
+        
+        verify(mongoTemplate).getCollection(SalesBucketBackfill.HOT_COLLECTION);
+        verify(mongoTemplate).getCollection(ARCHIVE_COLLECTION);
+        verify(aggregate, times(2)).toCollection();
+    }
+    
+    @Test
+    void run_skips_whenBucketsExist() {
+        when(bucketRepository.count()).thenReturn(3L);
+        
+        backfill.run(new DefaultApplicationArguments());
+        
+        verify(mongoTemplate, never()).getCollection(anyString());
+        verify(bucketRepository, never()).deleteAll();
+    }
+    
+    @Test
+    void run_rebuildsIntoStagingAndRenamesItOverLiveBuckets_whenForced() {
+        when(mongoTemplate.getCollection(anyString())).thenReturn(collection);
+        when(collection.aggregate(anyList())).thenReturn(aggregate);
+        when(mongoTemplate.collectionExists(STAGING)).thenReturn(true);
+        
+        backfill.run(new DefaultApplicationArguments("--" + SalesBucketBackfill.REBUILD_OPTION));
+        
+        // Live buckets keep taking $inc writes until the rename; they are never emptied in place
+        verify(bucketRepository, never()).deleteAll();
+        InOrder swap = inOrder(mongoTemplate, aggregate, stagingIndexes, collection);
+        swap.verify(mongoTemplate).dropCollection(STAGING);
+        swap.verify(aggregate, times(2)).toCollection();
+        swap.verify(stagingIndexes, times(SalesBucketWriter.INDEXES.size())).ensureIndex(any(IndexDefinition.class));
+        ArgumentCaptor<MongoNamespace> target = ArgumentCaptor.forClass(MongoNamespace.class);
+        ArgumentCaptor<RenameCollectionOptions> options = ArgumentCaptor.forClass(RenameCollectionOptions.class);
+        swap.verify(collection).renameCollection(target.capture(), options.capture());
+        assertThat(target.getValue().getFullName()).isEqualTo("shop.sales_buckets");
+        assertThat(options.getValue().isDropTarget()).isTrue();
+    }
+    
+    @Test
+    void run_mergesBuyerSketchPerSellerDay_fromHotAndArchivedOrders() {
+        LocalDateTime noonUtc = LocalDateTime.of(2026, 6, 2, 12, 0).atZone(ZoneOffset.UTC)
+                .withZoneSameInstant(ZoneId.systemDefault()).toLocalDateTime();
+        Order first = Order.builder().userId("user-1").createdAt(noonUtc).items(List.of(
+                OrderItem.builder().sellerId("s1").build(), OrderItem.builder().sellerId("s1").build())).build();
+        Order second = Order.builder().userId("user-2").createdAt(noonUtc).items(List.of(
+                OrderItem.builder().sellerId("s1").build())).build();
+        when(bucketRepository.count()).thenReturn(0L);
+        when(mongoTemplate.getCollection(anyString())).thenReturn(collection);
+        when(collection.aggregate(anyList())).thenReturn(aggregate);
+        when(mongoTemplate.stream(any(Query.class), eq(Order.class), eq(SalesBucketBackfill.HOT_COLLECTION)))
+                .thenReturn(Stream.of(first));
+        when(mongoTemplate.stream(any(Query.class), eq(Order.class), eq(ARCHIVE_COLLECTION)))
+                .thenReturn(Stream.of(second));
+        
+        backfill.run(new DefaultApplicationArguments());
+        
+        // Each collection flushes its own sketch: the merges union them in the bucket
+        ArgumentCaptor<HyperLogLog> sketches = ArgumentCaptor.forClass(HyperLogLog.class);
+        verify(sketchStore, times(2)).merge(eq(STAGING), eq("s1:DAY:2026-06-02"), sketches.capture());
+        assertThat(sketches.getAllValues()).extracting(HyperLogLog::estimate).containsExactly(1L, 1L);
+    }
+    
+    @Test
+    void pipeline_parsesAndEndsWithMergeIntoStaging() {
+        List<Document> stages = SalesBucketBackfill.PIPELINE.stream().map(Document::parse).toList();
+        
+        assertThat(stages.get(stages.size() - 1).get("$merge", Document.class)).containsEntry("into", STAGING);
+    }
+}
@@ -0,0 +1,56 @@
+package com.buyone.orderservice.migration;
+
+import com.buyone.orderservice.model.cart.Cart;
+import com.buyone.orderservice.model.order.Order;
+import com.mongodb.client.result.UpdateResult;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class VersionFieldBackfillTests {
+    
+    @Mock
+    private MongoTemplate mongoTemplate;
+    
+    @InjectMocks
+    private VersionFieldBackfill backfill;
+    
+    @Test
+    void run_setsVersionZero_onOrdersAndCartsWithoutOne() {
+        when(mongoTemplate.updateMulti(any(Query.class), any(UpdateDefinition.class), any(Class.class)))
+                .thenReturn(UpdateResult.acknowledged(2, 2L, null));
+        
+        backfill.run(null);
+        
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).updateMulti(query.capture(), update.capture(), eq(Order.class));
+        verify(mongoTemplate).updateMulti(any(Query.class), any(UpdateDefinition.class), eq(Cart.class));
+        assertThat(((Document) query.getValue().getQueryObject().get("version")).get("$exists")).isEqualTo(false);
+        assertThat((Document) update.getValue().getUpdateObject().get("$set")).containsEntry("version", 0L);
+    }
+    
+    @Test
+    void run_continuesWithCarts_whenOrdersFail() {
+        when(mongoTemplate.updateMulti(any(Query.class), any(UpdateDefinition.class), eq(Order.class)))
+                .thenThrow(new RuntimeException("boom"));
+        
+        backfill.run(null);
+        
+        verify(mongoTemplate).updateMulti(any(Query.class), any(UpdateDefinition.class), eq(Cart.class));
+    }
+}
@@ -40,13 +40,15 @@ class OrderItemTests {
     @Test
     void testOrderItemAllArgsConstructor() {
         OrderItem item = new OrderItem("prod-1", "Test Product", "seller-1",
-                new BigDecimal("25.00"), 3, "http://example.com/image.jpg");
+                new BigDecimal("25.00"), 3, "http://example.com/image.jpg", "CAT-001", "Electronics");
 
         assertEquals("prod-1", item.getProductId());
         assertEquals("Test Product", item.getProductName());
         assertEquals("seller-1", item.getSellerId());
         assertEquals(new BigDecimal("25.00"), item.getPrice());
         assertEquals(3, item.getQuantity());
+        assertEquals("CAT-001", item.getCategoryId());
+        assertEquals("Electronics", item.getCategoryName());
     }
 
     @Test
@@ -7,6 +7,7 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.LinkedHashSet;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -57,6 +58,14 @@ class OrderTests {
         assertEquals(OrderStatus.PENDING, order.getStatus());
     }
 
+    @Test
+    void testOrderDefaultSellerIdsIsEmpty() {
+        Order order = Order.builder().id("order-1").build();
+
+        assertNotNull(order.getSellerIds());
+        assertTrue(order.getSellerIds().isEmpty());
+    }
+
     @Test
     void testOrderDefaultPaymentMethod() {
         Order order = Order.builder()
@@ -90,10 +99,10 @@ class OrderTests {
         Address address = Address.builder().street("123 Main St").city("NYC").build();
         List<OrderItem> items = new ArrayList<>();
 
-        Order order = new Order("order-1", "user-1", "ORD-123", items,
+        Order order = new Order("order-1", "user-1", "ORD-123", items, new LinkedHashSet<>(),
                 OrderStatus.CONFIRMED, PaymentMethod.PAYPAL, address,
                 new BigDecimal("50.00"), new BigDecimal("5.00"),
-                new BigDecimal("5.00"), new BigDecimal("60.00"), now, now);
+                new BigDecimal("5.00"), new BigDecimal("60.00"), now, now, 0L);
 
         assertEquals("order-1", order.getId());
         assertEquals(OrderStatus.CONFIRMED, order.getStatus());
@@ -0,0 +1,81 @@
+package com.buyone.orderservice.pricing;
+
+import com.buyone.orderservice.model.cart.CartItem;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cent-based engine vs. the previous BigDecimal chain.
+ * Not picked up by surefire; run after {@code mvn test-compile} with
+ * {@code java -cp target/test-classes:target/classes:<test classpath> com.buyone.orderservice.pricing.PricingEngineBenchmark}
+ * (add {@code -prof gc} via JMH options to compare allocation rates).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PricingEngineBenchmark {
+    
+    @Param({"1", "10", "50"})
+    private int lines;
+    
+    private List<CartItem> cart;
+    private PricingEngine engine;
+    
+    @Setup
+    public void setUp() {
+        engine = new PricingEngine(0.24, new BigDecimal("50.00"), new BigDecimal("4.90"));
+        Random random = new Random(1);
+        cart = new ArrayList<>(lines);
+        for (int i = 0; i < lines; i++) {
+            cart.add(CartItem.builder()
+                    .price(BigDecimal.valueOf(1 + random.nextInt(20_000), 2))
+                    .quantity(1 + random.nextInt(5))
+                    .build());
+        }
+    }
+    
+    @Benchmark
+    public PriceBreakdown engine() {
+        return engine.price(cart);
+    }
+    
+    @Benchmark
+    public BigDecimal legacyBigDecimal() {
+        BigDecimal totalInclVat = cart.stream()
+                .map(item -> item.getPrice().multiply(BigDecimal.valueOf(item.getQuantity())))
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        BigDecimal subtotal = totalInclVat.divide(BigDecimal.valueOf(1.24), 2, RoundingMode.HALF_UP);
+        BigDecimal shipping = totalInclVat.compareTo(BigDecimal.valueOf(50)) >= 0
+                ? BigDecimal.ZERO
+                : BigDecimal.valueOf(4.9);
+        return totalInclVat.subtract(subtotal).add(subtotal).add(shipping);
+    }
+    
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(PricingEngineBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
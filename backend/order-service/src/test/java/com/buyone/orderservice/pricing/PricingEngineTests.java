@@ -0,0 +1,152 @@
+package com.buyone.orderservice.pricing;
+
+import com.buyone.orderservice.model.cart.CartItem;
+import com.buyone.orderservice.model.order.OrderItem;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PricingEngineTests {
+    
+    private static final int ITERATIONS = 10_000;
+    
+    private final PricingEngine engine =
+            new PricingEngine(0.24, new BigDecimal("50.00"), new BigDecimal("4.90"));
+    
+    @Test
+    void price_reverseCalculatesVat() {
+        PriceBreakdown totals = engine.price(List.of(cartItem("500.00", 2)));
+        
+        assertThat(totals.gross()).isEqualByComparingTo("1000.00");
+        assertThat(totals.subtotal()).isEqualByComparingTo("806.45");
+        assertThat(totals.tax()).isEqualByComparingTo("193.55");
+        assertThat(totals.shipping()).isEqualByComparingTo("0");
+        assertThat(totals.total()).isEqualByComparingTo("1000.00");
+    }
+    
+    @Test
+    void price_chargesShippingBelowThreshold() {
+        PriceBreakdown totals = engine.price(List.of(cartItem("22.00", 1)));
+        
+        assertThat(totals.subtotal()).isEqualByComparingTo("17.74");
+        assertThat(totals.tax()).isEqualByComparingTo("4.26");
+        assertThat(totals.shipping()).isEqualByComparingTo("4.90");
+        assertThat(totals.total()).isEqualByComparingTo("26.90");
+    }
+    
+    @Test
+    void price_freeShippingAtThreshold() {
+        assertThat(engine.price(List.of(cartItem("25.00", 2))).shipping()).isEqualByComparingTo("0");
+        assertThat(engine.price(List.of(cartItem("49.99", 1))).shipping()).isEqualByComparingTo("4.90");
+    }
+    
+    @Test
+    void price_emptyLines_allZero() {
+        PriceBreakdown totals = engine.price(List.of());
+        
+        assertThat(totals.totalCents()).isZero();
+        assertThat(totals.shippingCents()).isZero();
+    }
+    
+    @Test
+    void price_honoursConfiguredRules() {
+        PricingEngine custom = new PricingEngine(0.10, new BigDecimal("100"), new BigDecimal("7.5"));
+        
+        PriceBreakdown totals = custom.price(List.of(cartItem("55.00", 1)));
+        
+        assertThat(totals.subtotal()).isEqualByComparingTo("50.00");
+        assertThat(totals.tax()).isEqualByComparingTo("5.00");
+        assertThat(totals.shipping()).isEqualByComparingTo("7.50");
+        assertThat(totals.total()).isEqualByComparingTo("62.50");
+    }
+    
+    @Test
+    void price_roundsSubCentUnitPricesHalfUp() {
+        assertThat(engine.price(List.of(cartItem("10.005", 2))).gross()).isEqualByComparingTo("20.02");
+    }
+    
+    @Test
+    void constructor_rejectsNegativeTaxRate() {
+        assertThatThrownBy(() -> new PricingEngine(-0.01, BigDecimal.TEN, BigDecimal.ONE))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+    
+    // -------- properties (seeded random carts) --------
+    
+    @Test
+    void cartAndOrderTotals_alwaysAgree() {
+        Random random = new Random(42);
+        for (int i = 0; i < ITERATIONS; i++) {
+            List<CartItem> cart = randomCart(random);
+            List<OrderItem> order = cart.stream()
+                    .map(ci -> OrderItem.builder().price(ci.getPrice()).quantity(ci.getQuantity()).build())
+                    .toList();
+            
+            assertThat(engine.price(order)).as("cart %s", cart).isEqualTo(engine.price(cart));
+        }
+    }
+    
+    @Test
+    void totals_holdInvariants() {
+        Random random = new Random(7);
+        for (int i = 0; i < ITERATIONS; i++) {
+            List<CartItem> cart = randomCart(random);
+            PriceBreakdown totals = engine.price(cart);
+            
+            long lineCents = 0;
+            for (CartItem item : cart) {
+                lineCents += item.getPrice().movePointRight(2).longValueExact() * item.getQuantity();
+            }
+            assertThat(totals.grossCents()).as("cart %s", cart).isEqualTo(lineCents);
+            assertThat(totals.subtotalCents()).isPositive().isLessThanOrEqualTo(totals.grossCents());
+            assertThat(totals.taxCents()).isNotNegative().isEqualTo(totals.grossCents() - totals.subtotalCents());
+            // subtotal is gross / 1.24 to the nearest cent: at most half a cent off, i.e. 62 in cents * 124
+            assertThat(Math.abs(totals.subtotalCents() * 124 - totals.grossCents() * 100))
+                    .as("gross %s", totals.gross()).isLessThanOrEqualTo(62);
+            assertThat(totals.shippingCents()).isEqualTo(totals.grossCents() >= 5_000 ? 0 : 490);
+            assertThat(totals.totalCents()).isEqualTo(totals.grossCents() + totals.shippingCents());
+        }
+    }
+    
+    @Test
+    void price_knownVatSplits() {
+        // gross -> subtotal / tax at 24 %, worked out by hand
+        String[][] cases = {
+                {"0.01", "0.01", "0.00"},
+                {"0.99", "0.80", "0.19"},
+                {"1.24", "1.00", "0.24"},
+                {"12.40", "10.00", "2.40"},
+                {"99.99", "80.64", "19.35"},
+                {"123456.78", "99561.92", "23894.86"}
+        };
+        for (String[] c : cases) {
+            PriceBreakdown totals = engine.price(List.of(cartItem(c[0], 1)));
+            
+            assertThat(totals.subtotal()).as("gross %s", c[0]).isEqualByComparingTo(c[1]);
+            assertThat(totals.tax()).as("gross %s", c[0]).isEqualByComparingTo(c[2]);
+        }
+    }
+    
+    private static List<CartItem> randomCart(Random random) {
+        int lines = 1 + random.nextInt(8);
+        List<CartItem> items = new ArrayList<>(lines);
+        for (int i = 0; i < lines; i++) {
+            items.add(CartItem.builder()
+                    .productId("prod-" + i)
+                    .price(BigDecimal.valueOf(1 + random.nextInt(500_000), 2))
+                    .quantity(1 + random.nextInt(20))
+                    .build());
+        }
+        return items;
+    }
+    
+    private static CartItem cartItem(String price, int quantity) {
+        return CartItem.builder().productId("prod-1").price(new BigDecimal(price)).quantity(quantity).build();
+    }
+}
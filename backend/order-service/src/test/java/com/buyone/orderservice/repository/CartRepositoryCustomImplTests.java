@@ -0,0 +1,159 @@
+package com.buyone.orderservice.repository;
+
+import com.buyone.orderservice.model.cart.Cart;
+import com.buyone.orderservice.model.cart.CartItem;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CartRepositoryCustomImplTests {
+    
+    @Mock
+    private MongoTemplate mongoTemplate;
+    
+    @InjectMocks
+    private CartRepositoryCustomImpl repository;
+    
+    @Test
+    void incrementItemQuantity_incsPositionalItem() {
+        Cart cart = Cart.builder().id("user-1").build();
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class),
+                any(FindAndModifyOptions.class), eq(Cart.class))).thenReturn(cart);
+        
+        Optional<Cart> result = repository.incrementItemQuantity("user-1", "prod-1", "seller-1", 2);
+        
+        assertThat(result).containsSame(cart);
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        ArgumentCaptor<FindAndModifyOptions> options = ArgumentCaptor.forClass(FindAndModifyOptions.class);
+        verify(mongoTemplate).findAndModify(query.capture(), update.capture(), options.capture(), eq(Cart.class));
+        
+        Document elemMatch = (Document) ((Document) query.getValue().getQueryObject().get("items")).get("$elemMatch");
+        assertThat(elemMatch).containsEntry("productId", "prod-1").containsEntry("sellerId", "seller-1");
+        assertThat((Document) update.getValue().getUpdateObject().get("$inc"))
+                .containsEntry("items.$.quantity", 2)
+                .containsEntry("version", 1);
+        assertThat(options.getValue().isReturnNew()).isTrue();
+        assertThat(options.getValue().isUpsert()).isFalse();
+    }
+    
+    @Test
+    void incrementItemQuantity_returnsEmpty_whenItemMissing() {
+        assertThat(repository.incrementItemQuantity("user-1", "prod-1", "seller-1", 1)).isEmpty();
+    }
+    
+    @Test
+    void pushItem_guardsAgainstExistingItem_andUpserts() {
+        CartItem item = CartItem.builder().productId("prod-1").sellerId("seller-1").quantity(1).build();
+        
+        repository.pushItem("user-1", item);
+        
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        ArgumentCaptor<FindAndModifyOptions> options = ArgumentCaptor.forClass(FindAndModifyOptions.class);
+        verify(mongoTemplate).findAndModify(query.capture(), update.capture(), options.capture(), eq(Cart.class));
+        
+        Document items = (Document) query.getValue().getQueryObject().get("items");
+        assertThat((Document) items.get("$not")).containsKey("$elemMatch");
+        Document updateObject = update.getValue().getUpdateObject();
+        assertThat((Document) updateObject.get("$push")).containsEntry("items", item);
+        assertThat((Document) updateObject.get("$setOnInsert")).containsEntry("userId", "user-1");
+        assertThat(options.getValue().isUpsert()).isTrue();
+    }
+    
+    @Test
+    void pushItem_returnsEmpty_whenUpsertCollidesWithExistingCart() {
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class),
+                any(FindAndModifyOptions.class), eq(Cart.class))).thenThrow(new DuplicateKeyException("dup"));
+        
+        CartItem item = CartItem.builder().productId("prod-1").sellerId("seller-1").quantity(1).build();
+        
+        assertThat(repository.pushItem("user-1", item)).isEmpty();
+    }
+    
+    @Test
+    void setItemQuantity_setsPositionalQuantity() {
+        repository.setItemQuantity("user-1", "prod-1", 5);
+        
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).findAndModify(query.capture(), update.capture(),
+                any(FindAndModifyOptions.class), eq(Cart.class));
+        
+        assertThat(query.getValue().getQueryObject()).containsEntry("items.productId", "prod-1");
+        assertThat((Document) update.getValue().getUpdateObject().get("$set")).containsEntry("items.$.quantity", 5);
+    }
+    
+    @Test
+    void pullItem_pullsByProductId() {
+        repository.pullItem("user-1", "prod-1");
+        
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).findAndModify(any(Query.class), update.capture(),
+                any(FindAndModifyOptions.class), eq(Cart.class));
+        
+        Document pull = (Document) update.getValue().getUpdateObject().get("$pull");
+        assertThat(pull).containsEntry("items", new Document("productId", "prod-1"));
+    }
+    
+    @Test
+    void pushItem_clearsEmptySince() {
+        CartItem item = CartItem.builder().productId("prod-1").sellerId("seller-1").quantity(1).build();
+        
+        repository.pushItem("user-1", item);
+        
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).findAndModify(any(Query.class), update.capture(),
+                any(FindAndModifyOptions.class), eq(Cart.class));
+        assertThat((Document) update.getValue().getUpdateObject().get("$unset")).containsKey("emptySince");
+    }
+    
+    @Test
+    void pullItem_marksCartEmpty_whenLastItemRemoved() {
+        Cart emptied = Cart.builder().id("user-1").items(new ArrayList<>()).build();
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class),
+                any(FindAndModifyOptions.class), eq(Cart.class))).thenReturn(emptied);
+        
+        Optional<Cart> result = repository.pullItem("user-1", "prod-1");
+        
+        assertThat(result.orElseThrow().getEmptySince()).isNotNull();
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).updateFirst(query.capture(), update.capture(), eq(Cart.class));
+        assertThat((Document) query.getValue().getQueryObject().get("items")).containsEntry("$size", 0);
+        assertThat((Document) update.getValue().getUpdateObject().get("$set")).containsKey("emptySince");
+    }
+    
+    @Test
+    void pullItem_leavesEmptySince_whenItemsRemain() {
+        Cart remaining = Cart.builder().id("user-1")
+                .items(new ArrayList<>(List.of(CartItem.builder().productId("prod-2").build()))).build();
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class),
+                any(FindAndModifyOptions.class), eq(Cart.class))).thenReturn(remaining);
+        
+        repository.pullItem("user-1", "prod-1");
+        
+        verify(mongoTemplate, never()).updateFirst(any(Query.class), any(Update.class), eq(Cart.class));
+    }
+}
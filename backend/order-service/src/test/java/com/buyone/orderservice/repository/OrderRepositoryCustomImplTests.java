@@ -0,0 +1,153 @@
+package com.buyone.orderservice.repository;
+
+import com.buyone.orderservice.dto.response.order.OrderSummaryResponse;
+import com.buyone.orderservice.model.order.Order;
+import com.buyone.orderservice.model.order.OrderStatus;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationResults;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OrderRepositoryCustomImplTests {
+    
+    @Mock
+    private MongoTemplate mongoTemplate;
+    
+    @InjectMocks
+    private OrderRepositoryCustomImpl repository;
+    
+    @Test
+    void buildBuyerSearchQuery_userOnly_hasNoExtraPredicates() {
+        Document q = repository.buildBuyerSearchQuery("user-1", null, null, null, null).getQueryObject();
+        
+        assertThat(q).containsOnlyKeys("userId");
+        assertThat(q.get("userId")).isEqualTo("user-1");
+    }
+    
+    @Test
+    void buildBuyerSearchQuery_andsStatusAndDateRange() {
+        LocalDateTime from = LocalDateTime.of(2025, 1, 1, 0, 0);
+        LocalDateTime to = LocalDateTime.of(2025, 1, 31, 23, 59);
+        
+        Document q = repository.buildBuyerSearchQuery("user-1", null, OrderStatus.SHIPPED, from, to)
+                .getQueryObject();
+        
+        assertThat(q).containsOnlyKeys("userId", "status", "createdAt");
+        assertThat(q.get("status")).isEqualTo(OrderStatus.SHIPPED);
+        Document range = (Document) q.get("createdAt");
+        assertThat(range.get("$gte")).isEqualTo(from);
+        assertThat(range.get("$lte")).isEqualTo(to);
+    }
+    
+    @Test
+    void buildBuyerSearchQuery_orderNumberKeyword_usesAnchoredPrefix() {
+        Document q = repository.buildBuyerSearchQuery("user-1", "ord-ab1", null, null, null).getQueryObject();
+        
+        Pattern pattern = (Pattern) q.get("orderNumber");
+        assertThat(pattern.pattern()).isEqualTo("^ORD-AB1");  // no \Q..\E, which would lose the index bounds
+        assertThat(pattern.matcher("ORD-AB12345").find()).isTrue();
+        assertThat(pattern.matcher("X-ORD-AB1").find()).isFalse();
+        assertThat(q).doesNotContainKey("$text");
+    }
+    
+    @Test
+    void buildBuyerSearchQuery_productKeyword_usesTextSearch() {
+        Document q = repository.buildBuyerSearchQuery("user-1", "laptop", null, null, null).getQueryObject();
+        
+        assertThat(q).containsKey("$text").containsEntry("userId", "user-1");  // prefix of the text index
+        assertThat(((Document) q.get("$text")).get("$search")).isEqualTo("laptop");
+        assertThat(q).doesNotContainKey("orderNumber");
+    }
+    
+    @Test
+    void searchBuyerOrders_sortsNewestFirstAndPages() {
+        when(mongoTemplate.find(any(Query.class), eq(Order.class)))
+                .thenReturn(List.of(Order.builder().orderNumber("ORD-1").build()));
+        when(mongoTemplate.count(any(Query.class), eq(Order.class))).thenReturn(11L);
+        
+        Page<Order> page = repository.searchBuyerOrders("user-1", null, null, null, null,
+                PageRequest.of(0, 1));
+        
+        ArgumentCaptor<Query> captor = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).find(captor.capture(), eq(Order.class));
+        assertThat(captor.getValue().getSortObject().get("createdAt")).isEqualTo(-1);
+        assertThat(captor.getValue().getLimit()).isEqualTo(1);
+        assertThat(page.getTotalElements()).isEqualTo(11L);
+    }
+    
+    @Test
+    void searchBuyerOrderSlice_readsOneExtraRowInsteadOfCounting() {
+        when(mongoTemplate.find(any(Query.class), eq(Order.class))).thenReturn(List.of(
+                Order.builder().orderNumber("ORD-3").build(),
+                Order.builder().orderNumber("ORD-2").build(),
+                Order.builder().orderNumber("ORD-1").build()));
+        
+        Slice<Order> slice = repository.searchBuyerOrderSlice("user-1", null, null, null, null,
+                PageRequest.of(0, 2));
+        
+        ArgumentCaptor<Query> captor = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).find(captor.capture(), eq(Order.class));
+        assertThat(captor.getValue().getLimit()).isEqualTo(3);
+        assertThat(slice.getContent()).extracting(Order::getOrderNumber).containsExactly("ORD-3", "ORD-2");
+        assertThat(slice.hasNext()).isTrue();
+        verify(mongoTemplate, never()).count(any(Query.class), eq(Order.class));
+    }
+    
+    @Test
+    void findArchivedByOrderNumber_readsArchiveCollection() {
+        Order archived = Order.builder().orderNumber("ORD-OLD").build();
+        when(mongoTemplate.findOne(any(Query.class), eq(Order.class), eq("orders_archive"))).thenReturn(archived);
+        
+        assertThat(repository.findArchivedByOrderNumber("ORD-OLD")).contains(archived);
+    }
+    
+    @Test
+    void streamSellerOrders_usesSellerIndexAndCursorBatches() {
+        when(mongoTemplate.stream(any(Query.class), eq(Order.class))).thenReturn(Stream.empty());
+        
+        repository.streamSellerOrders("seller-1", OrderStatus.CONFIRMED, null, null);
+        
+        ArgumentCaptor<Query> captor = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).stream(captor.capture(), eq(Order.class));
+        Query query = captor.getValue();
+        assertThat(query.getQueryObject()).containsOnlyKeys("sellerIds", "status");
+        assertThat(query.getFieldsObject()).containsKeys("orderNumber", "status", "createdAt", "items");
+        assertThat(query.getSortObject()).isEmpty();
+        assertThat(query.getMeta().getCursorBatchSize()).isEqualTo(1000);
+    }
+    
+    @Test
+    void findBuyerOrderSummaries_appliesKeysetCursor() {
+        when(mongoTemplate.aggregate(any(TypedAggregation.class), eq(OrderSummaryResponse.class)))
+                .thenReturn(new AggregationResults<>(List.of(), new Document()));
+        LocalDateTime before = LocalDateTime.of(2025, 1, 1, 0, 0);
+        
+        repository.findBuyerOrderSummaries("user-1", before, "65f000000000000000000001", 21);
+        
+        ArgumentCaptor<TypedAggregation> captor = ArgumentCaptor.forClass(TypedAggregation.class);
+        verify(mongoTemplate).aggregate(captor.capture(), eq(OrderSummaryResponse.class));
+        String pipeline = captor.getValue().toString();
+        assertThat(pipeline).contains("\"userId\" : \"user-1\"", "$or", "$limit\" : 21", "firstImageUrl", "itemCount");
+    }
+}
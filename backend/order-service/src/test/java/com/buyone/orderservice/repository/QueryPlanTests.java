@@ -0,0 +1,325 @@
+package com.buyone.orderservice.repository;
+
+import com.buyone.orderservice.config.MongoConversionsConfig;
+import com.buyone.orderservice.config.MongoIndexConfig;
+import com.buyone.orderservice.listener.OrderArchiveListener;
+import com.buyone.orderservice.model.analytics.BucketGranularity;
+import com.buyone.orderservice.model.analytics.SalesBucket;
+import com.buyone.orderservice.model.analytics.TrendingSketch;
+import com.buyone.orderservice.model.cart.Cart;
+import com.buyone.orderservice.model.cart.CartItem;
+import com.buyone.orderservice.model.order.Order;
+import com.buyone.orderservice.model.order.OrderItem;
+import com.buyone.orderservice.model.order.OrderStatus;
+import com.buyone.orderservice.repository.index.IndexRegistry;
+import com.mongodb.ConnectionString;
+import com.mongodb.MongoClientSettings;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import org.bson.BsonArray;
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.SimpleMongoClientDatabaseFactory;
+import org.springframework.data.mongodb.core.convert.DefaultDbRefResolver;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.repository.support.MongoRepositoryFactory;
+import org.springframework.data.repository.core.support.RepositoryComposition.RepositoryFragments;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Stream;
+
+import static com.buyone.orderservice.repository.OrderRepositoryCustomImpl.ARCHIVE_COLLECTION;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Explains every repository query against a seeded database and fails on a COLLSCAN in the winning plan.
+ * Needs a real MongoDB: set MONGO_EXPLAIN_URI (e.g. mongodb://localhost:27017). A plain build skips it
+ * without one; the query-plans profile (mvn -Pquery-plans test, the CI "Query plans" stage) runs only
+ * this class and fails when the variable is missing.
+ * Indexes come from the same IndexRegistry declarations as production. Each query runs once while a
+ * command listener records what the driver sends; every recorded read/write is then explained.
+ * A new repository method fails everyRepositoryMethodIsExplained until it is added to {@link #queries()}.
+ */
+class QueryPlanTests {
+    
+    private static final Set<String> EXPLAINABLE =
+            Set.of("find", "aggregate", "count", "distinct", "findAndModify", "update", "delete");
+    private static final String DATABASE = "query_plan_" + UUID.randomUUID().toString().substring(0, 8);
+    private static final LocalDateTime NOW = LocalDateTime.now().withNano(0);
+    
+    private static final List<BsonDocument> captured = new CopyOnWriteArrayList<>();
+    
+    private static MongoClient client;
+    private static MongoTemplate mongoTemplate;
+    private static OrderRepository orders;
+    private static CartRepository carts;
+    private static SalesBucketRepository buckets;
+    private static TrendingSketchRepository trending;
+    
+    @BeforeAll
+    static void setUp() {
+        String uri = System.getenv("MONGO_EXPLAIN_URI");
+        if (uri == null || uri.isBlank()) {
+            if (Boolean.getBoolean("queryPlans.required")) {
+                Assertions.fail("MONGO_EXPLAIN_URI must point at a MongoDB for the query-plans profile");
+            }
+            Assumptions.abort("MONGO_EXPLAIN_URI not set");
+        }
+        client = MongoClients.create(MongoClientSettings.builder()
+                .applyConnectionString(new ConnectionString(uri))
+                .addCommandListener(new CommandListener() {
+                    @Override
+                    public void commandStarted(CommandStartedEvent event) {
+                        if (EXPLAINABLE.contains(event.getCommandName())) {
+                            captured.add(event.getCommand().clone());
+                        }
+                    }
+                })
+                .build());
+        SimpleMongoClientDatabaseFactory factory = new SimpleMongoClientDatabaseFactory(client, DATABASE);
+        MongoCustomConversions conversions = new MongoConversionsConfig().mongoCustomConversions();
+        MongoMappingContext context = new MongoMappingContext();
+        context.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+        context.afterPropertiesSet();
+        MappingMongoConverter converter = new MappingMongoConverter(new DefaultDbRefResolver(factory), context);
+        converter.setCustomConversions(conversions);
+        converter.afterPropertiesSet();
+        mongoTemplate = new MongoTemplate(factory, converter);
+        
+        MongoRepositoryFactory repositories = new MongoRepositoryFactory(mongoTemplate);
+        orders = repositories.getRepository(OrderRepository.class,
+                RepositoryFragments.just(new OrderRepositoryCustomImpl(mongoTemplate)));
+        carts = repositories.getRepository(CartRepository.class,
+                RepositoryFragments.just(new CartRepositoryCustomImpl(mongoTemplate)));
+        buckets = repositories.getRepository(SalesBucketRepository.class);
+        trending = repositories.getRepository(TrendingSketchRepository.class);
+        
+        seed();
+        IndexRegistry registry = new IndexRegistry(mongoTemplate, MongoIndexConfig.requiredIndexes(mongoTemplate), Map.of());
+        registry.ensureAll();
+        assertThat(registry.missing()).isEmpty();
+    }
+    
+    @AfterAll
+    static void tearDown() {
+        if (client != null) {
+            client.getDatabase(DATABASE).drop();
+            client.close();
+        }
+    }
+    
+    static Map<String, Runnable> queries() {
+        Map<String, Runnable> queries = new LinkedHashMap<>();
+        queries.put("findByUserId", () -> orders.findByUserId("buyer-1"));
+        queries.put("findByUserIdAndStatus", () -> orders.findByUserIdAndStatus("buyer-1", OrderStatus.DELIVERED));
+        queries.put("findByOrderNumber", () -> orders.findByOrderNumber("ORD-0001"));
+        queries.put("findByOrderNumberIn", () -> orders.findByOrderNumberIn(List.of("ORD-0001", "ORD-0002")));
+        queries.put("findSellerOrders", () -> orders.findSellerOrders("seller-1", PageRequest.of(1, 5)));
+        queries.put("getClientTotalSpent", () -> orders.getClientTotalSpent("buyer-1"));
+        queries.put("getClientMostBought", () -> orders.getClientMostBought("buyer-1"));
+        queries.put("getClientTopCategories", () -> orders.getClientTopCategories("buyer-1"));
+        queries.put("getSellerTotalRevenue", () -> orders.getSellerTotalRevenue("seller-1"));
+        queries.put("getSellerBestProducts", () -> orders.getSellerBestProducts("seller-1"));
+        queries.put("getSellerTopCategories", () -> orders.getSellerTopCategories("seller-1"));
+        queries.put("getSellerTotalUnits", () -> orders.getSellerTotalUnits("seller-1"));
+        queries.put("getSellerUniqueBuyers", () -> orders.getSellerUniqueBuyers("seller-1"));
+        queries.put("searchBuyerOrders", () -> {
+            orders.searchBuyerOrders("buyer-1", null, OrderStatus.DELIVERED, NOW.minusDays(30), NOW, PageRequest.of(1, 5));
+            orders.searchBuyerOrders("buyer-1", "ORD-00", null, null, null, PageRequest.of(0, 5));
+            orders.searchBuyerOrders("buyer-1", "lamp", null, null, null, PageRequest.of(0, 5));
+        });
+        queries.put("searchBuyerOrderSlice", () -> {
+            orders.searchBuyerOrderSlice("buyer-1", null, OrderStatus.DELIVERED, NOW.minusDays(30), NOW, PageRequest.of(1, 5));
+            orders.searchBuyerOrderSlice("buyer-1", "ORD-00", null, null, null, PageRequest.of(0, 5));
+        });
+        queries.put("countBuyerOrders", () -> orders.countBuyerOrders("buyer-1", null, OrderStatus.DELIVERED, null, null));
+        queries.put("findArchivedByOrderNumber", () -> orders.findArchivedByOrderNumber("ORD-A001"));
+        queries.put("bulkUpdateStatus", () -> orders.bulkUpdateStatus(
+                orders.findByOrderNumberIn(List.of("ORD-0003", "ORD-0004")), OrderStatus.SHIPPED, NOW));
+        queries.put("streamSellerOrders", () -> {
+            try (Stream<Order> export = orders.streamSellerOrders("seller-1", OrderStatus.DELIVERED, NOW.minusDays(30), NOW)) {
+                export.count();
+            }
+        });
+        queries.put("findBuyerOrderSummaries", () -> {
+            orders.findBuyerOrderSummaries("buyer-1", null, null, 5);
+            Order cursor = orders.findByOrderNumber("ORD-0005").orElseThrow();
+            orders.findBuyerOrderSummaries("buyer-1", cursor.getCreatedAt(), cursor.getId(), 5);
+        });
+        queries.put("findById", () -> carts.findById("buyer-1"));
+        queries.put("incrementItemQuantity", () -> carts.incrementItemQuantity("buyer-1", "product-1", "seller-1", 1));
+        queries.put("pushItem", () -> carts.pushItem("buyer-1", cartItem("product-9")));
+        queries.put("setItemQuantity", () -> carts.setItemQuantity("buyer-1", "product-1", 3));
+        queries.put("pullItem", () -> carts.pullItem("buyer-1", "product-9"));
+        queries.put("findSellerBuckets", () -> buckets.findSellerBuckets("seller-1",
+                LocalDate.now().minusDays(30).toString(), LocalDate.now().toString()));
+        queries.put("findByDayIn", () -> trending.findByDayIn(List.of(LocalDate.now().toString())));
+        queries.put("archiveBatchQuery", () -> {
+            OrderArchiveListener archive = new OrderArchiveListener(mongoTemplate);
+            ReflectionTestUtils.setField(archive, "batchSize", 50);
+            Date cutoff = new Date();
+            mongoTemplate.find(archive.batchQuery(cutoff, null), Document.class, "orders");
+            mongoTemplate.find(archive.batchQuery(cutoff, new ObjectId()), Document.class, "orders");
+        });
+        return queries;
+    }
+    
+    @TestFactory
+    Stream<DynamicTest> everyRepositoryQueryUsesAnIndex() {
+        return queries().entrySet().stream().map(query -> DynamicTest.dynamicTest(query.getKey(), () -> {
+            captured.clear();
+            query.getValue().run();
+            assertThat(captured).as("commands sent by %s", query.getKey()).isNotEmpty();
+            for (BsonDocument command : new ArrayList<>(captured)) {
+                for (BsonDocument explainable : singleStatements(command)) {
+                    BsonDocument explain = client.getDatabase(DATABASE).runCommand(
+                            new BsonDocument("explain", explainable).append("verbosity", new BsonString("queryPlanner")),
+                            BsonDocument.class);
+                    List<BsonDocument> plans = new ArrayList<>();
+                    winningPlans(explain, plans);
+                    assertThat(plans).as("winning plan of %s", explainable).isNotEmpty();
+                    assertThat(plans).as("%s: %s", query.getKey(), explainable)
+                            .noneMatch(QueryPlanTests::scansCollection);
+                }
+            }
+        }));
+    }
+    
+    @Test
+    void everyRepositoryMethodIsExplained() {
+        Set<String> declared = new LinkedHashSet<>();
+        for (Class<?> repository : List.of(OrderRepository.class, OrderRepositoryCustom.class, CartRepository.class,
+                CartRepositoryCustom.class, SalesBucketRepository.class, TrendingSketchRepository.class)) {
+            Arrays.stream(repository.getDeclaredMethods())
+                    .filter(method -> !method.isDefault() && !method.isSynthetic() && !Modifier.isStatic(method.getModifiers()))
+                    .map(Method::getName)
+                    .forEach(declared::add);
+        }
+        assertThat(queries().keySet()).containsAll(declared);
+    }
+    
+    /**
+     * The command as explain accepts it: generic fields dropped, one statement per update / delete.
+     */
+    private static List<BsonDocument> singleStatements(BsonDocument command) {
+        BsonDocument base = new BsonDocument();
+        command.forEach((key, value) -> {
+            if (!key.startsWith("$") && !key.equals("lsid") && !key.equals("txnNumber")) {
+                base.append(key, value);
+            }
+        });
+        for (String statements : List.of("updates", "deletes")) {
+            if (base.containsKey(statements)) {
+                List<BsonDocument> single = new ArrayList<>();
+                for (BsonValue statement : base.getArray(statements)) {
+                    BsonDocument one = base.clone();
+                    one.put(statements, new BsonArray(List.of(statement)));
+                    single.add(one);
+                }
+                return single;
+            }
+        }
+        return List.of(base);
+    }
+    
+    private static void winningPlans(BsonValue node, List<BsonDocument> plans) {
+        if (node.isDocument()) {
+            node.asDocument().forEach((key, value) -> {
+                if (key.equals("winningPlan") && value.isDocument()) {
+                    plans.add(value.asDocument());
+                } else {
+                    winningPlans(value, plans);
+                }
+            });
+        } else if (node.isArray()) {
+            node.asArray().forEach(value -> winningPlans(value, plans));
+        }
+    }
+    
+    private static boolean scansCollection(BsonValue node) {
+        if (node.isDocument()) {
+            BsonValue stage = node.asDocument().get("stage");
+            if (stage != null && stage.isString() && stage.asString().getValue().equals("COLLSCAN")) {
+                return true;
+            }
+            return node.asDocument().values().stream().anyMatch(QueryPlanTests::scansCollection);
+        }
+        return node.isArray() && node.asArray().stream().anyMatch(QueryPlanTests::scansCollection);
+    }
+    
+    private static void seed() {
+        List<Order> seeded = new ArrayList<>();
+        OrderStatus[] statuses = OrderStatus.values();
+        for (int i = 1; i <= 200; i++) {
+            String seller = "seller-" + (i % 4);
+            seeded.add(Order.builder()
+                    .userId("buyer-" + (i % 10))
+                    .orderNumber(String.format("ORD-%04d", i))
+                    .items(List.of(OrderItem.builder().productId("product-" + (i % 20)).productName("Desk lamp " + i)
+                            .sellerId(seller).categoryName("Lighting").price(new BigDecimal("19.99")).quantity(1 + i % 3)
+                            .build()))
+                    .sellerIds(new LinkedHashSet<>(List.of(seller)))
+                    .status(statuses[i % statuses.length])
+                    .total(new BigDecimal("19.99"))
+                    .createdAt(NOW.minusHours(i))
+                    .build());
+        }
+        mongoTemplate.insert(seeded, Order.class);
+        
+        List<Order> archived = new ArrayList<>();
+        for (int i = 1; i <= 20; i++) {
+            archived.add(Order.builder().userId("buyer-" + (i % 10)).orderNumber(String.format("ORD-A%03d", i))
+                    .status(OrderStatus.DELIVERED).createdAt(NOW.minusDays(200 + i)).build());
+        }
+        mongoTemplate.insert(archived, ARCHIVE_COLLECTION);
+        
+        for (int i = 0; i < 10; i++) {
+            mongoTemplate.insert(Cart.builder().id("buyer-" + i).userId("buyer-" + i)
+                    .items(new ArrayList<>(List.of(cartItem("product-1")))).updatedAt(NOW).build());
+        }
+        for (int day = 0; day < 30; day++) {
+            String date = LocalDate.now().minusDays(day).toString();
+            for (int seller = 0; seller < 4; seller++) {
+                mongoTemplate.insert(SalesBucket.builder().id("seller-" + seller + ":DAY:" + date).sellerId("seller-" + seller)
+                        .granularity(BucketGranularity.DAY).bucketStart(date).orders(1).build());
+            }
+            mongoTemplate.insert(TrendingSketch.builder().id("replica-1:" + date).instanceId("replica-1").day(date)
+                    .expiresAt(NOW.plusDays(30)).build());
+        }
+    }
+    
+    private static CartItem cartItem(String productId) {
+        return CartItem.builder().productId(productId).sellerId("seller-1").price(new BigDecimal("19.99")).quantity(1).build();
+    }
+}
@@ -0,0 +1,166 @@
+package com.buyone.orderservice.repository.index;
+
+import com.buyone.orderservice.config.MongoConversionsConfig;
+import com.buyone.orderservice.migration.DecimalMoneyMigration;
+import com.buyone.orderservice.model.cart.Cart;
+import com.buyone.orderservice.model.order.Order;
+import com.mongodb.MongoException;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.annotation.OrderUtils;
+import org.springframework.data.domain.Sort;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.UncategorizedMongoDbException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class IndexRegistryTests {
+    
+    @Mock
+    private MongoTemplate mongoTemplate;
+    
+    @Mock
+    private IndexOperations orderIndexes;
+    
+    @Mock
+    private IndexOperations cartIndexes;
+    
+    private static final RequiredIndex USER = new RequiredIndex("orders",
+            new Index().on("userId", Sort.Direction.ASC).named("userId"));
+    private static final RequiredIndex ORDER_NUMBER = new RequiredIndex("orders",
+            new Index().on("orderNumber", Sort.Direction.ASC).unique().named("orderNumber"));
+    private static final RequiredIndex UPDATED_AT = new RequiredIndex("carts",
+            new Index().on("updatedAt", Sort.Direction.ASC).named("updatedAt"));
+    
+    @Test
+    void runsBeforeTheStartupMigrations() {
+        assertThat(OrderUtils.getOrder(IndexRegistry.class)).isLessThan(DecimalMoneyMigration.ORDER);
+    }
+    
+    @Test
+    void ensureAll_createsEveryIndexInTheBackgroundAndRecordsWhatExists() {
+        when(mongoTemplate.indexOps("orders")).thenReturn(orderIndexes);
+        when(mongoTemplate.indexOps("carts")).thenReturn(cartIndexes);
+        when(orderIndexes.getIndexInfo()).thenReturn(List.of(info("_id_"), info("userId"), info("orderNumber")));
+        when(cartIndexes.getIndexInfo()).thenReturn(List.of(info("_id_"), info("updatedAt")));
+        IndexRegistry registry = new IndexRegistry(mongoTemplate, List.of(USER, ORDER_NUMBER, UPDATED_AT), Map.of());
+        
+        registry.ensureAll();
+        
+        ArgumentCaptor<IndexDefinition> created = ArgumentCaptor.forClass(IndexDefinition.class);
+        verify(orderIndexes, times(2)).ensureIndex(created.capture());
+        IndexDefinition orderNumber = created.getAllValues().get(1);
+        assertThat(orderNumber.getIndexKeys()).isEqualTo(new Document("orderNumber", 1));
+        assertThat(orderNumber.getIndexOptions())
+                .containsEntry("name", "orderNumber")
+                .containsEntry("unique", true)
+                .containsEntry("background", true);
+        verify(cartIndexes).ensureIndex(any(IndexDefinition.class));
+        
+        assertThat(registry.existing()).containsOnlyKeys("orders", "carts");
+        assertThat(registry.existing().get("orders")).containsExactly("_id_", "userId", "orderNumber");
+        assertThat(registry.missing()).isEmpty();
+    }
+    
+    @Test
+    void ensureAll_triesEveryIndex_thenFailsStartupOnAFailedBuild() {
+        when(mongoTemplate.indexOps("orders")).thenReturn(orderIndexes);
+        when(mongoTemplate.indexOps("carts")).thenReturn(cartIndexes);
+        when(orderIndexes.ensureIndex(any(IndexDefinition.class)))
+                .thenThrow(new DuplicateKeyException("E11000 duplicate key", new MongoException(11000, "E11000")))
+                .thenReturn("userId");
+        when(orderIndexes.getIndexInfo()).thenReturn(List.of(info("_id_"), info("userId")));
+        when(cartIndexes.getIndexInfo()).thenThrow(new RuntimeException("unreachable"));
+        IndexRegistry registry = new IndexRegistry(mongoTemplate, List.of(ORDER_NUMBER, USER, UPDATED_AT), Map.of());
+        
+        assertThatThrownBy(registry::ensureAll)
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("orders.orderNumber");
+        
+        verify(cartIndexes).ensureIndex(any(IndexDefinition.class));
+        assertThat(registry.missing()).containsExactly(ORDER_NUMBER, UPDATED_AT);
+        assertThat(registry.existing().get("carts")).isEmpty();
+    }
+    
+    @Test
+    void ensureAll_toleratesABuildAlreadyRunningOnAnotherInstance() {
+        when(mongoTemplate.indexOps("orders")).thenReturn(orderIndexes);
+        when(orderIndexes.ensureIndex(any(IndexDefinition.class))).thenThrow(
+                new UncategorizedMongoDbException("in progress", new MongoException(276, "IndexBuildAlreadyInProgress")));
+        when(orderIndexes.getIndexInfo()).thenReturn(List.of(info("_id_")));
+        IndexRegistry registry = new IndexRegistry(mongoTemplate, List.of(ORDER_NUMBER), Map.of());
+        
+        registry.ensureAll();
+        
+        assertThat(registry.missing()).containsExactly(ORDER_NUMBER);
+    }
+    
+    @Test
+    void ensureAll_dropsRetiredIndexesBeforeBuildingTheirSuccessors() {
+        RequiredIndex text = new RequiredIndex("orders",
+                new Index().on("userId", Sort.Direction.ASC).named("user_items_product_name_text"));
+        when(mongoTemplate.indexOps("orders")).thenReturn(orderIndexes);
+        when(orderIndexes.getIndexInfo()).thenReturn(List.of(info("_id_"), info("items_product_name_text")));
+        IndexRegistry registry = new IndexRegistry(mongoTemplate, List.of(text),
+                Map.of("orders", List.of("items_product_name_text", "never_created")));
+        
+        registry.ensureAll();
+        
+        InOrder order = inOrder(orderIndexes);
+        order.verify(orderIndexes).dropIndex("items_product_name_text");
+        order.verify(orderIndexes).ensureIndex(any(IndexDefinition.class));
+        verify(orderIndexes, never()).dropIndex("never_created");
+    }
+    
+    @Test
+    void fromEntities_resolvesAnnotatedIndexes() {
+        List<RequiredIndex> indexes = IndexRegistry.fromEntities(mappingContext(), Order.class, Cart.class);
+        
+        assertThat(indexes).extracting(RequiredIndex::toString).containsExactlyInAnyOrder(
+                "orders.userId", "orders.orderNumber", "orders.user_created_idx", "orders.user_status_created_idx",
+                "orders.user_items_product_name_text", "orders.sellers_status_created_idx",
+                "orders.status_updated_id_idx", "carts.updatedAt");
+        RequiredIndex orderNumber = indexes.stream().filter(i -> i.name().equals("orderNumber")).findFirst().orElseThrow();
+        assertThat(orderNumber.definition().getIndexOptions()).containsEntry("unique", true);
+        // The buyer keyword search's $text fails without it; scoped to the buyer by the userId prefix
+        RequiredIndex text = indexes.stream().filter(i -> i.name().equals("user_items_product_name_text")).findFirst().orElseThrow();
+        assertThat(text.definition().getIndexKeys()).isEqualTo(new Document("userId", 1).append("items.productName", "text"));
+    }
+    
+    @Test
+    void name_defaultsToTheServerGeneratedName() {
+        RequiredIndex unnamed = new RequiredIndex("orders",
+                new Index().on("userId", Sort.Direction.ASC).on("createdAt", Sort.Direction.DESC));
+        
+        assertThat(unnamed.name()).isEqualTo("userId_1_createdAt_-1");
+    }
+    
+    static MongoMappingContext mappingContext() {
+        MongoMappingContext context = new MongoMappingContext();
+        context.setSimpleTypeHolder(new MongoConversionsConfig().mongoCustomConversions().getSimpleTypeHolder());
+        context.afterPropertiesSet();
+        return context;
+    }
+    
+    private static IndexInfo info(String name) {
+        return new IndexInfo(List.of(), name, false, false, null);
+    }
+}
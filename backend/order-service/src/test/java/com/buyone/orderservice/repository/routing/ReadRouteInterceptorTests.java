@@ -0,0 +1,103 @@
+package com.buyone.orderservice.repository.routing;
+
+import com.buyone.orderservice.repository.OrderRepository;
+import com.buyone.orderservice.repository.OrderRepositoryCustom;
+import org.aopalliance.intercept.MethodInvocation;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ReadRouteInterceptorTests {
+    
+    interface BaseRepository {
+        List<String> findAll();
+    }
+    
+    interface SampleRepository extends BaseRepository {
+        @SecondaryRead
+        List<String> report(String sellerId);
+        
+        List<String> reserve(String productId);
+        
+        @Override
+        @SecondaryRead
+        List<String> findAll();
+    }
+    
+    private final ReadRouteInterceptor interceptor = new ReadRouteInterceptor(SampleRepository.class);
+    
+    private static MethodInvocation invocation(Class<?> declaring, String name, AtomicReference<String> seen,
+                                               Class<?>... parameterTypes) throws Throwable {
+        MethodInvocation invocation = mock(MethodInvocation.class);
+        when(invocation.getMethod()).thenReturn(declaring.getMethod(name, parameterTypes));
+        when(invocation.proceed()).thenAnswer(i -> {
+            seen.set(ReadRoute.current());
+            return List.of();
+        });
+        return invocation;
+    }
+    
+    @Test
+    void invoke_bindsRoute_whileSecondaryReadRuns() throws Throwable {
+        AtomicReference<String> seen = new AtomicReference<>();
+        
+        interceptor.invoke(invocation(SampleRepository.class, "report", seen, String.class));
+        
+        assertThat(seen.get()).isEqualTo("SampleRepository.report");
+        assertThat(ReadRoute.current()).isNull();
+    }
+    
+    @Test
+    void invoke_leavesOtherMethodsOnThePrimary() throws Throwable {
+        AtomicReference<String> seen = new AtomicReference<>("unset");
+        
+        interceptor.invoke(invocation(SampleRepository.class, "reserve", seen, String.class));
+        
+        assertThat(seen.get()).isNull();
+    }
+    
+    @Test
+    void invoke_honoursRedeclaredInheritedMethods() throws Throwable {
+        AtomicReference<String> seen = new AtomicReference<>();
+        
+        // Callers typed against the base interface still hit the redeclaration's annotation
+        interceptor.invoke(invocation(BaseRepository.class, "findAll", seen));
+        
+        assertThat(seen.get()).isEqualTo("SampleRepository.findAll");
+    }
+    
+    @Test
+    void orderRepository_routesSellerAndAnalyticsReads_butKeepsBuyerReadsOnThePrimary() throws Exception {
+        ReadRouteInterceptor orders = new ReadRouteInterceptor(OrderRepository.class);
+        
+        assertThat(orders.route(OrderRepository.class.getMethod("getSellerTotalRevenue", String.class)))
+                .contains("OrderRepository.getSellerTotalRevenue");
+        for (Method method : OrderRepositoryCustom.class.getMethods()) {
+            if (method.getName().contains("Buyer")) {
+                assertThat(orders.route(method)).as(method.getName()).isEmpty();
+            }
+        }
+    }
+    
+    @Test
+    void invoke_restoresOuterRoute_evenWhenTheQueryFails() throws Throwable {
+        MethodInvocation failing = mock(MethodInvocation.class);
+        when(failing.getMethod()).thenReturn(SampleRepository.class.getMethod("report", String.class));
+        when(failing.proceed()).thenThrow(new IllegalStateException("boom"));
+        String outer = ReadRoute.bind("Outer.route");
+        try {
+            assertThatThrownBy(() -> interceptor.invoke(failing)).isInstanceOf(IllegalStateException.class);
+            
+            assertThat(ReadRoute.current()).isEqualTo("Outer.route");
+        } finally {
+            ReadRoute.restore(outer);
+        }
+    }
+}
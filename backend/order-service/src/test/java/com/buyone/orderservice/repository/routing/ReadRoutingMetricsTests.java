@@ -0,0 +1,58 @@
+package com.buyone.orderservice.repository.routing;
+
+import com.mongodb.ServerAddress;
+import com.mongodb.connection.ClusterId;
+import com.mongodb.connection.ConnectionDescription;
+import com.mongodb.connection.ConnectionId;
+import com.mongodb.connection.ServerId;
+import com.mongodb.connection.ServerType;
+import com.mongodb.event.CommandSucceededEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.BsonDocument;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReadRoutingMetricsTests {
+    
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final ReadRoutingMetrics metrics = new ReadRoutingMetrics(registry);
+    
+    @AfterEach
+    void tearDown() {
+        ReadRoute.restore(null);
+    }
+    
+    private static CommandSucceededEvent succeeded(String command, ServerType serverType) {
+        ConnectionDescription connection = new ConnectionDescription(
+                new ConnectionId(new ServerId(new ClusterId(), new ServerAddress())),
+                17, serverType, 1000, 16 * 1024 * 1024, 48 * 1024 * 1024, List.of());
+        return new CommandSucceededEvent(null, 1, connection, command, new BsonDocument(), 1_000L);
+    }
+    
+    private double count(String route, String server) {
+        var counter = registry.find(ReadRoutingMetrics.METRIC).tags("route", route, "server", server).counter();
+        return counter == null ? 0 : counter.count();
+    }
+    
+    @Test
+    void commandSucceeded_countsReadsPerRouteAndServer() {
+        ReadRoute.bind("OrderRepository.getSellerTotalRevenue");
+        metrics.commandSucceeded(succeeded("aggregate", ServerType.REPLICA_SET_SECONDARY));
+        ReadRoute.restore(null);
+        metrics.commandSucceeded(succeeded("find", ServerType.REPLICA_SET_PRIMARY));
+        
+        assertThat(count("OrderRepository.getSellerTotalRevenue", "secondary")).isEqualTo(1);
+        assertThat(count(ReadRoutingMetrics.DEFAULT_ROUTE, "primary")).isEqualTo(1);
+    }
+    
+    @Test
+    void commandSucceeded_ignoresWrites() {
+        metrics.commandSucceeded(succeeded("update", ServerType.REPLICA_SET_PRIMARY));
+        
+        assertThat(registry.find(ReadRoutingMetrics.METRIC).counters()).isEmpty();
+    }
+}
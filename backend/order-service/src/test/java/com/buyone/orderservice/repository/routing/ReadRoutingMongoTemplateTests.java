@@ -0,0 +1,58 @@
+package com.buyone.orderservice.repository.routing;
+
+import com.mongodb.ReadPreference;
+import com.mongodb.client.MongoCollection;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+class ReadRoutingMongoTemplateTests {
+    
+    private static final ReadPreference SECONDARY = ReadPreference.secondaryPreferred(90, TimeUnit.SECONDS);
+    
+    @SuppressWarnings("unchecked")
+    private final MongoCollection<Document> collection = mock(MongoCollection.class);
+    @SuppressWarnings("unchecked")
+    private final MongoCollection<Document> secondaryCollection = mock(MongoCollection.class);
+    
+    private final ReadRoutingMongoTemplate template = new ReadRoutingMongoTemplate(mock(MongoDatabaseFactory.class),
+            new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, new MongoMappingContext()), SECONDARY);
+    
+    @AfterEach
+    void tearDown() {
+        ReadRoute.restore(null);
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+    }
+    
+    @Test
+    void prepareCollection_usesSecondary_whileRouteIsBound() {
+        when(collection.withReadPreference(SECONDARY)).thenReturn(secondaryCollection);
+        ReadRoute.bind("OrderRepository.getSellerTotalRevenue");
+        
+        assertThat(template.prepareCollection(collection)).isSameAs(secondaryCollection);
+    }
+    
+    @Test
+    void prepareCollection_keepsPrimary_withoutRoute() {
+        assertThat(template.prepareCollection(collection)).isSameAs(collection);
+        verify(collection, never()).withReadPreference(any());
+    }
+    
+    @Test
+    void prepareCollection_keepsPrimary_insideTransaction() {
+        ReadRoute.bind("OrderRepository.findSellerOrders");
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        
+        assertThat(template.prepareCollection(collection)).isSameAs(collection);
+    }
+}
@@ -1,21 +1,34 @@
 package com.buyone.orderservice.service;
 
 import com.buyone.orderservice.client.ProductClient;
+import com.buyone.orderservice.dto.request.ProductBatchRequest;
+import com.buyone.orderservice.dto.request.cart.AddCartItemRequest;
 import com.buyone.orderservice.dto.response.ApiResponse;
 import com.buyone.orderservice.dto.response.ProductResponse;
+import com.buyone.orderservice.dto.response.cart.BulkAddCartItemsResponse;
+import com.buyone.orderservice.dto.response.cart.BulkCartItemResult;
 import com.buyone.orderservice.exception.BadRequestException;
+import com.buyone.orderservice.exception.ConflictException;
+import com.buyone.orderservice.exception.ServiceUnavailableException;
 import com.buyone.orderservice.model.cart.Cart;
 import com.buyone.orderservice.model.cart.CartItem;
-import com.buyone.orderservice.repository.CartRepository;
+import com.buyone.orderservice.model.cart.CartItemChange;
+import com.buyone.orderservice.pricing.PricingEngine;
+import com.buyone.orderservice.service.support.CartRevalidationCache;
+import com.buyone.orderservice.service.support.OptimisticRetry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import com.buyone.orderservice.store.CartStore;
 import com.buyone.orderservice.service.impl.CartServiceImpl;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
-import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.dao.OptimisticLockingFailureException;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
@@ -24,7 +37,12 @@ import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -33,40 +51,37 @@ import static org.mockito.Mockito.when;
 class CartServiceImplTests {
     
     @Mock
-    private CartRepository cartRepository;
+    private CartStore cartStore;
     
     @Mock
     private ProductClient productClient;
     
+    @Spy
+    private PricingEngine pricingEngine =
+            new PricingEngine(0.24, new BigDecimal("50.00"), new BigDecimal("4.90"));
+    
+    @Spy
+    private OptimisticRetry optimisticRetry = new OptimisticRetry(new SimpleMeterRegistry(), 3, 0);
+    
+    @Spy
+    private CartRevalidationCache revalidationCache = new CartRevalidationCache(30_000, 100);
+    
     @InjectMocks
     private CartServiceImpl cartService;
     
-    private void setTaxRate() {
-        ReflectionTestUtils.setField(cartService, "taxRate", 0.1);
-    }
-    
     // -------- addItem --------
     
     @Test
     void addItem_addsNewItem_whenNotInCart() {
-        setTaxRate();
         String userId = "user-1";
         CartItem item = CartItem.builder()
                 .productId("prod-1").sellerId("seller-1")
                 .quantity(2).build();
         
-        when(cartRepository.findById(userId)).thenReturn(Optional.empty());
-        
-        ProductResponse product = new ProductResponse();
-        product.setId("prod-1");
-        product.setName("Laptop");
-        product.setPrice(BigDecimal.valueOf(500));
-        product.setQuantity(10);
-        product.setImages(List.of("img.jpg"));
-        
-        when(productClient.getById("prod-1"))
-                .thenReturn(ApiResponse.<ProductResponse>builder().success(true).data(product).build());
-        when(cartRepository.save(any(Cart.class))).thenAnswer(i -> i.getArgument(0));
+        when(cartStore.incrementItemQuantity(userId, "prod-1", "seller-1", 2)).thenReturn(Optional.empty());
+        when(productClient.getById("prod-1")).thenReturn(productResponse(10));
+        when(cartStore.pushItem(eq(userId), any(CartItem.class)))
+                .thenAnswer(i -> Optional.of(cartWith(i.<CartItem>getArgument(1))));
         
         Cart result = cartService.addItem(userId, item);
         
@@ -74,21 +89,14 @@ class CartServiceImplTests {
         assertThat(result.getItems().get(0).getProductName()).isEqualTo("Laptop");
         // Subtotal is 1000 / 1.24 = 806.45 (reverse VAT calculation)
         assertThat(result.getSubtotal()).isEqualByComparingTo(BigDecimal.valueOf(806.45));
+        verify(cartStore, never()).save(any(Cart.class));
     }
     
     @Test
     void addItem_mergesQuantity_whenSameProductExists() {
-        setTaxRate();
         String userId = "user-1";
-        CartItem existingItem = CartItem.builder()
-                .productId("prod-1").sellerId("seller-1")
-                .productName("Laptop").price(BigDecimal.valueOf(500))
-                .quantity(1).build();
-        Cart cart = Cart.builder().id(userId).userId(userId)
-                .items(new ArrayList<>(List.of(existingItem))).build();
-        
-        when(cartRepository.findById(userId)).thenReturn(Optional.of(cart));
-        when(cartRepository.save(any(Cart.class))).thenAnswer(i -> i.getArgument(0));
+        when(cartStore.incrementItemQuantity(userId, "prod-1", "seller-1", 2))
+                .thenReturn(Optional.of(cartWith(laptop(3))));
         
         CartItem newItem = CartItem.builder()
                 .productId("prod-1").sellerId("seller-1")
@@ -98,40 +106,67 @@ class CartServiceImplTests {
         
         assertThat(result.getItems()).hasSize(1);
         assertThat(result.getItems().get(0).getQuantity()).isEqualTo(3);
+        assertThat(result.getTotal()).isEqualByComparingTo("1500.00");
+        verify(productClient, never()).getById(any());
+        verify(cartStore, never()).pushItem(any(), any());
     }
     
     @Test
-    void addItem_throwsBadRequest_whenInsufficientStock() {
-        setTaxRate();
+    void addItem_mergesIntoConcurrentlyAddedItem_whenPushGuardFails() {
         String userId = "user-1";
         CartItem item = CartItem.builder()
                 .productId("prod-1").sellerId("seller-1")
-                .quantity(100).build();
+                .quantity(2).build();
         
-        when(cartRepository.findById(userId)).thenReturn(Optional.empty());
+        when(cartStore.incrementItemQuantity(userId, "prod-1", "seller-1", 2))
+                .thenReturn(Optional.empty())
+                .thenReturn(Optional.of(cartWith(laptop(4))));
+        when(productClient.getById("prod-1")).thenReturn(productResponse(10));
+        when(cartStore.pushItem(eq(userId), any(CartItem.class))).thenReturn(Optional.empty());
         
-        ProductResponse product = new ProductResponse();
-        product.setId("prod-1");
-        product.setName("Laptop");
-        product.setPrice(BigDecimal.valueOf(500));
-        product.setQuantity(5);
+        Cart result = cartService.addItem(userId, item);
+        
+        assertThat(result.getItems().get(0).getQuantity()).isEqualTo(4);
+        verify(cartStore, times(1)).pushItem(eq(userId), any(CartItem.class));
+    }
+    
+    @Test
+    void addItem_throwsConflict_whenCartKeepsChanging() {
+        CartItem item = CartItem.builder()
+                .productId("prod-1").sellerId("seller-1")
+                .quantity(1).build();
         
-        when(productClient.getById("prod-1"))
-                .thenReturn(ApiResponse.<ProductResponse>builder().success(true).data(product).build());
+        when(cartStore.incrementItemQuantity(any(), any(), any(), anyInt())).thenReturn(Optional.empty());
+        when(productClient.getById("prod-1")).thenReturn(productResponse(10));
+        when(cartStore.pushItem(any(), any())).thenReturn(Optional.empty());
+        
+        assertThatThrownBy(() -> cartService.addItem("user-1", item))
+                .isInstanceOf(ConflictException.class);
+    }
+    
+    @Test
+    void addItem_throwsBadRequest_whenInsufficientStock() {
+        String userId = "user-1";
+        CartItem item = CartItem.builder()
+                .productId("prod-1").sellerId("seller-1")
+                .quantity(100).build();
+        
+        when(cartStore.incrementItemQuantity(any(), any(), any(), anyInt())).thenReturn(Optional.empty());
+        when(productClient.getById("prod-1")).thenReturn(productResponse(5));
         
         assertThatThrownBy(() -> cartService.addItem(userId, item))
                 .isInstanceOf(BadRequestException.class)
                 .hasMessageContaining("Insufficient stock");
+        verify(cartStore, never()).pushItem(any(), any());
     }
     
     @Test
     void addItem_throwsBadRequest_whenProductNotFound() {
-        setTaxRate();
         CartItem item = CartItem.builder()
                 .productId("prod-x").sellerId("seller-1")
                 .quantity(1).build();
         
-        when(cartRepository.findById("user-1")).thenReturn(Optional.empty());
+        when(cartStore.incrementItemQuantity(any(), any(), any(), anyInt())).thenReturn(Optional.empty());
         when(productClient.getById("prod-x"))
                 .thenReturn(ApiResponse.<ProductResponse>builder().success(false).data(null).build());
         
@@ -173,21 +208,250 @@ class CartServiceImplTests {
                 .hasMessageContaining("Seller ID is required");
     }
     
+    // -------- addItems (bulk) --------
+    
+    @Test
+    void addItems_usesOneLookupAndOneWrite_andMergesIntoExistingLines() {
+        when(cartStore.findById("user-1")).thenReturn(Optional.of(cartWith(laptop(1))));
+        when(productClient.getByIds(any(ProductBatchRequest.class)))
+                .thenReturn(batchResponse(product("prod-1", 10), product("prod-2", 10)));
+        when(cartStore.save(any(Cart.class))).thenAnswer(i -> i.getArgument(0));
+        
+        BulkAddCartItemsResponse result = cartService.addItems("user-1", List.of(
+                addRequest("prod-1", 2), addRequest("prod-2", 1), addRequest("prod-2", 1)));
+        
+        assertThat(result.getAdded()).isEqualTo(2);
+        assertThat(result.getFailed()).isZero();
+        assertThat(result.getCart().getItems())
+                .extracting(CartItem::getProductId, CartItem::getQuantity)
+                .containsExactly(tuple("prod-1", 3), tuple("prod-2", 2));
+        ArgumentCaptor<ProductBatchRequest> lookup = ArgumentCaptor.forClass(ProductBatchRequest.class);
+        verify(productClient).getByIds(lookup.capture());
+        assertThat(lookup.getValue().getIds()).containsExactly("prod-1", "prod-2");
+        verify(productClient, never()).getById(any());
+        verify(cartStore, times(1)).save(any(Cart.class));
+    }
+    
+    @Test
+    void addItems_reportsPerItemFailures() {
+        when(cartStore.findById("user-1")).thenReturn(Optional.empty());
+        when(productClient.getByIds(any(ProductBatchRequest.class)))
+                .thenReturn(batchResponse(product("prod-1", 10), product("prod-2", 1)));
+        when(cartStore.save(any(Cart.class))).thenAnswer(i -> i.getArgument(0));
+        
+        BulkAddCartItemsResponse result = cartService.addItems("user-1", List.of(
+                addRequest("prod-1", 1), addRequest("prod-2", 5), addRequest("prod-3", 1), addRequest("prod-4", 0)));
+        
+        assertThat(result.getAdded()).isEqualTo(1);
+        assertThat(result.getFailed()).isEqualTo(3);
+        assertThat(result.getResults())
+                .filteredOn(r -> !r.isSuccess())
+                .extracting(BulkCartItemResult::getMessage)
+                .containsExactlyInAnyOrder(
+                        "Quantity must be positive",
+                        "Insufficient stock: 5 requested, 1 available",
+                        "Product not found: prod-3");
+        assertThat(result.getCart().getItems()).singleElement()
+                .satisfies(ci -> assertThat(ci.getProductName()).isEqualTo("Product prod-1"));
+    }
+    
+    @Test
+    void addItems_skipsWrite_whenNothingAccepted() {
+        when(cartStore.findById("user-1")).thenReturn(Optional.empty());
+        when(productClient.getByIds(any(ProductBatchRequest.class))).thenReturn(batchResponse());
+        
+        BulkAddCartItemsResponse result = cartService.addItems("user-1", List.of(addRequest("prod-1", 1)));
+        
+        assertThat(result.getAdded()).isZero();
+        assertThat(result.getCart().getItems()).isEmpty();
+        verify(cartStore, never()).save(any(Cart.class));
+    }
+    
+    @Test
+    void addItems_remergesOnFreshCart_whenSaveConflicts() {
+        when(cartStore.findById("user-1"))
+                .thenReturn(Optional.of(cartWith(laptop(1))))
+                .thenReturn(Optional.of(cartWith(laptop(4))));
+        when(productClient.getByIds(any(ProductBatchRequest.class))).thenReturn(batchResponse(product("prod-1", 10)));
+        when(cartStore.save(any(Cart.class)))
+                .thenThrow(new OptimisticLockingFailureException("stale"))
+                .thenAnswer(i -> i.getArgument(0));
+        
+        BulkAddCartItemsResponse result = cartService.addItems("user-1", List.of(addRequest("prod-1", 2)));
+        
+        assertThat(result.getCart().getItems()).singleElement()
+                .satisfies(ci -> assertThat(ci.getQuantity()).isEqualTo(6));
+    }
+    
+    @Test
+    void addItems_failsWholeCall_whenLookupUnsuccessful() {
+        when(cartStore.findById("user-1")).thenReturn(Optional.empty());
+        when(productClient.getByIds(any(ProductBatchRequest.class)))
+                .thenReturn(ApiResponse.<List<ProductResponse>>builder().success(false).build());
+        
+        assertThatThrownBy(() -> cartService.addItems("user-1", List.of(addRequest("prod-1", 1))))
+                .isInstanceOf(ServiceUnavailableException.class);
+        verify(cartStore, never()).save(any(Cart.class));
+    }
+    
     // -------- getCart --------
     
     @Test
     void getCart_returnsOptional_whenExists() {
         Cart cart = Cart.builder().id("user-1").userId("user-1").items(new ArrayList<>()).build();
-        when(cartRepository.findById("user-1")).thenReturn(Optional.of(cart));
+        when(cartStore.findById("user-1")).thenReturn(Optional.of(cart));
         
         Optional<Cart> result = cartService.getCart("user-1");
         
         assertThat(result).isPresent();
     }
     
+    @Test
+    void getCart_derivesTotalsFromItems() {
+        when(cartStore.findById("user-1")).thenReturn(Optional.of(cartWith(laptop(2))));
+        
+        Cart result = cartService.getCart("user-1").orElseThrow();
+        
+        assertThat(result.getSubtotal()).isEqualByComparingTo("806.45");
+        assertThat(result.getTax()).isEqualByComparingTo("193.55");
+        assertThat(result.getTotal()).isEqualByComparingTo("1000.00");
+    }
+    
+    @Test
+    void getCart_rehydratesCompactedItems() {
+        CartItem compacted = laptop(1);
+        compacted.setProductName(null);
+        CartItem other = laptop(1);
+        other.setProductId("prod-2");
+        other.setProductName(null);
+        when(cartStore.findById("user-1")).thenReturn(Optional.of(cartWith(compacted, other)));
+        when(productClient.getByIds(any(ProductBatchRequest.class)))
+                .thenReturn(batchResponse(product("prod-1", 10), product("prod-2", 10)));
+        when(cartStore.save(any(Cart.class))).thenAnswer(i -> i.getArgument(0));
+        
+        Cart result = cartService.getCart("user-1").orElseThrow();
+        
+        assertThat(result.getItems()).extracting(CartItem::getProductName)
+                .containsExactly("Product prod-1", "Product prod-2");
+        verify(productClient, times(1)).getByIds(any(ProductBatchRequest.class));
+        verify(productClient, never()).getById(any());
+        verify(cartStore).save(any(Cart.class));
+    }
+    
+    @Test
+    void updateQuantity_onACompactedCart_returnsTheOtherLinesRehydrated() {
+        CartItem updated = laptop(3);
+        CartItem compacted = laptop(1);
+        compacted.setProductId("prod-2");
+        compacted.setProductName(null);
+        when(cartStore.setItemQuantity("user-1", "prod-1", 3)).thenReturn(Optional.of(cartWith(updated, compacted)));
+        when(productClient.getByIds(any(ProductBatchRequest.class))).thenReturn(batchResponse(product("prod-2", 10)));
+        when(cartStore.save(any(Cart.class))).thenAnswer(i -> i.getArgument(0));
+        
+        Cart result = cartService.updateQuantity("user-1", "prod-1", 3);
+        
+        assertThat(result.getItems()).extracting(CartItem::getProductName)
+                .containsExactly("Laptop", "Product prod-2");
+        ArgumentCaptor<ProductBatchRequest> lookup = ArgumentCaptor.forClass(ProductBatchRequest.class);
+        verify(productClient).getByIds(lookup.capture());
+        assertThat(lookup.getValue().getIds()).containsExactly("prod-2");
+        assertThat(result.getTotal()).isEqualByComparingTo("2000.00");
+    }
+    
+    @Test
+    void getCart_skipsRehydration_whenItemsComplete() {
+        when(cartStore.findById("user-1")).thenReturn(Optional.of(cartWith(laptop(1))));
+        
+        cartService.getCart("user-1");
+        
+        verify(productClient, never()).getById(any());
+        verify(cartStore, never()).save(any(Cart.class));
+    }
+    
+    @Test
+    void getCart_keepsCompactedItem_whenProductLookupFails() {
+        CartItem compacted = laptop(1);
+        compacted.setProductName(null);
+        when(cartStore.findById("user-1")).thenReturn(Optional.of(cartWith(compacted)));
+        when(productClient.getByIds(any(ProductBatchRequest.class))).thenThrow(new RuntimeException("down"));
+        
+        Cart result = cartService.getCart("user-1").orElseThrow();
+        
+        assertThat(result.getItems()).hasSize(1);
+        verify(cartStore, never()).save(any(Cart.class));
+        assertThat(result.getTotal()).isEqualByComparingTo("500.00");
+    }
+    
+    // -------- revalidateCart --------
+    
+    @Test
+    void revalidateCart_flagsPriceAndStockChanges_andUsesLivePrices() {
+        CartItem cheaper = CartItem.builder().productId("prod-1").sellerId("seller-1")
+                .productName("A").price(BigDecimal.valueOf(25)).quantity(1).build();
+        CartItem scarce = CartItem.builder().productId("prod-2").sellerId("seller-1")
+                .productName("B").price(BigDecimal.valueOf(20)).quantity(3).build();
+        CartItem gone = CartItem.builder().productId("prod-3").sellerId("seller-1")
+                .productName("C").price(BigDecimal.valueOf(5)).quantity(1).build();
+        when(cartStore.findById("user-1")).thenReturn(Optional.of(cartWith(cheaper, scarce, gone)));
+        when(productClient.getByIds(any(ProductBatchRequest.class)))
+                .thenReturn(batchResponse(product("prod-1", 10), product("prod-2", 2)));
+        
+        Cart result = cartService.revalidateCart("user-1").orElseThrow();
+        
+        assertThat(result.getChanges())
+                .extracting(CartItemChange::getProductId, CartItemChange::isPriceChanged,
+                        CartItemChange::isInsufficientStock, CartItemChange::isUnavailable)
+                .containsExactly(
+                        tuple("prod-1", true, false, false),
+                        tuple("prod-2", false, true, false),
+                        tuple("prod-3", false, false, true));
+        assertThat(result.getChanges().get(0).getPreviousPrice()).isEqualByComparingTo("25");
+        assertThat(result.getItems().get(0).getPrice()).isEqualByComparingTo("20");
+        assertThat(result.getTotal()).isEqualByComparingTo("85.00");
+        verify(cartStore, never()).save(any(Cart.class));
+    }
+    
+    @Test
+    void revalidateCart_reusesCachedLookup_onRepeatedViews() {
+        when(cartStore.findById("user-1")).thenReturn(Optional.of(cartWith(laptop(1))));
+        when(productClient.getByIds(any(ProductBatchRequest.class))).thenReturn(batchResponse(product("prod-1", 10)));
+        
+        cartService.revalidateCart("user-1");
+        cartService.revalidateCart("user-1");
+        
+        verify(productClient, times(1)).getByIds(any(ProductBatchRequest.class));
+    }
+    
+    @Test
+    void revalidateCart_returnsPlainCart_whenLookupFails() {
+        when(cartStore.findById("user-1")).thenReturn(Optional.of(cartWith(laptop(1))));
+        when(productClient.getByIds(any(ProductBatchRequest.class))).thenThrow(new RuntimeException("down"));
+        
+        Cart result = cartService.revalidateCart("user-1").orElseThrow();
+        
+        assertThat(result.getChanges()).isNull();
+        assertThat(result.getTotal()).isEqualByComparingTo("500.00");
+    }
+    
+    @Test
+    void revalidateCart_doesNotCacheUnsuccessfulLookup() {
+        when(cartStore.findById("user-1")).thenAnswer(i -> Optional.of(cartWith(laptop(1))));
+        when(productClient.getByIds(any(ProductBatchRequest.class)))
+                .thenReturn(ApiResponse.<List<ProductResponse>>builder().success(false).message("boom").build())
+                .thenReturn(batchResponse(product("prod-1", 10)));
+        
+        Cart first = cartService.revalidateCart("user-1").orElseThrow();
+        Cart second = cartService.revalidateCart("user-1").orElseThrow();
+        
+        assertThat(first.getChanges()).isNull();  // plain cart, nothing flagged unavailable
+        assertThat(second.getChanges()).isNotNull()
+                .noneMatch(CartItemChange::isUnavailable);
+        verify(productClient, times(2)).getByIds(any(ProductBatchRequest.class));
+    }
+    
     @Test
     void getCart_returnsEmpty_whenNotExists() {
-        when(cartRepository.findById("user-1")).thenReturn(Optional.empty());
+        when(cartStore.findById("user-1")).thenReturn(Optional.empty());
         
         Optional<Cart> result = cartService.getCart("user-1");
         
@@ -198,28 +462,19 @@ class CartServiceImplTests {
     
     @Test
     void updateQuantity_updatesExistingItem() {
-        setTaxRate();
-        CartItem item = CartItem.builder()
-                .productId("prod-1").sellerId("seller-1")
-                .productName("Laptop").price(BigDecimal.valueOf(500))
-                .quantity(1).build();
-        Cart cart = Cart.builder().id("user-1").userId("user-1")
-                .items(new ArrayList<>(List.of(item))).build();
-        
-        when(cartRepository.findById("user-1")).thenReturn(Optional.of(cart));
-        when(cartRepository.save(any(Cart.class))).thenAnswer(i -> i.getArgument(0));
+        when(cartStore.setItemQuantity("user-1", "prod-1", 5))
+                .thenReturn(Optional.of(cartWith(laptop(5))));
         
         Cart result = cartService.updateQuantity("user-1", "prod-1", 5);
         
         assertThat(result.getItems().get(0).getQuantity()).isEqualTo(5);
+        assertThat(result.getTotal()).isEqualByComparingTo("2500.00");
+        verify(cartStore, never()).save(any(Cart.class));
     }
     
     @Test
     void updateQuantity_throwsBadRequest_whenProductNotInCart() {
-        Cart cart = Cart.builder().id("user-1").userId("user-1")
-                .items(new ArrayList<>()).build();
-        
-        when(cartRepository.findById("user-1")).thenReturn(Optional.of(cart));
+        when(cartStore.setItemQuantity("user-1", "prod-999", 5)).thenReturn(Optional.empty());
         
         assertThatThrownBy(() -> cartService.updateQuantity("user-1", "prod-999", 5))
                 .isInstanceOf(BadRequestException.class)
@@ -228,68 +483,90 @@ class CartServiceImplTests {
     
     @Test
     void updateQuantity_removesItem_whenQuantitySetToZero() {
-        setTaxRate();
-        CartItem item = CartItem.builder()
-                .productId("prod-1").sellerId("seller-1")
-                .productName("Laptop").price(BigDecimal.valueOf(500))
-                .quantity(1).build();
-        Cart cart = Cart.builder().id("user-1").userId("user-1")
-                .items(new ArrayList<>(List.of(item))).build();
-        
-        when(cartRepository.findById("user-1")).thenReturn(Optional.of(cart));
-        when(cartRepository.save(any(Cart.class))).thenAnswer(i -> i.getArgument(0));
+        when(cartStore.pullItem("user-1", "prod-1")).thenReturn(Optional.of(cartWith()));
         
         Cart result = cartService.updateQuantity("user-1", "prod-1", 0);
         
         assertThat(result.getItems()).isEmpty();
+        verify(cartStore, never()).setItemQuantity(any(), any(), anyInt());
     }
     
     // -------- removeItem --------
     
     @Test
     void removeItem_removesExistingItem() {
-        setTaxRate();
-        CartItem item = CartItem.builder()
-                .productId("prod-1").sellerId("seller-1")
-                .productName("Laptop").price(BigDecimal.valueOf(500))
-                .quantity(1).build();
-        Cart cart = Cart.builder().id("user-1").userId("user-1")
-                .items(new ArrayList<>(List.of(item))).build();
-        
-        when(cartRepository.findById("user-1")).thenReturn(Optional.of(cart));
-        when(cartRepository.save(any(Cart.class))).thenAnswer(i -> i.getArgument(0));
+        when(cartStore.pullItem("user-1", "prod-1")).thenReturn(Optional.of(cartWith()));
         
         Cart result = cartService.removeItem("user-1", "prod-1");
         
         assertThat(result.getItems()).isEmpty();
+        assertThat(result.getTotal()).isEqualByComparingTo(BigDecimal.ZERO);
     }
     
     @Test
     void removeItem_doesNotThrow_whenItemNotInCart() {
-        setTaxRate();
         Cart cart = Cart.builder().id("user-1").userId("user-1")
                 .items(new ArrayList<>()).build();
         
-        when(cartRepository.findById("user-1")).thenReturn(Optional.of(cart));
-        when(cartRepository.save(any(Cart.class))).thenAnswer(i -> i.getArgument(0));
+        when(cartStore.pullItem("user-1", "prod-999")).thenReturn(Optional.empty());
+        when(cartStore.findById("user-1")).thenReturn(Optional.of(cart));
         
         Cart result = cartService.removeItem("user-1", "prod-999");
         
         assertThat(result.getItems()).isEmpty();
+        verify(cartStore, never()).save(any(Cart.class));
     }
     
     // -------- clearCart --------
     
     @Test
-    void clearCart_savesEmptyCart() {
-        when(cartRepository.save(any(Cart.class))).thenAnswer(i -> i.getArgument(0));
-        
+    void clearCart_deletesCartDocument() {
         Cart result = cartService.clearCart("user-1");
         
         assertThat(result.getItems()).isEmpty();
         assertThat(result.getSubtotal()).isEqualByComparingTo(BigDecimal.ZERO);
         assertThat(result.getTax()).isEqualByComparingTo(BigDecimal.ZERO);
         assertThat(result.getTotal()).isEqualByComparingTo(BigDecimal.ZERO);
-        verify(cartRepository).save(any(Cart.class));
+        verify(cartStore).delete("user-1");
+        verify(cartStore, never()).save(any(Cart.class));
+    }
+    
+    private static CartItem laptop(int quantity) {
+        return CartItem.builder()
+                .productId("prod-1").sellerId("seller-1")
+                .productName("Laptop").price(BigDecimal.valueOf(500))
+                .quantity(quantity).build();
+    }
+    
+    private static Cart cartWith(CartItem... items) {
+        return Cart.builder().id("user-1").userId("user-1")
+                .items(new ArrayList<>(List.of(items))).build();
+    }
+    
+    private static ApiResponse<ProductResponse> productResponse(int stock) {
+        ProductResponse product = new ProductResponse();
+        product.setId("prod-1");
+        product.setName("Laptop");
+        product.setPrice(BigDecimal.valueOf(500));
+        product.setQuantity(stock);
+        product.setImages(List.of("img.jpg"));
+        return ApiResponse.<ProductResponse>builder().success(true).data(product).build();
+    }
+    
+    private static AddCartItemRequest addRequest(String productId, int quantity) {
+        return AddCartItemRequest.builder().productId(productId).sellerId("seller-1").quantity(quantity).build();
+    }
+    
+    private static ProductResponse product(String id, int stock) {
+        ProductResponse product = new ProductResponse();
+        product.setId(id);
+        product.setName("Product " + id);
+        product.setPrice(BigDecimal.valueOf(20));
+        product.setQuantity(stock);
+        return product;
+    }
+    
+    private static ApiResponse<List<ProductResponse>> batchResponse(ProductResponse... products) {
+        return ApiResponse.<List<ProductResponse>>builder().success(true).data(List.of(products)).build();
     }
 }
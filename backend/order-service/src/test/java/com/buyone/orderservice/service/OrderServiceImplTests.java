@@ -1,12 +1,22 @@
 package com.buyone.orderservice.service;
 
+import com.buyone.orderservice.analytics.CategoryResolver;
 import com.buyone.orderservice.client.ProductClient;
+import com.buyone.orderservice.dto.request.CommitStockRequest;
 import com.buyone.orderservice.dto.request.ReleaseStockRequest;
 import com.buyone.orderservice.dto.request.ReserveStockRequest;
+import com.buyone.orderservice.dto.request.order.ExportFormat;
 import com.buyone.orderservice.dto.request.order.OrderSearchRequest;
 import com.buyone.orderservice.dto.response.ApiResponse;
+import com.buyone.orderservice.dto.response.CursorPage;
+import com.buyone.orderservice.dto.response.SliceResponse;
 import com.buyone.orderservice.dto.response.ProductResponse;
+import com.buyone.orderservice.dto.response.order.BulkOrderStatusResponse;
+import com.buyone.orderservice.dto.response.order.BulkOrderStatusResult;
+import com.buyone.orderservice.dto.response.order.OrderSummaryResponse;
+import com.buyone.orderservice.event.OrderStatusChangedEvent;
 import com.buyone.orderservice.exception.BadRequestException;
+import com.buyone.orderservice.exception.ConflictException;
 import com.buyone.orderservice.exception.ResourceNotFoundException;
 import com.buyone.orderservice.model.Address;
 import com.buyone.orderservice.model.cart.Cart;
@@ -14,6 +24,9 @@ import com.buyone.orderservice.model.cart.CartItem;
 import com.buyone.orderservice.model.order.Order;
 import com.buyone.orderservice.model.order.OrderItem;
 import com.buyone.orderservice.model.order.OrderStatus;
+import com.buyone.orderservice.pricing.PricingEngine;
+import com.buyone.orderservice.service.support.OptimisticRetry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import com.buyone.orderservice.repository.OrderRepository;
 import com.buyone.orderservice.service.impl.OrderServiceImpl;
 import org.junit.jupiter.api.Test;
@@ -21,23 +34,35 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
 
+import java.io.ByteArrayOutputStream;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.LocalTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
 
@@ -54,6 +79,19 @@ class OrderServiceImplTests {
     @Mock
     private ProductClient productClient;
     
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    
+    @Mock
+    private CategoryResolver categoryResolver;
+    
+    @Spy
+    private PricingEngine pricingEngine =
+            new PricingEngine(0.24, new BigDecimal("50.00"), new BigDecimal("4.90"));
+    
+    @Spy
+    private OptimisticRetry optimisticRetry = new OptimisticRetry(new SimpleMeterRegistry(), 3, 0);
+    
     @InjectMocks
     private OrderServiceImpl orderService;
     
@@ -82,11 +120,13 @@ class OrderServiceImplTests {
         product.setUserId("seller-1");
         product.setQuantity(10);
         product.setImages(List.of("img1.jpg"));
+        product.setCategoryId("CAT-001");
         
         when(productClient.getById("prod-1"))
                 .thenReturn(ApiResponse.<ProductResponse>builder().success(true).data(product).build());
         when(productClient.reserveStock(any(ReserveStockRequest.class)))
                 .thenReturn(ApiResponse.<Void>builder().success(true).build());
+        when(categoryResolver.names(List.of("CAT-001"))).thenReturn(Map.of("CAT-001", "Electronics"));
         
         when(orderRepository.save(any(Order.class))).thenAnswer(i -> {
             Order o = i.getArgument(0);
@@ -102,10 +142,14 @@ class OrderServiceImplTests {
         assertThat(result.getUserId()).isEqualTo(userId);
         assertThat(result.getItems()).hasSize(1);
         assertThat(result.getItems().get(0).getProductName()).isEqualTo("Laptop");
+        assertThat(result.getItems().get(0).getCategoryId()).isEqualTo("CAT-001");
+        assertThat(result.getItems().get(0).getCategoryName()).isEqualTo("Electronics");
+        assertThat(result.getSellerIds()).containsExactly("seller-1");
         // Auto-confirmed for PAY_ON_DELIVERY
         assertThat(result.getStatus()).isEqualTo(OrderStatus.CONFIRMED);
         // Subtotal = 2000 / 1.24 = 1612.90 (reverse VAT calculation)
         assertThat(result.getSubtotal()).isEqualByComparingTo(BigDecimal.valueOf(1612.90));
+        verify(cartService).flushCart(userId);
         verify(cartService).clearCart(userId);
     }
     
@@ -143,6 +187,52 @@ class OrderServiceImplTests {
         assertThat(result.get(0).getOrderNumber()).isEqualTo("ORD-001");
     }
     
+    // -------- getBuyerOrderHistory --------
+    
+    private OrderSummaryResponse summary(String id, LocalDateTime createdAt) {
+        return new OrderSummaryResponse(id, "ORD-" + id.substring(20), OrderStatus.CONFIRMED,
+                BigDecimal.TEN, 2, "img.jpg", createdAt);
+    }
+    
+    @Test
+    void getBuyerOrderHistory_firstPage_fetchesLimitPlusOne_andReturnsCursor() {
+        LocalDateTime t = LocalDateTime.of(2025, 5, 1, 12, 0);
+        List<OrderSummaryResponse> rows = List.of(
+                summary("65f000000000000000000003", t),
+                summary("65f000000000000000000002", t.minusDays(1)),
+                summary("65f000000000000000000001", t.minusDays(2)));
+        when(orderRepository.findBuyerOrderSummaries("user-1", null, null, 3)).thenReturn(rows);
+        
+        CursorPage<OrderSummaryResponse> page = orderService.getBuyerOrderHistory("user-1", null, 2);
+        
+        assertThat(page.getItems()).hasSize(2);
+        assertThat(page.isHasNext()).isTrue();
+        assertThat(page.getNextCursor()).isNotBlank();
+        verify(orderRepository, never()).findByUserId(anyString());
+        
+        // Cursor round-trips to the last row's (createdAt, id)
+        when(orderRepository.findBuyerOrderSummaries(anyString(), any(), any(), anyInt())).thenReturn(List.of());
+        CursorPage<OrderSummaryResponse> next = orderService.getBuyerOrderHistory("user-1", page.getNextCursor(), 2);
+        
+        verify(orderRepository).findBuyerOrderSummaries("user-1", t.minusDays(1), "65f000000000000000000002", 3);
+        assertThat(next.isHasNext()).isFalse();
+        assertThat(next.getNextCursor()).isNull();
+    }
+    
+    @Test
+    void getBuyerOrderHistory_clampsLimit() {
+        orderService.getBuyerOrderHistory("user-1", null, 10_000);
+        
+        verify(orderRepository).findBuyerOrderSummaries("user-1", null, null, 101);
+    }
+    
+    @Test
+    void getBuyerOrderHistory_throwsBadRequest_whenCursorInvalid() {
+        assertThatThrownBy(() -> orderService.getBuyerOrderHistory("user-1", "not-a-cursor", 10))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("Invalid cursor");
+    }
+    
     // -------- getOrder --------
     
     @Test
@@ -165,6 +255,26 @@ class OrderServiceImplTests {
         assertThat(result).isEmpty();
     }
     
+    @Test
+    void getOrder_fallsBackToArchive_whenNotInHotCollection() {
+        Order archived = Order.builder().orderNumber("ORD-OLD").status(OrderStatus.DELIVERED).build();
+        when(orderRepository.findByOrderNumber("ORD-OLD")).thenReturn(Optional.empty());
+        when(orderRepository.findArchivedByOrderNumber("ORD-OLD")).thenReturn(Optional.of(archived));
+        
+        Optional<Order> result = orderService.getOrder("ORD-OLD");
+        
+        assertThat(result).contains(archived);
+    }
+    
+    @Test
+    void updateStatus_ignoresArchive_whenOrderOnlyArchived() {
+        when(orderRepository.findByOrderNumber("ORD-OLD")).thenReturn(Optional.empty());
+        
+        assertThatThrownBy(() -> orderService.updateStatus("ORD-OLD", "seller-1", OrderStatus.SHIPPED))
+                .isInstanceOf(ResourceNotFoundException.class);
+        verify(orderRepository, never()).findArchivedByOrderNumber(anyString());
+    }
+    
     // -------- updateStatus --------
     
     @Test
@@ -187,6 +297,56 @@ class OrderServiceImplTests {
         assertThat(result).isPresent();
         assertThat(result.get().getStatus()).isEqualTo(OrderStatus.CONFIRMED);
         verify(productClient).commitStock("ORD-001");
+        verify(eventPublisher).publishEvent(new OrderStatusChangedEvent(order, OrderStatus.PENDING, OrderStatus.CONFIRMED));
+    }
+    
+    @Test
+    void updateStatus_retriesOnVersionConflict_andRechecksFreshState() {
+        OrderItem item = OrderItem.builder().productId("p1").sellerId("seller-1").build();
+        Order stale = Order.builder().orderNumber("ORD-001").userId("user-1")
+                .status(OrderStatus.CONFIRMED).items(List.of(item)).version(1L).build();
+        Order cancelled = Order.builder().orderNumber("ORD-001").userId("user-1")
+                .status(OrderStatus.CANCELLED).items(List.of(item)).version(2L).build();
+        
+        when(orderRepository.findByOrderNumber("ORD-001"))
+                .thenReturn(Optional.of(stale))
+                .thenReturn(Optional.of(cancelled));
+        when(orderRepository.save(any(Order.class)))
+                .thenThrow(new OptimisticLockingFailureException("version 1 is stale"));
+        
+        // Buyer's CANCELLED won the race → seller's SHIPPED must not clobber it
+        assertThatThrownBy(() -> orderService.updateStatus("ORD-001", "seller-1", OrderStatus.SHIPPED))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("CANCELLED");
+        verify(orderRepository, times(2)).findByOrderNumber("ORD-001");
+        verify(orderRepository, times(1)).save(any(Order.class));
+    }
+    
+    @Test
+    void updateStatus_throwsConflict_whenRetriesExhausted() {
+        OrderItem item = OrderItem.builder().productId("p1").sellerId("seller-1").build();
+        when(orderRepository.findByOrderNumber("ORD-001")).thenAnswer(i -> Optional.of(Order.builder()
+                .orderNumber("ORD-001").status(OrderStatus.CONFIRMED).items(List.of(item)).build()));
+        when(orderRepository.save(any(Order.class)))
+                .thenThrow(new OptimisticLockingFailureException("stale"));
+        
+        assertThatThrownBy(() -> orderService.updateStatus("ORD-001", "seller-1", OrderStatus.SHIPPED))
+                .isInstanceOf(ConflictException.class);
+        verify(orderRepository, times(3)).save(any(Order.class));
+        verify(productClient, never()).commitStock(anyString());
+    }
+    
+    @Test
+    void updateStatus_rejectsLeavingFinalStatus() {
+        OrderItem item = OrderItem.builder().productId("p1").sellerId("seller-1").build();
+        Order order = Order.builder().orderNumber("ORD-001")
+                .status(OrderStatus.DELIVERED).items(List.of(item)).build();
+        when(orderRepository.findByOrderNumber("ORD-001")).thenReturn(Optional.of(order));
+        
+        assertThatThrownBy(() -> orderService.updateStatus("ORD-001", "seller-1", OrderStatus.SHIPPED))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("can no longer change status");
+        verify(orderRepository, never()).save(any(Order.class));
     }
     
     @Test
@@ -213,6 +373,64 @@ class OrderServiceImplTests {
                 .hasMessageContaining("Order not found");
     }
     
+    // -------- bulkUpdateStatus --------
+    
+    @Test
+    void bulkUpdateStatus_reportsPerOrder_andBatchesStockCommit() {
+        OrderItem mine = OrderItem.builder().productId("p1").sellerId("seller-1").build();
+        OrderItem other = OrderItem.builder().productId("p2").sellerId("seller-2").build();
+        Order pending = Order.builder().id("1").orderNumber("ORD-1").status(OrderStatus.PENDING).items(List.of(mine)).build();
+        Order pending2 = Order.builder().id("2").orderNumber("ORD-2").status(OrderStatus.PENDING).items(List.of(mine)).build();
+        Order foreign = Order.builder().id("3").orderNumber("ORD-3").status(OrderStatus.PENDING).items(List.of(other)).build();
+        
+        when(orderRepository.findByOrderNumberIn(List.of("ORD-1", "ORD-2", "ORD-3", "ORD-404")))
+                .thenReturn(List.of(pending, pending2, foreign));
+        when(orderRepository.bulkUpdateStatus(anyList(), eq(OrderStatus.CONFIRMED), any(LocalDateTime.class)))
+                .thenReturn(2);
+        
+        BulkOrderStatusResponse result = orderService.bulkUpdateStatus("seller-1",
+                List.of("ORD-1", "ORD-2", "ORD-3", "ORD-404", "ORD-1"), OrderStatus.CONFIRMED);
+        
+        assertThat(result.getUpdated()).isEqualTo(2);
+        assertThat(result.getFailed()).isEqualTo(2);
+        assertThat(result.getResults()).extracting(BulkOrderStatusResult::getOrderNumber)
+                .containsExactly("ORD-1", "ORD-2", "ORD-3", "ORD-404");
+        assertThat(result.getResults().get(2).getMessage()).contains("not authorized");
+        assertThat(result.getResults().get(3).getMessage()).isEqualTo("Order not found");
+        
+        ArgumentCaptor<CommitStockRequest> commit = ArgumentCaptor.forClass(CommitStockRequest.class);
+        verify(productClient).commitStockBatch(commit.capture());
+        assertThat(commit.getValue().getOrderNumbers()).containsExactly("ORD-1", "ORD-2");
+        verify(productClient, never()).commitStock(anyString());
+        verify(eventPublisher, times(2)).publishEvent(any(OrderStatusChangedEvent.class));
+    }
+    
+    @Test
+    void bulkUpdateStatus_flagsOrdersChangedConcurrently() {
+        OrderItem mine = OrderItem.builder().productId("p1").sellerId("seller-1").build();
+        Order a = Order.builder().id("1").orderNumber("ORD-1").status(OrderStatus.CONFIRMED).items(List.of(mine)).build();
+        Order b = Order.builder().id("2").orderNumber("ORD-2").status(OrderStatus.CONFIRMED).items(List.of(mine)).build();
+        
+        when(orderRepository.findByOrderNumberIn(List.of("ORD-1", "ORD-2"))).thenReturn(List.of(a, b));
+        ArgumentCaptor<LocalDateTime> stamp = ArgumentCaptor.forClass(LocalDateTime.class);
+        when(orderRepository.bulkUpdateStatus(anyList(), eq(OrderStatus.SHIPPED), stamp.capture()))
+                .thenAnswer(i -> {
+                    // ORD-1 applied, ORD-2 was cancelled in between
+                    a.setStatus(OrderStatus.SHIPPED);
+                    a.setUpdatedAt(i.getArgument(2));
+                    b.setStatus(OrderStatus.CANCELLED);
+                    return 1;
+                });
+        
+        BulkOrderStatusResponse result = orderService.bulkUpdateStatus("seller-1",
+                List.of("ORD-1", "ORD-2"), OrderStatus.SHIPPED);
+        
+        assertThat(result.getUpdated()).isEqualTo(1);
+        assertThat(result.getResults().get(1).isSuccess()).isFalse();
+        assertThat(result.getResults().get(1).getMessage()).contains("concurrently");
+        verify(productClient, never()).commitStockBatch(any());
+    }
+    
     // -------- cancelOrder --------
     
     @Test
@@ -235,6 +453,22 @@ class OrderServiceImplTests {
         verify(orderRepository).save(captor.capture());
         assertThat(captor.getValue().getStatus()).isEqualTo(OrderStatus.CANCELLED);
         verify(productClient).releaseStock(any(ReleaseStockRequest.class));
+        verify(eventPublisher).publishEvent(new OrderStatusChangedEvent(order, OrderStatus.PENDING, OrderStatus.CANCELLED));
+    }
+    
+    @Test
+    void cancelOrder_retriesOnVersionConflict_andReleasesStockOnce() {
+        OrderItem item = OrderItem.builder().productId("p1").quantity(2).build();
+        when(orderRepository.findByOrderNumber("ORD-001")).thenAnswer(i -> Optional.of(Order.builder()
+                .orderNumber("ORD-001").userId("user-1").status(OrderStatus.PENDING).items(List.of(item)).build()));
+        when(orderRepository.save(any(Order.class)))
+                .thenThrow(new OptimisticLockingFailureException("stale"))
+                .thenAnswer(i -> i.getArgument(0));
+        
+        orderService.cancelOrder("ORD-001", "user-1");
+        
+        verify(orderRepository, times(2)).save(any(Order.class));
+        verify(productClient, times(1)).releaseStock(any(ReleaseStockRequest.class));
     }
     
     @Test
@@ -293,6 +527,7 @@ class OrderServiceImplTests {
         assertThat(result).isPresent();
         assertThat(result.get().getStatus()).isEqualTo(OrderStatus.CONFIRMED);
         verify(productClient).commitStock("ORD-001");
+        verify(eventPublisher).publishEvent(new OrderStatusChangedEvent(order, OrderStatus.PENDING, OrderStatus.CONFIRMED));
     }
     
     @Test
@@ -330,9 +565,9 @@ class OrderServiceImplTests {
         Order order = Order.builder().orderNumber("ORD-001").userId("user-1").build();
         Page<Order> page = new PageImpl<>(List.of(order));
         
-        when(orderRepository.findBuyerOrdersSearch(
-                eq("user-1"), eq("laptop"),
-                eq(null), any(Pageable.class)))
+        when(orderRepository.searchBuyerOrders(
+                eq("user-1"), eq("laptop"), isNull(),
+                isNull(), isNull(), any(Pageable.class)))
                 .thenReturn(page);
         
         OrderSearchRequest req = OrderSearchRequest.builder()
@@ -342,18 +577,18 @@ class OrderServiceImplTests {
         Page<Order> result = orderService.searchBuyerOrders("user-1", req);
         
         assertThat(result.getContent()).hasSize(1);
-        verify(orderRepository).findBuyerOrdersSearch(
-                eq("user-1"), eq("laptop"),
-                eq(null), any(Pageable.class));
+        verify(orderRepository).searchBuyerOrders(
+                eq("user-1"), eq("laptop"), isNull(),
+                isNull(), isNull(), any(Pageable.class));
     }
     
     @Test
     void searchBuyerOrders_withStatus_passesEnumToRepository() {
         Page<Order> page = new PageImpl<>(List.of());
         
-        when(orderRepository.findBuyerOrdersSearch(
-                eq("user-1"), isNull(),
-                eq(OrderStatus.PENDING), any(Pageable.class)))
+        when(orderRepository.searchBuyerOrders(
+                eq("user-1"), isNull(), eq(OrderStatus.PENDING),
+                isNull(), isNull(), any(Pageable.class)))
                 .thenReturn(page);
         
         OrderSearchRequest req = OrderSearchRequest.builder()
@@ -363,18 +598,18 @@ class OrderServiceImplTests {
         Page<Order> result = orderService.searchBuyerOrders("user-1", req);
         
         assertThat(result.getContent()).isEmpty();
-        verify(orderRepository).findBuyerOrdersSearch(
-                eq("user-1"), isNull(),
-                eq(OrderStatus.PENDING), any(Pageable.class));
+        verify(orderRepository).searchBuyerOrders(
+                eq("user-1"), isNull(), eq(OrderStatus.PENDING),
+                isNull(), isNull(), any(Pageable.class));
     }
     
     @Test
     void searchBuyerOrders_withKeywordAndStatus_callsRepositoryWithBoth() {
         Page<Order> page = new PageImpl<>(List.of());
         
-        when(orderRepository.findBuyerOrdersSearch(
-                eq("user-1"), eq("laptop"),
-                eq(OrderStatus.DELIVERED), any(Pageable.class)))
+        when(orderRepository.searchBuyerOrders(
+                eq("user-1"), eq("laptop"), eq(OrderStatus.DELIVERED),
+                isNull(), isNull(), any(Pageable.class)))
                 .thenReturn(page);
         
         OrderSearchRequest req = OrderSearchRequest.builder()
@@ -386,9 +621,76 @@ class OrderServiceImplTests {
         Page<Order> result = orderService.searchBuyerOrders("user-1", req);
         
         assertThat(result.getContent()).isEmpty();
-        verify(orderRepository).findBuyerOrdersSearch(
-                eq("user-1"), eq("laptop"),
-                eq(OrderStatus.DELIVERED), any(Pageable.class));
+        verify(orderRepository).searchBuyerOrders(
+                eq("user-1"), eq("laptop"), eq(OrderStatus.DELIVERED),
+                isNull(), isNull(), any(Pageable.class));
+    }
+    
+    @Test
+    void searchBuyerOrders_withDateRange_passesParsedBounds() {
+        when(orderRepository.searchBuyerOrders(
+                anyString(), any(), any(), any(), any(), any(Pageable.class)))
+                .thenReturn(new PageImpl<>(List.of()));
+        
+        OrderSearchRequest req = OrderSearchRequest.builder()
+                .startDate("2025-01-01T08:00:00")
+                .endDate("2025-01-31")
+                .build();
+        
+        orderService.searchBuyerOrders("user-1", req);
+        
+        verify(orderRepository).searchBuyerOrders(
+                eq("user-1"), isNull(), isNull(),
+                eq(LocalDateTime.of(2025, 1, 1, 8, 0)),
+                eq(LocalDate.of(2025, 1, 31).atTime(LocalTime.MAX)),
+                any(Pageable.class));
+    }
+    
+    @Test
+    void searchBuyerOrders_throwsBadRequest_whenDateInvalid() {
+        OrderSearchRequest req = OrderSearchRequest.builder().startDate("yesterday").build();
+        
+        assertThatThrownBy(() -> orderService.searchBuyerOrders("user-1", req))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("Invalid date");
+    }
+    
+    @Test
+    void searchBuyerOrders_throwsBadRequest_whenRangeInverted() {
+        OrderSearchRequest req = OrderSearchRequest.builder()
+                .startDate("2025-02-01").endDate("2025-01-01").build();
+        
+        assertThatThrownBy(() -> orderService.searchBuyerOrders("user-1", req))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("startDate");
+    }
+    
+    @Test
+    void searchBuyerOrderSlice_skipsCountByDefault() {
+        Pageable pageable = PageRequest.of(1, 2);
+        when(orderRepository.searchBuyerOrderSlice(eq("user-1"), eq("lamp"), isNull(), isNull(), isNull(), eq(pageable)))
+                .thenReturn(new SliceImpl<>(List.of(Order.builder().orderNumber("ORD-1").build()), pageable, true));
+        
+        SliceResponse<Order> result = orderService.searchBuyerOrderSlice("user-1",
+                OrderSearchRequest.builder().keyword("lamp").page(1).size(2).slice(true).build());
+        
+        assertThat(result.getItems()).extracting(Order::getOrderNumber).containsExactly("ORD-1");
+        assertThat(result.getPage()).isEqualTo(1);
+        assertThat(result.isHasNext()).isTrue();
+        assertThat(result.getTotal()).isNull();
+        verify(orderRepository, never()).countBuyerOrders(any(), any(), any(), any(), any());
+    }
+    
+    @Test
+    void searchBuyerOrderSlice_withTotal_countsSameFilters() {
+        when(orderRepository.searchBuyerOrderSlice(any(), any(), any(), any(), any(), any(Pageable.class)))
+                .thenReturn(new SliceImpl<>(List.of()));
+        when(orderRepository.countBuyerOrders("user-1", null, OrderStatus.SHIPPED, null, null)).thenReturn(7L);
+        
+        SliceResponse<Order> result = orderService.searchBuyerOrderSlice("user-1",
+                OrderSearchRequest.builder().status("shipped").slice(true).withTotal(true).build());
+        
+        assertThat(result.getTotal()).isEqualTo(7L);
     }
     
     // -------- getSellerOrders --------
@@ -408,6 +710,55 @@ class OrderServiceImplTests {
         assertThat(result.getContent()).hasSize(1);
     }
     
+    // -------- exportSellerOrders --------
+    
+    private Order exportOrder() {
+        return Order.builder()
+                .orderNumber("ORD-1").status(OrderStatus.CONFIRMED)
+                .createdAt(LocalDateTime.of(2025, 3, 1, 10, 0))
+                .items(List.of(
+                        OrderItem.builder().productId("p1").productName("Mug, large").sellerId("seller-1")
+                                .price(new BigDecimal("12.50")).quantity(2).build(),
+                        OrderItem.builder().productId("p2").productName("Other").sellerId("seller-2")
+                                .price(BigDecimal.ONE).quantity(1).build()))
+                .build();
+    }
+    
+    @Test
+    void exportSellerOrders_writesCsvRowsForSellerLinesOnly() throws Exception {
+        when(orderRepository.streamSellerOrders("seller-1", OrderStatus.CONFIRMED, null, null))
+                .thenReturn(Stream.of(exportOrder()));
+        
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        orderService.exportSellerOrders("seller-1", "confirmed", null, null, ExportFormat.CSV).writeTo(out);
+        
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(lines).hasSize(2);
+        assertThat(lines[0]).isEqualTo("orderNumber,createdAt,status,productId,productName,quantity,unitPrice,lineTotal");
+        assertThat(lines[1]).isEqualTo("ORD-1,2025-03-01T10:00,CONFIRMED,p1,\"Mug, large\",2,12.50,25.00");
+        verify(orderRepository, never()).findSellerOrders(anyString(), any());
+    }
+    
+    @Test
+    void exportSellerOrders_writesNdjson() throws Exception {
+        when(orderRepository.streamSellerOrders(eq("seller-1"), isNull(), any(), any()))
+                .thenReturn(Stream.of(exportOrder(), exportOrder()));
+        
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        orderService.exportSellerOrders("seller-1", null, "2025-01-01", null, ExportFormat.NDJSON).writeTo(out);
+        
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(lines).hasSize(2);
+        assertThat(lines[0]).startsWith("{\"orderNumber\":\"ORD-1\"").contains("\"lineTotal\":25.00");
+    }
+    
+    @Test
+    void exportSellerOrders_rejectsBadFiltersBeforeStreaming() {
+        assertThatThrownBy(() -> orderService.exportSellerOrders("seller-1", null, "nope", null, ExportFormat.CSV))
+                .isInstanceOf(BadRequestException.class);
+        verify(orderRepository, never()).streamSellerOrders(any(), any(), any(), any());
+    }
+    
     // -------- redoOrder --------
     
     @Test
@@ -1,18 +1,41 @@
 package com.buyone.orderservice.service;
 
+import com.buyone.orderservice.analytics.HyperLogLog;
+import com.buyone.orderservice.analytics.TrendingTracker;
 import com.buyone.orderservice.dto.response.analytics.*;
+import com.buyone.orderservice.exception.BadRequestException;
+import com.buyone.orderservice.model.analytics.AnalyticsRollup;
+import com.buyone.orderservice.model.analytics.BucketGranularity;
+import com.buyone.orderservice.model.analytics.CategoryRollup;
+import com.buyone.orderservice.model.analytics.ProductRollup;
+import com.buyone.orderservice.model.analytics.SalesBucket;
+import com.buyone.orderservice.repository.AnalyticsRollupRepository;
 import com.buyone.orderservice.repository.OrderRepository;
+import com.buyone.orderservice.repository.SalesBucketRepository;
 import com.buyone.orderservice.service.impl.ProfileAnalyticsServiceImpl;
+import com.buyone.orderservice.service.support.AnalyticsCache;
+import com.buyone.orderservice.service.support.AnalyticsQueryRunner;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -21,6 +44,21 @@ class ProfileAnalyticsServiceImplTests {
     @Mock
     private OrderRepository orderRepository;
     
+    @Mock
+    private AnalyticsRollupRepository rollupRepository;
+    
+    @Spy
+    private AnalyticsQueryRunner queryRunner = new AnalyticsQueryRunner(new SimpleMeterRegistry(), 4, 10, 5_000);
+    
+    @Spy
+    private AnalyticsCache analyticsCache = new AnalyticsCache(60_000, 100);
+    
+    @Mock
+    private SalesBucketRepository salesBucketRepository;
+    
+    @Mock
+    private TrendingTracker trendingTracker;
+    
     @InjectMocks
     private ProfileAnalyticsServiceImpl service;
     
@@ -68,12 +106,29 @@ class ProfileAnalyticsServiceImplTests {
                 .thenReturn(List.of(new SellerBestProduct("p1", "Widget", BigDecimal.valueOf(500), 50, "Electronics")));
         when(orderRepository.getSellerTotalUnits("seller-1"))
                 .thenReturn(List.of(new SellerTotalUnits(100)));
+        when(orderRepository.getSellerUniqueBuyers("seller-1"))
+                .thenReturn(List.of(new SellerUniqueBuyers(12L)));
         
         SellerAnalyticsResponse result = service.getSellerAnalytics("seller-1");
         
         assertThat(result.totalRevenue()).isEqualByComparingTo(BigDecimal.valueOf(1000));
         assertThat(result.bestSellingProducts()).hasSize(1);
         assertThat(result.totalUnitsSold()).isEqualTo(100);
+        assertThat(result.uniqueBuyers()).isEqualTo(12);
+        assertThat(result.uniqueBuyersError()).isZero();  // exact from the pipeline
+    }
+    
+    @Test
+    void getSellerAnalytics_servesRepeatedRefreshesFromCache() {
+        when(orderRepository.getSellerTotalRevenue("seller-1"))
+                .thenReturn(List.of(new SellerTotalRevenue(BigDecimal.valueOf(1000))));
+        
+        service.getSellerAnalytics("seller-1");
+        SellerAnalyticsResponse second = service.getSellerAnalytics("seller-1");
+        
+        assertThat(second.totalRevenue()).isEqualByComparingTo(BigDecimal.valueOf(1000));
+        verify(orderRepository, times(1)).getSellerTotalRevenue("seller-1");
+        verify(orderRepository, times(1)).getSellerTopCategories("seller-1");
     }
     
     @Test
@@ -90,5 +145,157 @@ class ProfileAnalyticsServiceImplTests {
         assertThat(result.totalRevenue()).isEqualByComparingTo(BigDecimal.ZERO);
         assertThat(result.bestSellingProducts()).isEmpty();
         assertThat(result.totalUnitsSold()).isEqualTo(0);
+        assertThat(result.uniqueBuyers()).isEqualTo(0);
+    }
+    
+    // ========== ROLLUPS ==========
+    
+    @Test
+    void getClientAnalytics_readsRollup_whenEnabled() {
+        ReflectionTestUtils.setField(service, "rollupsEnabled", true);
+        when(rollupRepository.findById("buyer:user-1")).thenReturn(Optional.of(AnalyticsRollup.builder()
+                .id("buyer:user-1").amountCents(12_550)
+                .products(Map.of(
+                        "p1", ProductRollup.builder().productId("p1").name("Widget").category("Electronics")
+                                .quantity(2).amountCents(2_000).build(),
+                        "p2", ProductRollup.builder().productId("p2").name("Gadget").category("Electronics")
+                                .quantity(5).amountCents(10_550).build(),
+                        "p3", ProductRollup.builder().productId("p3").name("Returned").quantity(0).build()))
+                .categories(Map.of(
+                        "c1", CategoryRollup.builder().name("Electronics").amountCents(12_550).build(),
+                        "uncategorized", CategoryRollup.builder().name("Uncategorized").amountCents(100).build()))
+                .build()));
+        
+        ClientAnalyticsResponse result = service.getClientAnalytics("user-1");
+        
+        assertThat(result.totalSpent()).isEqualByComparingTo("125.50");
+        assertThat(result.mostBoughtProducts()).extracting(ClientMostBought::productId).containsExactly("p2", "p1");
+        assertThat(result.topCategories()).extracting(ClientTopCategory::category).containsExactly("Electronics");
+        verify(orderRepository, never()).getClientTotalSpent(anyString());
+    }
+    
+    @Test
+    void getSellerAnalytics_fallsBackToAggregation_whenRollupMissing() {
+        ReflectionTestUtils.setField(service, "rollupsEnabled", true);
+        when(rollupRepository.findById("seller:seller-1")).thenReturn(Optional.empty());
+        when(orderRepository.getSellerTotalRevenue("seller-1"))
+                .thenReturn(List.of(new SellerTotalRevenue(BigDecimal.valueOf(1000))));
+        
+        SellerAnalyticsResponse result = service.getSellerAnalytics("seller-1");
+        
+        assertThat(result.totalRevenue()).isEqualByComparingTo(BigDecimal.valueOf(1000));
+    }
+    
+    @Test
+    void getSellerAnalytics_ranksRollupProductsByRevenue() {
+        ReflectionTestUtils.setField(service, "rollupsEnabled", true);
+        when(rollupRepository.findById("seller:seller-1")).thenReturn(Optional.of(AnalyticsRollup.builder()
+                .id("seller:seller-1").amountCents(30_000).units(7)
+                .products(Map.of(
+                        "p1", ProductRollup.builder().productId("p1").quantity(6).amountCents(6_000).build(),
+                        "p2", ProductRollup.builder().productId("p2").quantity(1).amountCents(24_000).build()))
+                .build()));
+        
+        SellerAnalyticsResponse result = service.getSellerAnalytics("seller-1");
+        
+        assertThat(result.totalRevenue()).isEqualByComparingTo("300.00");
+        assertThat(result.totalUnitsSold()).isEqualTo(7);
+        assertThat(result.bestSellingProducts()).extracting(SellerBestProduct::productId).containsExactly("p2", "p1");
+        assertThat(result.topCategories()).isEmpty();
+        assertThat(result.uniqueBuyers()).isNull();  // built before buyer sketches: unknown until rebuilt
+    }
+    
+    @Test
+    void getSellerAnalytics_estimatesUniqueBuyersFromRollupSketch() {
+        ReflectionTestUtils.setField(service, "rollupsEnabled", true);
+        HyperLogLog buyers = new HyperLogLog();
+        for (int i = 0; i < 5_000; i++) {
+            buyers.add("user-" + i);
+        }
+        when(rollupRepository.findById("seller:seller-1")).thenReturn(Optional.of(AnalyticsRollup.builder()
+                .id("seller:seller-1").buyerSketch(buyers.toBytes()).build()));
+        
+        SellerAnalyticsResponse result = service.getSellerAnalytics("seller-1");
+        
+        assertThat(result.uniqueBuyersError()).isEqualTo(HyperLogLog.STANDARD_ERROR);
+        assertThat(result.uniqueBuyers()).isBetween(4_850L, 5_150L);  // within ~4 standard errors
+        verify(orderRepository, never()).getSellerUniqueBuyers(anyString());
+    }
+    
+    // ========== TIMESERIES ==========
+    
+    @Test
+    void getSellerTimeseries_sumsDaysIntoWeeks_andKeepsCompactedMonths() {
+        when(salesBucketRepository.findSellerBuckets("seller-1", "2026-03-01", "2026-06-10")).thenReturn(List.of(
+                bucket(BucketGranularity.MONTH, "2026-03-01", 10_000),
+                bucket(BucketGranularity.DAY, "2026-06-02", 1_000),
+                bucket(BucketGranularity.DAY, "2026-06-04", 550),
+                bucket(BucketGranularity.DAY, "2026-06-09", 200)));
+        
+        SalesTimeseriesResponse result = service.getSellerTimeseries("seller-1", "week", "2026-03-15", "2026-06-10");
+        
+        assertThat(result.points()).extracting(SalesTimeseriesPoint::bucketStart).containsExactly(
+                LocalDate.of(2026, 3, 1), LocalDate.of(2026, 6, 1), LocalDate.of(2026, 6, 8));
+        assertThat(result.points().get(0).granularity()).isEqualTo(BucketGranularity.MONTH);
+        assertThat(result.points().get(1).revenue()).isEqualByComparingTo("15.50");
+        assertThat(result.points().get(1).orders()).isEqualTo(2);
+    }
+    
+    @Test
+    void getSellerTimeseries_mergesBuyerSketches_insteadOfAddingCounts() {
+        SalesBucket tue = bucket(BucketGranularity.DAY, "2026-06-02", 1_000);
+        tue.setBuyerSketch(sketch("user-1", "user-2"));
+        SalesBucket thu = bucket(BucketGranularity.DAY, "2026-06-04", 550);
+        thu.setBuyerSketch(sketch("user-2", "user-3"));
+        SalesBucket nextTue = bucket(BucketGranularity.DAY, "2026-06-09", 200);
+        nextTue.setBuyerSketch(sketch("user-1"));
+        when(salesBucketRepository.findSellerBuckets("seller-1", "2026-06-01", "2026-06-10"))
+                .thenReturn(List.of(tue, thu, nextTue));
+        
+        SalesTimeseriesResponse result = service.getSellerTimeseries("seller-1", "week", "2026-06-01", "2026-06-10");
+        
+        assertThat(result.points()).extracting(SalesTimeseriesPoint::uniqueBuyers).containsExactly(3L, 1L);
+        assertThat(result.uniqueBuyers()).isEqualTo(3);
+        assertThat(result.uniqueBuyersError()).isEqualTo(HyperLogLog.STANDARD_ERROR);
+    }
+    
+    @Test
+    void getSellerTimeseries_rejectsUnknownGranularity() {
+        assertThatThrownBy(() -> service.getSellerTimeseries("seller-1", "hour", null, null))
+                .isInstanceOf(BadRequestException.class);
+    }
+    
+    @Test
+    void getSellerTimeseries_rejectsInvertedRange() {
+        assertThatThrownBy(() -> service.getSellerTimeseries("seller-1", "day", "2026-06-10", "2026-06-01"))
+                .isInstanceOf(BadRequestException.class);
+    }
+    
+    // ========== TRENDING ==========
+    
+    @Test
+    void getTrending_returnsTrackerSnapshot() {
+        when(trendingTracker.top(3)).thenReturn(List.of(new TrendingProduct("p1", "Widget", 42, 0)));
+        
+        assertThat(service.getTrending(3)).extracting(TrendingProduct::productId).containsExactly("p1");
+    }
+    
+    @Test
+    void getTrending_rejectsLimitOutOfRange() {
+        assertThatThrownBy(() -> service.getTrending(0)).isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> service.getTrending(TrendingTracker.MAX_SERVED + 1)).isInstanceOf(BadRequestException.class);
+    }
+    
+    private static byte[] sketch(String... buyerIds) {
+        HyperLogLog sketch = new HyperLogLog();
+        for (String buyerId : buyerIds) {
+            sketch.add(buyerId);
+        }
+        return sketch.toBytes();
+    }
+    
+    private static SalesBucket bucket(BucketGranularity granularity, String start, long revenueCents) {
+        return SalesBucket.builder().sellerId("seller-1").granularity(granularity).bucketStart(start)
+                .orders(1).units(1).revenueCents(revenueCents).build();
     }
 }
@@ -0,0 +1,124 @@
+package com.buyone.orderservice.service.support;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AnalyticsCacheTests {
+    
+    private final AtomicInteger loads = new AtomicInteger();
+    
+    @Test
+    void get_reusesFreshValue() {
+        AnalyticsCache cache = new AnalyticsCache(60_000, 10);
+        
+        cache.get("seller:s1", loads::incrementAndGet);
+        Integer second = cache.get("seller:s1", loads::incrementAndGet);
+        
+        assertThat(second).isEqualTo(1);
+        assertThat(loads).hasValue(1);
+    }
+    
+    @Test
+    void get_reloads_afterTtl() {
+        AnalyticsCache cache = new AnalyticsCache(0, 10);
+        
+        cache.get("seller:s1", loads::incrementAndGet);
+        cache.get("seller:s1", loads::incrementAndGet);
+        
+        assertThat(loads).hasValue(2);
+    }
+    
+    @Test
+    void get_loadsOnce_forConcurrentCallers() throws Exception {
+        AnalyticsCache cache = new AnalyticsCache(60_000, 10);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Integer>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(pool.submit(() -> cache.get("seller:s1", () -> {
+                    await(release);
+                    return loads.incrementAndGet();
+                })));
+            }
+            Thread.sleep(100);  // let every caller reach the cache
+            release.countDown();
+            
+            for (Future<Integer> result : results) {
+                assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo(1);
+            }
+            assertThat(loads).hasValue(1);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+    
+    @Test
+    void get_doesNotCacheFailures() {
+        AnalyticsCache cache = new AnalyticsCache(60_000, 10);
+        
+        assertThatThrownBy(() -> cache.get("seller:s1", () -> {
+            throw new IllegalStateException("mongo down");
+        })).isInstanceOf(IllegalStateException.class);
+        Integer value = cache.get("seller:s1", loads::incrementAndGet);
+        
+        assertThat(value).isEqualTo(1);
+    }
+    
+    @Test
+    void get_releasesWaitersAndForgetsTheLoad_whenLoaderThrowsAnError() throws Exception {
+        AnalyticsCache cache = new AnalyticsCache(60_000, 10);
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            Future<Integer> loader = pool.submit(() -> cache.get("seller:s1", () -> {
+                loading.countDown();
+                await(release);
+                throw new StackOverflowError("deep pipeline");
+            }));
+            await(loading);
+            Future<Integer> waiter = pool.submit(() -> cache.get("seller:s1", loads::incrementAndGet));
+            Thread.sleep(100);  // let the waiter join the in-flight load
+            release.countDown();
+            
+            assertThatThrownBy(() -> loader.get(5, TimeUnit.SECONDS)).hasCauseInstanceOf(StackOverflowError.class);
+            assertThatThrownBy(() -> waiter.get(5, TimeUnit.SECONDS)).hasCauseInstanceOf(StackOverflowError.class);
+        } finally {
+            pool.shutdownNow();
+        }
+        
+        assertThat(cache.get("seller:s1", loads::incrementAndGet)).isEqualTo(1);
+    }
+    
+    @Test
+    void get_servesWithoutCaching_whenFullOfLiveEntries() {
+        AnalyticsCache cache = new AnalyticsCache(60_000, 1);
+        
+        cache.get("seller:s1", loads::incrementAndGet);
+        cache.get("seller:s2", loads::incrementAndGet);
+        cache.get("seller:s2", loads::incrementAndGet);
+        
+        assertThat(cache.size()).isEqualTo(1);
+        assertThat(loads).hasValue(3);
+    }
+    
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.buyone.orderservice.service.support;
+
+import com.buyone.orderservice.exception.ServiceUnavailableException;
+import com.buyone.orderservice.repository.OrderRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.repository.Aggregation;
+import org.springframework.data.mongodb.repository.Meta;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AnalyticsQueryRunnerTests {
+    
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AnalyticsQueryRunner runner = new AnalyticsQueryRunner(meterRegistry, 4, 10, 200);
+    
+    @AfterEach
+    void tearDown() {
+        runner.shutdown();
+    }
+    
+    @Test
+    void awaitAll_runsQueriesConcurrently_andTimesEach() {
+        CountDownLatch bothStarted = new CountDownLatch(2);
+        CompletableFuture<Boolean> a = runner.submit("seller.a", () -> meet(bothStarted));
+        CompletableFuture<Boolean> b = runner.submit("seller.b", () -> meet(bothStarted));
+        
+        runner.awaitAll("seller", a, b);
+        
+        // Each query only finishes once the other one has started
+        assertThat(a.join()).isTrue();
+        assertThat(b.join()).isTrue();
+        assertThat(meterRegistry.get(AnalyticsQueryRunner.QUERY_METRIC).tag("query", "seller.a").timer().count())
+                .isEqualTo(1);
+    }
+    
+    @Test
+    void awaitAll_failsWith503_pastTheDeadline() {
+        CompletableFuture<Boolean> slow = runner.submit("seller.slow", () -> meet(new CountDownLatch(2)));  // never met
+        
+        assertThatThrownBy(() -> runner.awaitAll("seller", slow))
+                .isInstanceOf(ServiceUnavailableException.class);
+        assertThat(slow).isCancelled();
+        assertThat(meterRegistry.get(AnalyticsQueryRunner.TIMEOUT_METRIC).tag("dashboard", "seller").counter().count())
+                .isEqualTo(1);
+    }
+    
+    @Test
+    void awaitAll_rethrowsQueryFailure() {
+        CompletableFuture<Object> failing = runner.submit("seller.failing", () -> {
+            throw new IllegalArgumentException("bad pipeline");
+        });
+        
+        assertThatThrownBy(() -> runner.awaitAll("seller", failing))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("bad pipeline");
+    }
+    
+    @Test
+    void submit_failsFastWith503_whenPoolAndQueueAreFull() {
+        AnalyticsQueryRunner small = new AnalyticsQueryRunner(meterRegistry, 1, 1, 200);
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            small.submit("seller.running", () -> hold(release));
+            small.submit("seller.queued", () -> hold(release));
+            
+            CompletableFuture<Boolean> rejected = small.submit("seller.rejected", () -> true);
+            
+            // Never run on the calling thread, where the dashboard deadline could not stop it
+            assertThat(rejected).isCompletedExceptionally();
+            assertThatThrownBy(() -> small.awaitAll("seller", rejected))
+                    .isInstanceOf(ServiceUnavailableException.class);
+            assertThat(meterRegistry.get(AnalyticsQueryRunner.REJECTED_METRIC).tag("query", "seller.rejected")
+                    .counter().count()).isEqualTo(1);
+        } finally {
+            release.countDown();
+            small.shutdown();
+        }
+    }
+    
+    @Test
+    void analyticsPipelines_carryAServerSideTimeLimit() {
+        List<Method> pipelines = Arrays.stream(OrderRepository.class.getDeclaredMethods())
+                .filter(method -> method.isAnnotationPresent(Aggregation.class))
+                .toList();
+        
+        assertThat(pipelines).isNotEmpty().allSatisfy(method -> assertThat(method.getAnnotation(Meta.class))
+                .as(method.getName()).isNotNull()
+                .extracting(Meta::maxExecutionTimeMs).isEqualTo(OrderRepository.ANALYTICS_MAX_TIME_MS));
+    }
+    
+    private static boolean meet(CountDownLatch latch) {
+        latch.countDown();
+        return hold(latch);
+    }
+    
+    private static boolean hold(CountDownLatch latch) {
+        try {
+            return latch.await(2, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
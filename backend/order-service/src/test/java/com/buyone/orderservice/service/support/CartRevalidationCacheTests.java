@@ -0,0 +1,72 @@
+package com.buyone.orderservice.service.support;
+
+import com.buyone.orderservice.dto.response.ProductResponse;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CartRevalidationCacheTests {
+    
+    private final AtomicInteger loads = new AtomicInteger();
+    private final Function<List<String>, Map<String, ProductResponse>> loader = ids -> {
+        loads.incrementAndGet();
+        return Map.of();
+    };
+    
+    @Test
+    void products_reusesFreshEntry_coveringTheCart() {
+        CartRevalidationCache cache = new CartRevalidationCache(60_000, 10);
+        
+        cache.products("user-1", List.of("p1", "p2"), loader);
+        cache.products("user-1", List.of("p2"), loader);
+        
+        assertThat(loads).hasValue(1);
+    }
+    
+    @Test
+    void products_reloads_whenCartGainedAProduct() {
+        CartRevalidationCache cache = new CartRevalidationCache(60_000, 10);
+        
+        cache.products("user-1", List.of("p1"), loader);
+        cache.products("user-1", List.of("p1", "p2"), loader);
+        
+        assertThat(loads).hasValue(2);
+    }
+    
+    @Test
+    void products_reloads_whenExpired() {
+        CartRevalidationCache cache = new CartRevalidationCache(0, 10);
+        
+        cache.products("user-1", List.of("p1"), loader);
+        cache.products("user-1", List.of("p1"), loader);
+        
+        assertThat(loads).hasValue(2);
+    }
+    
+    @Test
+    void products_staysBounded() {
+        CartRevalidationCache cache = new CartRevalidationCache(60_000, 2);
+        
+        cache.products("user-1", List.of("p1"), loader);
+        cache.products("user-2", List.of("p1"), loader);
+        cache.products("user-3", List.of("p1"), loader);
+        
+        assertThat(cache.size()).isEqualTo(2);
+    }
+    
+    @Test
+    void invalidate_dropsEntry() {
+        CartRevalidationCache cache = new CartRevalidationCache(60_000, 10);
+        cache.products("user-1", List.of("p1"), loader);
+        
+        cache.invalidate("user-1");
+        cache.products("user-1", List.of("p1"), loader);
+        
+        assertThat(loads).hasValue(2);
+    }
+}
@@ -0,0 +1,67 @@
+package com.buyone.orderservice.service.support;
+
+import com.buyone.orderservice.exception.ConflictException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class OptimisticRetryTests {
+    
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final OptimisticRetry retry = new OptimisticRetry(registry, 3, 1);
+    
+    @Test
+    void execute_retriesConflicts_untilSuccess() {
+        AtomicInteger calls = new AtomicInteger();
+        
+        String result = retry.execute("op", () -> {
+            if (calls.incrementAndGet() < 3) {
+                throw new OptimisticLockingFailureException("stale");
+            }
+            return "ok";
+        });
+        
+        assertThat(result).isEqualTo("ok");
+        assertThat(calls).hasValue(3);
+        assertThat(conflicts("op")).isEqualTo(2.0);
+        assertThat(registry.find(OptimisticRetry.EXHAUSTED_METRIC).counter()).isNull();
+    }
+    
+    @Test
+    void execute_throwsConflict_whenAttemptsExhausted() {
+        AtomicInteger calls = new AtomicInteger();
+        
+        assertThatThrownBy(() -> retry.execute("op", () -> {
+            calls.incrementAndGet();
+            throw new OptimisticLockingFailureException("stale");
+        })).isInstanceOf(ConflictException.class)
+                .hasCauseInstanceOf(OptimisticLockingFailureException.class);
+        
+        assertThat(calls).hasValue(3);
+        assertThat(conflicts("op")).isEqualTo(3.0);
+        assertThat(registry.get(OptimisticRetry.EXHAUSTED_METRIC).tag("operation", "op").counter().count())
+                .isEqualTo(1.0);
+    }
+    
+    @Test
+    void execute_doesNotRetryOtherFailures() {
+        AtomicInteger calls = new AtomicInteger();
+        
+        assertThatThrownBy(() -> retry.run("op", () -> {
+            calls.incrementAndGet();
+            throw new IllegalStateException("business rule");
+        })).isInstanceOf(IllegalStateException.class);
+        
+        assertThat(calls).hasValue(1);
+        assertThat(registry.find(OptimisticRetry.CONFLICTS_METRIC).counter()).isNull();
+    }
+    
+    private double conflicts(String operation) {
+        return registry.get(OptimisticRetry.CONFLICTS_METRIC).tag("operation", operation).counter().count();
+    }
+}
@@ -0,0 +1,54 @@
+package com.buyone.orderservice.store;
+
+import com.buyone.orderservice.model.cart.Cart;
+import com.buyone.orderservice.model.cart.CartItem;
+import com.buyone.orderservice.repository.CartRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class MongoCartStoreTests {
+    
+    @Mock
+    private CartRepository cartRepository;
+    
+    @InjectMocks
+    private MongoCartStore store;
+    
+    @Test
+    void mutations_delegateToAtomicRepositoryUpdates() {
+        Cart cart = Cart.builder().id("user-1").userId("user-1").build();
+        CartItem item = CartItem.builder().productId("prod-1").sellerId("seller-1").build();
+        when(cartRepository.pushItem("user-1", item)).thenReturn(Optional.of(cart));
+        when(cartRepository.incrementItemQuantity("user-1", "prod-1", "seller-1", 1)).thenReturn(Optional.of(cart));
+        when(cartRepository.setItemQuantity("user-1", "prod-1", 3)).thenReturn(Optional.of(cart));
+        when(cartRepository.pullItem("user-1", "prod-1")).thenReturn(Optional.of(cart));
+        
+        assertThat(store.pushItem("user-1", item)).containsSame(cart);
+        assertThat(store.incrementItemQuantity("user-1", "prod-1", "seller-1", 1)).containsSame(cart);
+        assertThat(store.setItemQuantity("user-1", "prod-1", 3)).containsSame(cart);
+        assertThat(store.pullItem("user-1", "prod-1")).containsSame(cart);
+    }
+    
+    @Test
+    void flush_isNoOp() {
+        store.flush("user-1");
+        
+        verifyNoInteractions(cartRepository);
+    }
+    
+    @Test
+    void delete_removesCartDocument() {
+        store.delete("user-1");
+        
+        verify(cartRepository).deleteById("user-1");
+    }
+}
@@ -0,0 +1,331 @@
+package com.buyone.orderservice.store;
+
+import com.buyone.orderservice.model.cart.Cart;
+import com.buyone.orderservice.model.cart.CartItem;
+import com.buyone.orderservice.repository.CartRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class WriteBehindCartStoreTests {
+    
+    @Mock
+    private CartRepository cartRepository;
+    
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    
+    @InjectMocks
+    private WriteBehindCartStore store;
+    
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(store, "maxEntries", 2);
+        ReflectionTestUtils.setField(store, "cleanTtlMs", 60_000L);
+    }
+    
+    @Test
+    void mutations_areBufferedAndCoalescedIntoOneSave() {
+        when(cartRepository.findById("user-1")).thenReturn(Optional.empty());
+        
+        store.pushItem("user-1", item("prod-1", 1));
+        store.incrementItemQuantity("user-1", "prod-1", "seller-1", 2);
+        store.pushItem("user-1", item("prod-2", 1));
+        store.pullItem("user-1", "prod-2");
+        
+        verify(cartRepository, never()).save(any());
+        assertThat(store.dirtyCount()).isEqualTo(1);
+        
+        store.flushDirty();
+        
+        ArgumentCaptor<Cart> saved = ArgumentCaptor.forClass(Cart.class);
+        verify(cartRepository, times(1)).save(saved.capture());
+        assertThat(saved.getValue().getId()).isEqualTo("user-1");
+        assertThat(saved.getValue().getItems()).singleElement()
+                .satisfies(ci -> assertThat(ci.getQuantity()).isEqualTo(3));
+        assertThat(store.dirtyCount()).isZero();
+        
+        store.flushDirty();
+        verify(cartRepository, times(1)).save(any());
+    }
+    
+    @Test
+    void findById_loadsFromMongoOnce() {
+        when(cartRepository.findById("user-1")).thenReturn(Optional.of(cart("user-1", item("prod-1", 1))));
+        
+        store.findById("user-1");
+        Optional<Cart> second = store.findById("user-1");
+        
+        assertThat(second).isPresent();
+        verify(cartRepository, times(1)).findById("user-1");
+    }
+    
+    @Test
+    void returnedCarts_areCopies() {
+        when(cartRepository.findById("user-1")).thenReturn(Optional.of(cart("user-1", item("prod-1", 1))));
+        
+        store.findById("user-1").orElseThrow().getItems().get(0).setQuantity(99);
+        
+        assertThat(store.findById("user-1").orElseThrow().getItems().get(0).getQuantity()).isEqualTo(1);
+    }
+    
+    @Test
+    void pushItem_returnsEmpty_whenItemAlreadyInCart() {
+        when(cartRepository.findById("user-1")).thenReturn(Optional.of(cart("user-1", item("prod-1", 1))));
+        
+        assertThat(store.pushItem("user-1", item("prod-1", 1))).isEmpty();
+        assertThat(store.setItemQuantity("user-1", "prod-x", 2)).isEmpty();
+        assertThat(store.pullItem("user-1", "prod-x")).isEmpty();
+        assertThat(store.dirtyCount()).isZero();
+    }
+    
+    @Test
+    void flush_writesOnlyThatUsersCart() {
+        when(cartRepository.findById(anyString())).thenReturn(Optional.empty());
+        store.pushItem("user-1", item("prod-1", 1));
+        store.pushItem("user-2", item("prod-1", 1));
+        
+        store.flush("user-1");
+        
+        verify(cartRepository, times(1)).save(any());
+        assertThat(store.dirtyCount()).isEqualTo(1);
+    }
+    
+    @Test
+    void failedFlush_keepsCartDirty() {
+        when(cartRepository.findById("user-1")).thenReturn(Optional.empty());
+        when(cartRepository.save(any())).thenThrow(new RuntimeException("down")).thenAnswer(i -> i.getArgument(0));
+        store.pushItem("user-1", item("prod-1", 1));
+        
+        store.flushDirty();
+        assertThat(store.dirtyCount()).isEqualTo(1);
+        
+        store.flushOnShutdown();
+        assertThat(store.dirtyCount()).isZero();
+        verify(cartRepository, times(2)).save(any());
+    }
+    
+    @Test
+    void flushConflict_replaysBufferedChangesOntoStoredCart() {
+        Cart stored = cart("user-1", item("prod-1", 1));
+        stored.setVersion(3L);
+        when(cartRepository.findById("user-1"))
+                .thenReturn(Optional.of(cart("user-1", item("prod-1", 1))))
+                .thenReturn(Optional.of(stored));
+        when(cartRepository.save(any()))
+                .thenThrow(new OptimisticLockingFailureException("stale"))
+                .thenAnswer(i -> i.getArgument(0));
+        store.incrementItemQuantity("user-1", "prod-1", "seller-1", 1);
+        
+        store.flushDirty();
+        assertThat(store.dirtyCount()).isEqualTo(1);
+        
+        store.flushDirty();
+        ArgumentCaptor<Cart> saved = ArgumentCaptor.forClass(Cart.class);
+        verify(cartRepository, times(2)).save(saved.capture());
+        assertThat(saved.getValue().getVersion()).isEqualTo(3L);
+        assertThat(saved.getValue().getItems().get(0).getQuantity()).isEqualTo(2);
+        assertThat(store.dirtyCount()).isZero();
+    }
+    
+    @Test
+    void flushConflict_keepsItemPushedByConcurrentWriter() {
+        // Another writer's atomic $push landed (and bumped the version) after this tier loaded the cart
+        Cart pushedElsewhere = cart("user-1", item("prod-1", 1), item("prod-9", 4));
+        pushedElsewhere.setVersion(1L);
+        when(cartRepository.findById("user-1"))
+                .thenReturn(Optional.of(cart("user-1", item("prod-1", 1))))
+                .thenReturn(Optional.of(pushedElsewhere));
+        when(cartRepository.save(any()))
+                .thenThrow(new OptimisticLockingFailureException("stale"))
+                .thenAnswer(i -> i.getArgument(0));
+        store.incrementItemQuantity("user-1", "prod-1", "seller-1", 2);
+        store.pushItem("user-1", item("prod-2", 1));
+        
+        store.flushDirty();
+        assertThat(store.findById("user-1").orElseThrow().getItems())
+                .extracting(CartItem::getProductId).containsExactly("prod-1", "prod-9", "prod-2");
+        store.flushDirty();
+        
+        ArgumentCaptor<Cart> saved = ArgumentCaptor.forClass(Cart.class);
+        verify(cartRepository, times(2)).save(saved.capture());
+        assertThat(saved.getValue().getVersion()).isEqualTo(1L);
+        assertThat(saved.getValue().getItems())
+                .extracting(CartItem::getProductId, CartItem::getQuantity)
+                .containsExactly(tuple("prod-1", 3), tuple("prod-9", 4), tuple("prod-2", 1));
+        assertThat(store.dirtyCount()).isZero();
+    }
+    
+    @Test
+    void save_ofACopyReadBeforeAnotherChange_conflicts_andTheRetryKeepsBoth() {
+        when(cartRepository.findById("user-1")).thenReturn(Optional.of(cart("user-1", item("prod-1", 1))));
+        
+        Cart read = store.findById("user-1").orElseThrow();
+        store.incrementItemQuantity("user-1", "prod-1", "seller-1", 2);  // lands between read and save
+        read.getItems().add(item("prod-2", 1));
+        
+        assertThatThrownBy(() -> store.save(read)).isInstanceOf(OptimisticLockingFailureException.class);
+        
+        Cart reread = store.findById("user-1").orElseThrow();
+        reread.getItems().add(item("prod-2", 1));
+        store.save(reread);
+        store.flushDirty();
+        
+        ArgumentCaptor<Cart> saved = ArgumentCaptor.forClass(Cart.class);
+        verify(cartRepository).save(saved.capture());
+        assertThat(saved.getValue().getItems()).extracting(CartItem::getProductId, CartItem::getQuantity)
+                .containsExactly(tuple("prod-1", 3), tuple("prod-2", 1));
+    }
+    
+    @Test
+    void save_ofANewCart_conflicts_whenOneWasCreatedMeanwhile() {
+        when(cartRepository.findById("user-1")).thenReturn(Optional.empty());
+        store.pushItem("user-1", item("prod-1", 1));
+        
+        assertThatThrownBy(() -> store.save(cart("user-1", item("prod-2", 1))))
+                .isInstanceOf(OptimisticLockingFailureException.class);
+        assertThat(store.findById("user-1").orElseThrow().getItems())
+                .extracting(CartItem::getProductId).containsExactly("prod-1");
+    }
+    
+    @Test
+    void flushOfACartCreatedHere_rebasesOntoTheOneStoredElsewhere() {
+        Cart storedElsewhere = cart("user-1", item("prod-9", 4));
+        storedElsewhere.setVersion(0L);
+        when(cartRepository.findById("user-1"))
+                .thenReturn(Optional.empty())
+                .thenReturn(Optional.of(storedElsewhere));
+        when(cartRepository.save(any()))
+                .thenThrow(new DuplicateKeyException("E11000 duplicate key error, _id"))
+                .thenAnswer(i -> i.getArgument(0));
+        store.pushItem("user-1", item("prod-1", 1));
+        
+        store.flushDirty();
+        store.flushDirty();
+        
+        ArgumentCaptor<Cart> saved = ArgumentCaptor.forClass(Cart.class);
+        verify(cartRepository, times(2)).save(saved.capture());
+        assertThat(saved.getValue().getVersion()).isZero();
+        assertThat(saved.getValue().getItems()).extracting(CartItem::getProductId)
+                .containsExactly("prod-9", "prod-1");
+        assertThat(store.dirtyCount()).isZero();
+    }
+    
+    @Test
+    void failingFlush_boundsTheBufferedChanges_andIsCountedAsStuck() {
+        when(cartRepository.findById("user-1")).thenReturn(Optional.of(cart("user-1", item("prod-1", 1))));
+        when(cartRepository.save(any())).thenThrow(new RuntimeException("down"));
+        
+        for (int i = 0; i < WriteBehindCartStore.STUCK_AFTER_FAILURES; i++) {
+            store.incrementItemQuantity("user-1", "prod-1", "seller-1", 1);
+            store.flushDirty();
+        }
+        for (int i = 0; i < 2 * WriteBehindCartStore.MAX_PENDING; i++) {
+            store.incrementItemQuantity("user-1", "prod-1", "seller-1", 1);
+        }
+        
+        assertThat(meterRegistry.get(WriteBehindCartStore.STUCK_METRIC).counter().count()).isEqualTo(1);
+        assertThat(store.pendingCount("user-1")).isLessThanOrEqualTo(WriteBehindCartStore.MAX_PENDING);
+        assertThat(store.findById("user-1").orElseThrow().getItems().get(0).getQuantity())
+                .isEqualTo(1 + WriteBehindCartStore.STUCK_AFTER_FAILURES + 2 * WriteBehindCartStore.MAX_PENDING);
+    }
+    
+    @Test
+    void cleanCart_isReloadedAfterCleanTtl() {
+        ReflectionTestUtils.setField(store, "cleanTtlMs", 0L);
+        when(cartRepository.findById("user-1"))
+                .thenReturn(Optional.of(cart("user-1", item("prod-1", 1))))
+                .thenReturn(Optional.of(cart("user-1", item("prod-1", 5))));
+        
+        store.findById("user-1");
+        
+        assertThat(store.findById("user-1").orElseThrow().getItems().get(0).getQuantity()).isEqualTo(5);
+    }
+    
+    @Test
+    void delete_flushesDeleteBeforeRecreatedCart() {
+        when(cartRepository.findById("user-1")).thenReturn(Optional.of(cart("user-1", item("prod-1", 1))));
+        
+        store.delete("user-1");
+        assertThat(store.findById("user-1")).isEmpty();
+        store.pushItem("user-1", item("prod-2", 1));
+        store.flushDirty();
+        
+        InOrder order = inOrder(cartRepository);
+        order.verify(cartRepository).deleteById("user-1");
+        order.verify(cartRepository).save(any(Cart.class));
+        assertThat(store.dirtyCount()).isZero();
+    }
+    
+    @Test
+    void delete_ofClearedCart_onlyDeletes() {
+        when(cartRepository.findById("user-1")).thenReturn(Optional.of(cart("user-1", item("prod-1", 1))));
+        
+        store.delete("user-1");
+        store.flushDirty();
+        
+        verify(cartRepository).deleteById("user-1");
+        verify(cartRepository, never()).save(any());
+    }
+    
+    @Test
+    void removingLastItem_startsEmptyClock() {
+        when(cartRepository.findById("user-1")).thenReturn(Optional.of(cart("user-1", item("prod-1", 1))));
+        
+        Cart emptied = store.pullItem("user-1", "prod-1").orElseThrow();
+        assertThat(emptied.getEmptySince()).isNotNull();
+        
+        Cart refilled = store.pushItem("user-1", item("prod-2", 1)).orElseThrow();
+        assertThat(refilled.getEmptySince()).isNull();
+    }
+    
+    @Test
+    void eviction_dropsOnlyCleanCarts() {
+        when(cartRepository.findById(anyString())).thenReturn(Optional.empty());
+        store.pushItem("user-1", item("prod-1", 1));   // dirty
+        store.findById("user-2");                      // clean
+        store.findById("user-3");                      // over capacity → user-2 evicted
+        
+        assertThat(store.size()).isEqualTo(2);
+        assertThat(store.dirtyCount()).isEqualTo(1);
+        
+        store.findById("user-2");
+        verify(cartRepository, times(2)).findById("user-2");  // reloaded after eviction
+        
+        store.flushDirty();
+        verify(cartRepository).save(argThat(c -> c.getUserId().equals("user-1")));
+    }
+    
+    private static CartItem item(String productId, int quantity) {
+        return CartItem.builder().productId(productId).sellerId("seller-1")
+                .productName("Laptop").price(BigDecimal.valueOf(10)).quantity(quantity).build();
+    }
+    
+    private static Cart cart(String userId, CartItem... items) {
+        return Cart.builder().id(userId).userId(userId).items(new ArrayList<>(List.of(items))).build();
+    }
+}
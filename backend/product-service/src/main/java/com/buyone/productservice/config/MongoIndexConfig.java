@@ -0,0 +1,41 @@
+package com.buyone.productservice.config;
+
+import com.buyone.productservice.model.Category;
+import com.buyone.productservice.model.Product;
+import com.buyone.productservice.model.Reservation;
+import com.buyone.productservice.repository.index.IndexRegistry;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Creates the indexes declared on product-service's entities at startup (see {@link IndexRegistry}).
+ * mongo.indexes.missing counts required indexes that don't exist (alert on > 0).
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.mongo.indexes.enabled", havingValue = "true", matchIfMissing = true)
+public class MongoIndexConfig {
+    
+    // Replaced declarations: the 60 s TTL on reservations.createdAt deleted reservations before their
+    // stock was released; the price indexes gained an _id tie-breaker under new names
+    static final Map<String, List<String>> RETIRED_INDEXES = Map.of(
+            "reservations", List.of("createdAt"),
+            "products", List.of("price", "categoryId_price"));
+    
+    @Bean
+    public IndexRegistry indexRegistry(MongoTemplate mongoTemplate, MeterRegistry meterRegistry) {
+        IndexRegistry registry = new IndexRegistry(mongoTemplate, IndexRegistry.fromEntities(
+                mongoTemplate.getConverter().getMappingContext(), Product.class, Reservation.class, Category.class),
+                RETIRED_INDEXES);
+        Gauge.builder("mongo.indexes.missing", registry, r -> r.missing().size())
+                .description("Required MongoDB indexes that do not exist")
+                .register(meterRegistry);
+        return registry;
+    }
+}
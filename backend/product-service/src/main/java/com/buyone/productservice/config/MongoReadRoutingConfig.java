@@ -0,0 +1,66 @@
+package com.buyone.productservice.config;
+
+import com.buyone.productservice.repository.routing.ReadRouteInterceptor;
+import com.buyone.productservice.repository.routing.ReadRoutingMetrics;
+import com.buyone.productservice.repository.routing.ReadRoutingMongoTemplate;
+import com.buyone.productservice.repository.routing.SecondaryRead;
+import com.mongodb.ReadPreference;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sends {@link SecondaryRead} repository methods (catalog listing, faceted search) to
+ * secondaryPreferred with a max-staleness bound, so they stop competing with stock reservations
+ * on the primary. Everything else stays on the primary; mongo.reads{route, server} shows where reads land.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.mongo.secondary-reads.enabled", havingValue = "true", matchIfMissing = true)
+public class MongoReadRoutingConfig {
+    
+    // Driver minimum: maxStalenessSeconds below 90 is rejected
+    static final long MIN_MAX_STALENESS_SECONDS = 90;
+    
+    @Value("${app.mongo.secondary-reads.max-staleness-seconds:90}")
+    private long maxStalenessSeconds;
+    
+    @Bean
+    public MongoTemplate mongoTemplate(MongoDatabaseFactory databaseFactory, MongoConverter converter) {
+        ReadPreference secondaryRead = ReadPreference.secondaryPreferred(
+                Math.max(maxStalenessSeconds, MIN_MAX_STALENESS_SECONDS), TimeUnit.SECONDS);
+        return new ReadRoutingMongoTemplate(databaseFactory, converter, secondaryRead);
+    }
+    
+    /**
+     * Adds the route advice to every repository proxy (before the factory beans create them).
+     */
+    @Bean
+    public static BeanPostProcessor secondaryReadRepositories() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> factoryBean) {
+                    factoryBean.addRepositoryFactoryCustomizer(factory -> factory.addRepositoryProxyPostProcessor(
+                            (proxy, repository) -> proxy.addAdvice(
+                                    new ReadRouteInterceptor(repository.getRepositoryInterface()))));
+                }
+                return bean;
+            }
+        };
+    }
+    
+    @Bean
+    public MongoClientSettingsBuilderCustomizer readRoutingMetrics(MeterRegistry meterRegistry) {
+        return settings -> settings.addCommandListener(new ReadRoutingMetrics(meterRegistry));
+    }
+}
@@ -4,6 +4,8 @@ import com.buyone.productservice.request.CreateProductRequest;
 import com.buyone.productservice.request.UpdateProductRequest;
 import com.buyone.productservice.request.ReserveStockRequest;
 import com.buyone.productservice.request.ReleaseStockRequest;
+import com.buyone.productservice.request.CommitStockRequest;
+import com.buyone.productservice.request.ProductBatchRequest;
 import com.buyone.productservice.response.ProductResponse;
 import com.buyone.productservice.response.ApiResponse;
 import com.buyone.productservice.exception.ForbiddenException;
@@ -13,7 +15,6 @@ import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.HttpStatus;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 
@@ -47,23 +48,27 @@ public class ProductController {
         return ResponseEntity.ok(okResponse("Products fetched successfully", products));
     }
 
-    // GET /products/search (public - faceted search with pagination)
+    // GET /products/search (public - faceted search with pagination; sort = newest | price_asc | price_desc)
+    // slice=true answers a lean SliceResponse (hasNext, no count query); withTotal=true adds the count back
     @GetMapping("/search")
-    public ResponseEntity<ApiResponse<Page<ProductResponse>>> searchProducts(
+    public ResponseEntity<ApiResponse<?>> searchProducts(
             @RequestParam(required = false) String keyword,
             @RequestParam(required = false) BigDecimal minPrice,
             @RequestParam(required = false) BigDecimal maxPrice,
             @RequestParam(required = false) String categoryId,
+            @RequestParam(required = false) String sort,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "false") boolean slice,
+            @RequestParam(defaultValue = "false") boolean withTotal
     ) {
         Pageable pageable = PageRequest.of(page, size);
-        Page<ProductResponse> results = productService.searchProducts(
-            keyword, minPrice, maxPrice, categoryId, pageable
-        );
+        Object results = slice
+            ? productService.searchProductSlice(keyword, minPrice, maxPrice, categoryId, sort, pageable, withTotal)
+            : productService.searchProducts(keyword, minPrice, maxPrice, categoryId, sort, pageable);
         
         return ResponseEntity.ok(
-            ApiResponse.<Page<ProductResponse>>builder()
+            ApiResponse.builder()
                 .success(true)
                 .message("Search results fetched successfully")
                 .data(results)
@@ -79,6 +84,14 @@ public class ProductController {
         return ResponseEntity.ok(okResponse("Product fetched successfully", product));
     }
     
+    // POST /products/batch (internal - one lookup for many IDs, unknown IDs are omitted)
+    @PostMapping("/batch")
+    public ResponseEntity<ApiResponse<List<ProductResponse>>> getProductsByIds(
+            @Valid @RequestBody ProductBatchRequest request) {
+        List<ProductResponse> products = productService.getProductsByIds(request.getIds());
+        return ResponseEntity.ok(okResponse("Products fetched successfully", products));
+    }
+    
     // POST /products (seller only)
     @PostMapping
     public ResponseEntity<ApiResponse<ProductResponse>> createProduct(
@@ -164,6 +177,16 @@ public class ProductController {
         return ResponseEntity.ok().build();
     }
     
+    @PostMapping("/stock/commit")
+    public ResponseEntity<ApiResponse<Void>> commitStockBatch(
+            @Valid @RequestBody CommitStockRequest request) {
+        productService.commitReservations(request.getOrderNumbers());
+        return ResponseEntity.ok(ApiResponse.<Void>builder()
+                .success(true)
+                .message("Stock committed successfully")
+                .build());
+    }
+    
     
     
     // Helper to build ApiResponse consistently
@@ -0,0 +1,87 @@
+package com.buyone.productservice.migration;
+
+import com.buyone.productservice.model.Product;
+import com.mongodb.client.result.UpdateResult;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Rewrites product prices stored as strings (the BigDecimal default before MongoConversionsConfig)
+ * as Decimal128, in _id-ordered batches of BATCH_SIZE with one server-side pipeline update each;
+ * idempotent, so it runs alongside live traffic and resumes after a restart. A price that isn't a
+ * number stays a string (a $toDecimal error would fail the whole batch) and its product id is logged. A string price compares
+ * lexicographically ("100" < "9") and never matches a Decimal128 bound, so legacy products fall out
+ * of price-filtered search until converted.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.migrations.product-price", havingValue = "true", matchIfMissing = true)
+public class ProductPriceMigration implements ApplicationRunner {
+    
+    static final int BATCH_SIZE = 500;
+    static final String PRICE = "price";
+    
+    private final MongoTemplate mongoTemplate;
+    
+    @Override
+    public void run(ApplicationArguments args) {
+        try {
+            long converted = migrate();
+            if (converted > 0) {
+                log.info("Converted price to Decimal128 on {} products", converted);
+            }
+        } catch (Exception e) {
+            // Non-fatal: string prices still read back; the next start resumes where this stopped
+            log.error("Decimal128 price migration failed: {}", e.getMessage());
+        }
+    }
+    
+    long migrate() {
+        AggregationUpdate toDecimal = AggregationUpdate.update().set(PRICE).toValue(new Document("$convert",
+                new Document("input", "$" + PRICE).append("to", "decimal").append("onError", "$" + PRICE)));
+        
+        long converted = 0;
+        Object resumeAfter = null;
+        while (true) {
+            // Keyset on _id: prices left as strings are not picked up again in this run
+            Query pending = new Query(Criteria.where(PRICE).type(2)).with(Sort.by("_id")).limit(BATCH_SIZE);
+            if (resumeAfter != null) {
+                pending.addCriteria(Criteria.where("_id").gt(resumeAfter));
+            }
+            List<Object> ids = ids(pending);
+            if (ids.isEmpty()) {
+                return converted;
+            }
+            // Re-check the type per document: a concurrent save may already have written Decimal128
+            Query batch = new Query(Criteria.where("_id").in(ids).and(PRICE).type(2));
+            UpdateResult result = mongoTemplate.updateMulti(batch, toDecimal, Product.class);
+            converted += result.getModifiedCount();
+            
+            List<Object> unconvertible = ids(batch);
+            if (!unconvertible.isEmpty()) {
+                log.warn("Price of {} products is not a number, left as a string: {}", unconvertible.size(), unconvertible);
+            }
+            resumeAfter = ids.get(ids.size() - 1);
+        }
+    }
+    
+    private List<Object> ids(Query query) {
+        query.fields().include("_id");
+        return mongoTemplate.find(query, Document.class, mongoTemplate.getCollectionName(Product.class)).stream()
+                .map(doc -> doc.get("_id"))
+                .toList();
+    }
+}
@@ -5,6 +5,9 @@ import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.math.BigDecimal;
@@ -16,6 +19,13 @@ import java.math.BigDecimal;
 @Builder
 
 @Document(collection = "products")
+// Faceted search within a category: price range / price sort, and newest first.
+// Price sorts break ties on _id (see ProductSort); new names, as the keys of categoryId_price / price changed
+@CompoundIndexes({
+        @CompoundIndex(name = "categoryId_price_id", def = "{'categoryId': 1, 'price': 1, '_id': 1}"),
+        @CompoundIndex(name = "categoryId_id", def = "{'categoryId': 1, '_id': -1}"),
+        @CompoundIndex(name = "price_id", def = "{'price': 1, '_id': 1}")  // price range filter / sort without a category
+})
 public class Product {
     @Id
     private String id;
@@ -23,6 +33,7 @@ public class Product {
     private String description;
     private BigDecimal price;
     private Integer quantity;
+    @Indexed  // seller's products
     private String userId;
     private String categoryId;
     private java.util.List<String> images;
@@ -0,0 +1,24 @@
+package com.buyone.productservice.model;
+
+import org.springframework.data.domain.Sort;
+
+/**
+ * Sort orders offered by product search. Each ends on _id, so equal prices keep a stable order
+ * and pages never repeat or skip a product, and each is served by an index
+ * ({categoryId, _id} / _id, {categoryId, price, _id} / {price, _id}), never an in-memory sort.
+ */
+public enum ProductSort {
+    NEWEST(Sort.by(Sort.Direction.DESC, "_id")),  // ObjectIds grow with creation time
+    PRICE_ASC(Sort.by(Sort.Direction.ASC, "price", "_id")),
+    PRICE_DESC(Sort.by(Sort.Direction.DESC, "price", "_id"));  // the same indexes, walked backwards
+    
+    private final Sort sort;
+    
+    ProductSort(Sort sort) {
+        this.sort = sort;
+    }
+    
+    public Sort toSort() {
+        return sort;
+    }
+}
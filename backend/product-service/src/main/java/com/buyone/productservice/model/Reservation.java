@@ -13,8 +13,12 @@ public class Reservation {
     @Id private String id;
     private String productId;
     private int quantity;
+    @Indexed  // commit / release by order
     private String orderNumber;
     
-    @Indexed(expireAfterSeconds = 60)  // 1 min auto-delete; uses seconds
+    // Cleanup scans by it. No TTL: an expired reservation must give its stock back first
+    // (ReservationCleanupListener releases, then removes it). Named apart from the old "createdAt"
+    // TTL index, which MongoIndexConfig retires
+    @Indexed(name = "createdAt_cleanup")
     private LocalDateTime createdAt;
 }
@@ -1,34 +1,19 @@
 package com.buyone.productservice.repository;
 
 import com.buyone.productservice.model.Product;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
+import com.buyone.productservice.repository.routing.SecondaryRead;
 import org.springframework.data.mongodb.repository.MongoRepository;
-import org.springframework.data.mongodb.repository.Query;
 
-import java.math.BigDecimal;
 import java.util.List;
 
-public interface ProductRepository extends MongoRepository<Product, String> {
-    List<Product> findByUserId(String userId);
+public interface ProductRepository extends MongoRepository<Product, String>, ProductRepositoryCustom {
+    List<Product> findByUserId(String userId);  // primary: also backs the name-conflict checks
     void deleteByUserId(String userId);
     
-    @Query("{ $and: [ " +
-           "{ $or: [ " +
-           "  { 'name': { $regex: ?0, $options: 'i' } }, " +
-           "  { 'description': { $regex: ?0, $options: 'i' } }" +
-           "] }, " +
-           "{ 'price': { $gte: ?1, $lte: ?2 } }, " +
-           "{ $or: [ " +
-           "  { 'categoryId': ?3 }, " +
-           "  { $expr: { $eq: [?3, null] } } " +
-           "] } " +
-           "] }")
-    Page<Product> findByFacetedSearch(
-        String keyword, 
-        BigDecimal minPrice, 
-        BigDecimal maxPrice, 
-        String categoryId, 
-        Pageable pageable
-    );
+    // Catalog listing and search may be served by a secondary (see MongoReadRoutingConfig)
+    @Override
+    @SecondaryRead
+    List<Product> findAll();
+    
+    // Faceted search: ProductRepositoryCustom.searchProducts (dynamic Criteria)
 }
@@ -0,0 +1,39 @@
+package com.buyone.productservice.repository;
+
+import com.buyone.productservice.model.Product;
+import com.buyone.productservice.model.ProductSort;
+import com.buyone.productservice.repository.routing.SecondaryRead;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+
+import java.math.BigDecimal;
+
+/**
+ * Product queries built with dynamic Criteria.
+ */
+public interface ProductRepositoryCustom {
+    
+    /**
+     * Faceted catalog search. Only the filters that are given (non-null, non-blank) become
+     * predicates, so category / price filters bound an index scan instead of matching no-op clauses.
+     * keyword = case-insensitive substring of name or description; min/max price are inclusive.
+     */
+    @SecondaryRead
+    Page<Product> searchProducts(String keyword, BigDecimal minPrice, BigDecimal maxPrice, String categoryId,
+                                 ProductSort sort, Pageable pageable);
+    
+    /**
+     * Same filters and sort as {@link #searchProducts}, without the count: fetches one row past
+     * the page to tell whether another page follows.
+     */
+    @SecondaryRead
+    Slice<Product> searchProductSlice(String keyword, BigDecimal minPrice, BigDecimal maxPrice, String categoryId,
+                                      ProductSort sort, Pageable pageable);
+    
+    /**
+     * Number of products matching the search filters (slice mode asks for it only on request).
+     */
+    @SecondaryRead
+    long countProducts(String keyword, BigDecimal minPrice, BigDecimal maxPrice, String categoryId);
+}
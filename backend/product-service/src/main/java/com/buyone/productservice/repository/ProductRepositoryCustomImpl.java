@@ -0,0 +1,80 @@
+package com.buyone.productservice.repository;
+
+import com.buyone.productservice.model.Product;
+import com.buyone.productservice.model.ProductSort;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Spring Data fragment for {@link ProductRepositoryCustom}.
+ * Common shapes hit {categoryId, price, _id} (category + price range / price sort), {categoryId, _id}
+ * (category, newest first), {price, _id} and _id; the keyword regex only filters what those return.
+ */
+@RequiredArgsConstructor
+public class ProductRepositoryCustomImpl implements ProductRepositoryCustom {
+    
+    private final MongoTemplate mongoTemplate;
+    
+    @Override
+    public Page<Product> searchProducts(String keyword, BigDecimal minPrice, BigDecimal maxPrice, String categoryId,
+                                        ProductSort sort, Pageable pageable) {
+        Query query = buildSearchQuery(keyword, minPrice, maxPrice, categoryId);
+        query.with(pageable).with((sort != null ? sort : ProductSort.NEWEST).toSort());
+        
+        List<Product> content = mongoTemplate.find(query, Product.class);
+        return PageableExecutionUtils.getPage(content, pageable,
+                () -> mongoTemplate.count(Query.of(query).limit(-1).skip(-1), Product.class));
+    }
+    
+    @Override
+    public Slice<Product> searchProductSlice(String keyword, BigDecimal minPrice, BigDecimal maxPrice, String categoryId,
+                                             ProductSort sort, Pageable pageable) {
+        Query query = buildSearchQuery(keyword, minPrice, maxPrice, categoryId);
+        query.with(pageable).with((sort != null ? sort : ProductSort.NEWEST).toSort());
+        query.limit(pageable.getPageSize() + 1);  // the extra row only answers hasNext
+        
+        List<Product> content = mongoTemplate.find(query, Product.class);
+        boolean hasNext = content.size() > pageable.getPageSize();
+        return new SliceImpl<>(hasNext ? content.subList(0, pageable.getPageSize()) : content, pageable, hasNext);
+    }
+    
+    @Override
+    public long countProducts(String keyword, BigDecimal minPrice, BigDecimal maxPrice, String categoryId) {
+        return mongoTemplate.count(buildSearchQuery(keyword, minPrice, maxPrice, categoryId), Product.class);
+    }
+    
+    Query buildSearchQuery(String keyword, BigDecimal minPrice, BigDecimal maxPrice, String categoryId) {
+        Query query = new Query();
+        
+        if (categoryId != null && !categoryId.isBlank()) {
+            query.addCriteria(Criteria.where("categoryId").is(categoryId));
+        }
+        
+        if (minPrice != null || maxPrice != null) {
+            Criteria price = Criteria.where("price");
+            if (minPrice != null) price.gte(minPrice);
+            if (maxPrice != null) price.lte(maxPrice);
+            query.addCriteria(price);
+        }
+        
+        if (keyword != null && !keyword.isBlank()) {
+            // Literal match: user input never reaches the regex engine as a pattern
+            String literal = Pattern.quote(keyword.trim());
+            query.addCriteria(new Criteria().orOperator(
+                    Criteria.where("name").regex(literal, "i"),
+                    Criteria.where("description").regex(literal, "i")));
+        }
+        return query;
+    }
+}
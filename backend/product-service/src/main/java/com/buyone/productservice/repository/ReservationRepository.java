@@ -3,6 +3,9 @@ package com.buyone.productservice.repository;
 import com.buyone.productservice.model.Reservation;
 import org.springframework.data.mongodb.repository.MongoRepository;
 
+import java.util.Collection;
+
 public interface ReservationRepository extends MongoRepository<Reservation, String> {
     void deleteByOrderNumber(String orderNumber);  // Bulk delete
+    void deleteByOrderNumberIn(Collection<String> orderNumbers);  // Batched commit
 }
@@ -0,0 +1,34 @@
+package com.buyone.productservice.repository.routing;
+
+/**
+ * The catalog read running on this thread ("ProductRepository.searchProducts"), bound by
+ * {@link ReadRouteInterceptor}; null outside {@link SecondaryRead} methods.
+ */
+public final class ReadRoute {
+    
+    private static final ThreadLocal<String> CURRENT = new ThreadLocal<>();
+    
+    private ReadRoute() {
+    }
+    
+    public static String current() {
+        return CURRENT.get();
+    }
+    
+    /**
+     * @return the route bound before, to hand back to {@link #restore}
+     */
+    public static String bind(String route) {
+        String previous = CURRENT.get();
+        CURRENT.set(route);
+        return previous;
+    }
+    
+    public static void restore(String previous) {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+}
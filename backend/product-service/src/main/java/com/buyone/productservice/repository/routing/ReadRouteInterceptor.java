@@ -0,0 +1,51 @@
+package com.buyone.productservice.repository.routing;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Advice on the product repository proxy: binds {@link ReadRoute} while a {@link SecondaryRead}
+ * method runs. Annotations are read from ProductRepository itself, which is why it redeclares findAll.
+ */
+public class ReadRouteInterceptor implements MethodInterceptor {
+    
+    private final Class<?> repositoryInterface;
+    private final Map<Method, Optional<String>> routes = new ConcurrentHashMap<>();
+    
+    public ReadRouteInterceptor(Class<?> repositoryInterface) {
+        this.repositoryInterface = repositoryInterface;
+    }
+    
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        Optional<String> route = routes.computeIfAbsent(invocation.getMethod(), this::route);
+        if (route.isEmpty()) {
+            return invocation.proceed();
+        }
+        String previous = ReadRoute.bind(route.get());
+        try {
+            return invocation.proceed();
+        } finally {
+            ReadRoute.restore(previous);
+        }
+    }
+    
+    Optional<String> route(Method method) {
+        Method declared = method;
+        try {
+            declared = repositoryInterface.getMethod(method.getName(), method.getParameterTypes());
+        } catch (NoSuchMethodException e) {
+            // not part of the repository interface: keep the invoked method
+        }
+        if (!AnnotatedElementUtils.hasAnnotation(declared, SecondaryRead.class)) {
+            return Optional.empty();
+        }
+        return Optional.of(repositoryInterface.getSimpleName() + "." + method.getName());
+    }
+}
@@ -0,0 +1,47 @@
+package com.buyone.productservice.repository.routing;
+
+import com.mongodb.connection.ServerType;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandSucceededEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.Set;
+
+/**
+ * mongo.reads{route, server}: which replica set member answered each read, per {@link SecondaryRead}
+ * route ("default" otherwise), to confirm catalog traffic has left the primary. Called on the querying
+ * thread, where the route is still bound; getMores are not counted.
+ */
+public class ReadRoutingMetrics implements CommandListener {
+    
+    static final String METRIC = "mongo.reads";
+    static final String DEFAULT_ROUTE = "default";
+    
+    private static final Set<String> READ_COMMANDS = Set.of("find", "aggregate", "count", "distinct");
+    
+    private final MeterRegistry meterRegistry;
+    
+    public ReadRoutingMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+    
+    @Override
+    public void commandSucceeded(CommandSucceededEvent event) {
+        if (!READ_COMMANDS.contains(event.getCommandName())) {
+            return;
+        }
+        String route = ReadRoute.current();
+        meterRegistry.counter(METRIC,
+                "route", route != null ? route : DEFAULT_ROUTE,
+                "server", server(event.getConnectionDescription().getServerType())).increment();
+    }
+    
+    static String server(ServerType type) {
+        return switch (type) {
+            case REPLICA_SET_PRIMARY -> "primary";
+            case REPLICA_SET_SECONDARY -> "secondary";
+            case STANDALONE -> "standalone";
+            default -> "other";
+        };
+    }
+}
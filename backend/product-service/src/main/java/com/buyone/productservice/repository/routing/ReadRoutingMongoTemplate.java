@@ -0,0 +1,33 @@
+package com.buyone.productservice.repository.routing;
+
+import com.mongodb.ReadPreference;
+import com.mongodb.client.MongoCollection;
+import org.bson.Document;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Applies the secondary read preference to the collections a bound {@link ReadRoute} uses.
+ * The @Transactional stock updates keep the primary even if a route is bound around them.
+ */
+public class ReadRoutingMongoTemplate extends MongoTemplate {
+    
+    private final ReadPreference secondaryRead;
+    
+    public ReadRoutingMongoTemplate(MongoDatabaseFactory databaseFactory, MongoConverter converter,
+                                    ReadPreference secondaryRead) {
+        super(databaseFactory, converter);
+        this.secondaryRead = secondaryRead;
+    }
+    
+    @Override
+    protected MongoCollection<Document> prepareCollection(MongoCollection<Document> collection) {
+        MongoCollection<Document> prepared = super.prepareCollection(collection);
+        if (ReadRoute.current() == null || TransactionSynchronizationManager.isActualTransactionActive()) {
+            return prepared;
+        }
+        return prepared.withReadPreference(secondaryRead);
+    }
+}
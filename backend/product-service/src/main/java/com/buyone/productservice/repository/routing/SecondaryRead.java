@@ -0,0 +1,18 @@
+package com.buyone.productservice.repository.routing;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Catalog read that may be answered by a secondary (see MongoReadRoutingConfig): the public
+ * listing and faceted search, where a new product or price showing up a few seconds late is harmless.
+ * Stock checks and reservations, and a seller's own products, stay on the primary.
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface SecondaryRead {
+}
@@ -0,0 +1,18 @@
+package com.buyone.productservice.request;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductBatchRequest {
+    @NotEmpty(message = "Product IDs are required")
+    @Size(max = 100, message = "At most 100 product IDs per request")
+    private List<String> ids;
+}
@@ -3,6 +3,7 @@ package com.buyone.productservice.service;
 import com.buyone.productservice.request.CreateProductRequest;
 import com.buyone.productservice.request.UpdateProductRequest;
 import com.buyone.productservice.response.ProductResponse;
+import com.buyone.productservice.response.SliceResponse;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
@@ -12,6 +13,7 @@ import java.util.List;
 public interface ProductService {
     ProductResponse createProduct(CreateProductRequest request, String sellerId);
     ProductResponse getProductById(String id);
+    List<ProductResponse> getProductsByIds(List<String> ids); // batch lookup, unknown IDs are skipped
     List<ProductResponse> getAllProducts();
     ProductResponse updateProduct(String id, UpdateProductRequest request, String sellerId);
     void deleteProduct(String id, String sellerId);
@@ -22,12 +24,25 @@ public interface ProductService {
         BigDecimal minPrice, 
         BigDecimal maxPrice, 
         String categoryId, 
+        String sort,  // newest (default), price_asc, price_desc
         Pageable pageable
     );
     
+    // Same search without the count query; total is filled in only when withTotal is set
+    SliceResponse<ProductResponse> searchProductSlice(
+        String keyword,
+        BigDecimal minPrice,
+        BigDecimal maxPrice,
+        String categoryId,
+        String sort,
+        Pageable pageable,
+        boolean withTotal
+    );
+    
     void reserveStock(String productId, int quantity, String orderNumber);
     void releaseStock(String productId, int quantity);
     void commitReservations(String orderNumber);
+    void commitReservations(List<String> orderNumbers);
     
 }
 
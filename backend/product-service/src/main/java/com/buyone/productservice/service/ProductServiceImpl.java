@@ -1,12 +1,14 @@
 package com.buyone.productservice.service;
 
 import com.buyone.productservice.model.Product;
+import com.buyone.productservice.model.ProductSort;
 import com.buyone.productservice.model.Reservation;
 import com.buyone.productservice.repository.ProductRepository;
 import com.buyone.productservice.repository.ReservationRepository;
 import com.buyone.productservice.request.CreateProductRequest;
 import com.buyone.productservice.request.UpdateProductRequest;
 import com.buyone.productservice.response.ProductResponse;
+import com.buyone.productservice.response.SliceResponse;
 import com.buyone.productservice.exception.ProductNotFoundException;
 import com.buyone.productservice.exception.BadRequestException;
 import com.buyone.productservice.exception.ConflictException;
@@ -22,6 +24,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import lombok.*;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
 import java.time.LocalDateTime;
@@ -99,6 +102,15 @@ public class ProductServiceImpl implements ProductService {
                 );
     }
     
+    // Batch lookup for cart/order flows: one query instead of one call per item
+    @Override
+    public List<ProductResponse> getProductsByIds(List<String> ids) {
+        List<String> distinctIds = ids.stream().distinct().collect(Collectors.toList());
+        List<ProductResponse> products = new ArrayList<>();
+        productRepository.findAllById(distinctIds).forEach(p -> products.add(toProductResponse(p)));
+        return products;
+    }
+    
     // Get all products (consider pagination for production)
     // consider Pagination. (page,size) to reduce a massive call as this scales.
     @Override
@@ -213,16 +225,49 @@ public class ProductServiceImpl implements ProductService {
             java.math.BigDecimal minPrice, 
             java.math.BigDecimal maxPrice, 
             String categoryId, 
+            String sort,
             org.springframework.data.domain.Pageable pageable) {
         
-        String searchKey = (keyword == null || keyword.trim().isEmpty()) ? "" : keyword;
-        java.math.BigDecimal minP = (minPrice == null) ? java.math.BigDecimal.ZERO : minPrice;
-        java.math.BigDecimal maxP = (maxPrice == null) ? new java.math.BigDecimal("9999999") : maxPrice;
+        validatePriceRange(minPrice, maxPrice);
+        // Absent filters stay null: the repository leaves them out of the query
+        return productRepository.searchProducts(keyword, minPrice, maxPrice, categoryId, parseSort(sort), pageable)
+            .map(this::toProductResponse);
+    }
+    
+    @Override
+    public SliceResponse<ProductResponse> searchProductSlice(
+            String keyword,
+            java.math.BigDecimal minPrice,
+            java.math.BigDecimal maxPrice,
+            String categoryId,
+            String sort,
+            org.springframework.data.domain.Pageable pageable,
+            boolean withTotal) {
         
-        return productRepository.findByFacetedSearch(searchKey, minP, maxP, categoryId, pageable)
+        validatePriceRange(minPrice, maxPrice);
+        ProductSort order = parseSort(sort);
+        Long total = withTotal ? productRepository.countProducts(keyword, minPrice, maxPrice, categoryId) : null;
+        return SliceResponse.of(productRepository.searchProductSlice(keyword, minPrice, maxPrice, categoryId, order, pageable), total)
             .map(this::toProductResponse);
     }
     
+    private static void validatePriceRange(java.math.BigDecimal minPrice, java.math.BigDecimal maxPrice) {
+        if (minPrice != null && maxPrice != null && minPrice.compareTo(maxPrice) > 0) {
+            throw new BadRequestException("minPrice must not be greater than maxPrice");
+        }
+    }
+    
+    private static ProductSort parseSort(String sort) {
+        if (sort == null || sort.isBlank()) {
+            return ProductSort.NEWEST;
+        }
+        try {
+            return ProductSort.valueOf(sort.trim().toUpperCase(java.util.Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Invalid sort: " + sort + " (expected newest, price_asc or price_desc)");
+        }
+    }
+    
     @Override
     @Transactional  // MongoDB single-doc ACID
     public void reserveStock(String productId, int quantity, String orderNumber) {
@@ -238,7 +283,7 @@ public class ProductServiceImpl implements ProductService {
         product.setQuantity(product.getQuantity() - quantity);
         productRepository.save(product);
         
-        // Create & save reservation (TTL=30min=1800s handled by @Indexed) (Check Reservation.java for time)
+        // Create & save reservation (expired ones are released by ReservationCleanupListener)
         Reservation reservation = Reservation.builder()
                 .productId(productId)
                 .quantity(quantity)
@@ -271,6 +316,14 @@ public class ProductServiceImpl implements ProductService {
         log.info("Committed reservations for orderNumber={}", orderNumber);
     }
     
+    @Override
+    @Transactional
+    public void commitReservations(List<String> orderNumbers) {
+        // One delete for the whole batch (seller bulk status updates)
+        reservationRepository.deleteByOrderNumberIn(orderNumbers);
+        log.info("Committed reservations for {} orders", orderNumbers.size());
+    }
+    
     
     
     // Helper: Map Product entity to ProductResponse DTO
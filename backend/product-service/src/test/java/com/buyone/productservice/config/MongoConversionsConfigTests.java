@@ -0,0 +1,62 @@
+package com.buyone.productservice.config;
+
+import com.buyone.productservice.model.Product;
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MongoConversionsConfigTests {
+
+    private MappingMongoConverter converter;
+
+    @BeforeEach
+    void setUp() {
+        MongoCustomConversions conversions = new MongoConversionsConfig().mongoCustomConversions();
+        MongoMappingContext context = new MongoMappingContext();
+        context.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+        context.afterPropertiesSet();
+        converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, context);
+        converter.setCustomConversions(conversions);
+        converter.afterPropertiesSet();
+    }
+
+    @Test
+    void writesPriceAsDecimal128() {
+        Document document = new Document();
+        converter.write(Product.builder().name("Lamp").price(new BigDecimal("19.99")).build(), document);
+
+        assertEquals(new Decimal128(new BigDecimal("19.99")), document.get("price"));
+    }
+
+    @Test
+    void writesPricesBeyondDecimal128PrecisionRounded() {
+        Document document = new Document();
+        converter.write(Product.builder().name("Lamp").price(new BigDecimal("19.9900000000000000000000000000000000001")).build(),
+                document);
+
+        assertEquals(new Decimal128(new BigDecimal("19.99000000000000000000000000000000")), document.get("price"));
+    }
+
+    @Test
+    void readsDecimal128AndLegacyStringPrices() {
+        Product converted = converter.read(Product.class, new Document("price", new Decimal128(new BigDecimal("19.99"))));
+        Product legacy = converter.read(Product.class, new Document("price", "19.99"));
+
+        assertEquals(new BigDecimal("19.99"), converted.getPrice());
+        assertEquals(new BigDecimal("19.99"), legacy.getPrice());
+    }
+
+    @Test
+    void queryBoundsAreConvertedToDecimal128() {
+        assertEquals(new Decimal128(new BigDecimal("10")), converter.convertToMongoType(new BigDecimal("10")));
+    }
+}
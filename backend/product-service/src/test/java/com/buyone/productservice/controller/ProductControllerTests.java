@@ -183,6 +183,29 @@ class ProductControllerTests {
                 .andExpect(jsonPath("$.data.name").value("Laptop"));
     }
     
+    // -------- POST /products/batch --------
+    
+    @Test
+    void getProductsByIds_returns200() throws Exception {
+        ProductResponse p1 = ProductResponse.builder().id("p1").name("A").build();
+        when(productService.getProductsByIds(List.of("p1", "p2"))).thenReturn(List.of(p1));
+        
+        mockMvc.perform(post("/products/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"ids\": [\"p1\", \"p2\"]}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.length()").value(1))
+                .andExpect(jsonPath("$.data[0].id").value("p1"));
+    }
+    
+    @Test
+    void getProductsByIds_returns400_whenIdsEmpty() throws Exception {
+        mockMvc.perform(post("/products/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"ids\": []}"))
+                .andExpect(status().isBadRequest());
+    }
+    
     // -------- GET /products --------
     
     @Test
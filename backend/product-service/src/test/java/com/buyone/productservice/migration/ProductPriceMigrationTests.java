@@ -0,0 +1,104 @@
+package com.buyone.productservice.migration;
+
+import com.buyone.productservice.model.Product;
+import com.mongodb.client.result.UpdateResult;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductPriceMigrationTests {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @InjectMocks
+    private ProductPriceMigration migration;
+
+    @BeforeEach
+    void setUp() {
+        when(mongoTemplate.getCollectionName(Product.class)).thenReturn("products");
+    }
+
+    @Test
+    void migrate_convertsStringPricesInIdOrderedBatches() {
+        pending(List.of("p1", "p2"), List.of());
+        when(mongoTemplate.updateMulti(any(Query.class), any(UpdateDefinition.class), eq(Product.class)))
+                .thenReturn(UpdateResult.acknowledged(2, 2L, null));
+
+        assertEquals(2, migration.migrate());
+
+        List<Query> pending = pendingQueries();
+        assertEquals(2, pending.size());
+        assertEquals(ProductPriceMigration.BATCH_SIZE, pending.get(0).getLimit());
+        assertEquals(new Document("_id", 1), pending.get(0).getSortObject());
+        assertEquals(new Document("$type", 2), pending.get(0).getQueryObject().get("price"));
+        assertEquals(new Document("$gt", "p2"), pending.get(1).getQueryObject().get("_id"));
+
+        ArgumentCaptor<Query> batch = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<UpdateDefinition> update = ArgumentCaptor.forClass(UpdateDefinition.class);
+        verify(mongoTemplate).updateMulti(batch.capture(), update.capture(), eq(Product.class));
+        Document filter = batch.getValue().getQueryObject();
+        assertEquals(List.of("p1", "p2"), filter.get("_id", Document.class).get("$in"));
+        assertEquals(new Document("$type", 2), filter.get("price"));  // skips prices saved meanwhile
+        // A price that isn't a number stays as it is instead of failing the batch
+        String json = update.getValue().getUpdateObject().toJson();
+        assertTrue(json.contains("\"$convert\": {\"input\": \"$price\", \"to\": \"decimal\", \"onError\": \"$price\"}"), json);
+    }
+
+    @Test
+    void migrate_movesPastPricesThatAreNotNumbers() {
+        pending(List.of("p1", "p2"), List.of());
+        when(mongoTemplate.find(argThat(ProductPriceMigrationTests::isRecheck), eq(Document.class), eq("products")))
+                .thenReturn(List.of(new Document("_id", "p2")));
+        when(mongoTemplate.updateMulti(any(Query.class), any(UpdateDefinition.class), eq(Product.class)))
+                .thenReturn(UpdateResult.acknowledged(2, 1L, null));
+
+        assertEquals(1, migration.migrate());
+
+        // p2 keeps its string and is not fetched again: the next batch starts after it
+        verify(mongoTemplate, times(1)).updateMulti(any(Query.class), any(UpdateDefinition.class), eq(Product.class));
+        assertEquals(new Document("$gt", "p2"), pendingQueries().get(1).getQueryObject().get("_id"));
+    }
+
+    @Test
+    void run_swallowsFailures() {
+        when(mongoTemplate.find(any(Query.class), eq(Document.class), eq("products")))
+                .thenThrow(new RuntimeException("boom"));
+
+        assertDoesNotThrow(() -> migration.run(null));
+    }
+
+    @SafeVarargs
+    private void pending(List<String>... batches) {
+        var stub = when(mongoTemplate.find(argThat(query -> !isRecheck(query)), eq(Document.class), eq("products")));
+        for (List<String> batch : batches) {
+            stub = stub.thenReturn(batch.stream().map(id -> new Document("_id", id)).toList());
+        }
+    }
+
+    private List<Query> pendingQueries() {
+        ArgumentCaptor<Query> queries = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate, atLeastOnce()).find(queries.capture(), eq(Document.class), eq("products"));
+        return queries.getAllValues().stream().filter(query -> !isRecheck(query)).toList();
+    }
+
+    // The per-batch lookup of prices still stored as strings
+    private static boolean isRecheck(Query query) {
+        return query != null && query.getQueryObject().get("_id") instanceof Document id && id.containsKey("$in");
+    }
+}
@@ -0,0 +1,143 @@
+package com.buyone.productservice.repository;
+
+import com.buyone.productservice.model.Product;
+import com.buyone.productservice.model.ProductSort;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductRepositoryCustomImplTests {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @InjectMocks
+    private ProductRepositoryCustomImpl repository;
+
+    @Test
+    void buildSearchQuery_noFilters_isEmpty() {
+        assertThat(repository.buildSearchQuery(null, null, null, " ").getQueryObject()).isEmpty();
+    }
+
+    @Test
+    void buildSearchQuery_categoryAndPriceRange_onlyIndexablePredicates() {
+        Document q = repository.buildSearchQuery(null, new BigDecimal("10"), new BigDecimal("50"), "cat-1")
+                .getQueryObject();
+
+        assertThat(q).containsOnlyKeys("categoryId", "price");
+        assertThat(q.get("categoryId")).isEqualTo("cat-1");
+        assertThat((Document) q.get("price")).containsEntry("$gte", new BigDecimal("10"))
+                .containsEntry("$lte", new BigDecimal("50"));
+    }
+
+    @Test
+    void buildSearchQuery_openEndedPriceRange_hasOneBound() {
+        Document price = (Document) repository.buildSearchQuery(null, null, new BigDecimal("50"), null)
+                .getQueryObject().get("price");
+
+        assertThat(price).containsOnlyKeys("$lte");
+    }
+
+    @Test
+    void buildSearchQuery_keyword_isLiteralCaseInsensitiveMatchOnNameOrDescription() {
+        Document q = repository.buildSearchQuery("  lamp (led)* ", null, null, null).getQueryObject();
+
+        @SuppressWarnings("unchecked")
+        List<Document> or = (List<Document>) q.get("$or");
+        assertThat(or).hasSize(2);
+        Pattern name = (Pattern) or.get(0).get("name");
+        assertThat(name.flags() & Pattern.CASE_INSENSITIVE).isNotZero();
+        assertThat(name.matcher("Desk LAMP (LED)* white").find()).isTrue();
+        assertThat(name.matcher("lamp ledd").find()).isFalse();
+        assertThat(or.get(1)).containsKey("description");
+    }
+
+    @Test
+    void everySort_endsOnUniqueId() {
+        for (ProductSort sort : ProductSort.values()) {
+            List<Sort.Order> orders = sort.toSort().toList();
+            assertThat(orders.get(orders.size() - 1).getProperty()).as(sort.name()).isEqualTo("_id");
+        }
+    }
+
+    @Test
+    void searchProducts_appliesSortAndPage() {
+        when(mongoTemplate.find(any(Query.class), eq(Product.class))).thenReturn(List.of(new Product()));
+
+        Page<Product> page = repository.searchProducts(null, null, null, "cat-1", ProductSort.PRICE_DESC,
+                PageRequest.of(0, 10));
+
+        ArgumentCaptor<Query> captor = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).find(captor.capture(), eq(Product.class));
+        assertThat(captor.getValue().getSortObject()).isEqualTo(new Document("price", -1).append("_id", -1));
+        assertThat(captor.getValue().getLimit()).isEqualTo(10);
+        assertThat(page.getTotalElements()).isEqualTo(1);  // short first page: no count query
+        verify(mongoTemplate, never()).count(any(Query.class), eq(Product.class));
+    }
+
+    @Test
+    void searchProducts_defaultsToNewestFirst_andCountsWithoutPaging() {
+        when(mongoTemplate.find(any(Query.class), eq(Product.class)))
+                .thenReturn(List.of(new Product(), new Product()));
+        when(mongoTemplate.count(any(Query.class), eq(Product.class))).thenReturn(42L);
+
+        Page<Product> page = repository.searchProducts("lamp", null, null, null, null, PageRequest.of(1, 2));
+
+        ArgumentCaptor<Query> find = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).find(find.capture(), eq(Product.class));
+        assertThat(find.getValue().getSortObject()).isEqualTo(new Document("_id", -1));
+        ArgumentCaptor<Query> count = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).count(count.capture(), eq(Product.class));
+        assertThat(count.getValue().getLimit()).isNotPositive();
+        assertThat(count.getValue().getSkip()).isNotPositive();
+        assertThat(page.getTotalElements()).isEqualTo(42);
+    }
+    
+    @Test
+    void searchProductSlice_fetchesOneExtraRow_andNeverCounts() {
+        when(mongoTemplate.find(any(Query.class), eq(Product.class)))
+                .thenReturn(new ArrayList<>(List.of(new Product(), new Product(), new Product())));
+        
+        Slice<Product> slice = repository.searchProductSlice(null, null, null, "cat-1", ProductSort.NEWEST,
+                PageRequest.of(1, 2));
+        
+        ArgumentCaptor<Query> captor = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).find(captor.capture(), eq(Product.class));
+        assertThat(captor.getValue().getLimit()).isEqualTo(3);
+        assertThat(captor.getValue().getSkip()).isEqualTo(2);
+        assertThat(slice.getContent()).hasSize(2);
+        assertThat(slice.hasNext()).isTrue();
+        verify(mongoTemplate, never()).count(any(Query.class), eq(Product.class));
+    }
+    
+    @Test
+    void searchProductSlice_lastPage_hasNoNext() {
+        when(mongoTemplate.find(any(Query.class), eq(Product.class))).thenReturn(List.of(new Product()));
+        
+        Slice<Product> slice = repository.searchProductSlice(null, null, null, null, null, PageRequest.of(0, 2));
+        
+        assertThat(slice.getContent()).hasSize(1);
+        assertThat(slice.hasNext()).isFalse();
+    }
+}
@@ -0,0 +1,263 @@
+package com.buyone.productservice.repository;
+
+import com.buyone.productservice.config.MongoConversionsConfig;
+import com.buyone.productservice.model.Category;
+import com.buyone.productservice.model.Product;
+import com.buyone.productservice.model.ProductSort;
+import com.buyone.productservice.model.Reservation;
+import com.buyone.productservice.repository.index.IndexRegistry;
+import com.mongodb.ConnectionString;
+import com.mongodb.MongoClientSettings;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import org.bson.BsonArray;
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.bson.BsonValue;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.SimpleMongoClientDatabaseFactory;
+import org.springframework.data.mongodb.core.convert.DefaultDbRefResolver;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.repository.support.MongoRepositoryFactory;
+import org.springframework.data.repository.core.support.RepositoryComposition.RepositoryFragments;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Explains every repository query against a seeded database and fails on a COLLSCAN in the winning plan.
+ * Needs a real MongoDB: set MONGO_EXPLAIN_URI (e.g. mongodb://localhost:27017). A plain build skips it
+ * without one; the query-plans profile (mvn -Pquery-plans test, the CI "Query plans" stage) runs only
+ * this class and fails when the variable is missing.
+ * Indexes come from the entity declarations IndexRegistry creates in production. Each query runs once
+ * while a command listener records what the driver sends; every recorded read/write is then explained.
+ * A new repository method fails everyRepositoryMethodIsExplained until it is added to {@link #queries()}.
+ */
+class QueryPlanTests {
+
+    private static final Set<String> EXPLAINABLE =
+            Set.of("find", "aggregate", "count", "distinct", "findAndModify", "update", "delete");
+    private static final String DATABASE = "query_plan_" + UUID.randomUUID().toString().substring(0, 8);
+
+    // Queries that scan the whole collection on purpose (or until rewritten), with the reason
+    private static final Map<String, String> ALLOWED_COLLSCANS = Map.of(
+            "findAll", "unfiltered catalog listing reads every product",
+            "searchByKeywordOnly", "a substring regex can't bound a scan: the page walks _id, the count reads everything");
+
+    private static final List<BsonDocument> captured = new CopyOnWriteArrayList<>();
+
+    private static MongoClient client;
+    private static MongoTemplate mongoTemplate;
+    private static ProductRepository products;
+    private static ReservationRepository reservations;
+
+    @BeforeAll
+    static void setUp() {
+        String uri = System.getenv("MONGO_EXPLAIN_URI");
+        if (uri == null || uri.isBlank()) {
+            if (Boolean.getBoolean("queryPlans.required")) {
+                fail("MONGO_EXPLAIN_URI must point at a MongoDB for the query-plans profile");
+            }
+            Assumptions.abort("MONGO_EXPLAIN_URI not set");
+        }
+        client = MongoClients.create(MongoClientSettings.builder()
+                .applyConnectionString(new ConnectionString(uri))
+                .addCommandListener(new CommandListener() {
+                    @Override
+                    public void commandStarted(CommandStartedEvent event) {
+                        if (EXPLAINABLE.contains(event.getCommandName())) {
+                            captured.add(event.getCommand().clone());
+                        }
+                    }
+                })
+                .build());
+        SimpleMongoClientDatabaseFactory factory = new SimpleMongoClientDatabaseFactory(client, DATABASE);
+        MongoCustomConversions conversions = new MongoConversionsConfig().mongoCustomConversions();
+        MongoMappingContext context = new MongoMappingContext();
+        context.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+        context.afterPropertiesSet();
+        MappingMongoConverter converter = new MappingMongoConverter(new DefaultDbRefResolver(factory), context);
+        converter.setCustomConversions(conversions);
+        converter.afterPropertiesSet();
+        mongoTemplate = new MongoTemplate(factory, converter);
+
+        MongoRepositoryFactory repositories = new MongoRepositoryFactory(mongoTemplate);
+        products = repositories.getRepository(ProductRepository.class,
+                RepositoryFragments.just(new ProductRepositoryCustomImpl(mongoTemplate)));
+        reservations = repositories.getRepository(ReservationRepository.class);
+
+        seed();
+        IndexRegistry registry = new IndexRegistry(mongoTemplate,
+                IndexRegistry.fromEntities(context, Product.class, Reservation.class, Category.class), Map.of());
+        registry.ensureAll();
+        assertEquals(List.of(), registry.missing());
+    }
+
+    @AfterAll
+    static void tearDown() {
+        if (client != null) {
+            client.getDatabase(DATABASE).drop();
+            client.close();
+        }
+    }
+
+    static Map<String, Runnable> queries() {
+        Map<String, Runnable> queries = new LinkedHashMap<>();
+        queries.put("findByUserId", () -> products.findByUserId("seller-1"));
+        queries.put("deleteByUserId", () -> products.deleteByUserId("seller-9"));
+        queries.put("findAll", () -> products.findAll());
+        queries.put("searchProducts", () -> {
+            products.searchProducts(null, new BigDecimal("10"), new BigDecimal("50"), "category-1", ProductSort.PRICE_ASC, PageRequest.of(1, 5));
+            products.searchProducts("lamp", null, new BigDecimal("50"), "category-1", ProductSort.NEWEST, PageRequest.of(1, 5));
+            products.searchProducts(null, new BigDecimal("20"), null, null, ProductSort.PRICE_DESC, PageRequest.of(1, 5));
+            products.searchProducts(null, null, null, "category-2", null, PageRequest.of(1, 5));
+        });
+        queries.put("searchProductSlice", () -> {
+            products.searchProductSlice(null, new BigDecimal("10"), new BigDecimal("50"), "category-1", ProductSort.PRICE_ASC, PageRequest.of(1, 5));
+            products.searchProductSlice(null, null, null, "category-2", null, PageRequest.of(1, 5));
+        });
+        queries.put("countProducts", () -> products.countProducts(null, new BigDecimal("10"), new BigDecimal("50"), "category-1"));
+        queries.put("searchByKeywordOnly", () ->
+                products.searchProducts("lamp", null, null, null, null, PageRequest.of(1, 5)));
+        queries.put("deleteByOrderNumber", () -> reservations.deleteByOrderNumber("ORD-0001"));
+        queries.put("deleteByOrderNumberIn", () -> reservations.deleteByOrderNumberIn(List.of("ORD-0002", "ORD-0003")));
+        // Not a repository method, but the reservation cleanup's scan runs every minute
+        queries.put("expiredReservations", () -> mongoTemplate.find(
+                new Query(Criteria.where("createdAt").lt(LocalDateTime.now().minusMinutes(1))), Reservation.class));
+        return queries;
+    }
+
+    @TestFactory
+    Stream<DynamicTest> everyRepositoryQueryUsesAnIndex() {
+        return queries().entrySet().stream().map(query -> DynamicTest.dynamicTest(query.getKey(), () -> {
+            captured.clear();
+            query.getValue().run();
+            assertFalse(captured.isEmpty(), "no commands sent by " + query.getKey());
+            for (BsonDocument command : new ArrayList<>(captured)) {
+                for (BsonDocument explainable : singleStatements(command)) {
+                    BsonDocument explain = client.getDatabase(DATABASE).runCommand(
+                            new BsonDocument("explain", explainable).append("verbosity", new BsonString("queryPlanner")),
+                            BsonDocument.class);
+                    List<BsonDocument> plans = new ArrayList<>();
+                    winningPlans(explain, plans);
+                    assertFalse(plans.isEmpty(), "no winning plan for " + explainable);
+                    if (!ALLOWED_COLLSCANS.containsKey(query.getKey())) {
+                        assertTrue(plans.stream().noneMatch(QueryPlanTests::scansCollection),
+                                query.getKey() + " scans the collection: " + explainable);
+                    }
+                }
+            }
+        }));
+    }
+
+    @Test
+    void everyRepositoryMethodIsExplained() {
+        Set<String> declared = new LinkedHashSet<>();
+        for (Class<?> repository : List.of(ProductRepository.class, ProductRepositoryCustom.class,
+                ReservationRepository.class, CategoryRepository.class)) {
+            Arrays.stream(repository.getDeclaredMethods())
+                    .filter(method -> !method.isDefault() && !method.isSynthetic() && !Modifier.isStatic(method.getModifiers()))
+                    .map(Method::getName)
+                    .forEach(declared::add);
+        }
+        assertTrue(queries().keySet().containsAll(declared), "not explained: " + declared);
+    }
+
+    /**
+     * The command as explain accepts it: generic fields dropped, one statement per update / delete.
+     */
+    private static List<BsonDocument> singleStatements(BsonDocument command) {
+        BsonDocument base = new BsonDocument();
+        command.forEach((key, value) -> {
+            if (!key.startsWith("$") && !key.equals("lsid") && !key.equals("txnNumber")) {
+                base.append(key, value);
+            }
+        });
+        for (String statements : List.of("updates", "deletes")) {
+            if (base.containsKey(statements)) {
+                List<BsonDocument> single = new ArrayList<>();
+                for (BsonValue statement : base.getArray(statements)) {
+                    BsonDocument one = base.clone();
+                    one.put(statements, new BsonArray(List.of(statement)));
+                    single.add(one);
+                }
+                return single;
+            }
+        }
+        return List.of(base);
+    }
+
+    private static void winningPlans(BsonValue node, List<BsonDocument> plans) {
+        if (node.isDocument()) {
+            node.asDocument().forEach((key, value) -> {
+                if (key.equals("winningPlan") && value.isDocument()) {
+                    plans.add(value.asDocument());
+                } else {
+                    winningPlans(value, plans);
+                }
+            });
+        } else if (node.isArray()) {
+            node.asArray().forEach(value -> winningPlans(value, plans));
+        }
+    }
+
+    private static boolean scansCollection(BsonValue node) {
+        if (node.isDocument()) {
+            BsonValue stage = node.asDocument().get("stage");
+            if (stage != null && stage.isString() && stage.asString().getValue().equals("COLLSCAN")) {
+                return true;
+            }
+            return node.asDocument().values().stream().anyMatch(QueryPlanTests::scansCollection);
+        }
+        return node.isArray() && node.asArray().stream().anyMatch(QueryPlanTests::scansCollection);
+    }
+
+    private static void seed() {
+        List<Product> seeded = new ArrayList<>();
+        for (int i = 1; i <= 200; i++) {
+            seeded.add(Product.builder()
+                    .name("Desk lamp " + i)
+                    .description("Lamp number " + i)
+                    .price(new BigDecimal(5 + i % 100))
+                    .quantity(10)
+                    .userId("seller-" + (i % 5))
+                    .categoryId("category-" + (i % 8))
+                    .build());
+        }
+        mongoTemplate.insert(seeded, Product.class);
+
+        List<Reservation> held = new ArrayList<>();
+        for (int i = 1; i <= 50; i++) {
+            held.add(Reservation.builder().productId("product-" + i).quantity(1)
+                    .orderNumber(String.format("ORD-%04d", i)).createdAt(LocalDateTime.now().minusMinutes(i % 3)).build());
+        }
+        mongoTemplate.insert(held, Reservation.class);
+    }
+}
@@ -0,0 +1,127 @@
+package com.buyone.productservice.repository.index;
+
+import com.buyone.productservice.config.MongoConversionsConfig;
+import com.buyone.productservice.model.Product;
+import com.buyone.productservice.model.Reservation;
+import com.mongodb.MongoException;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.OrderUtils;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.UncategorizedMongoDbException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class IndexRegistryTests {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private IndexOperations indexOps;
+
+    private static final RequiredIndex PRICE = new RequiredIndex("products",
+            new Index().on("price", Sort.Direction.ASC).on("_id", Sort.Direction.ASC).named("price_id"));
+    private static final RequiredIndex USER = new RequiredIndex("products",
+            new Index().on("userId", Sort.Direction.ASC).named("userId"));
+
+    @Mock
+    private IndexOperations reservationIndexes;
+
+    @Test
+    void runsBeforeTheStartupMigrations() {
+        assertEquals(Ordered.HIGHEST_PRECEDENCE, OrderUtils.getOrder(IndexRegistry.class));
+    }
+
+    @Test
+    void ensureAll_createsInTheBackground_thenDropsRetiredIndexesThatStillExist() {
+        when(mongoTemplate.indexOps("products")).thenReturn(indexOps);
+        when(mongoTemplate.indexOps("reservations")).thenReturn(reservationIndexes);
+        when(indexOps.getIndexInfo()).thenReturn(List.of(info("_id_"), info("price_id"), info("userId")));
+        when(reservationIndexes.getIndexInfo()).thenReturn(List.of(info("_id_"), info("createdAt")));
+        IndexRegistry registry = new IndexRegistry(mongoTemplate, List.of(PRICE, USER),
+                Map.of("reservations", List.of("createdAt"), "products", List.of("price")));
+
+        registry.ensureAll();
+
+        ArgumentCaptor<IndexDefinition> created = ArgumentCaptor.forClass(IndexDefinition.class);
+        verify(indexOps, times(2)).ensureIndex(created.capture());
+        assertEquals(true, created.getAllValues().get(0).getIndexOptions().get("background"));
+        verify(reservationIndexes).dropIndex("createdAt");
+        verify(indexOps, never()).dropIndex(anyString());  // "price" is already gone
+        assertEquals(List.of(), registry.missing());
+    }
+
+    @Test
+    void ensureAll_failsStartupOnAConflict_afterTryingTheOtherIndexes() {
+        when(mongoTemplate.indexOps("products")).thenReturn(indexOps);
+        when(indexOps.ensureIndex(any(IndexDefinition.class)))
+                .thenThrow(new UncategorizedMongoDbException("conflict", new MongoException(85, "IndexOptionsConflict")))
+                .thenReturn("userId");
+        when(indexOps.getIndexInfo()).thenReturn(List.of(info("_id_"), info("userId")));
+        IndexRegistry registry = new IndexRegistry(mongoTemplate, List.of(PRICE, USER),
+                Map.of("products", List.of("price")));
+
+        IllegalStateException failure = assertThrows(IllegalStateException.class, registry::ensureAll);
+
+        assertTrue(failure.getMessage().contains("products.price_id"));
+        verify(indexOps, times(2)).ensureIndex(any(IndexDefinition.class));
+        verify(indexOps, never()).dropIndex(anyString());  // nothing retired while a successor is missing
+        assertEquals(List.of(PRICE), registry.missing());
+    }
+
+    @Test
+    void ensureAll_toleratesABuildAlreadyRunningOnAnotherInstance() {
+        when(mongoTemplate.indexOps("products")).thenReturn(indexOps);
+        when(indexOps.ensureIndex(any(IndexDefinition.class)))
+                .thenThrow(new UncategorizedMongoDbException("busy", new MongoException(276, "IndexBuildAlreadyInProgress")))
+                .thenReturn("userId");
+        when(indexOps.getIndexInfo()).thenReturn(List.of(info("_id_"), info("userId")));
+        IndexRegistry registry = new IndexRegistry(mongoTemplate, List.of(PRICE, USER), Map.of());
+
+        registry.ensureAll();
+
+        assertEquals(List.of(PRICE), registry.missing());
+    }
+
+    @Test
+    void fromEntities_resolvesProductAndReservationIndexes() {
+        MongoMappingContext context = new MongoMappingContext();
+        context.setSimpleTypeHolder(new MongoConversionsConfig().mongoCustomConversions().getSimpleTypeHolder());
+        List<RequiredIndex> indexes = IndexRegistry.fromEntities(context, Product.class, Reservation.class);
+
+        assertEquals(List.of("products.categoryId_id", "products.categoryId_price_id", "products.price_id", "products.userId",
+                        "reservations.createdAt_cleanup", "reservations.orderNumber"),
+                indexes.stream().map(RequiredIndex::toString).sorted().toList());
+        RequiredIndex categoryPrice = indexes.stream()
+                .filter(index -> index.name().equals("categoryId_price_id")).findFirst().orElseThrow();
+        assertEquals(new Document("categoryId", 1).append("price", 1).append("_id", 1),
+                categoryPrice.definition().getIndexKeys());
+        // Reservations must be released before they go away: no TTL
+        RequiredIndex createdAt = indexes.stream()
+                .filter(index -> index.name().equals("createdAt_cleanup")).findFirst().orElseThrow();
+        assertFalse(createdAt.definition().getIndexOptions().containsKey("expireAfterSeconds"));
+    }
+
+    private static IndexInfo info(String name) {
+        return new IndexInfo(List.of(), name, false, false, null);
+    }
+}
@@ -0,0 +1,124 @@
+package com.buyone.productservice.repository.routing;
+
+import com.buyone.productservice.model.ProductSort;
+import com.buyone.productservice.repository.ProductRepository;
+import com.mongodb.ReadPreference;
+import com.mongodb.ServerAddress;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.connection.ClusterId;
+import com.mongodb.connection.ConnectionDescription;
+import com.mongodb.connection.ConnectionId;
+import com.mongodb.connection.ServerId;
+import com.mongodb.connection.ServerType;
+import com.mongodb.event.CommandSucceededEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.aopalliance.intercept.MethodInvocation;
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.repository.ListCrudRepository;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.lang.reflect.Method;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+/**
+ * Routing as wired for ProductRepository: catalog listing and search go to a secondary,
+ * stock and seller reads stay on the primary.
+ */
+class ProductReadRoutingTests {
+
+    private static final ReadPreference SECONDARY = ReadPreference.secondaryPreferred(90, TimeUnit.SECONDS);
+    private static final String SEARCH = "ProductRepository.searchProducts";
+
+    private final ReadRouteInterceptor interceptor = new ReadRouteInterceptor(ProductRepository.class);
+
+    @AfterEach
+    void tearDown() {
+        ReadRoute.restore(null);
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+    }
+
+    private static Method search() throws NoSuchMethodException {
+        return ProductRepository.class.getMethod("searchProducts", String.class, BigDecimal.class, BigDecimal.class,
+                String.class, ProductSort.class, Pageable.class);
+    }
+
+    @Test
+    void catalogReads_areRouted_stockAndSellerReadsAreNot() throws Exception {
+        assertThat(interceptor.route(search())).contains(SEARCH);
+        assertThat(interceptor.route(ProductRepository.class.getMethod("countProducts", String.class,
+                BigDecimal.class, BigDecimal.class, String.class))).contains("ProductRepository.countProducts");
+        // Callers typed against the Spring Data base interface still hit ProductRepository's redeclaration
+        assertThat(interceptor.route(ListCrudRepository.class.getMethod("findAll"))).contains("ProductRepository.findAll");
+
+        assertThat(interceptor.route(ProductRepository.class.getMethod("findById", Object.class))).isEmpty();
+        assertThat(interceptor.route(ProductRepository.class.getMethod("findByUserId", String.class))).isEmpty();
+    }
+
+    @Test
+    void invoke_bindsRouteForTheSearch_andRestoresItWhenTheSearchFails() throws Throwable {
+        MethodInvocation failing = mock(MethodInvocation.class);
+        when(failing.getMethod()).thenReturn(search());
+        when(failing.proceed()).thenAnswer(i -> {
+            assertThat(ReadRoute.current()).isEqualTo(SEARCH);
+            throw new IllegalStateException("boom");
+        });
+
+        assertThatThrownBy(() -> interceptor.invoke(failing)).isInstanceOf(IllegalStateException.class);
+        assertThat(ReadRoute.current()).isNull();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void template_readsSearchFromSecondary_butStockUpdatesInATransactionFromPrimary() {
+        ReadRoutingMongoTemplate template = new ReadRoutingMongoTemplate(mock(MongoDatabaseFactory.class),
+                new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, new MongoMappingContext()), SECONDARY);
+        MongoCollection<Document> products = mock(MongoCollection.class);
+        MongoCollection<Document> secondary = mock(MongoCollection.class);
+        when(products.withReadPreference(SECONDARY)).thenReturn(secondary);
+
+        assertThat(template.prepareCollection(products)).isSameAs(products);
+        ReadRoute.bind(SEARCH);
+        assertThat(template.prepareCollection(products)).isSameAs(secondary);
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        assertThat(template.prepareCollection(products)).isSameAs(products);
+    }
+
+    @Test
+    void metrics_countSearchReadsPerServer_andIgnoreStockWrites() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        ReadRoutingMetrics metrics = new ReadRoutingMetrics(registry);
+
+        ReadRoute.bind(SEARCH);
+        metrics.commandSucceeded(succeeded("find", ServerType.REPLICA_SET_SECONDARY));
+        ReadRoute.restore(null);
+        metrics.commandSucceeded(succeeded("find", ServerType.REPLICA_SET_PRIMARY));
+        metrics.commandSucceeded(succeeded("update", ServerType.REPLICA_SET_PRIMARY));
+
+        assertThat(registry.get(ReadRoutingMetrics.METRIC).tags("route", SEARCH, "server", "secondary")
+                .counter().count()).isEqualTo(1);
+        assertThat(registry.get(ReadRoutingMetrics.METRIC).tags("route", ReadRoutingMetrics.DEFAULT_ROUTE,
+                "server", "primary").counter().count()).isEqualTo(1);
+        assertThat(registry.find(ReadRoutingMetrics.METRIC).counters()).hasSize(2);
+    }
+
+    private static CommandSucceededEvent succeeded(String command, ServerType serverType) {
+        ConnectionDescription connection = new ConnectionDescription(
+                new ConnectionId(new ServerId(new ClusterId(), new ServerAddress())),
+                17, serverType, 1000, 16 * 1024 * 1024, 48 * 1024 * 1024, List.of());
+        return new CommandSucceededEvent(null, 1, connection, command, new BsonDocument(), 1_000L);
+    }
+}
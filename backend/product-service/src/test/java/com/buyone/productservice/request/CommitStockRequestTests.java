@@ -0,0 +1,31 @@
+package com.buyone.productservice.request;
+
+import org.junit.jupiter.api.Test;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ConstraintViolation;
+import java.util.List;
+import java.util.Set;
+import static org.junit.jupiter.api.Assertions.*;
+
+class CommitStockRequestTests {
+
+    private final Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+
+    @Test
+    void testAllArgsConstructor() {
+        CommitStockRequest request = new CommitStockRequest(List.of("ORD-1", "ORD-2"));
+
+        assertEquals(List.of("ORD-1", "ORD-2"), request.getOrderNumbers());
+    }
+
+    @Test
+    void testValidation_emptyOrderNumbers() {
+        CommitStockRequest request = new CommitStockRequest(List.of());
+
+        Set<ConstraintViolation<CommitStockRequest>> violations = validator.validate(request);
+
+        assertFalse(violations.isEmpty());
+        assertEquals("Order numbers are required", violations.iterator().next().getMessage());
+    }
+}
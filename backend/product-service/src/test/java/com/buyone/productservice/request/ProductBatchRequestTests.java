@@ -0,0 +1,41 @@
+package com.buyone.productservice.request;
+
+import org.junit.jupiter.api.Test;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ConstraintViolation;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductBatchRequestTests {
+
+    private final Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+
+    @Test
+    void testAllArgsConstructor() {
+        ProductBatchRequest request = new ProductBatchRequest(List.of("p1", "p2"));
+
+        assertEquals(List.of("p1", "p2"), request.getIds());
+    }
+
+    @Test
+    void testValidation_emptyIds() {
+        ProductBatchRequest request = new ProductBatchRequest(List.of());
+
+        Set<ConstraintViolation<ProductBatchRequest>> violations = validator.validate(request);
+
+        assertFalse(violations.isEmpty());
+        assertEquals("Product IDs are required", violations.iterator().next().getMessage());
+    }
+
+    @Test
+    void testValidation_tooManyIds() {
+        ProductBatchRequest request = new ProductBatchRequest(Collections.nCopies(101, "p1"));
+
+        Set<ConstraintViolation<ProductBatchRequest>> violations = validator.validate(request);
+
+        assertEquals(1, violations.size());
+    }
+}
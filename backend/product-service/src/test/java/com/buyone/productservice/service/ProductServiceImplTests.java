@@ -5,12 +5,14 @@ import com.buyone.productservice.exception.ConflictException;
 import com.buyone.productservice.exception.ForbiddenException;
 import com.buyone.productservice.exception.ProductNotFoundException;
 import com.buyone.productservice.model.Product;
+import com.buyone.productservice.model.ProductSort;
 import com.buyone.productservice.model.Reservation;
 import com.buyone.productservice.repository.ProductRepository;
 import com.buyone.productservice.repository.ReservationRepository;
 import com.buyone.productservice.request.CreateProductRequest;
 import com.buyone.productservice.request.UpdateProductRequest;
 import com.buyone.productservice.response.ProductResponse;
+import com.buyone.productservice.response.SliceResponse;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -24,6 +26,7 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.test.util.ReflectionTestUtils;
 
@@ -38,7 +41,9 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -132,6 +137,17 @@ class ProductServiceImplTests {
                 .hasMessageContaining("Product not found with ID");
     }
     
+    @Test
+    void getProductsByIds_looksUpDistinctIdsInOneQuery() {
+        Product p1 = Product.builder().id("p1").name("A").build();
+        when(productRepository.findAllById(List.of("p1", "p2"))).thenReturn(List.of(p1));
+        
+        List<ProductResponse> result = productService.getProductsByIds(List.of("p1", "p2", "p1"));
+        
+        assertThat(result).extracting(ProductResponse::getId).containsExactly("p1");
+        verify(productRepository).findAllById(List.of("p1", "p2"));
+    }
+    
     @Test
     void getAllProducts_returnsList_whenExists() {
         Product p1 = Product.builder().id("p1").name("A").build();
@@ -337,6 +353,12 @@ class ProductServiceImplTests {
         verify(reservationRepository).deleteByOrderNumber("ORD-001");
     }
     
+    @Test
+    void commitReservations_batch_deletesAllInOneCall() {
+        productService.commitReservations(List.of("ORD-001", "ORD-002"));
+        verify(reservationRepository).deleteByOrderNumberIn(List.of("ORD-001", "ORD-002"));
+    }
+    
     // ========== SEARCH PRODUCTS ==========
     
     @Test
@@ -345,26 +367,72 @@ class ProductServiceImplTests {
         Product p = Product.builder()
                 .id("p1").name("Laptop").price(BigDecimal.valueOf(999))
                 .userId("seller-1").quantity(5).build();
-        when(productRepository.findByFacetedSearch(
-                eq("laptop"), any(BigDecimal.class), any(BigDecimal.class), eq("electronics"), eq(pageable)))
+        when(productRepository.searchProducts(eq("laptop"), eq(BigDecimal.valueOf(100)), eq(BigDecimal.valueOf(2000)),
+                eq("electronics"), eq(ProductSort.PRICE_ASC), eq(pageable)))
                 .thenReturn(new PageImpl<>(List.of(p)));
         
         Page<ProductResponse> result = productService.searchProducts(
-                "laptop", BigDecimal.valueOf(100), BigDecimal.valueOf(2000), "electronics", pageable);
+                "laptop", BigDecimal.valueOf(100), BigDecimal.valueOf(2000), "electronics", "price_asc", pageable);
         
         assertThat(result.getContent()).hasSize(1);
         assertThat(result.getContent().get(0).getName()).isEqualTo("Laptop");
     }
     
     @Test
-    void searchProducts_usesDefaults_whenNullParams() {
+    void searchProducts_passesAbsentFiltersAsNull_andSortsNewestByDefault() {
         Pageable pageable = PageRequest.of(0, 10);
-        when(productRepository.findByFacetedSearch(
-                eq(""), eq(BigDecimal.ZERO), any(BigDecimal.class), eq(null), eq(pageable)))
+        when(productRepository.searchProducts(null, null, null, null, ProductSort.NEWEST, pageable))
                 .thenReturn(new PageImpl<>(List.of()));
         
-        Page<ProductResponse> result = productService.searchProducts(null, null, null, null, pageable);
+        Page<ProductResponse> result = productService.searchProducts(null, null, null, null, null, pageable);
         
         assertThat(result.getContent()).isEmpty();
     }
+    
+    @Test
+    void searchProducts_rejectsUnknownSort() {
+        assertThatThrownBy(() -> productService.searchProducts(null, null, null, null, "cheapest", PageRequest.of(0, 10)))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("cheapest");
+        verifyNoInteractions(productRepository);
+    }
+    
+    @Test
+    void searchProducts_rejectsInvertedPriceRange() {
+        assertThatThrownBy(() -> productService.searchProducts(
+                null, BigDecimal.valueOf(50), BigDecimal.valueOf(10), null, null, PageRequest.of(0, 10)))
+                .isInstanceOf(BadRequestException.class);
+        verifyNoInteractions(productRepository);
+    }
+    
+    @Test
+    void searchProductSlice_skipsCountUnlessTotalRequested() {
+        Pageable pageable = PageRequest.of(2, 1);
+        Product p = Product.builder().id("p1").name("Lamp").price(BigDecimal.TEN).userId("seller-1").quantity(1).build();
+        when(productRepository.searchProductSlice("lamp", null, null, null, ProductSort.NEWEST, pageable))
+                .thenReturn(new SliceImpl<>(List.of(p), pageable, true));
+        
+        SliceResponse<ProductResponse> result = productService.searchProductSlice(
+                "lamp", null, null, null, null, pageable, false);
+        
+        assertThat(result.getItems()).extracting(ProductResponse::getName).containsExactly("Lamp");
+        assertThat(result.getPage()).isEqualTo(2);
+        assertThat(result.isHasNext()).isTrue();
+        assertThat(result.getTotal()).isNull();
+        verify(productRepository, never()).countProducts(any(), any(), any(), any());
+    }
+    
+    @Test
+    void searchProductSlice_withTotal_countsSameFilters() {
+        Pageable pageable = PageRequest.of(0, 10);
+        when(productRepository.searchProductSlice(null, BigDecimal.ONE, null, "cat-1", ProductSort.PRICE_DESC, pageable))
+                .thenReturn(new SliceImpl<>(List.of(), pageable, false));
+        when(productRepository.countProducts(null, BigDecimal.ONE, null, "cat-1")).thenReturn(0L);
+        
+        SliceResponse<ProductResponse> result = productService.searchProductSlice(
+                null, BigDecimal.ONE, null, "cat-1", "price_desc", pageable, true);
+        
+        assertThat(result.getTotal()).isZero();
+        assertThat(result.isHasNext()).isFalse();
+    }
 }